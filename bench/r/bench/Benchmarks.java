@@ -0,0 +1,169 @@
+package r.bench;
+
+import java.io.*;
+import java.util.*;
+import java.util.regex.*;
+
+import r.*;
+
+/** Runs the shootout and Benchmark 25 scripts with warmup and measurement iterations and reports throughput, allocation
+ * rate and peak heap per benchmark.
+ *
+ * Each script is parsed once and then evaluated repeatedly via {@link RContext#eval}. The output of the benchmarks is
+ * discarded. Run with "ant bench", or directly via the r.bench.Benchmarks class (see -? for options).
+ */
+public class Benchmarks {
+
+    static int warmupIterations = 5;
+    static int measurementIterations = 10;
+    static Pattern filter = null;
+    static PrintStream report = System.out;
+    static boolean verbose = false;
+
+    static Option[] options = new Option[]{
+            //
+            new Option.Text("FastR benchmark runner"), //
+            new Option("-wi", "Number of warmup iterations", 1) {
+
+                @Override protected void processOption(String name, String[] opts) {
+                    warmupIterations = Integer.parseInt(opts[0]);
+                }
+            }, //
+            new Option("-i", "Number of measurement iterations", 1) {
+
+                @Override protected void processOption(String name, String[] opts) {
+                    measurementIterations = Integer.parseInt(opts[0]);
+                }
+            }, //
+            new Option("-bm", "Only run benchmarks matching regular expression (on group/name)", 1) {
+
+                @Override protected void processOption(String name, String[] opts) {
+                    filter = Pattern.compile(opts[0]);
+                }
+            }, //
+            new Option("-o", "Write the report to the given file", 1) {
+
+                @Override protected void processOption(String name, String[] opts) throws IOException {
+                    report = new PrintStream(new FileOutputStream(opts[0]));
+                }
+            }, //
+            new Option("-l", "List benchmarks and exit") {
+
+                @Override protected void processOption(String name, String[] opts) {
+                    for (RBenchmark b : benchmarks()) {
+                        System.out.println(b);
+                    }
+                    System.exit(0);
+                }
+            }, //
+            new Option("-v", "Report each iteration") {
+
+                @Override protected void processOption(String name, String[] opts) {
+                    verbose = true;
+                }
+            }, //
+            new Option.Help() {
+
+                @Override protected void processOption(String name, String[] opts) {
+                    Option.Help.displayHelp(System.out, options, 0);
+                }
+            }
+    //
+    };
+
+    // sizes are chosen so that a single run takes roughly a second in the interpreter
+    static List<RBenchmark> benchmarks() {
+        List<RBenchmark> l = new ArrayList<>();
+        l.add(RBenchmark.shootout("binarytrees", "binarytrees", 12));
+        l.add(RBenchmark.shootout("binarytrees", "binarytrees-2", 12));
+        l.add(RBenchmark.shootout("fannkuch", "fannkuchredux", 8));
+        l.add(RBenchmark.shootout("fasta", "fasta", 25000));
+        l.add(RBenchmark.shootout("fasta", "fasta-2", 25000));
+        l.add(RBenchmark.shootout("fastaredux", "fastaredux", 25000));
+        l.add(RBenchmark.shootoutWithInput("knucleotide", "knucleotide", 10000));
+        l.add(RBenchmark.shootout("mandelbrot", "mandelbrot-noout", 200));
+        l.add(RBenchmark.shootout("nbody", "nbody", 20000));
+        l.add(RBenchmark.shootout("nbody", "nbody-2", 20000));
+        l.add(RBenchmark.shootout("nbody", "nbody-3", 20000));
+        l.add(RBenchmark.shootout("pidigits", "pidigits", 100));
+        l.add(RBenchmark.shootoutWithInput("regexdna", "regexdna", 10000));
+        l.add(RBenchmark.shootoutWithInput("reversecomplement", "reversecomplement", 10000));
+        l.add(RBenchmark.shootout("spectralnorm", "spectralnorm", 100));
+        l.add(RBenchmark.shootout("spectralnorm", "spectralnorm-math", 500));
+        for (String kind : new String[]{"matcal", "matfunc", "prog"}) {
+            for (int i = 1; i <= 5; i++) {
+                l.add(RBenchmark.b25("b25-" + kind + "-" + i, 1));
+            }
+        }
+        return l;
+    }
+
+    static Measurement measure(RBenchmark b) throws Exception {
+        PrintStream oldOut = System.out;
+        PrintStream nullOut = new PrintStream(new OutputStream() {
+            @Override public void write(int b) {}
+            @Override public void write(byte[] b, int off, int len) {}
+        });
+        Measurement m = new Measurement(b.toString());
+        b.setup();
+        try {
+            System.setOut(nullOut);
+            for (int i = 0; i < warmupIterations; i++) {
+                m.start();
+                b.run();
+                m.stop();
+                if (verbose) {
+                    System.err.println(String.format("# Warmup Iteration %3d: %.3f ms, %d bytes", i + 1, m.lastTime() / 1e6, m.lastAllocated()));
+                }
+            }
+            m = new Measurement(b.toString()); // discard warmup
+            System.gc();
+            Measurement.resetPeakHeap();
+            for (int i = 0; i < measurementIterations; i++) {
+                m.start();
+                b.run();
+                m.stop();
+                if (verbose) {
+                    System.err.println(String.format("Iteration %3d: %.3f ms, %d bytes", i + 1, m.lastTime() / 1e6, m.lastAllocated()));
+                }
+            }
+            m.finish();
+        } finally {
+            System.setOut(oldOut);
+            b.tearDown();
+        }
+        return m;
+    }
+
+    public static void main(String[] args) {
+        try {
+            Option.processCommandLine(args, options);
+        } catch (Exception e) {
+            System.err.println("Invalid options: " + e);
+            return;
+        }
+        List<Measurement> results = new ArrayList<>();
+        for (RBenchmark b : benchmarks()) {
+            if (filter != null && !filter.matcher(b.toString()).find()) {
+                continue;
+            }
+            if (!b.isAvailable()) {
+                System.err.println("NOT running " + b + " as GNUR is not available.");
+                continue;
+            }
+            System.err.println("# Benchmark: " + b + " (" + warmupIterations + " warmup, " + measurementIterations + " measurement iterations)");
+            try {
+                Measurement m = measure(b);
+                System.err.println(m.summary());
+                results.add(m);
+            } catch (Exception e) {
+                System.err.println("Benchmark " + b + " failed: " + e);
+            }
+        }
+        report.println(Measurement.header());
+        for (Measurement m : results) {
+            report.println(m.summary());
+        }
+        report.flush();
+    }
+}
@@ -0,0 +1,162 @@
+package r.bench;
+
+import java.lang.management.*;
+import java.util.*;
+
+/** Collects time, allocation and heap usage of benchmark iterations.
+ *
+ * Allocation is measured per thread using the HotSpot extension of {@link ThreadMXBean} (the same source the JMH gc
+ * profiler uses), peak heap is the sum of the peak usages of all heap memory pools, which are reset before each
+ * benchmark.
+ */
+public class Measurement {
+
+    static final com.sun.management.ThreadMXBean threadBean = threadBean();
+
+    final String benchmark;
+    final ArrayList<Long> times = new ArrayList<>();
+    final ArrayList<Long> allocations = new ArrayList<>();
+    long gcCount;
+    long gcTime;
+    long peakHeap;
+
+    long startTime;
+    long startAllocated;
+    long startGcCount;
+    long startGcTime;
+
+    public Measurement(String benchmark) {
+        this.benchmark = benchmark;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean b = (com.sun.management.ThreadMXBean) bean;
+            if (b.isThreadAllocatedMemorySupported()) {
+                b.setThreadAllocatedMemoryEnabled(true);
+                return b;
+            }
+        }
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        return threadBean == null ? -1 : threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    public static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+
+    public void start() {
+        startGcCount = gcCount();
+        startGcTime = gcTime();
+        startAllocated = allocatedBytes();
+        startTime = System.nanoTime();
+    }
+
+    public void stop() {
+        long time = System.nanoTime() - startTime;
+        long allocated = allocatedBytes() - startAllocated;
+        times.add(time);
+        allocations.add(allocated);
+        gcCount += gcCount() - startGcCount;
+        gcTime += gcTime() - startGcTime;
+    }
+
+    public void finish() {
+        peakHeap = peakHeap();
+    }
+
+    public long lastTime() {
+        return times.get(times.size() - 1);
+    }
+
+    public long lastAllocated() {
+        return allocations.get(allocations.size() - 1);
+    }
+
+    public long totalTime() {
+        long sum = 0;
+        for (long t : times) {
+            sum += t;
+        }
+        return sum;
+    }
+
+    public long totalAllocated() {
+        long sum = 0;
+        for (long a : allocations) {
+            sum += a;
+        }
+        return sum;
+    }
+
+    /** Runs per second. */
+    public double throughput() {
+        return times.size() / (totalTime() / 1e9);
+    }
+
+    public double stdevThroughput() {
+        int n = times.size();
+        if (n < 2) {
+            return 0;
+        }
+        double mean = throughput();
+        double sum = 0;
+        for (long t : times) {
+            double d = 1e9 / t - mean;
+            sum += d * d;
+        }
+        return Math.sqrt(sum / (n - 1));
+    }
+
+    /** Allocation rate in MB/s. */
+    public double allocationRate() {
+        return totalAllocated() / (1024.0 * 1024.0) / (totalTime() / 1e9);
+    }
+
+    /** Allocated bytes per run. */
+    public double allocationNorm() {
+        return (double) totalAllocated() / times.size();
+    }
+
+    public static String header() {
+        return String.format("%-32s %5s %14s %12s %14s %16s %8s %10s %12s", "Benchmark", "Cnt", "Score(ops/s)", "Error", "alloc.rate(MB/s)", "alloc.norm(B/op)", "gc.count", "gc.time(ms)", "peak.heap(MB)");
+    }
+
+    public String summary() {
+        return String.format("%-32s %5d %14.4f %12.4f %14.2f %16.0f %8d %10d %12.2f", benchmark, times.size(), throughput(), stdevThroughput(), allocationRate(), allocationNorm(), gcCount, gcTime, peakHeap / (1024.0 * 1024.0));
+    }
+}
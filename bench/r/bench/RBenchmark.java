@@ -0,0 +1,113 @@
+package r.bench;
+
+import java.io.*;
+
+import org.antlr.runtime.*;
+
+import r.*;
+import r.Console;
+import r.data.*;
+import r.nodes.*;
+
+/** A single R script benchmark. The script is parsed once, each invocation of {@link #run()} evaluates the parsed tree
+ * through {@link RContext#eval(ASTNode)} with the stored command line arguments.
+ */
+public class RBenchmark {
+
+    final String name;
+    final String group;
+    final String sourceFile;
+    final String[] args;
+    final boolean needsGNUR;
+
+    ASTNode tree;
+    String inputFile; // when not null, the input is generated by fastaredux before the first run
+    int inputSize;
+
+    RBenchmark(String group, String name, String sourceFile, String[] args, boolean needsGNUR) {
+        this.group = group;
+        this.name = name;
+        this.sourceFile = sourceFile;
+        this.args = args;
+        this.needsGNUR = needsGNUR;
+    }
+
+    public static String shootoutFile(String benchDir, String benchFileBase) {
+        return "test" + File.separator + "r" + File.separator + "shootout" + File.separator + benchDir + File.separator + benchFileBase + ".r";
+    }
+
+    public static String b25File(String benchFileBase) {
+        return "test" + File.separator + "r" + File.separator + "benchmark25" + File.separator + "perf" + File.separator + benchFileBase + ".r";
+    }
+
+    // shootouts that take an integer size as input
+    public static RBenchmark shootout(String benchDir, String benchFileBase, int size) {
+        return new RBenchmark("shootout", benchFileBase, shootoutFile(benchDir, benchFileBase), new String[] {"--args", Integer.toString(size)}, false);
+    }
+
+    // shootouts that take an input file generated by fastaredux of the given size
+    public static RBenchmark shootoutWithInput(String benchDir, String benchFileBase, int fastaSize) {
+        String input = ".tmp.bench." + benchFileBase + "." + fastaSize + ".input";
+        RBenchmark b = new RBenchmark("shootout", benchFileBase, shootoutFile(benchDir, benchFileBase), new String[] {"--args", input}, false);
+        b.inputFile = input;
+        b.inputSize = fastaSize;
+        return b;
+    }
+
+    public static RBenchmark b25(String benchFileBase, int runs) {
+        return new RBenchmark("b25", benchFileBase, b25File(benchFileBase), new String[] {"--args", Integer.toString(runs)}, true);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String group() {
+        return group;
+    }
+
+    public boolean isAvailable() {
+        return !needsGNUR || RContext.hasGNUR();
+    }
+
+    /** Generates the input file (if any) and parses the script. Must be called once before {@link #run()}. */
+    public void setup() throws IOException, RecognitionException {
+        if (inputFile != null && !new File(inputFile).exists()) {
+            RBenchmark generator = shootout("fastaredux", "fastaredux", inputSize);
+            generator.setup();
+            PrintStream oldOut = System.out;
+            PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(inputFile)));
+            System.setOut(out);
+            try {
+                generator.run();
+            } finally {
+                out.close();
+                System.setOut(oldOut);
+            }
+        }
+        tree = RContext.parseFile(new ANTLRFileStream(sourceFile));
+        if (tree == null) {
+            throw new IOException("Cannot parse " + sourceFile);
+        }
+    }
+
+    /** Evaluates the parsed script once. Top-level bindings are reset afterwards, so that each run starts fresh. */
+    public RAny run() {
+        Console.storeCommandLineArguments(args);
+        try {
+            return RContext.eval(tree, false);
+        } finally {
+            RSymbol.resetTable();
+        }
+    }
+
+    public void tearDown() {
+        if (inputFile != null) {
+            new File(inputFile).delete();
+        }
+    }
+
+    @Override public String toString() {
+        return group + "/" + name;
+    }
+}
@@ -33,6 +33,7 @@ public class Console {
     static boolean interactive;
     static boolean forceVisible;
     static boolean debuggingFormat;
+    static int rewriteThreshold = -1; // print the summary of node rewrites at exit when not negative, see RewriteTrace
 
     static Option[] options = new Option[]{
             //
@@ -68,6 +69,26 @@ public class Console {
                     new Scanner(System.in).nextLine();
                 }
             }, //
+            new Option("--trace-rewrites", "Trace node rewrites, report sites rewritten more than N times or that have been generic", 1) {
+
+                @Override protected void processOption(String name, String[] opts) {
+                    rewriteThreshold = RewriteTrace.DEFAULT_THRESHOLD; // a missing parameter has been reported already
+                    if (opts[0] != null) {
+                        int threshold = -1;
+                        try {
+                            threshold = Integer.parseInt(opts[0]);
+                        } catch (NumberFormatException e) {
+                            // reported below
+                        }
+                        if (threshold >= 0) {
+                            rewriteThreshold = threshold;
+                        } else {
+                            System.err.println("Option '" + name + "' expects a non-negative integer, using " + RewriteTrace.DEFAULT_THRESHOLD);
+                        }
+                    }
+                    RewriteTrace.traceRewrites(true);
+                }
+            }, //
             new Option("--debug", "debug in 'text' or 'gui' mode", 1) {
 
                 @Override protected void processOption(String name, String[] opts) {
@@ -148,6 +169,9 @@ public class Console {
             }
         } catch (IOException e) {}
         long after = System.nanoTime();
+        if (rewriteThreshold >= 0) {
+            RewriteTrace.print(System.err, rewriteThreshold);
+        }
         long elapsed = after - before;
         System.err.println("\n" + (inputFile == null ? "(stdin)" : inputFile) + ": Elapsed " + (elapsed / 1000000L) + " microseconds");
     }
@@ -0,0 +1,223 @@
+package r;
+
+import java.util.*;
+
+import r.data.*;
+import r.data.internal.*;
+import r.nodes.*;
+import r.nodes.tools.*;
+
+/**
+ * Tracing of vector copies (tracemem and options(traceCopies=, logCopies=)).
+ *
+ * Two kinds of events are traced: the materialization of a view (see View) and the copy of a vector made by an update of
+ * some of its elements (x[i] <- v, x[[i]] <- v, x[i,j] <- v) because the vector is shared or its type changes. An event is
+ * attributed to a site, the AST of the innermost update, builtin call or matrix product being executed, which the nodes
+ * publish while tracing is on (see enterSite). Events outside any of those (e.g. printing) have no site. An update of a view
+ * that creates the new vector without materializing the view is recorded as a copy, with the class of the view.
+ *
+ * With traceCopies, the number of events and the bytes allocated for the new vectors are counted per site and kind of event,
+ * see copySites(). With logCopies, each event is also printed. A vector marked by tracemem(x) reports its copies, the copy is
+ * marked, too, so that later copies of the copy are reported as well. The messages go to the console output (see
+ * Console.println), after the state of the trace has been updated and the lock released.
+ *
+ * All this is only done while {@link #active}, otherwise the nodes and views only check that flag. The flag is cleared when
+ * nothing is counted or logged and no marked vector is left, also when the last one has been collected without untracemem
+ * (this is noticed at the next event).
+ */
+public final class MemoryTrace {
+
+    /** Whether events are traced, checked by the nodes and the views. */
+    public static volatile boolean active;
+
+    private static boolean count;
+    private static boolean log;
+    private static final Map<RAny, String> traced = new WeakHashMap<>(); // no value class overrides equals, so by identity
+    private static final Map<Site, long[]> sites = new HashMap<>();
+
+    public static final String MATERIALIZE = "materialize";
+    public static final String COPY = "copy";
+
+    // per thread, the current site and the result of the last materialization (see copied)
+    private static final ThreadLocal<Object[]> current = new ThreadLocal<Object[]>() {
+        @Override protected Object[] initialValue() {
+            return new Object[2];
+        }
+    };
+
+    static final class Site {
+        final ASTNode ast; // null when unknown
+        final String kind;
+
+        Site(ASTNode ast, String kind) {
+            this.ast = ast;
+            this.kind = kind;
+        }
+
+        @Override public int hashCode() {
+            return System.identityHashCode(ast) * 31 + kind.hashCode();
+        }
+
+        @Override public boolean equals(Object o) {
+            if (!(o instanceof Site)) {
+                return false;
+            }
+            Site s = (Site) o;
+            return s.ast == ast && s.kind.equals(kind);
+        }
+    }
+
+    public static synchronized boolean traceCopies(boolean on) {
+        boolean previous = count;
+        count = on;
+        updateActive();
+        return previous;
+    }
+
+    public static synchronized boolean logCopies(boolean on) {
+        boolean previous = log;
+        log = on;
+        updateActive();
+        return previous;
+    }
+
+    private static void updateActive() {
+        active = count || log || !traced.isEmpty();
+    }
+
+    /** Makes ast the site of the events until exitSite is called with the result. Only called when tracing is active. */
+    public static ASTNode enterSite(ASTNode ast) {
+        Object[] c = current.get();
+        ASTNode previous = (ASTNode) c[0];
+        c[0] = ast;
+        return previous;
+    }
+
+    public static void exitSite(ASTNode previous) {
+        current.get()[0] = previous;
+    }
+
+    /** Records that view has been materialized into result. Only called when tracing is active. */
+    public static void materialized(RArray view, RArray result) {
+        Object[] c = current.get();
+        c[1] = result;
+        print(record((ASTNode) c[0], MATERIALIZE + " " + view.getClass().getSimpleName(), view, result));
+    }
+
+    /** Records that an update at ast has copied base into result. Only called when tracing is active. */
+    public static void copied(ASTNode ast, RAny base, RAny result) {
+        Object[] c = current.get();
+        Object materialized = c[1];
+        c[1] = null;
+        if (base == result || result == materialized) {
+            return; // no copy, or a view materialized and then updated in place, which has been recorded as such
+        }
+        print(record(ast, base instanceof View ? COPY + " " + base.getClass().getSimpleName() : COPY, base, result));
+    }
+
+    private static void print(String[] messages) {
+        if (messages == null) {
+            return;
+        }
+        for (String m : messages) {
+            if (m != null) {
+                Console.println(m);
+            }
+        }
+    }
+
+    // updates the counts and the marks, returns the messages to print (or null)
+    private static synchronized String[] record(ASTNode ast, String kind, RAny from, RAny to) {
+        long bytes = bytes(to);
+        if (count) {
+            Site s = new Site(ast, kind);
+            long[] c = sites.get(s);
+            if (c == null) {
+                sites.put(s, new long[]{1, bytes});
+            } else {
+                c[0]++;
+                c[1] += bytes;
+            }
+        }
+        String logMessage = log ? kind + " of " + bytes + " bytes at " + siteName(ast) : null;
+        String traceMessage = null;
+        String mark = traced.isEmpty() ? null : traced.get(from);
+        if (mark != null) {
+            String toMark = address(to);
+            traced.put(to, toMark);
+            traceMessage = "tracemem[" + mark + " -> " + toMark + "]: " + siteName(ast);
+        } else if (!count && !log && traced.isEmpty()) {
+            updateActive(); // the marked vectors have been collected
+        }
+        return logMessage == null && traceMessage == null ? null : new String[]{logMessage, traceMessage};
+    }
+
+    /** The approximate size of the content of a vector in bytes (references count as 8 bytes). */
+    public static long bytes(RAny value) {
+        if (!(value instanceof RArray)) {
+            return 0;
+        }
+        long size = ((RArray) value).size();
+        if (value instanceof RDouble) {
+            return 8 * size;
+        }
+        if (value instanceof RInt || value instanceof RLogical) {
+            return 4 * size;
+        }
+        if (value instanceof RComplex) {
+            return 16 * size;
+        }
+        if (value instanceof RRaw) {
+            return size;
+        }
+        return 8 * size;
+    }
+
+    public static String siteName(ASTNode ast) {
+        return ast == null ? "<unknown>" : PrettyPrinter.prettyPrint(ast);
+    }
+
+    private static String address(RAny value) {
+        return "<0x" + Integer.toHexString(System.identityHashCode(value)) + ">";
+    }
+
+    /** Marks value to report its copies, returns its mark. */
+    public static synchronized String tracemem(RAny value) {
+        String mark = traced.get(value);
+        if (mark == null) {
+            mark = address(value);
+            traced.put(value, mark);
+            updateActive();
+        }
+        return mark;
+    }
+
+    public static synchronized void untracemem(RAny value) {
+        traced.remove(value);
+        updateActive();
+    }
+
+    /** A snapshot of the counts per site, the most bytes first, as {site, kind, count, bytes} entries. */
+    public static synchronized List<Object[]> sites(boolean reset) {
+        List<Object[]> res = new ArrayList<>();
+        for (Map.Entry<Site, long[]> e : sites.entrySet()) {
+            Site s = e.getKey();
+            res.add(new Object[]{siteName(s.ast), s.kind, e.getValue()[0], e.getValue()[1]});
+        }
+        Collections.sort(res, new Comparator<Object[]>() {
+            @Override public int compare(Object[] a, Object[] b) {
+                long ba = (Long) a[3];
+                long bb = (Long) b[3];
+                if (ba != bb) {
+                    return ba > bb ? -1 : 1;
+                }
+                int c = ((String) a[0]).compareTo((String) b[0]);
+                return c != 0 ? c : ((String) a[1]).compareTo((String) b[1]);
+            }
+        });
+        if (reset) {
+            sites.clear();
+        }
+        return res;
+    }
+}
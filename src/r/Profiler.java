@@ -0,0 +1,243 @@
+package r;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import r.data.*;
+import r.nodes.*;
+
+/**
+ * A sampling profiler of R function calls (Rprof).
+ *
+ * While profiling is on, each closure call pushes its function onto a call stack of the running thread (see
+ * FunctionImpl.execute). Only that thread writes its stack, the depth is published through a volatile field, so a push or a
+ * pop is a few stores and no lock. A sampler thread wakes up every interval, reads the stacks of all threads that run R code
+ * and counts each distinct stack. The counts are only updated by the sampler thread, and read when it has been stopped. The
+ * sample of a stack may be slightly off when it is read during a call or return, which does not matter for the statistics.
+ *
+ * When profiling stops, the counts are written in the "folded stacks" format of flame graph tools, one line per distinct
+ * stack, with the frames from the outermost call separated by ';', then a space and the number of samples.
+ */
+public final class Profiler {
+
+    /** Whether closure calls are recorded, checked on each call. */
+    public static volatile boolean active;
+
+    private static final int INITIAL_DEPTH = 64;
+    private static final String ANONYMOUS = "<anonymous>";
+
+    private static final ThreadLocal<CallStack> stacks = new ThreadLocal<CallStack>() {
+        @Override protected CallStack initialValue() {
+            CallStack s = new CallStack(Thread.currentThread());
+            threads.add(s);
+            return s;
+        }
+    };
+    private static final Queue<CallStack> threads = new ConcurrentLinkedQueue<>();
+
+    private static Sampler sampler; // guarded by Profiler.class
+
+    /** The active calls of one thread. */
+    public static final class CallStack {
+        final Thread thread;
+        RFunction[] functions = new RFunction[INITIAL_DEPTH];
+        volatile int depth;
+
+        CallStack(Thread thread) {
+            this.thread = thread;
+        }
+
+        public void exit() {
+            int d = depth - 1;
+            depth = d;
+            functions[d] = null; // do not keep the function reachable after the call
+        }
+
+        void enter(RFunction function) {
+            int d = depth;
+            RFunction[] f = functions;
+            if (d == f.length) {
+                f = Arrays.copyOf(f, 2 * d);
+                functions = f;
+            }
+            f[d] = function;
+            depth = d + 1;
+        }
+
+        // the functions of the active calls, the outermost first, or null when there are none; a call that returns while
+        // the stack is copied may leave its slot cleared, then the stack is cut there
+        RFunction[] sample() {
+            int d = depth;
+            RFunction[] f = functions;
+            if (d <= 0) {
+                return null;
+            }
+            RFunction[] res = Arrays.copyOf(f, Math.min(d, f.length));
+            for (int i = 0; i < res.length; i++) {
+                if (res[i] == null) {
+                    return i == 0 ? null : Arrays.copyOf(res, i);
+                }
+            }
+            return res;
+        }
+    }
+
+    /**
+     * Records a call of function by the current thread, the caller has to call exit on the result when the call returns (or
+     * fails). Only called when profiling is active.
+     */
+    public static CallStack enter(RFunction function) {
+        CallStack s = stacks.get();
+        s.enter(function);
+        return s;
+    }
+
+    // a distinct stack of calls
+    static final class Key {
+        final RFunction[] functions;
+        final int hash;
+
+        Key(RFunction[] functions) {
+            this.functions = functions;
+            this.hash = Arrays.hashCode(functions);
+        }
+
+        @Override public int hashCode() {
+            return hash;
+        }
+
+        @Override public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(functions, ((Key) o).functions);
+        }
+    }
+
+    static final class Sampler extends Thread {
+        final String fileName;
+        final long intervalMillis;
+        final Map<Key, long[]> counts = new HashMap<>(); // only used by this thread until it terminates
+        volatile boolean stopped;
+
+        Sampler(String fileName, long intervalMillis) {
+            super("Rprof sampler");
+            setDaemon(true);
+            this.fileName = fileName;
+            this.intervalMillis = intervalMillis;
+        }
+
+        @Override public void run() {
+            while (!stopped) {
+                try {
+                    Thread.sleep(intervalMillis);
+                } catch (InterruptedException e) {
+                    // stop requested
+                }
+                if (stopped) {
+                    break;
+                }
+                Iterator<CallStack> i = threads.iterator();
+                while (i.hasNext()) {
+                    CallStack s = i.next();
+                    if (!s.thread.isAlive()) {
+                        i.remove();
+                        continue;
+                    }
+                    RFunction[] functions = s.sample();
+                    if (functions != null) {
+                        Key k = new Key(functions);
+                        long[] c = counts.get(k);
+                        if (c == null) {
+                            counts.put(k, new long[]{1});
+                        } else {
+                            c[0]++;
+                        }
+                    }
+                }
+            }
+        }
+
+        void finish() throws IOException {
+            stopped = true;
+            interrupt();
+            boolean interrupted = false;
+            for (;;) {
+                try {
+                    join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            writeFolded(counts, fileName); // appends to the file created (or truncated) by start
+        }
+    }
+
+    /**
+     * Starts profiling, the samples are taken every intervalMillis milliseconds and written to fileName when profiling stops.
+     * A previous profiling is stopped first.
+     */
+    public static synchronized void start(String fileName, boolean append, long intervalMillis) throws IOException {
+        stop();
+        // create or truncate the file now, so that a bad file name is reported before running the profiled code
+        new FileOutputStream(fileName, append).close();
+        sampler = new Sampler(fileName, intervalMillis);
+        sampler.start();
+        active = true;
+    }
+
+    /** Stops profiling (if on) and writes the samples. */
+    public static synchronized void stop() throws IOException {
+        Sampler s = sampler;
+        if (s == null) {
+            return;
+        }
+        active = false;
+        sampler = null;
+        s.finish();
+    }
+
+    static void writeFolded(Map<Key, long[]> counts, String fileName) throws IOException {
+        Map<RFunction, String> names = new IdentityHashMap<>();
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileName, true), "UTF-8"))) {
+            StringBuilder line = new StringBuilder();
+            for (Map.Entry<Key, long[]> e : counts.entrySet()) {
+                line.setLength(0);
+                RFunction[] functions = e.getKey().functions;
+                for (int i = 0; i < functions.length; i++) {
+                    if (i > 0) {
+                        line.append(';');
+                    }
+                    RFunction f = functions[i];
+                    String name = names.get(f);
+                    if (name == null) {
+                        name = name(f);
+                        names.put(f, name);
+                    }
+                    line.append(name);
+                }
+                line.append(' ').append(e.getValue()[0]).append('\n');
+                out.write(line.toString());
+            }
+        }
+    }
+
+    /**
+     * The name of a function in a profile, that of the variable it is assigned to where it is defined (e.g. "f" for
+     * f <- function(x) ...), prefixed by the name of the enclosing function for a local function (e.g. "g/f").
+     */
+    public static String name(RFunction function) {
+        String name = ANONYMOUS;
+        ASTNode source = function.getSource();
+        if (source != null) {
+            ASTNode parent = source.getParent();
+            if (parent instanceof SimpleAssignVariable) {
+                name = ((SimpleAssignVariable) parent).getSymbol().pretty().replace(';', ',');
+            }
+        }
+        RFunction enclosing = function.enclosingFunction();
+        return enclosing == null ? name : name(enclosing) + "/" + name;
+    }
+}
@@ -24,6 +24,8 @@ public class RContext {
     private static Truffleize truffleize = new Truffleize();
     private static final int NCONNECTIONS = 128;
     private static final Connection[] connections = new Connection[NCONNECTIONS];
+    private static int maxCallDepth = 5000; // options(expressions=)
+    private static boolean internStrings = Utils.getProperty("RString.intern", false); // options(internStrings=)
 
     static {
         Arrays.fill(connections, null);
@@ -33,6 +35,31 @@ public class RContext {
         return usesTruffleOptimizer;
     }
 
+    /** The maximum number of nested function calls, deeper calls fail with an R error. */
+    public static int maxCallDepth() {
+        return maxCallDepth;
+    }
+
+    public static int maxCallDepth(int depth) {
+        int previous = maxCallDepth;
+        maxCallDepth = depth;
+        return previous;
+    }
+
+    /**
+     * Whether the strings read from data (readLines, scan, strsplit) are interned in {@link StringPool}, so that repeated
+     * values are stored once and compare by reference.
+     */
+    public static boolean internStrings() {
+        return internStrings;
+    }
+
+    public static boolean internStrings(boolean intern) {
+        boolean previous = internStrings;
+        internStrings = intern;
+        return previous;
+    }
+
     public static boolean debuggingFormat() {
         return debuggingFormat;
     }
@@ -31,6 +31,13 @@ public class RValueConversion {
         throw new UnexpectedResultException(value);
     }
 
+    public static double expectScalarDouble(RAny value) throws UnexpectedResultException {
+        if (value instanceof ScalarDoubleImpl) {
+            return ((ScalarDoubleImpl) value).getDouble();
+        }
+        throw new UnexpectedResultException(value);
+    }
+
     public static RArray expectScalar(RAny value) throws UnexpectedResultException {
         if (value instanceof RArray) {
             RArray array = (RArray) value;
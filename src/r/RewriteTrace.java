@@ -0,0 +1,122 @@
+package r;
+
+import java.io.*;
+import java.util.*;
+
+import r.nodes.*;
+import r.nodes.tools.*;
+
+import com.oracle.truffle.api.nodes.*;
+
+/**
+ * Tracing of node rewrites (--trace-rewrites, options(traceRewrites=) and rewriteSites()).
+ *
+ * Specialized nodes replace themselves when their assumptions fail, and a site that keeps switching between types ends up
+ * in a generic node. While tracing is on, each replace of a node (see RNode.onReplace) is recorded for its site, the AST of
+ * the nearest node that has one: the number of rewrites, the node classes the site went through and the reason given to
+ * replace. The one-time replace of a node that is being built or uninitialized (see RNode.isUninitialized) is not recorded,
+ * it is not churn. The summary lists the sites that were rewritten more than a given number of times or that have been
+ * generic at any point, which shows the R idioms worth restructuring and the specializations that are missing.
+ */
+public final class RewriteTrace {
+
+    /** Whether rewrites are recorded, checked on each replace. */
+    public static volatile boolean active;
+
+    public static final int DEFAULT_THRESHOLD = 2;
+    private static final int MAX_PATH = 16; // the number of node classes kept per site
+    private static final int MAX_SITE = 80; // the number of characters of the source of a site shown
+
+    private static final Map<ASTNode, Site> sites = new IdentityHashMap<>();
+    private static final List<Site> order = new ArrayList<>(); // the sites in the order of their first rewrite
+
+    static final class Site {
+        final ASTNode ast;
+        int rewrites;
+        final List<String> path = new ArrayList<>(); // the first and then the new node classes
+        String reason;
+        boolean generic; // set once any node of the site was generic, even if it was replaced later
+
+        Site(ASTNode ast) {
+            this.ast = ast;
+        }
+    }
+
+    public static synchronized boolean traceRewrites(boolean on) {
+        boolean previous = active;
+        active = on;
+        return previous;
+    }
+
+    /** Records that oldNode at site has been replaced by newNode. Only called when tracing is active. */
+    public static synchronized void replaced(ASTNode site, Node oldNode, Node newNode, String reason) {
+        Site s = sites.get(site);
+        if (s == null) {
+            s = new Site(site);
+            sites.put(site, s);
+            order.add(s);
+            s.path.add(className(oldNode));
+        }
+        s.rewrites++;
+        String to = className(newNode);
+        if (s.path.size() < MAX_PATH) {
+            s.path.add(to);
+        } else {
+            s.path.set(MAX_PATH - 1, to); // keep the last one
+        }
+        s.reason = reason == null ? "" : reason;
+        s.generic |= to.contains("Generic") || s.reason.contains("Generic");
+    }
+
+    // e.g. Arithmetic.Specialized for r.nodes.truffle.Arithmetic$Specialized
+    static String className(Node node) {
+        String name = node.getClass().getName();
+        return name.substring(name.lastIndexOf('.') + 1).replace('$', '.');
+    }
+
+    /** The sites rewritten more than threshold times or that have been generic, as {site, rewrites, path, reason, generic}. */
+    public static synchronized List<Object[]> sites(int threshold, boolean reset) {
+        List<Object[]> res = new ArrayList<>();
+        for (Site s : order) {
+            if (s.rewrites > threshold || s.generic) {
+                res.add(new Object[]{siteName(s.ast), s.rewrites, path(s), s.reason, s.generic});
+            }
+        }
+        if (reset) {
+            sites.clear();
+            order.clear();
+        }
+        return res;
+    }
+
+    private static String path(Site s) {
+        StringBuilder str = new StringBuilder();
+        int n = s.path.size();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) {
+                str.append(i == MAX_PATH - 1 && s.rewrites >= MAX_PATH ? " -> ... -> " : " -> ");
+            }
+            str.append(s.path.get(i));
+        }
+        return str.toString();
+    }
+
+    // the source of the site on one line, shortened (a site can be a whole function body)
+    static String siteName(ASTNode ast) {
+        if (ast == null) {
+            return "<unknown>";
+        }
+        String src = PrettyPrinter.prettyPrint(ast).replaceAll("\\s*\n\\s*", " ");
+        return src.length() <= MAX_SITE ? src : src.substring(0, MAX_SITE - 3) + "...";
+    }
+
+    /** Prints the summary of sites(threshold), one site per line. */
+    public static void print(PrintStream out, int threshold) {
+        List<Object[]> res = sites(threshold, false);
+        out.println("Rewrites (sites rewritten more than " + threshold + " times or that have been generic): " + res.size());
+        for (Object[] s : res) {
+            String reason = (String) s[3];
+            out.println("  " + s[0] + ": " + s[1] + " rewrites, " + s[2] + ((Boolean) s[4] ? " (generic)" : "") + (reason.isEmpty() ? "" : ", last reason: " + reason));
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.oracle.truffle.api.frame.*;
 import r.data.*;
 import r.data.RAny.Attributes;
 import r.data.RArray.Names;
+import r.data.internal.*;
 import r.errors.*;
 
 public final class Utils {
@@ -285,7 +286,17 @@ public final class Utils {
         }
     }
 
+    /** Reads a frame slot, a local scalar kept unboxed (see LocalScalar) is returned boxed. */
     public static Object frameGetObject(Frame frame, FrameSlot slot) {
+        Object value = frameGetRaw(frame, slot);
+        if (value instanceof LocalScalar) {
+            return ((LocalScalar) value).box();
+        }
+        return value;
+    }
+
+    /** Reads a frame slot as stored, i.e. possibly a LocalScalar, only for nodes that handle those. */
+    public static Object frameGetRaw(Frame frame, FrameSlot slot) {
         try {
             return frame.getObject(slot);
         } catch (FrameSlotTypeException e) {
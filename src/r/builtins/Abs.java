@@ -76,6 +76,9 @@ public class Abs extends CallFactory {
                     if (arg instanceof ScalarIntImpl) {
                         replace(createScalarInt(call, names, exprs));
 
+                    } else if (arg instanceof ScalarDoubleImpl) {
+                        replace(createScalarDouble(call, names, exprs));
+
                     } else {
                         replace(createGeneric(call, names, exprs));
                     }
@@ -126,6 +129,39 @@ public class Abs extends CallFactory {
         };
     }
 
+    public static RNode createScalarDouble(final ASTNode call, final RSymbol[] names, final RNode[] exprs) {
+
+        return new Specialized(call, exprs[0]) {
+
+            @Override
+            public Object execute(Frame frame) {
+                Object val = expr.execute(frame);
+                try {
+                    if (!(val instanceof ScalarDoubleImpl)) {
+                        throw new UnexpectedResultException(null);
+                    }
+                    return RDouble.RDoubleFactory.getScalar(abs(((ScalarDoubleImpl) val).getDouble()));
+                } catch(UnexpectedResultException e) {
+                    exprs[0].replace(expr); // keep the new child
+                    replace(createGeneric(call, names, exprs));
+                    return generic((RAny) val);
+                }
+            }
+
+            @Override
+            public double executeScalarDouble(Frame frame) throws UnexpectedResultException {
+                try {
+                    double d = expr.executeScalarDouble(frame);
+                    return abs(d);
+                } catch(UnexpectedResultException e) {
+                    exprs[0].replace(expr); // keep the new child
+                    replace(createGeneric(call, names, exprs));
+                    return RValueConversion.expectScalarDouble(generic((RAny) e.getResult()));
+                }
+            }
+        };
+    }
+
     public static RNode createGeneric(ASTNode call, RSymbol[] names, RNode[] exprs) {
         return new Builtin.Builtin1(call, names, exprs) {
 
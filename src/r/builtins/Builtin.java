@@ -1,6 +1,8 @@
 package r.builtins;
 
+import r.*;
 import r.data.*;
+import r.data.internal.*;
 import r.nodes.*;
 import r.nodes.truffle.*;
 
@@ -22,6 +24,14 @@ public abstract class Builtin extends AbstractCall {
         }
 
         @Override public final Object execute(Frame frame) {
+            if (MemoryTrace.active) {
+                ASTNode previous = MemoryTrace.enterSite(ast);
+                try {
+                    return doBuiltIn(frame);
+                } finally {
+                    MemoryTrace.exitSite(previous);
+                }
+            }
             return doBuiltIn(frame);
         }
 
@@ -40,7 +50,16 @@ public abstract class Builtin extends AbstractCall {
         }
 
         @Override public final Object execute(Frame frame) {
-            return doBuiltIn(frame, (RAny) argExprs[0].execute(frame));
+            RAny arg = (RAny) argExprs[0].execute(frame);
+            if (MemoryTrace.active) {
+                ASTNode previous = MemoryTrace.enterSite(ast);
+                try {
+                    return doBuiltIn(frame, arg);
+                } finally {
+                    MemoryTrace.exitSite(previous);
+                }
+            }
+            return doBuiltIn(frame, arg);
         }
 
         public abstract RAny doBuiltIn(Frame frame, RAny arg);
@@ -48,6 +67,19 @@ public abstract class Builtin extends AbstractCall {
         @Override public final RAny doBuiltIn(Frame frame, RAny[] params) {
             return doBuiltIn(frame, params[0]);
         }
+
+        /** Evaluates the argument as a scalar double, a scalar integer is converted. Other values are thrown boxed. */
+        final double executeScalarDoubleArg(Frame frame) throws UnexpectedResultException {
+            try {
+                return argExprs[0].executeScalarDouble(frame);
+            } catch (UnexpectedResultException e) {
+                if (e.getResult() instanceof ScalarIntImpl) {
+                    int i = ((ScalarIntImpl) e.getResult()).getInt();
+                    return i == RInt.NA ? RDouble.NA : i;
+                }
+                throw e;
+            }
+        }
     }
 
     /** Builtin functions of two arguments. */
@@ -58,7 +90,17 @@ public abstract class Builtin extends AbstractCall {
         }
 
         @Override public final Object execute(Frame frame) {
-            return doBuiltIn(frame, (RAny) argExprs[0].execute(frame), (RAny) argExprs[1].execute(frame));
+            RAny arg0 = (RAny) argExprs[0].execute(frame);
+            RAny arg1 = (RAny) argExprs[1].execute(frame);
+            if (MemoryTrace.active) {
+                ASTNode previous = MemoryTrace.enterSite(ast);
+                try {
+                    return doBuiltIn(frame, arg0, arg1);
+                } finally {
+                    MemoryTrace.exitSite(previous);
+                }
+            }
+            return doBuiltIn(frame, arg0, arg1);
         }
 
         public abstract RAny doBuiltIn(Frame frame, RAny arg0, RAny arg1);
@@ -92,7 +134,16 @@ public abstract class Builtin extends AbstractCall {
     }
 
     @Override public Object execute(Frame frame) {
-        return doBuiltIn(frame, evalArgs(frame));
+        RAny[] args = evalArgs(frame);
+        if (MemoryTrace.active) {
+            ASTNode previous = MemoryTrace.enterSite(ast);
+            try {
+                return doBuiltIn(frame, args);
+            } finally {
+                MemoryTrace.exitSite(previous);
+            }
+        }
+        return doBuiltIn(frame, args);
     }
 
     public abstract RAny doBuiltIn(Frame frame, RAny[] params);
@@ -16,8 +16,19 @@ abstract class CharBase extends CallFactory {
 
     abstract String op(ASTNode ast, String input);
 
+    // the conversion on the bytes of compact strings, or null when it cannot be done on bytes
+    RString op(CompactStrings value) {
+        return null;
+    }
+
     public RString convert(final ASTNode ast, final RString value) {
         final int size = value.size();
+        if (value instanceof CompactStrings) {
+            RString res = op((CompactStrings) value);
+            if (res != null) {
+                return res;
+            }
+        }
         if (value instanceof ScalarStringImpl) {
             return RString.RStringFactory.getScalar(op(ast, value.getString(0)), value.dimensions());
         } else {
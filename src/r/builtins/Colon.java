@@ -63,22 +63,10 @@ final class Colon extends CallFactory {
     public static RAny create(double left, double right) {
         if (left <= right) {
             int len = (int) (right - left + 1); // FIXME: probably should check for a too long vector
-            double[] data = new double[len];
-            double val = left;
-            for (int i = 0; i < len; i++) {
-                data[i] = val;
-                val = val + 1.0;
-            }
-            return RDouble.RDoubleFactory.getFor(data);
+            return RDouble.RDoubleFactory.forSequence(left, right, 1.0, len);
         } else {
             int len = (int) (left - right + 1); // FIXME: probably should check for a too long vector
-            double[] data = new double[len];
-            double val = left;
-            for (int i = 0; i < len; i++) {
-                data[i] = val;
-                val = val - 1.0;
-            }
-            return RDouble.RDoubleFactory.getFor(data);
+            return RDouble.RDoubleFactory.forSequence(left, right, -1.0, len);
         }
     }
 
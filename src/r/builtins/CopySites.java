@@ -0,0 +1,55 @@
+package r.builtins;
+
+import r.*;
+import r.data.*;
+import r.nodes.*;
+import r.nodes.truffle.*;
+
+import com.oracle.truffle.api.frame.*;
+
+/**
+ * "copySites" FastR specific, the copies counted since options(traceCopies=TRUE), see MemoryTrace.
+ * 
+ * <pre>
+ * reset -- logical: should the counts be reset?
+ * </pre>
+ */
+// NOTE: returns a list of site (the source of the update or builtin call), kind ("copy" or "materialize" and the class of
+//       the view), count and bytes (the size of the new vectors), most bytes first, like the columns of a data frame
+final class CopySites extends CallFactory {
+    static final CallFactory _ = new CopySites("copySites", new String[]{"reset"}, new String[]{});
+
+    private static final RArray.Names names = RArray.Names.create(RSymbol.getSymbols(new String[]{"site", "kind", "count", "bytes"}));
+
+    private CopySites(String name, String[] params, String[] required) {
+        super(name, params, required);
+    }
+
+    @Override public RNode create(ASTNode call, RSymbol[] names, RNode[] exprs) {
+        ArgumentInfo ia = check(call, names, exprs);
+        final int posReset = ia.position("reset");
+        return new Builtin(call, names, exprs) {
+            @Override public RAny doBuiltIn(Frame frame, RAny[] args) {
+                boolean reset = posReset == -1 ? false : ReadLines.parseLogicalScalar(args[posReset], ast, "reset");
+                return copySites(MemoryTrace.sites(reset));
+            }
+        };
+    }
+
+    static RList copySites(java.util.List<Object[]> entries) {
+        int n = entries.size();
+        String[] site = new String[n];
+        String[] kind = new String[n];
+        double[] count = new double[n];
+        double[] bytes = new double[n];
+        for (int i = 0; i < n; i++) {
+            Object[] e = entries.get(i);
+            site[i] = (String) e[0];
+            kind[i] = (String) e[1];
+            count[i] = (Long) e[2];
+            bytes[i] = (Long) e[3];
+        }
+        RAny[] content = new RAny[]{RString.RStringFactory.getFor(site), RString.RStringFactory.getFor(kind), RDouble.RDoubleFactory.getFor(count), RDouble.RDoubleFactory.getFor(bytes)};
+        return RList.RListFactory.getFor(content, null, names);
+    }
+}
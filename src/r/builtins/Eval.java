@@ -35,6 +35,7 @@ public class Eval extends CallFactory {
                         MaterializedFrame parentFrame;
                         if (posEnclos == -1) {
                             parentFrame = frame == null ? null : frame.materialize();
+                            RFrameHeader.markEscaped(frame);
                         } else {
                             RAny enclosArg = args[posEnclos];
                             if (enclosArg instanceof RNull) {
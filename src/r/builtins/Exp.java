@@ -1,8 +1,11 @@
 package r.builtins;
 
 import com.oracle.truffle.api.frame.Frame;
+import com.oracle.truffle.api.nodes.UnexpectedResultException;
 import r.*;
 import r.data.*;
+import r.data.internal.ScalarDoubleImpl;
+import r.data.internal.ScalarIntImpl;
 import r.data.internal.View;
 import r.errors.RError;
 import r.nodes.ASTNode;
@@ -27,16 +30,13 @@ final class Exp extends CallFactory {
         check(call, names, exprs);
         return new Builtin.Builtin1(call, names, exprs) {
             @Override public RAny doBuiltIn(Frame frame, RAny arg) {
+                if (arg instanceof ScalarDoubleImpl || arg instanceof ScalarIntImpl) {
+                    return RDouble.RDoubleFactory.getScalar(exp(ast, arg.asDouble().getDouble(0)));
+                }
                 if (arg instanceof RDouble || arg instanceof RInt || arg instanceof RLogical) {
                     return new View.RDoubleProxy<RDouble>(arg.asDouble()) {
                         @Override public double getDouble(int i) {
-                            double d = orig.getDouble(i);
-                            if (RDouble.RDoubleUtils.isNAorNaN(d)) { return RDouble.NA; }
-                            double res = Math.exp(d);
-                            if (RDouble.RDoubleUtils.isNAorNaN(res)) {
-                                RContext.warning(ast, RError.NAN_PRODUCED);
-                            }
-                            return res;
+                            return exp(ast, orig.getDouble(i));
                         }
                     };
                 } else if (arg instanceof RComplex) {
@@ -45,6 +45,27 @@ final class Exp extends CallFactory {
                     throw RError.getNonNumericMath(ast);
                 }
             }
+
+            @Override public double executeScalarDouble(Frame frame) throws UnexpectedResultException {
+                double d;
+                try {
+                    d = executeScalarDoubleArg(frame);
+                } catch (UnexpectedResultException e) {
+                    return RValueConversion.expectScalarDouble(doBuiltIn(frame, (RAny) e.getResult()));
+                }
+                return exp(ast, d);
+            }
         };
     }
+
+    static double exp(ASTNode ast, double d) {
+        if (RDouble.RDoubleUtils.isNAorNaN(d)) {
+            return RDouble.NA;
+        }
+        double res = Math.exp(d);
+        if (RDouble.RDoubleUtils.isNAorNaN(res)) {
+            RContext.warning(ast, RError.NAN_PRODUCED);
+        }
+        return res;
+    }
 }
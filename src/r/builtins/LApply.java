@@ -23,11 +23,12 @@ import com.oracle.truffle.api.nodes.*;
  * FUN -- the function to be applied to each element of X. In the case of functions like
  *        +, %*%, the function name must be backquoted or quoted.
  *  ... -- optional arguments to FUN.
+ *  mc.cores -- (FastR extension) the number of cores to use for calling FUN in parallel, 1 by default. Must be named.
  * </pre>
  */
 final class LApply extends CallFactory {
 
-    static final CallFactory _ = new LApply("lapply", new String[]{"X", "FUN", "..."}, new String[]{"X", "FUN"});
+    static final CallFactory _ = new LApply("lapply", new String[]{"X", "FUN", "...", "mc.cores"}, new String[]{"X", "FUN"});
 
     private LApply(String name, String[] params, String[] required) {
         super(name, params, required);
@@ -35,8 +36,9 @@ final class LApply extends CallFactory {
 
     @Override public RNode create(ASTNode call, RSymbol[] names, RNode[] exprs) {
         ArgumentInfo ia = check(call, names, exprs);
+        int coresPosition = ia.position("mc.cores");
         // lapply will create a call node, let's prepare names and expressions (first is the variable)
-        int cnArgs = 1 + names.length - 2; // "-2" because both FUN and X are required
+        int cnArgs = 1 + names.length - (coresPosition == -1 ? 2 : 3); // "-2" because both FUN and X are required
         RSymbol[] cnNames = new RSymbol[cnArgs];
         RNode[] cnExprs = new RNode[cnArgs];
         cnNames[0] = null;
@@ -44,7 +46,7 @@ final class LApply extends CallFactory {
         cnExprs[0] = firstArgProvider;
         int j = 0;
         for (int i = 0; i < names.length; i++) {
-            if (ia.position("X") == i || ia.position("FUN") == i) {
+            if (ia.position("X") == i || ia.position("FUN") == i || coresPosition == i) {
                 continue;
             }
             cnNames[1 + j] = names[i];
@@ -52,8 +54,11 @@ final class LApply extends CallFactory {
             j++;
         }
         CallableProvider callableProvider = new CallableProvider(call, exprs[ia.position("FUN")]);
+        if (coresPosition != -1 && FunctionCall.findDotsArgs(cnExprs) != null) {
+            coresPosition = -1; // FIXME: parallel mode does not support passing ... through
+        }
         FunctionCall callNode = FunctionCall.getFunctionCall(call, callableProvider, cnNames, cnExprs);
-        return new Lapply(call, names, exprs, callNode, firstArgProvider, callableProvider, ia.position("X"), ia.position("FUN"));
+        return new Lapply(call, names, exprs, callNode, firstArgProvider, callableProvider, ia.position("X"), ia.position("FUN"), coresPosition);
     }
 
     public static class ValueProvider extends BaseR {
@@ -117,14 +122,16 @@ final class LApply extends CallFactory {
         @Child FunctionCall callNode;
         final int xPosition;
         final int funPosition;
+        final int coresPosition;
 
-        public Lapply(ASTNode call, RSymbol[] names, RNode[] exprs, FunctionCall callNode, ValueProvider firstArgProvider, CallableProvider callableProvider, int xPosition, int funPosition) {
+        public Lapply(ASTNode call, RSymbol[] names, RNode[] exprs, FunctionCall callNode, ValueProvider firstArgProvider, CallableProvider callableProvider, int xPosition, int funPosition, int coresPosition) {
             super(call, names, exprs);
             this.callableProvider = adoptChild(callableProvider);
             this.firstArgProvider = adoptChild(firstArgProvider);
             this.callNode = adoptChild(callNode);
             this.xPosition = xPosition;
             this.funPosition = funPosition;
+            this.coresPosition = coresPosition;
         }
 
         public static RAny generic(Frame frame, RAny argx, ValueProvider firstArgProvider, FunctionCall callNode) {
@@ -160,7 +167,7 @@ final class LApply extends CallFactory {
                         return RList.RListFactory.getFor(content, null, x.names());
                     }
                 };
-                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, a);
+                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, coresPosition, a);
             }
             if (argxTemplate instanceof RArray) {
                 ApplyFunc a = new ApplyFunc() {
@@ -176,7 +183,7 @@ final class LApply extends CallFactory {
                         return RList.RListFactory.getFor(content, null, x.names());
                     }
                 };
-                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, a);
+                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, coresPosition, a);
             }
             return null;
         }
@@ -187,7 +194,7 @@ final class LApply extends CallFactory {
                     return generic(frame, argx, firstArgProvider, callNode);
                 }
             };
-            return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, a);
+            return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, coresPosition, a);
         }
 
         public RAny doApply(Frame frame, RAny argx, RAny argfun) {
@@ -209,9 +216,25 @@ final class LApply extends CallFactory {
         @Override public RAny doBuiltIn(Frame frame, RAny[] args) {
             RAny argx = args[xPosition];
             RAny argfun = args[funPosition];
+            if (coresPosition != -1) {
+                int cores = ParallelApply.parseCores(args[coresPosition], ast);
+                if (cores > 1) {
+                    return doParallelApply(frame, args, cores);
+                }
+            }
             return doApply(frame, argx, argfun);
         }
 
+        public RAny doParallelApply(Frame frame, RAny[] args, int cores) {
+            RAny argx = args[xPosition];
+            if (!(argx instanceof RArray)) { throw Utils.nyi("unsupported type"); }
+            RArray x = (RArray) argx;
+            callableProvider.matchAndSet(ast, frame, args[funPosition]);
+            RAny[] content = ParallelApply.apply(ast, frame, x, callableProvider.value, ParallelApply.extraNames(argNames, xPosition, funPosition, coresPosition),
+                            ParallelApply.extraValues(args, xPosition, funPosition, coresPosition), cores);
+            return RList.RListFactory.getFor(content, null, x.names());
+        }
+
         abstract static class ApplyFunc {
             public abstract RAny apply(Frame frame, RAny argx, ValueProvider firstArgProvider, FunctionCall callNode) throws UnexpectedResultException;
         }
@@ -220,8 +243,8 @@ final class LApply extends CallFactory {
             final ApplyFunc apply;
 
             public Specialized(ASTNode call, RSymbol[] names, RNode[] exprs, FunctionCall callNode, ValueProvider firstArgProvider, CallableProvider callableProvider, int xPosition, int funPosition,
-                    ApplyFunc apply) {
-                super(call, names, exprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition);
+                    int coresPosition, ApplyFunc apply) {
+                super(call, names, exprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, coresPosition);
                 this.apply = apply;
             }
 
@@ -1,5 +1,6 @@
 package r.builtins;
 
+import r.*;
 import r.data.*;
 import r.data.internal.*;
 import r.errors.*;
@@ -7,6 +8,7 @@ import r.nodes.*;
 import r.nodes.truffle.*;
 
 import com.oracle.truffle.api.frame.*;
+import com.oracle.truffle.api.nodes.*;
 
 // TODO: complex numbers
 abstract class MathBase extends CallFactory {
@@ -21,16 +23,31 @@ abstract class MathBase extends CallFactory {
         final int size = value.size();
         if (size == 1) {
             return RDouble.RDoubleFactory.getScalar(op(ast, value.getDouble(0)), value.dimensions(), value.names(), value.attributesRef());
-        } else if (size > 0) { return new View.RDoubleProxy<RDouble>(value) {
-            @Override public int size() {
-                return size;
-            }
+        } else if (size > 0) { return new MathView(ast, value); }
+        return RDouble.EMPTY;
+    }
+
+    final class MathView extends View.RDoubleProxy<RDouble> implements Arithmetic.ElementwiseUnary {
+        final ASTNode ast;
+
+        MathView(ASTNode ast, RDouble value) {
+            super(value);
+            this.ast = ast;
+        }
 
-            @Override public double getDouble(int i) {
-                return op(ast, value.getDouble(i));
+        @Override public double getDouble(int i) {
+            return op(ast, orig.getDouble(i));
+        }
+
+        @Override public RDouble operand() {
+            return orig;
+        }
+
+        @Override public void apply(double[] x, int size) {
+            for (int i = 0; i < size; i++) {
+                x[i] = op(ast, x[i]);
             }
-        }; }
-        return RDouble.EMPTY;
+        }
     }
 
     @Override public RNode create(ASTNode call, RSymbol[] names, RNode[] exprs) {
@@ -41,6 +58,15 @@ abstract class MathBase extends CallFactory {
                 throw RError.getNonNumericMath(ast);
             }
 
+            @Override public double executeScalarDouble(Frame frame) throws UnexpectedResultException {
+                double d;
+                try {
+                    d = executeScalarDoubleArg(frame);
+                } catch (UnexpectedResultException e) {
+                    return RValueConversion.expectScalarDouble(doBuiltIn(frame, (RAny) e.getResult()));
+                }
+                return op(ast, d);
+            }
         };
     }
 }
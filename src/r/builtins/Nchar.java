@@ -2,6 +2,7 @@ package r.builtins;
 
 import r.*;
 import r.data.*;
+import r.data.internal.*;
 import r.nodes.*;
 import r.nodes.truffle.*;
 
@@ -29,8 +30,16 @@ final class Nchar extends CallFactory {
     public static RInt nchar(RString s) {
         int size = s.size();
         int[] content = new int[size];
-        for (int i = 0; i < size; i++) {
-            content[i] = s.getString(i).length();
+        if (s instanceof CompactStrings) { // a character is a byte
+            CompactStrings cs = (CompactStrings) s;
+            for (int i = 0; i < size; i++) {
+                content[i] = cs.isNAorNaN(i) ? RInt.NA : cs.length(i);
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                String str = s.getString(i);
+                content[i] = str != RString.NA ? str.length() : RInt.NA;
+            }
         }
         return RInt.RIntFactory.getFor(content, s.dimensions(), s.names());
     }
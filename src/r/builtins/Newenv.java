@@ -50,6 +50,7 @@ final class Newenv extends CallFactory {
                         rootEnvironment = REnvironment.GLOBAL;
                     } else {
                         parentFrame = frame.materialize();
+                        RFrameHeader.markEscaped(frame);
                     }
                 }
                 int size = DEFAULT_SIZE;
@@ -1,6 +1,8 @@
 package r.builtins;
 
+import r.*;
 import r.data.*;
+import r.errors.*;
 import r.nodes.*;
 import r.nodes.truffle.*;
 
@@ -8,19 +10,58 @@ import com.oracle.truffle.api.frame.*;
 
 // TODO: implement this builtin at least to support custom options
 //       shooutout benchmarks set the "digits" option
+// NOTE: only "expressions" (the maximum depth of nested function calls), "internStrings" (FastR specific, see
+//       RContext.internStrings), "traceCopies" and "logCopies" (FastR specific, see MemoryTrace) and "traceRewrites" (FastR
+//       specific, see RewriteTrace) are supported, other options are ignored
 final class Options extends CallFactory {
     static final CallFactory _ = new Options("options", new String[]{"..."}, null);
 
+    private static final RSymbol EXPRESSIONS_SYMBOL = RSymbol.getSymbol("expressions");
+    private static final RSymbol INTERN_STRINGS_SYMBOL = RSymbol.getSymbol("internStrings");
+    private static final RSymbol TRACE_COPIES_SYMBOL = RSymbol.getSymbol("traceCopies");
+    private static final RSymbol LOG_COPIES_SYMBOL = RSymbol.getSymbol("logCopies");
+    private static final RSymbol TRACE_REWRITES_SYMBOL = RSymbol.getSymbol("traceRewrites");
+    private static final int MIN_EXPRESSIONS = 25;
+    private static final int MAX_EXPRESSIONS = 500000;
+
     private Options(String name, String[] params, String[] required) {
         super(name, params, required);
     }
 
-    @Override public RNode create(ASTNode call, RSymbol[] names, RNode[] exprs) {
+    @Override public RNode create(ASTNode call, final RSymbol[] names, RNode[] exprs) {
         check(call, names, exprs);
         return new Builtin(call, names, exprs) {
             @Override public RAny doBuiltIn(Frame frame, RAny[] args) {
+                if (names != null) {
+                    for (int i = 0; i < args.length; i++) {
+                        if (names[i] == EXPRESSIONS_SYMBOL) {
+                            RContext.maxCallDepth(parseExpressions(ast, args[i]));
+                        } else if (names[i] == INTERN_STRINGS_SYMBOL) {
+                            RContext.internStrings(ReadLines.parseLogicalScalar(args[i], ast, "internStrings"));
+                        } else if (names[i] == TRACE_COPIES_SYMBOL) {
+                            MemoryTrace.traceCopies(ReadLines.parseLogicalScalar(args[i], ast, "traceCopies"));
+                        } else if (names[i] == LOG_COPIES_SYMBOL) {
+                            MemoryTrace.logCopies(ReadLines.parseLogicalScalar(args[i], ast, "logCopies"));
+                        } else if (names[i] == TRACE_REWRITES_SYMBOL) {
+                            RewriteTrace.traceRewrites(ReadLines.parseLogicalScalar(args[i], ast, "traceRewrites"));
+                        }
+                    }
+                }
                 return RNull.getNull();
             }
         };
     }
+
+    private static int parseExpressions(ASTNode ast, RAny arg) {
+        if (arg instanceof RInt || arg instanceof RDouble || arg instanceof RLogical) {
+            RInt i = arg.asInt();
+            if (i.size() == 1) {
+                int v = i.getInt(0);
+                if (v != RInt.NA && v >= MIN_EXPRESSIONS && v <= MAX_EXPRESSIONS) {
+                    return v;
+                }
+            }
+        }
+        throw RError.getInvalidExpressions(ast, MIN_EXPRESSIONS, MAX_EXPRESSIONS);
+    }
 }
@@ -1,16 +1,14 @@
 package r.builtins;
 
-import java.util.*;
-
 import r.Convert.ConversionStatus;
 import r.*;
+import r.builtins.internal.*;
 import r.data.*;
 import r.errors.*;
 import r.nodes.*;
 import r.nodes.truffle.*;
 
 import com.oracle.truffle.api.frame.*;
-import java.lang.Integer;// do not delete java.lang.Integer import
 
 // TODO: support complex type
 final class Order extends CallFactory {
@@ -21,8 +19,6 @@ final class Order extends CallFactory {
         super(name, params, required);
     }
 
-    static final ConversionStatus warn = new ConversionStatus(); // WARNING: calls not re-entrant
-
     @Override public RNode create(ASTNode call, RSymbol[] names, RNode[] exprs) {
         ArgumentInfo ia = check(call, names, exprs);
         final int naLastPosition = ia.position("na.last");
@@ -79,7 +75,7 @@ final class Order extends CallFactory {
     }
 
     public static int parseNALast(RAny arg, ASTNode ast) {
-        warn.naIntroduced = false;
+        ConversionStatus warn = new ConversionStatus();
         RLogical a = arg.asLogical(); // will produce NAs when conversion is not possible
         int size = a.size();
         int res;
@@ -201,117 +197,15 @@ final class Order extends CallFactory {
         return null;
     }
 
-    public static int resultWhenFirstNA(int naLast) {
-        if (naLast != RLogical.FALSE) { // both TRUE and NA
-            return 1;
-        } else {
-            return -1;
-        }
-    }
-
-    public static int resultWhenSecondNA(int naLast) {
-        if (naLast != RLogical.FALSE) { // both TRUE and NA
-            return -1;
-        } else {
-            return 1;
-        }
-    }
-
-    // FIXME: could hand-inline two variants, one for naLast == NA and another for naLast != NA
-    public static RInt sort(RArray[] keys, final boolean decreasing, int naLast, ASTNode ast) {
-        final int nkeys = keys.length;
-        int size = keys[0].size();
-
-        final boolean removeNA = (naLast == RLogical.NA);
-        int naElements = 0;
-        boolean[] tmp = null;
-        if (removeNA) {
-            tmp = new boolean[size];
-        }
-        final boolean[] hasNA = tmp;
-
-        final ElementsComparator[] comp = new ElementsComparator[nkeys];
-        for (int i = 0; i < nkeys; i++) {
-            ElementsComparator c = createComparator(keys[i], ast);
-            comp[i] = c;
-            if (removeNA) {
-                for (int j = 0; j < size; j++) {
-                    if (!hasNA[j] && c.isNA(j)) {
-                        hasNA[j] = true;
-                        naElements++;
-                    }
-                }
-            }
+    public static RInt sort(RArray[] keys, boolean decreasing, int naLast, ASTNode ast) {
+        for (RArray k : keys) {
+            createComparator(k, ast); // checks the type
         }
-
-        Integer[] order = new Integer[size]; // FIXME: have to box integers to be able to use a Arrays.sort with a comparator;
-                                             // FIXME: could specialize for 1 key only, which should be a common case
-                                             // FIXME: also could have a box with the first argument, e.g. FirstKey.index and FirstKey.value
+        int[] order = Ordering.order(keys, decreasing, naLast);
+        int size = order.length;
         for (int i = 0; i < size; i++) {
-            order[i] = i;
-        }
-
-        final ElementsComparator firstComparator = comp[0];
-        final int resFirstNA = resultWhenFirstNA(naLast);
-        final int resSecondNA = resultWhenSecondNA(naLast);
-
-        Comparator<Integer> mainComparator = new Comparator<Integer>() {
-
-            @Override public int compare(Integer o1, Integer o2) {
-                int i1 = o1;
-                int i2 = o2;
-                boolean na1 = firstComparator.isNA(i1);
-                boolean na2 = firstComparator.isNA(i2);
-                if (removeNA) { // elements that have NA in any key will always be put last
-                                // FIXME: might be also worth removing them before sorting, if there is a lot of them and the arrays are large
-                    na1 = na1 || hasNA[i1];
-                    na2 = na2 || hasNA[i2];
-                }
-
-                int res = 0;
-                if (!na1) {
-                    if (!na2) {
-                        res = firstComparator.cmp(i1, i2);
-                    } else {
-                        return resSecondNA;
-                    }
-                } else {
-                    if (!na2) { return resFirstNA; } // NA vs NA
-                }
-
-                int j = 1;
-                while (res == 0 && j < nkeys) {
-                    ElementsComparator c = comp[j];
-                    na1 = c.isNA(i1);
-                    na2 = c.isNA(i2);
-                    if (!na1) {
-                        if (!na2) {
-                            res = c.cmp(i1, i2);
-                        } else {
-                            return resSecondNA;
-                        }
-                    } else {
-                        if (!na2) { return resFirstNA; } // NA vs NA
-                    }
-                }
-                return !decreasing ? res : -res;
-            }
-        };
-
-        Arrays.sort(order, mainComparator);
-        if (!removeNA) {
-            int[] content = new int[size];
-            for (int i = 0; i < size; i++) {
-                content[i] = order[i] + 1; // 1-based
-            }
-            return RInt.RIntFactory.getFor(content);
-        } else {
-            int nsize = size - naElements;
-            int[] content = new int[nsize];
-            for (int i = 0; i < nsize; i++) {
-                content[i] = order[i] + 1; // 1-based, excluding the NA values at the end
-            }
-            return RInt.RIntFactory.getFor(content);
+            order[i]++; // 1-based
         }
+        return RInt.RIntFactory.getFor(order);
     }
 }
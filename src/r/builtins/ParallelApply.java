@@ -0,0 +1,210 @@
+package r.builtins;
+
+import java.util.concurrent.*;
+
+import r.*;
+import r.builtins.LApply.ValueProvider;
+import r.data.*;
+import r.data.internal.*;
+import r.errors.*;
+import r.nodes.*;
+import r.nodes.truffle.*;
+import r.nodes.truffle.FunctionCall;
+
+import com.oracle.truffle.api.frame.*;
+
+/**
+ * Parallel evaluation of the calls of lapply and sapply (when "mc.cores" is larger than 1).
+ *
+ * The index range of X is split into one chunk per core and the chunks are run in a fork-join pool. Each worker has its
+ * own call node (with its own providers for the element, the function and the already evaluated extra arguments), so
+ * node rewrites of the call site and the argument values are never shared between threads. The first element is
+ * evaluated in the calling thread before forking, so that the (shared) tree of the called function gets specialized
+ * before the workers start.
+ *
+ * Reference counts are not atomic, so the extra arguments are marked shared and the counts are only incremented while
+ * the workers run (see {@link NonScalarArrayImpl#unref()}).
+ *
+ * The called function must not have side effects on shared state other than through the random number generator
+ * (which is serialized, see {@link r.builtins.internal.Random}); e.g. assigning into a shared environment from the
+ * workers is not supported.
+ */
+final class ParallelApply {
+
+    private static ForkJoinPool pool;
+
+    private static synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+        return pool;
+    }
+
+    /** Returns the requested number of cores, 1 when the argument is not given. */
+    static int parseCores(RAny arg, ASTNode ast) {
+        if (arg == null) {
+            return 1;
+        }
+        if (arg instanceof RDouble || arg instanceof RInt || arg instanceof RLogical) {
+            RInt iarg = arg.asInt();
+            if (iarg.size() >= 1) {
+                int cores = iarg.getInt(0);
+                if (cores != RInt.NA && cores >= 1) {
+                    return cores;
+                }
+            }
+        }
+        throw RError.getInvalidArgument(ast, "mc.cores");
+    }
+
+    static RAny element(RArray x, int i) {
+        return x instanceof RList ? ((RList) x).getRAny(i) : x.boxedGet(i);
+    }
+
+    /** A call site private to one worker. */
+    static final class Worker extends BaseR {
+        @Child RNode callNode;
+        final ValueProvider argProvider;
+
+        Worker(ASTNode call, RCallable callable, RSymbol[] extraNames, RAny[] extraValues) {
+            super(call);
+            int nargs = 1 + extraValues.length;
+            RSymbol[] names = new RSymbol[nargs];
+            RNode[] exprs = new RNode[nargs];
+            argProvider = new ValueProvider(call);
+            exprs[0] = argProvider;
+            for (int i = 0; i < extraValues.length; i++) {
+                ValueProvider p = new ValueProvider(call);
+                p.setValue(extraValues[i]);
+                names[i + 1] = extraNames[i];
+                exprs[i + 1] = p;
+            }
+            ValueProvider callableProvider = new ValueProvider(call);
+            callableProvider.setValue(callable);
+            callNode = adoptChild(FunctionCall.getFunctionCall(call, callableProvider, names, exprs));
+        }
+
+        RAny call(Frame frame, RAny arg) {
+            argProvider.setValue(arg);
+            return (RAny) execute(frame);
+        }
+
+        @Override public Object execute(Frame frame) {
+            return callNode.execute(frame);
+        }
+    }
+
+    static final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final Worker worker;
+        final Frame frame;
+        final RArray x;
+        final RAny[] results;
+        final int from;
+        final int to;
+        Throwable error;
+
+        Chunk(Worker worker, Frame frame, RArray x, RAny[] results, int from, int to) {
+            this.worker = worker;
+            this.frame = frame;
+            this.x = x;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override protected void compute() {
+            try {
+                for (int i = from; i < to; i++) {
+                    results[i] = worker.call(frame, element(x, i));
+                }
+            } catch (Throwable t) {
+                error = t; // re-thrown by the caller, fork-join would otherwise wrap or copy it
+            }
+        }
+    }
+
+    /** Calls the function on each element of x, with the extra arguments, using up to the given number of cores. The
+     * results are in the order of the elements.
+     */
+    static RAny[] apply(ASTNode call, Frame frame, RArray x, RCallable callable, RSymbol[] extraNames, RAny[] extraValues, int cores) {
+        int size = x.size();
+        RAny[] results = new RAny[size];
+        if (size == 0) {
+            return results;
+        }
+        Worker first = new Worker(call, callable, extraNames, extraValues);
+        results[0] = first.call(frame, element(x, 0));
+
+        int nchunks = Math.min(cores, size - 1);
+        if (nchunks == 0) {
+            return results;
+        }
+        final Chunk[] chunks = new Chunk[nchunks];
+        int chunkSize = (size - 1) / nchunks;
+        int extra = (size - 1) % nchunks;
+        int from = 1;
+        for (int c = 0; c < nchunks; c++) {
+            int to = from + chunkSize + (c < extra ? 1 : 0);
+            Worker w = c == 0 ? first : new Worker(call, callable, extraNames, extraValues);
+            chunks[c] = new Chunk(w, frame, x, results, from, to);
+            from = to;
+        }
+        // the extra arguments are seen by all workers, they must not be updated in place
+        for (RAny v : extraValues) {
+            v.ref();
+            v.ref();
+        }
+        NonScalarArrayImpl.suspendUnref();
+        try {
+            pool().invoke(new RecursiveAction() {
+                private static final long serialVersionUID = 1L;
+
+                @Override protected void compute() {
+                    invokeAll(chunks);
+                }
+            });
+        } finally {
+            NonScalarArrayImpl.resumeUnref();
+        }
+        for (Chunk c : chunks) {
+            Throwable t = c.error;
+            if (t != null) {
+                if (t instanceof RuntimeException) {
+                    throw (RuntimeException) t;
+                }
+                if (t instanceof Error) {
+                    throw (Error) t;
+                }
+                throw new RuntimeException(t);
+            }
+        }
+        return results;
+    }
+
+    /** Extracts the names and values of arguments passed through to the function, i.e. those not at the given
+     * positions.
+     */
+    static RSymbol[] extraNames(RSymbol[] argNames, int xPosition, int funPosition, int coresPosition) {
+        RSymbol[] res = new RSymbol[argNames.length - (coresPosition == -1 ? 2 : 3)];
+        int j = 0;
+        for (int i = 0; i < argNames.length; i++) {
+            if (i != xPosition && i != funPosition && i != coresPosition) {
+                res[j++] = argNames[i];
+            }
+        }
+        return res;
+    }
+
+    static RAny[] extraValues(RAny[] args, int xPosition, int funPosition, int coresPosition) {
+        RAny[] res = new RAny[args.length - (coresPosition == -1 ? 2 : 3)];
+        int j = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (i != xPosition && i != funPosition && i != coresPosition) {
+                res[j++] = args[i];
+            }
+        }
+        return res;
+    }
+}
@@ -1,6 +1,7 @@
 package r.builtins;
 
 import r.data.*;
+import r.data.internal.*;
 import r.errors.*;
 import r.nodes.*;
 import r.nodes.truffle.*;
@@ -16,7 +17,6 @@ import com.oracle.truffle.api.frame.*;
  * collapse -- an optional character string to separate the results. Not NA_character_.
  * </pre>
  */
-// FIXME: this is an unoptimized version
 final class Paste extends CallFactory {
     static final CallFactory _ = new Paste("paste", new String[]{"...", "sep", "collapse"}, new String[]{});
 
@@ -84,51 +84,140 @@ final class Paste extends CallFactory {
             collapse = parseCollapse(ast, args[collapsePosition]);
         }
 
-        RString[] stringArgs = new RString[realArgs];
+        String[][] values = new String[realArgs][];
         int j = 0;
         int maxLength = 0;
         for (int i = 0; i < args.length; i++) {
             if (i == sepPosition || i == collapsePosition) {
                 continue;
             }
-            RString s = AsBase.genericAsString(ast, args[i]); // FIXME: can we remove R-level boxing?
-            stringArgs[j++] = s;
-            int ssize = s.size();
-            if (ssize > maxLength) {
-                maxLength = ssize;
+            String[] v = strings(AsBase.genericAsString(ast, args[i])); // FIXME: can we remove R-level boxing?
+            values[j++] = v;
+            if (v.length > maxLength) {
+                maxLength = v.length;
             }
         }
+        if (maxLength == 0) {
+            return collapse == null ? RString.EMPTY : RString.RStringFactory.getScalar("");
+        }
+        if (realArgs == 1 && collapse == null) {
+            return RString.RStringFactory.getFor(values[0]);
+        }
 
-        if (collapse == null) {
-            String[] content = new String[maxLength];
-            for (int i = 0; i < maxLength; i++) {
-                StringBuilder str = new StringBuilder();
-                for (j = 0; j < realArgs; j++) {
-                    if (j > 0) {
-                        str.append(separator);
-                    }
-                    RString s = stringArgs[j];
-                    str.append(s.getString(i % s.size()));
-                }
-                content[i] = str.toString();
+        // the arguments of length 1 (or 0) are the same in all results, they are merged with the separators into
+        // literals, so a result is literals[0] + vectors[0][i] + literals[1] + ... + literals[nvectors]
+        int nvectors = 0;
+        for (String[] v : values) {
+            if (v.length > 1) {
+                nvectors++;
             }
-            return RString.RStringFactory.getFor(content);
-        } else {
-            StringBuilder str = new StringBuilder();
-            for (int i = 0; i < maxLength; i++) {
-                if (i > 0) {
-                    str.append(collapse);
-                }
-                for (j = 0; j < realArgs; j++) {
-                    if (j > 0) {
-                        str.append(separator);
-                    }
-                    RString s = stringArgs[j];
-                    str.append(s.getString(i % s.size()));
-                }
+        }
+        String[][] vectors = new String[nvectors][];
+        String[] literals = new String[nvectors + 1];
+        StringBuilder literal = new StringBuilder();
+        int k = 0;
+        for (j = 0; j < realArgs; j++) {
+            if (j > 0) {
+                literal.append(separator);
+            }
+            String[] v = values[j];
+            if (v.length > 1) {
+                literals[k] = literal.toString();
+                vectors[k++] = v;
+                literal.setLength(0);
+            } else if (v.length == 1) {
+                literal.append(v[0]);
+            }
+        }
+        literals[nvectors] = literal.toString();
+        if (nvectors == 0) {
+            return RString.RStringFactory.getScalar(literals[0]); // maxLength == 1
+        }
+        return collapse == null ? paste(literals, vectors, maxLength) : pasteCollapse(literals, vectors, maxLength, collapse, ast);
+    }
+
+    // the strings of the vector, with NA as "NA"
+    static String[] strings(RString s) {
+        int size = s.size();
+        String[] res = new String[size];
+        for (int i = 0; i < size; i++) {
+            String str = s.getString(i);
+            res[i] = str != RString.NA ? str : "NA";
+        }
+        return res;
+    }
+
+    static int literalsLength(String[] literals) {
+        int len = 0;
+        for (String l : literals) {
+            len += l.length();
+        }
+        return len;
+    }
+
+    // appends the result for the (recycled) indexes idx into the vectors
+    static void append(String[] literals, String[][] vectors, int[] idx, StringBuilder buf) {
+        int nvectors = vectors.length;
+        for (int k = 0; k < nvectors; k++) {
+            buf.append(literals[k]);
+            buf.append(vectors[k][idx[k]]);
+        }
+        buf.append(literals[nvectors]);
+    }
+
+    static void advance(String[][] vectors, int[] idx) {
+        for (int k = 0; k < vectors.length; k++) {
+            if (++idx[k] == vectors[k].length) {
+                idx[k] = 0;
             }
-            return RString.RStringFactory.getScalar(str.toString());
         }
     }
 
+    private static final int MAX_INITIAL_BYTES = 1 << 24;
+
+    // one buffer is reused for all results, it only grows to the size of the longest result; the results are copied from it
+    // into compact strings, so no String is created per result
+    static RString paste(String[] literals, String[][] vectors, int size) {
+        long expectedBytes = (long) size * (literalsLength(literals) + 4 * vectors.length);
+        CompactStrings.Builder content = new CompactStrings.Builder(size, (int) Math.min(expectedBytes, MAX_INITIAL_BYTES));
+        int[] idx = new int[vectors.length];
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            buf.setLength(0);
+            append(literals, vectors, idx, buf);
+            content.add(buf, 0, buf.length());
+            advance(vectors, idx);
+        }
+        return content.build();
+    }
+
+    // the results are appended directly to one buffer of the size of the collapsed string
+    static RString pasteCollapse(String[] literals, String[][] vectors, int size, String collapse, ASTNode ast) {
+        int nvectors = vectors.length;
+        long total = (long) literalsLength(literals) * size + (long) collapse.length() * (size - 1);
+        for (int k = 0; k < nvectors; k++) {
+            String[] v = vectors[k];
+            long vlen = 0;
+            for (String str : v) {
+                vlen += str.length();
+            }
+            total += vlen * (size / v.length);
+            for (int i = 0; i < size % v.length; i++) {
+                total += v[i].length();
+            }
+        }
+        if (total > java.lang.Integer.MAX_VALUE) {
+            throw RError.getGenericError(ast, RError.RESULT_TOO_LONG);
+        }
+        StringBuilder buf = new StringBuilder((int) total);
+        int[] idx = new int[nvectors];
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                buf.append(collapse);
+            }
+            append(literals, vectors, idx, buf);
+            advance(vectors, idx);
+        }
+        return RString.RStringFactory.getScalar(buf.toString());
+    }
 }
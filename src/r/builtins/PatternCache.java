@@ -0,0 +1,108 @@
+package r.builtins;
+
+import java.util.*;
+import java.util.regex.*;
+
+/**
+ * Compiled regular expressions shared by sub, gsub, regexpr, gregexpr and strsplit.
+ *
+ * Patterns are kept in a bounded cache, least recently used patterns are evicted. In addition, each call site remembers
+ * the last pattern it used (see {@link Site}), which avoids the lookup (and the lock) when the pattern is a constant or
+ * does not change between calls, as in loops over lines of input.
+ */
+final class PatternCache {
+
+    private static final int CAPACITY = 256;
+
+    private static final Map<Key, Pattern> cache = new LinkedHashMap<Key, Pattern>(CAPACITY, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override protected boolean removeEldestEntry(Map.Entry<Key, Pattern> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    static final class Key {
+        final String regex;
+        final int flags;
+
+        Key(String regex, int flags) {
+            this.regex = regex;
+            this.flags = flags;
+        }
+
+        @Override public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return flags == k.flags && regex.equals(k.regex);
+        }
+
+        @Override public int hashCode() {
+            return regex.hashCode() * 31 + flags;
+        }
+    }
+
+    /** Returns the compiled pattern, throws PatternSyntaxException like Pattern.compile. */
+    static Pattern get(String regex, int flags) {
+        Key key = new Key(regex, flags);
+        synchronized (cache) {
+            Pattern p = cache.get(key);
+            if (p != null) {
+                return p;
+            }
+        }
+        Pattern p = Pattern.compile(regex, flags);
+        synchronized (cache) {
+            cache.put(key, p);
+        }
+        return p;
+    }
+
+    /**
+     * The last pattern used at a call site. The builtin node may be shared by threads (parallel lapply), so the entry is
+     * immutable and replaced as a whole.
+     */
+    static final class Site {
+        private Entry last;
+
+        Pattern get(String regex, int flags) {
+            Entry e = last;
+            if (e != null && e.flags == flags && e.regex.equals(regex)) {
+                return e.pattern;
+            }
+            Pattern p = PatternCache.get(regex, flags);
+            last = new Entry(regex, flags, p);
+            return p;
+        }
+    }
+
+    static final class Entry {
+        final String regex;
+        final int flags;
+        final Pattern pattern;
+
+        Entry(String regex, int flags, Pattern pattern) {
+            this.regex = regex;
+            this.flags = flags;
+            this.pattern = pattern;
+        }
+    }
+
+    /** Returns true if the regular expression has no special characters, so that it only matches itself. */
+    static boolean isLiteral(String regex) {
+        int len = regex.length();
+        if (len == 0) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            switch (regex.charAt(i)) {
+                case '.': case '[': case ']': case '{': case '}': case '(': case ')': case '\\':
+                case '*': case '+': case '?': case '^': case '$': case '|':
+                    return false;
+            }
+        }
+        return true;
+    }
+}
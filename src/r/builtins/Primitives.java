@@ -81,6 +81,7 @@ public class Primitives {
         add(Close._);
         add(ColMeans._);
         add(ColSums._);
+        add(CopySites._);
         add(Cor._);
         add(Crossprod._);
         add(Cumsum._);
@@ -156,6 +157,7 @@ public class Primitives {
         add(Rbinom._);
         add(Rcauchy._);
         add(Re._);
+        add(ReadBin._);
         add(ReadLines._);
         add(Recall._);
         add(Regexpr._);
@@ -164,10 +166,12 @@ public class Primitives {
         add(Return._);
         add(Rev._);
         add("rev.default", Rev._);
+        add(RewriteSites._);
         add(Rgamma._);
         add(Rlnorm._);
         add(Rnorm._);
         add(Round._);
+        add(Rprof._);
         add(RowMeans._);
         add(RowSums._);
         add(Runif._);
@@ -188,12 +192,15 @@ public class Primitives {
         add(Substr._);
         add(Substring._);
         add(Sum._);
+        add(SummaryRprof._);
         add(T._);
         add("t.default", T._);
         add(Tolower._);
         add(Toupper._);
+        add(Tracemem._);
         add(Typeof._);
         add(Unlist._);
+        add(Untracemem._);
         add(UpperTri._);
         add(Which._);
         add(WriteBin._);
@@ -0,0 +1,389 @@
+package r.builtins;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+
+import r.*;
+import r.data.*;
+import r.data.internal.*;
+import r.data.internal.Connection.FileConnection;
+import r.errors.*;
+import r.nodes.*;
+import r.nodes.truffle.*;
+
+import com.oracle.truffle.api.frame.*;
+
+/**
+ * "readBin"
+ *
+ * <pre>
+ * con -- A connection object or a character string naming a file or a raw vector.
+ * what -- Either an object whose mode will give the mode of the vector to be read, or a character vector of length one
+ *     describing the mode: one of "numeric", "double", "integer", "int", "logical", "complex", "character", "raw".
+ * n -- integer. The (maximal) number of records to be read.
+ * size -- integer. The number of bytes per element in the byte stream. The default, NA_integer_, uses the natural size.
+ * signed -- logical. Only used for integers of sizes 1 and 2, when it determines if the quantity on file should be
+ *     regarded as a signed or unsigned integer.
+ * endian -- The endian-ness ("big" or "little") of the target system for the file. Using "swap" will force swapping
+ *     endian-ness.
+ * </pre>
+ */
+// FIXME: implements only part of R semantics (no complex and character vectors)
+final class ReadBin extends CallFactory {
+    static final CallFactory _ = new ReadBin("readBin", new String[]{"con", "what", "n", "size", "signed", "endian"}, new String[]{"con", "what"});
+
+    static final int BUFFER_SIZE = 1 << 16; // a multiple of all element sizes
+
+    ReadBin(String name, String[] params, String[] required) {
+        super(name, params, required);
+    }
+
+    @Override public RNode create(ASTNode call, RSymbol[] names, RNode[] exprs) {
+        ArgumentInfo ia = check(call, names, exprs);
+        final ConnectionMode defaultMode = ConnectionMode.get("rb");
+        final int posCon = ia.position("con");
+        final int posWhat = ia.position("what");
+        final int posN = ia.position("n");
+        final int posSize = ia.position("size");
+        final int posSigned = ia.position("signed");
+        final int posEndian = ia.position("endian");
+        return new Builtin(call, names, exprs) {
+            @Override public RAny doBuiltIn(Frame frame, RAny[] args) {
+                int n = posN == -1 ? 1 : parseN(args[posN], ast);
+                int size = posSize == -1 ? RInt.NA : parseSize(args[posSize], ast);
+                boolean signed = posSigned == -1 ? true : ReadLines.parseLogicalScalar(args[posSigned], ast, "signed");
+                ByteOrder order = posEndian == -1 ? ByteOrder.nativeOrder() : parseEndian(args[posEndian], ast);
+                Decoder decoder = createDecoder(args[posWhat], size, signed, ast);
+
+                RAny conArg = args[posCon];
+                if (conArg instanceof RRaw) {
+                    return read(Channels.newChannel(new ByteArrayInputStream(rawContent((RRaw) conArg))), n, decoder, order, ast);
+                }
+                Connection con = null;
+                boolean wasOpen = false;
+                if (conArg instanceof RString) {
+                    String description = File.getScalarString(conArg, ast, "description");
+                    con = FileConnection.createOpened(description, defaultMode, ast);
+                } else if (conArg instanceof RInt) {
+                    // FIXME: check if it is a connection once attributes are implemented
+                    RInt iarg = (RInt) conArg;
+                    if (iarg.size() != 1) { throw RError.getNotConnection(ast, "con"); }
+                    int handle = iarg.getInt(0);
+                    con = RContext.getConnection(handle);
+                    Utils.check(con != null);
+                    if (con.isOpen()) {
+                        ConnectionMode mode = con.currentMode();
+                        if (!mode.binary()) { throw RError.getReadOnlyBinary(ast); }
+                        if (!mode.read()) { throw RError.getCannotReadConnection(ast); }
+                        wasOpen = true;
+                    } else {
+                        con.open(defaultMode, ast);
+                    }
+                } else {
+                    throw RError.getNotConnection(ast, "con");
+                }
+                try {
+                    return read(con.inputChannel(ast), n, decoder, order, ast);
+                } finally {
+                    if (!wasOpen) {
+                        con.close(ast);
+                    }
+                }
+            }
+        };
+    }
+
+    // reads up to n elements, through a direct buffer that is decoded in bulk
+    static RAny read(ReadableByteChannel channel, int n, Decoder decoder, ByteOrder order, ASTNode ast) {
+        int size = decoder.size;
+        try {
+            int capacity = Math.min(n, BUFFER_SIZE / size);
+            if (channel instanceof FileChannel) { // allocate the whole result at once if the file is long enough
+                FileChannel fc = (FileChannel) channel;
+                capacity = (int) Math.min(n, Math.max(0, (fc.size() - fc.position()) / size));
+            }
+            decoder.allocate(capacity);
+            ByteBuffer buf = ByteBuffer.allocateDirect((int) Math.min(BUFFER_SIZE, Math.max(n, 1L) * size)).order(order);
+            int count = 0;
+            while (count < n) {
+                buf.clear();
+                buf.limit((int) Math.min(buf.capacity(), (long) (n - count) * size));
+                boolean eof = false;
+                while (buf.hasRemaining()) {
+                    if (channel.read(buf) == -1) {
+                        eof = true;
+                        break;
+                    }
+                }
+                int k = buf.position() / size; // an incomplete element at the end of input is dropped
+                buf.flip();
+                if (count + k > decoder.capacity()) {
+                    decoder.grow(Math.max(count + k, (int) Math.min(n, 2L * decoder.capacity())));
+                }
+                decoder.decode(buf, count, k);
+                count += k;
+                if (eof) {
+                    break;
+                }
+            }
+            return decoder.result(count);
+        } catch (IOException e) {
+            throw RError.getGenericError(ast, e.toString());
+        }
+    }
+
+    static byte[] rawContent(RRaw raw) {
+        RArray m = raw.materialize();
+        if (m instanceof RawImpl) {
+            return ((RawImpl) m).getContent();
+        }
+        int size = raw.size();
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = raw.getRaw(i);
+        }
+        return content;
+    }
+
+    static int parseN(RAny arg, ASTNode ast) {
+        int n = ReadLines.parseN(arg, ast);
+        if (n < 0) { throw RError.getInvalidArgument(ast, "n"); }
+        return n;
+    }
+
+    static int parseSize(RAny arg, ASTNode ast) {
+        RInt iarg = Convert.coerceToIntWarning(arg, ast);
+        if (iarg.size() != 1) { throw RError.getInvalidArgument(ast, "size"); }
+        return iarg.getInt(0);
+    }
+
+    static ByteOrder parseEndian(RAny arg, ASTNode ast) {
+        String endian = File.getScalarString(arg, ast, "endian");
+        ByteOrder nativeOrder = ByteOrder.nativeOrder();
+        switch (endian) {
+            case "big":
+                return ByteOrder.BIG_ENDIAN;
+            case "little":
+                return ByteOrder.LITTLE_ENDIAN;
+            case "swap":
+                return nativeOrder == ByteOrder.BIG_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+            default:
+                throw RError.getInvalidArgument(ast, "endian");
+        }
+    }
+
+    static Decoder createDecoder(RAny what, int size, boolean signed, ASTNode ast) {
+        String mode;
+        if (what instanceof RString && what.asString().size() == 1) {
+            mode = ((RString) what).getString(0);
+        } else if (what instanceof RDouble) {
+            mode = "double";
+        } else if (what instanceof RInt) {
+            mode = "integer";
+        } else if (what instanceof RLogical) {
+            mode = "logical";
+        } else if (what instanceof RRaw) {
+            mode = "raw";
+        } else {
+            throw RError.getInvalidArgument(ast, "what");
+        }
+        if (mode == null) { throw RError.getInvalidArgument(ast, "what"); }
+        switch (mode) {
+            case "numeric":
+            case "double":
+                if (size == RInt.NA || size == 8) { return new DoubleDecoder(); }
+                if (size == 4) { return new FloatDecoder(); }
+                throw RError.getSizeUnknown(ast, size);
+            case "integer":
+            case "int":
+                return new IntDecoder(size == RInt.NA ? 4 : checkIntSize(size, ast), signed, false);
+            case "logical":
+                return new IntDecoder(size == RInt.NA ? 4 : checkIntSize(size, ast), signed, true);
+            case "raw":
+                return new RawDecoder();
+            case "complex":
+            case "character":
+                throw Utils.nyi("unsupported mode");
+            default:
+                throw RError.getInvalidArgument(ast, "what");
+        }
+    }
+
+    static int checkIntSize(int size, ASTNode ast) {
+        if (size == 1 || size == 2 || size == 4 || size == 8) {
+            return size;
+        }
+        throw RError.getSizeUnknown(ast, size);
+    }
+
+    /** Decodes elements of a given size from a byte buffer into a growing primitive array. */
+    abstract static class Decoder {
+        final int size;
+
+        Decoder(int size) {
+            this.size = size;
+        }
+
+        abstract void allocate(int capacity);
+        abstract int capacity();
+        abstract void grow(int capacity);
+        // decodes k elements from the buffer to the array starting at offset
+        abstract void decode(ByteBuffer buf, int offset, int k);
+        abstract RAny result(int count);
+    }
+
+    static final class DoubleDecoder extends Decoder {
+        double[] content;
+
+        DoubleDecoder() {
+            super(8);
+        }
+
+        @Override void allocate(int capacity) {
+            content = new double[capacity];
+        }
+
+        @Override int capacity() {
+            return content.length;
+        }
+
+        @Override void grow(int capacity) {
+            content = Arrays.copyOf(content, capacity);
+        }
+
+        @Override void decode(ByteBuffer buf, int offset, int k) {
+            buf.asDoubleBuffer().get(content, offset, k);
+        }
+
+        @Override RAny result(int count) {
+            return RDouble.RDoubleFactory.getFor(count == content.length ? content : Arrays.copyOf(content, count));
+        }
+    }
+
+    static final class FloatDecoder extends Decoder {
+        double[] content;
+
+        FloatDecoder() {
+            super(4);
+        }
+
+        @Override void allocate(int capacity) {
+            content = new double[capacity];
+        }
+
+        @Override int capacity() {
+            return content.length;
+        }
+
+        @Override void grow(int capacity) {
+            content = Arrays.copyOf(content, capacity);
+        }
+
+        @Override void decode(ByteBuffer buf, int offset, int k) {
+            FloatBuffer fb = buf.asFloatBuffer();
+            for (int i = 0; i < k; i++) {
+                content[offset + i] = fb.get(i);
+            }
+        }
+
+        @Override RAny result(int count) {
+            return RDouble.RDoubleFactory.getFor(count == content.length ? content : Arrays.copyOf(content, count));
+        }
+    }
+
+    static final class IntDecoder extends Decoder {
+        final boolean signed;
+        final boolean logical;
+        int[] content;
+
+        IntDecoder(int size, boolean signed, boolean logical) {
+            super(size);
+            this.signed = signed;
+            this.logical = logical;
+        }
+
+        @Override void allocate(int capacity) {
+            content = new int[capacity];
+        }
+
+        @Override int capacity() {
+            return content.length;
+        }
+
+        @Override void grow(int capacity) {
+            content = Arrays.copyOf(content, capacity);
+        }
+
+        @Override void decode(ByteBuffer buf, int offset, int k) {
+            int[] c = content;
+            switch (size) {
+                case 4:
+                    buf.asIntBuffer().get(c, offset, k);
+                    break;
+                case 2:
+                    ShortBuffer sb = buf.asShortBuffer();
+                    for (int i = 0; i < k; i++) {
+                        short s = sb.get(i);
+                        c[offset + i] = signed ? s : s & 0xffff;
+                    }
+                    break;
+                case 1:
+                    for (int i = 0; i < k; i++) {
+                        byte b = buf.get(i);
+                        c[offset + i] = signed ? b : b & 0xff;
+                    }
+                    break;
+                case 8:
+                    LongBuffer lb = buf.asLongBuffer();
+                    for (int i = 0; i < k; i++) {
+                        c[offset + i] = (int) lb.get(i);
+                    }
+                    break;
+                default:
+                    throw Utils.nyi("unreachable");
+            }
+            if (logical) {
+                for (int i = offset; i < offset + k; i++) {
+                    if (c[i] != RLogical.NA && c[i] != RLogical.FALSE) {
+                        c[i] = RLogical.TRUE;
+                    }
+                }
+            }
+        }
+
+        @Override RAny result(int count) {
+            int[] res = count == content.length ? content : Arrays.copyOf(content, count);
+            return logical ? RLogical.RLogicalFactory.getFor(res) : RInt.RIntFactory.getFor(res);
+        }
+    }
+
+    static final class RawDecoder extends Decoder {
+        byte[] content;
+
+        RawDecoder() {
+            super(1);
+        }
+
+        @Override void allocate(int capacity) {
+            content = new byte[capacity];
+        }
+
+        @Override int capacity() {
+            return content.length;
+        }
+
+        @Override void grow(int capacity) {
+            content = Arrays.copyOf(content, capacity);
+        }
+
+        @Override void decode(ByteBuffer buf, int offset, int k) {
+            buf.get(content, offset, k);
+        }
+
+        @Override RAny result(int count) {
+            return RRaw.RRawFactory.getFor(count == content.length ? content : Arrays.copyOf(content, count));
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package r.builtins;
 
 import java.io.*;
-import java.util.*;
 
 import r.*;
 import r.data.*;
@@ -31,6 +30,8 @@ import com.oracle.truffle.api.frame.*;
 final class ReadLines extends CallFactory {
     static final CallFactory _ = new ReadLines("readLines", new String[]{"con", "n", "ok", "warn", "encoding"}, new String[]{});
 
+    private static final int INITIAL_LINES = 1024;
+
     private ReadLines(String name, String[] params, String[] required) {
         super(name, params, required);
     }
@@ -73,8 +74,14 @@ final class ReadLines extends CallFactory {
                 }
 
                 try {
+                    boolean intern = RContext.internStrings();
+                    RString mapped = con.mappedLines(n, intern, ast);
+                    if (mapped != null) {
+                        if (!ok && mapped.size() < n) { throw RError.getTooFewLinesReadLines(ast); }
+                        return mapped;
+                    }
                     BufferedReader reader = con.reader(ast);
-                    ArrayList<String> buf = new ArrayList<>();
+                    CompactStrings.Builder buf = new CompactStrings.Builder(n > 0 && n < INITIAL_LINES ? n : INITIAL_LINES, 8 * INITIAL_LINES, intern);
                     String line = "";
                     int nlines = 0;
                     try {
@@ -89,14 +96,10 @@ final class ReadLines extends CallFactory {
                         throw RError.getGenericError(ast, e.toString());
                     }
                     if (!ok && nlines < n) { throw RError.getTooFewLinesReadLines(ast); }
-                    String[] content = new String[buf.size()];
-                    buf.toArray(content);
-                    if (nlines > 0 && content[nlines - 1].length() != 0) {
-                        // TODO detect when the file does not end with a newline, this cannot be done using readLine
-                        // context.warning(ast, String.format(RError.INCOMPLETE_FINAL_LINE, con.description()));
-                        // TODO: push-back of incomplete line with non-blocking connections
-                    }
-                    return RString.RStringFactory.getFor(content);
+                    // TODO detect when the file does not end with a newline, this cannot be done using readLine
+                    // context.warning(ast, String.format(RError.INCOMPLETE_FINAL_LINE, con.description()));
+                    // TODO: push-back of incomplete line with non-blocking connections
+                    return buf.build();
                 } finally {
                     if (!wasOpen) {
                         con.close(ast);
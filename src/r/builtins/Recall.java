@@ -66,7 +66,7 @@ final class Recall extends CallFactory {
 
         @Override public final RAny doBuiltIn(Frame frame, RAny[] params) {
             Object[] argValues = placeArgs(frame, argPositions, functionDotsInfo, dotsIndex, nparams);
-            RFrameHeader arguments = new RFrameHeader(function, (MaterializedFrame) RFrameHeader.enclosingFrame(frame), argValues);
+            RFrameHeader arguments = new RFrameHeader(function, (MaterializedFrame) RFrameHeader.enclosingFrame(frame), argValues, RFrameHeader.depth(frame) + 1);
             return (RAny) callTarget.call(arguments);
         }
     }
@@ -1,5 +1,6 @@
 package r.builtins;
 
+import java.util.*;
 import java.util.regex.*;
 
 import r.*;
@@ -47,6 +48,7 @@ class Regexpr extends CallFactory {
         final int posPerl = ia.position("perl");
         final int posFixed = ia.position("fixed");
         final int posIgnoreCase = ia.position("ignore.case");
+        final PatternCache.Site site = new PatternCache.Site();
         return new Builtin(call, names, exprs) {
             @Override public RAny doBuiltIn(Frame frame, RAny[] args) {
                 if (posUseBytes != -1) {
@@ -61,7 +63,10 @@ class Regexpr extends CallFactory {
                 if (!perl) {
                     RContext.warning(ast, "Using a Perl-like regular expression syntax (non-Perl not implemented yet).");
                 }
-                Pattern p = Pattern.compile(pattern, (ignoreCase ? Pattern.CASE_INSENSITIVE : 0) | (fixed ? Pattern.LITERAL : 0));
+                if (!ignoreCase && pattern.length() > 0 && (fixed || PatternCache.isLiteral(pattern))) {
+                    return global ? gregexprFixed(pattern, text) : regexprFixed(pattern, text);
+                }
+                Pattern p = site.get(pattern, (ignoreCase ? Pattern.CASE_INSENSITIVE : 0) | (fixed ? Pattern.LITERAL : 0));
                 return global ? gregexpr(p, text) : regexpr(p, text);
             }
         };
@@ -87,6 +92,43 @@ class Regexpr extends CallFactory {
         return RInt.RIntFactory.getFor(content); // drops dimensions
     }
 
+    // a literal (non-empty) pattern is searched for without a regex
+    public static RInt regexprFixed(String pattern, RString text) {
+        int size = text.size();
+        int[] content = new int[size];
+        for (int i = 0; i < size; i++) {
+            String s = text.getString(i);
+            content[i] = s != RString.NA ? s.indexOf(pattern) + 1 : RInt.NA;
+            if (content[i] == 0) {
+                content[i] = -1;
+            }
+        }
+        return RInt.RIntFactory.getFor(content); // drops dimensions
+    }
+
+    public static RList gregexprFixed(String pattern, RString text) {
+        int size = text.size();
+        int pLen = pattern.length();
+        RAny[] content = new RAny[size];
+        int[] buf = new int[size];
+        for (int i = 0; i < size; i++) {
+            String s = text.getString(i);
+            if (s != RString.NA) {
+                int bufUsed = 0;
+                for (int j = s.indexOf(pattern); j != -1; j = s.indexOf(pattern, j + pLen)) {
+                    if (bufUsed == buf.length) {
+                        buf = Arrays.copyOf(buf, Math.max(bufUsed * 2, 1));
+                    }
+                    buf[bufUsed++] = j + 1;
+                }
+                content[i] = bufUsed > 0 ? RInt.RIntFactory.getFor(Arrays.copyOf(buf, bufUsed)) : RInt.RIntFactory.getScalar(-1);
+            } else {
+                content[i] = RInt.BOXED_NA;
+            }
+        }
+        return RList.RListFactory.getFor(content); // drops dimensions
+    }
+
     public static RList gregexpr(Pattern p, RString text) {
         int size = text.size();
         RAny[] content = new RAny[size];
@@ -45,6 +45,10 @@ class Rep extends CallFactory {
     public static final boolean EAGER = true;
     // eager is important when rep is used to initialize e.g. a double vector, then passed to vector operations
 
+    public static final boolean COMPACT = true;
+    // unnamed repetitions of a scalar (or a numeric vector) are represented compactly, without a full-size array;
+    // they are materialized on update, and read directly by the arithmetic fusion, sum and indexing
+
     @Override public RNode create(ASTNode call, RSymbol[] names, RNode[] exprs) {
         ArgumentInfo ia = check(call, names, exprs);
         if (names.length == 2) {
@@ -266,6 +270,9 @@ class Rep extends CallFactory {
 
     public static RLogical repInt(final RLogical orig, final int origSize, final int size) {
         RArray.Names names = orig.names();
+        if (COMPACT && names == null && origSize == 1 && size > 1) {
+            return RLogicalFactory.getConstant(orig.getLogical(0), size);
+        }
 
         if (!EAGER && names == null) {
             return new View.RLogicalProxy<RLogical>(orig) {
@@ -293,6 +300,16 @@ class Rep extends CallFactory {
 
     public static RInt repInt(final RInt orig, final int origSize, final int size) {
         RArray.Names names = orig.names();
+        if (COMPACT && names == null && origSize >= 1 && size > origSize) {
+            if (origSize == 1) {
+                return RIntFactory.getConstant(orig.getInt(0), size);
+            }
+            int[] values = new int[origSize];
+            for (int i = 0; i < origSize; i++) {
+                values[i] = orig.getInt(i);
+            }
+            return new IntImpl.RIntRepeat(values, size);
+        }
 
         if (!EAGER && names == null) {
             return new View.RIntProxy<RInt>(orig) {
@@ -320,6 +337,16 @@ class Rep extends CallFactory {
 
     public static RDouble repInt(final RDouble orig, final int origSize, final int size) {
         RArray.Names names = orig.names();
+        if (COMPACT && names == null && origSize >= 1 && size > origSize) {
+            if (origSize == 1) {
+                return RDoubleFactory.getConstant(orig.getDouble(0), size);
+            }
+            double[] values = new double[origSize];
+            for (int i = 0; i < origSize; i++) {
+                values[i] = orig.getDouble(i);
+            }
+            return new DoubleImpl.RDoubleRepeat(values, size);
+        }
 
         if (!EAGER && names == null) {
             return new View.RDoubleProxy<RDouble>(orig) {
@@ -15,7 +15,6 @@ import r.nodes.truffle.*;
  * x -- a vector or another object for which reversal is defined.
  * </pre>
  */
-// FIXME: could also do lazy rev of int sequence
 class Rev extends CallFactory {
     static final CallFactory _ = new Rev("rev", new String[]{"x"}, new String[]{"x"});
 
@@ -93,6 +92,11 @@ class Rev extends CallFactory {
         RArray.Names names = a.names();
         int size;
         if (names == null) {
+            if (arg instanceof IntImpl.RIntSequence) {
+                IntImpl.RIntSequence seq = (IntImpl.RIntSequence) arg;
+                return RInt.RIntFactory.forSequence(seq.to(), seq.from(), -seq.step());
+            }
+            if (arg instanceof IntImpl.RIntConstant || arg instanceof DoubleImpl.RDoubleConstant || arg instanceof LogicalImpl.RLogicalConstant) { return arg; }
             if (arg instanceof RDouble) { return rev((RDouble) arg); }
             if (arg instanceof RInt) { return rev((RInt) arg); }
             if (arg instanceof RLogical) { return rev((RLogical) arg); }
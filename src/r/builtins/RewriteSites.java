@@ -0,0 +1,73 @@
+package r.builtins;
+
+import r.*;
+import r.data.*;
+import r.errors.*;
+import r.nodes.*;
+import r.nodes.truffle.*;
+
+import com.oracle.truffle.api.frame.*;
+
+/**
+ * "rewriteSites" FastR specific, the node rewrites recorded since options(traceRewrites=TRUE) or --trace-rewrites, see
+ * RewriteTrace.
+ * 
+ * <pre>
+ * threshold -- integer: the sites rewritten more than this number of times are listed (and those that have been generic).
+ * reset -- logical: should the recorded rewrites be dropped?
+ * </pre>
+ */
+// NOTE: returns a list of site (the source), rewrites, path (the node classes), reason (of the last rewrite) and generic,
+//       in the order of the first rewrite, like the columns of a data frame
+final class RewriteSites extends CallFactory {
+    static final CallFactory _ = new RewriteSites("rewriteSites", new String[]{"threshold", "reset"}, new String[]{});
+
+    private static final RArray.Names names = RArray.Names.create(RSymbol.getSymbols(new String[]{"site", "rewrites", "path", "reason", "generic"}));
+
+    private RewriteSites(String name, String[] params, String[] required) {
+        super(name, params, required);
+    }
+
+    @Override public RNode create(ASTNode call, RSymbol[] names, RNode[] exprs) {
+        ArgumentInfo ia = check(call, names, exprs);
+        final int posThreshold = ia.position("threshold");
+        final int posReset = ia.position("reset");
+        return new Builtin(call, names, exprs) {
+            @Override public RAny doBuiltIn(Frame frame, RAny[] args) {
+                int threshold = posThreshold == -1 ? RewriteTrace.DEFAULT_THRESHOLD : parseThreshold(args[posThreshold], ast);
+                boolean reset = posReset == -1 ? false : ReadLines.parseLogicalScalar(args[posReset], ast, "reset");
+                return rewriteSites(RewriteTrace.sites(threshold, reset));
+            }
+        };
+    }
+
+    static int parseThreshold(RAny arg, ASTNode ast) {
+        if (arg instanceof RInt || arg instanceof RDouble || arg instanceof RLogical) {
+            RInt i = arg.asInt();
+            if (i.size() == 1 && i.getInt(0) != RInt.NA && i.getInt(0) >= 0) {
+                return i.getInt(0);
+            }
+        }
+        throw RError.getInvalidArgument(ast, "threshold");
+    }
+
+    static RList rewriteSites(java.util.List<Object[]> entries) {
+        int n = entries.size();
+        String[] site = new String[n];
+        int[] rewrites = new int[n];
+        String[] path = new String[n];
+        String[] reason = new String[n];
+        int[] generic = new int[n];
+        for (int i = 0; i < n; i++) {
+            Object[] e = entries.get(i);
+            site[i] = (String) e[0];
+            rewrites[i] = (java.lang.Integer) e[1];
+            path[i] = (String) e[2];
+            reason[i] = (String) e[3];
+            generic[i] = (Boolean) e[4] ? RLogical.TRUE : RLogical.FALSE;
+        }
+        RAny[] content = new RAny[]{RString.RStringFactory.getFor(site), RInt.RIntFactory.getFor(rewrites), RString.RStringFactory.getFor(path), RString.RStringFactory.getFor(reason),
+                        RLogical.RLogicalFactory.getFor(generic)};
+        return RList.RListFactory.getFor(content, null, names);
+    }
+}
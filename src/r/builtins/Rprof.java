@@ -0,0 +1,73 @@
+package r.builtins;
+
+import java.io.*;
+
+import r.*;
+import r.data.*;
+import r.errors.*;
+import r.nodes.*;
+import r.nodes.truffle.*;
+
+import com.oracle.truffle.api.frame.*;
+
+/**
+ * "Rprof"
+ * 
+ * <pre>
+ * filename -- the file to write the profile to, NULL stops profiling.
+ * append -- logical: should the file be appended to rather than overwritten?
+ * interval -- real: time interval between samples, in seconds.
+ * </pre>
+ */
+// NOTE: the file is written when profiling stops, in the folded stacks format of flame graph tools rather than that of
+//       GNU-R, see r.Profiler; only closure calls are recorded, the time in builtins counts for the closure calling them
+final class Rprof extends CallFactory {
+    static final CallFactory _ = new Rprof("Rprof", new String[]{"filename", "append", "interval"}, new String[]{});
+
+    static final String DEFAULT_FILE = "Rprof.out";
+    static final double DEFAULT_INTERVAL = 0.02;
+    private static final double MIN_INTERVAL = 0.001;
+
+    private Rprof(String name, String[] params, String[] required) {
+        super(name, params, required);
+    }
+
+    @Override public RNode create(ASTNode call, RSymbol[] names, RNode[] exprs) {
+        ArgumentInfo ia = check(call, names, exprs);
+        final int posFilename = ia.position("filename");
+        final int posAppend = ia.position("append");
+        final int posInterval = ia.position("interval");
+        return new Builtin(call, names, exprs) {
+            @Override public RAny doBuiltIn(Frame frame, RAny[] args) {
+                boolean stop = posFilename != -1 && args[posFilename] instanceof RNull;
+                String fileName = (posFilename == -1 || stop) ? DEFAULT_FILE : File.getScalarString(args[posFilename], ast, "filename");
+                boolean append = posAppend == -1 ? false : ReadLines.parseLogicalScalar(args[posAppend], ast, "append");
+                double interval = posInterval == -1 ? DEFAULT_INTERVAL : parseInterval(args[posInterval], ast);
+                try {
+                    if (stop || fileName.length() == 0) {
+                        Profiler.stop();
+                    } else {
+                        Profiler.start(fileName, append, Math.round(interval * 1000));
+                    }
+                } catch (IOException e) {
+                    throw RError.getCannotOpenFile(ast, fileName, e.getMessage());
+                }
+                return RNull.getNull();
+            }
+        };
+    }
+
+    static double parseInterval(RAny arg, ASTNode ast) {
+        if (arg instanceof RDouble || arg instanceof RInt) {
+            RDouble d = arg.asDouble();
+            if (d.size() == 1) {
+                double v = d.getDouble(0);
+                if (RDouble.RDoubleUtils.isFinite(v)) {
+                    // a shorter interval (the resolution of the sampler's sleep) is raised to the minimum
+                    return Math.max(v, MIN_INTERVAL);
+                }
+            }
+        }
+        throw RError.getInvalidArgument(ast, "interval");
+    }
+}
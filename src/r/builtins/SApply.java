@@ -33,6 +33,7 @@ import com.oracle.truffle.api.nodes.*;
  *    the result of FUN(X[[i]]).
  * USE.NAMES -- logical; if TRUE and if X is character, use X as names for the result unless it had names already.
  *    Since this argument follows ... its name cannot be abbreviated.
+ * mc.cores -- (FastR extension) the number of cores to use for calling FUN in parallel, 1 by default. Must be named.
  * </pre>
  */
 
@@ -43,7 +44,7 @@ import com.oracle.truffle.api.nodes.*;
 
 final class SApply extends CallFactory {
 
-    static final CallFactory _ = new SApply("sapply", new String[]{"X", "FUN", "...", "simplify", "USE.NAMES"}, new String[]{"X", "FUN"});
+    static final CallFactory _ = new SApply("sapply", new String[]{"X", "FUN", "...", "simplify", "USE.NAMES", "mc.cores"}, new String[]{"X", "FUN"});
 
     private SApply(String name, String[] params, String[] required) {
         super(name, params, required);
@@ -52,8 +53,9 @@ final class SApply extends CallFactory {
     @Override public RNode create(ASTNode call, RSymbol[] names, RNode[] exprs) {
         ArgumentInfo ia = check(call, names, exprs);
         // for now this initialization is copy-paste from lapply, but a full version of sapply would be different
+        int coresPosition = ia.position("mc.cores");
         // sapply will create a call node, let's prepare names and expressions (first is the variable)
-        int cnArgs = 1 + names.length - 2; // "-2" because both FUN and X are required
+        int cnArgs = 1 + names.length - (coresPosition == -1 ? 2 : 3); // "-2" because both FUN and X are required
         RSymbol[] cnNames = new RSymbol[cnArgs];
         RNode[] cnExprs = new RNode[cnArgs];
         cnNames[0] = null;
@@ -61,7 +63,7 @@ final class SApply extends CallFactory {
         cnExprs[0] = firstArgProvider;
         int j = 0;
         for (int i = 0; i < names.length; i++) {
-            if (ia.position("X") == i || ia.position("FUN") == i) {
+            if (ia.position("X") == i || ia.position("FUN") == i || coresPosition == i) {
                 continue;
             }
             cnNames[1 + j] = names[i];
@@ -69,8 +71,11 @@ final class SApply extends CallFactory {
             j++;
         }
         final CallableProvider callableProvider = new CallableProvider(call, exprs[ia.position("FUN")]);
+        if (coresPosition != -1 && FunctionCall.findDotsArgs(cnExprs) != null) {
+            coresPosition = -1; // FIXME: parallel mode does not support passing ... through
+        }
         final FunctionCall callNode = FunctionCall.getFunctionCall(call, callableProvider, cnNames, cnExprs);
-        return new Sapply(call, names, exprs, callNode, firstArgProvider, callableProvider, ia.position("X"), ia.position("FUN"));
+        return new Sapply(call, names, exprs, callNode, firstArgProvider, callableProvider, ia.position("X"), ia.position("FUN"), coresPosition);
     }
 
     // TODO: handle names
@@ -81,14 +86,16 @@ final class SApply extends CallFactory {
         @Child RNode callNode;
         final int xPosition;
         final int funPosition;
+        final int coresPosition;
 
-        public Sapply(ASTNode call, RSymbol[] names, RNode[] exprs, RNode callNode, ValueProvider firstArgProvider, CallableProvider callableProvider, int xPosition, int funPosition) {
+        public Sapply(ASTNode call, RSymbol[] names, RNode[] exprs, RNode callNode, ValueProvider firstArgProvider, CallableProvider callableProvider, int xPosition, int funPosition, int coresPosition) {
             super(call, names, exprs);
             this.callableProvider = adoptChild(callableProvider);
             this.firstArgProvider = adoptChild(firstArgProvider);
             this.callNode = adoptChild(callNode);
             this.xPosition = xPosition;
             this.funPosition = funPosition;
+            this.coresPosition = coresPosition;
         }
 
         // FIXME: this will be slow (a second pass through the results array)
@@ -488,7 +495,7 @@ final class SApply extends CallFactory {
                         return RDouble.RDoubleFactory.getFor(content, null, it.names());
                     }
                 };
-                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, argIterator, a, "<=RDouble>");
+                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, coresPosition, argIterator, a, "<=RDouble>");
             }
             if (resTemplate instanceof RInt && ((RInt) resTemplate).dimensions() == null) {
                 ApplyFunc a = new ApplyFunc() {
@@ -507,7 +514,7 @@ final class SApply extends CallFactory {
                         return RInt.RIntFactory.getFor(content, null, it.names());
                     }
                 };
-                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, argIterator, a, "<=RInt>");
+                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, coresPosition, argIterator, a, "<=RInt>");
             }
             if (resTemplate instanceof RLogical && ((RLogical) resTemplate).dimensions() == null) {
                 ApplyFunc a = new ApplyFunc() {
@@ -526,7 +533,7 @@ final class SApply extends CallFactory {
                         return RLogical.RLogicalFactory.getFor(content, null, argIterator.names());
                     }
                 };
-                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, argIterator, a, "<=RLogical>");
+                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, coresPosition, argIterator, a, "<=RLogical>");
             }
             if (resTemplate instanceof RString && ((RString) resTemplate).dimensions() == null) {
                 ApplyFunc a = new ApplyFunc() {
@@ -545,7 +552,7 @@ final class SApply extends CallFactory {
                         return RString.RStringFactory.getFor(content, null, argIterator.names());
                     }
                 };
-                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, argIterator, a, "<=RString>");
+                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, coresPosition, argIterator, a, "<=RString>");
             }
             if (resTemplate instanceof RComplex && ((RComplex) resTemplate).dimensions() == null) {
                 ApplyFunc a = new ApplyFunc() {
@@ -566,7 +573,7 @@ final class SApply extends CallFactory {
                         return RComplex.RComplexFactory.getFor(content, null, argIterator.names());
                     }
                 };
-                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, argIterator, a, "<=RComplex>");
+                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, coresPosition, argIterator, a, "<=RComplex>");
             }
             if (resTemplate instanceof RList && ((RList) resTemplate).dimensions() == null) {
                 ApplyFunc a = new ApplyFunc() {
@@ -594,7 +601,7 @@ final class SApply extends CallFactory {
                         return RList.RListFactory.getFor(content, null, argIterator.names());
                     }
                 };
-                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, argIterator, a, "<=RList>");
+                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, coresPosition, argIterator, a, "<=RList>");
             }
             if (resTemplate instanceof RRaw && ((RRaw) resTemplate).dimensions() == null) {
                 ApplyFunc a = new ApplyFunc() {
@@ -613,7 +620,7 @@ final class SApply extends CallFactory {
                         return RRaw.RRawFactory.getFor(content, null, argIterator.names());
                     }
                 };
-                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, argIterator, a, "<=RRaw>");
+                return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, coresPosition, argIterator, a, "<=RRaw>");
             }
             return null; // FIXME: should return generic by default?
         }
@@ -645,16 +652,38 @@ final class SApply extends CallFactory {
         @Override public RAny doBuiltIn(Frame frame, RAny[] args) {
             RAny argx = args[xPosition];
             RAny argfun = args[funPosition];
+            if (coresPosition != -1) {
+                int cores = ParallelApply.parseCores(args[coresPosition], ast);
+                if (cores > 1) {
+                    return doParallelApply(frame, args, cores);
+                }
+            }
             return doApply(frame, argx, argfun);
         }
 
+        // the results are computed in parallel, the simplification is then done by generic on the complete content
+        public RAny doParallelApply(Frame frame, RAny[] args, int cores) {
+            RAny argx = args[xPosition];
+            if (!(argx instanceof RArray)) { throw Utils.nyi("unsupported type"); }
+            callableProvider.matchAndSet(ast, frame, args[funPosition]);
+            RAny[] content = ParallelApply.apply(ast, frame, (RArray) argx, callableProvider.value, ParallelApply.extraNames(argNames, xPosition, funPosition, coresPosition),
+                            ParallelApply.extraValues(args, xPosition, funPosition, coresPosition), cores);
+            ArgIterator argIterator = ArgIterator.create(argx);
+            try {
+                argIterator.reset(firstArgProvider, argx);
+            } catch (UnexpectedResultException e) {
+                throw Utils.nyi("unsupported type");
+            }
+            return generic(frame, argIterator, this, content);
+        }
+
         public Specialized createGeneric(ArgIterator argIterator) {
             ApplyFunc a = new ApplyFunc() {
                 @Override public RAny apply(Frame frame, ArgIterator argIterator, Sapply sapply) throws UnexpectedResultException {
                     return generic(frame, argIterator, sapply, null);
                 }
             };
-            return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, argIterator, a, "<Generic>");
+            return new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, coresPosition, argIterator, a, "<Generic>");
         }
 
         abstract static class ApplyFunc {
@@ -667,8 +696,8 @@ final class SApply extends CallFactory {
             final String dbg;
 
             public Specialized(ASTNode call, RSymbol[] names, RNode[] exprs, RNode callNode, ValueProvider firstArgProvider, CallableProvider callableProvider, int xPosition, int funPosition,
-                    ArgIterator argIterator, ApplyFunc apply, String dbg) {
-                super(call, names, exprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition);
+                    int coresPosition, ArgIterator argIterator, ApplyFunc apply, String dbg) {
+                super(call, names, exprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, coresPosition);
                 this.apply = apply;
                 this.argIterator = argIterator;
                 this.dbg = dbg;
@@ -680,7 +709,7 @@ final class SApply extends CallFactory {
                     argIterator.reset(firstArgProvider, argx);
                 } catch (UnexpectedResultException e) {
                     ArgIterator ai = new ArgIterator.Generic();
-                    Specialized sn = new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, ai, apply, dbg);
+                    Specialized sn = new Specialized(ast, argNames, argExprs, callNode, firstArgProvider, callableProvider, xPosition, funPosition, coresPosition, ai, apply, dbg);
                     replace(sn, "install Specialized<Generic, ?> from Sapply.Specialized");
                     return sn.doApply(frame, argx, argfun);
                 }
@@ -85,6 +85,8 @@ final class Scan extends CallFactory {
 
     static final CallFactory _ = new Scan("scan", new String[]{"file", "what", "nmax", "quiet"}, new String[]{});
 
+    private static final int INITIAL_ITEMS = 1024;
+
     private Scan(String name, String[] params, String[] required) {
         super(name, params, required);
     }
@@ -100,6 +102,9 @@ final class Scan extends CallFactory {
             @Override public RAny doBuiltIn(Frame frame, RAny[] args) {
                 RAny what = posWhat != -1 ? args[posWhat] : RDouble.EMPTY;
                 int nmax = posNmax != -1 ? parseNMax(args[posNmax], ast) : -1;
+                if (nmax <= 0) { // includes NA
+                    nmax = -1;
+                }
                 boolean quiet = posQuiet != -1 ? parseQuiet(args[posQuiet]) : false;
 
                 if (what instanceof RList) { throw Utils.nyi("list not yet implemented"); }
@@ -128,44 +133,22 @@ final class Scan extends CallFactory {
                     }
                 }
                 try {
-                    // TODO: replace this primitive scanning by something more general
-                    // note that we cannot simply use Scan because it would buffer too much data (Scan cannot push its remaining buffered data back to the
-                    // underlying BufferedReader ; probably will have to implement a custom BufferedScanner for R
-                    Reader reader = con.reader(ast);
-                    ArrayList<String> buf = new ArrayList<String>();
-                    int nread = 0;
-                    StringBuilder item = null;
-                    int c;
-                    c = skip_whites(reader);
-                    if (c != -1) {
-                        for (;;) {
-                            if (is_white(c)) {
-                                if (item != null) {
-                                    buf.add(item.toString());
-                                    nread++;
-                                }
-                                if (nread == nmax) {
-                                    break;
-                                }
-                                c = skip_whites(reader);
-                                item = null; // TODO: get rid of allocation
-                                continue;
-                            }
-                            if (c == -1) {
-                                if (item != null) {
-                                    buf.add(item.toString());
-                                    nread++;
-                                }
-                                break;
-                            }
-                            if (item == null) {
-                                item = new StringBuilder();
-                            }
-                            item.append((char) c);
-                            c = reader.read();
+                    Tokenizer tokens = new Tokenizer(con.reader(ast));
+                    RAny res;
+                    int nread;
+                    if (what instanceof RDouble) {
+                        res = scanDouble(tokens, nmax, ast);
+                    } else if (what instanceof RInt) {
+                        res = scanInt(tokens, nmax, ast);
+                    } else {
+                        ArrayList<String> buf = new ArrayList<String>();
+                        while (buf.size() != nmax && tokens.next()) {
+                            buf.add(tokens.string());
                         }
+                        res = scan(buf, ast, what);
                     }
-                    RAny res = scan(buf, ast, what);
+                    tokens.finish();
+                    nread = ((RArray) res).size();
                     if (!quiet) {
                         Console.println(String.format("Read %d item%s.", nread, nread == 1 ? "" : "s"));
                     }
@@ -193,17 +176,251 @@ final class Scan extends CallFactory {
         return false;
     }
 
-    private static ConversionStatus cs = new ConversionStatus();
+    /**
+     * Whitespace-separated tokens of a reader. The reader is read in chunks into a private buffer, the characters after the
+     * last token taken are pushed back to the reader by {@link #finish}, so that an open connection can be read further.
+     */
+    static final class Tokenizer {
+        static final int CHUNK = Connection.READ_BUFFER_SIZE;
+
+        final BufferedReader reader;
+        final char[] buf = new char[CHUNK];
+        int pos;
+        int len;
+        boolean eof;
+        char[] token = new char[32];
+        int tokenLen;
+
+        Tokenizer(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        private boolean fill() throws IOException {
+            if (eof) {
+                return false;
+            }
+            reader.mark(CHUNK);
+            int n = reader.read(buf, 0, CHUNK);
+            if (n <= 0) {
+                eof = true;
+                len = 0;
+                pos = 0;
+                return false;
+            }
+            len = n;
+            pos = 0;
+            return true;
+        }
+
+        /** Reads the next token into {@link #token}, returns false at the end of input. */
+        boolean next() throws IOException {
+            for (;;) { // skip white space
+                while (pos < len && is_white(buf[pos])) {
+                    pos++;
+                }
+                if (pos < len) {
+                    break;
+                }
+                if (!fill()) {
+                    return false;
+                }
+            }
+            tokenLen = 0;
+            for (;;) {
+                int start = pos;
+                while (pos < len && !is_white(buf[pos])) {
+                    pos++;
+                }
+                int n = pos - start;
+                if (tokenLen + n > token.length) {
+                    token = Arrays.copyOf(token, Math.max(2 * token.length, tokenLen + n));
+                }
+                System.arraycopy(buf, start, token, tokenLen, n);
+                tokenLen += n;
+                if (pos < len || !fill()) { // the token continues in the next chunk
+                    return true;
+                }
+            }
+        }
+
+        String string() {
+            return new String(token, 0, tokenLen);
+        }
+
+        boolean isNA() {
+            return tokenLen == 2 && token[0] == 'N' && token[1] == 'A';
+        }
+
+        /** Pushes the characters not consumed back to the reader. */
+        void finish() throws IOException {
+            if (pos < len) {
+                reader.reset();
+                reader.skip(pos);
+            }
+        }
+    }
+
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    // parses a decimal number with at most 15 significant digits and a small exponent, the result is then correctly rounded
+    // (both the mantissa and the power of ten are exact doubles); returns false for other input, which is parsed by Convert
+    static boolean parseSimpleDouble(char[] s, int len, double[] res, int index) {
+        int i = 0;
+        boolean negative = false;
+        if (i < len && (s[i] == '-' || s[i] == '+')) {
+            negative = s[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0; // significant digits
+        int anyDigits = 0;
+        int exponent = 0;
+        while (i < len && s[i] >= '0' && s[i] <= '9') {
+            if (mantissa != 0 || s[i] != '0') {
+                mantissa = mantissa * 10 + (s[i] - '0');
+                digits++;
+            }
+            anyDigits++;
+            i++;
+        }
+        if (i < len && s[i] == '.') {
+            i++;
+            while (i < len && s[i] >= '0' && s[i] <= '9') {
+                if (mantissa != 0 || s[i] != '0') {
+                    mantissa = mantissa * 10 + (s[i] - '0');
+                    digits++;
+                }
+                anyDigits++;
+                exponent--;
+                i++;
+            }
+        }
+        if (anyDigits == 0 || digits > 15) {
+            return false;
+        }
+        if (i < len && (s[i] == 'e' || s[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < len && (s[i] == '-' || s[i] == '+')) {
+                negativeExponent = s[i] == '-';
+                i++;
+            }
+            int e = 0;
+            int edigits = 0;
+            while (i < len && s[i] >= '0' && s[i] <= '9' && edigits < 4) {
+                e = e * 10 + (s[i] - '0');
+                edigits++;
+                i++;
+            }
+            if (edigits == 0) {
+                return false;
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (i != len) {
+            return false;
+        }
+        double v;
+        if (mantissa == 0) {
+            v = 0;
+        } else if (exponent >= 0 && exponent <= 22) {
+            v = mantissa * POWERS_OF_TEN[exponent];
+        } else if (exponent < 0 && exponent >= -22) {
+            v = mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            return false;
+        }
+        res[index] = negative ? -v : v;
+        return true;
+    }
+
+    // parses a decimal integer of at most 9 digits without a leading zero (Integer.decode would read it as octal)
+    static boolean parseSimpleInt(char[] s, int len, int[] res, int index) {
+        int i = 0;
+        boolean negative = false;
+        if (i < len && (s[i] == '-' || s[i] == '+')) {
+            negative = s[i] == '-';
+            i++;
+        }
+        int ndigits = len - i;
+        if (ndigits == 0 || ndigits > 9 || (s[i] == '0' && ndigits > 1)) {
+            return false;
+        }
+        int v = 0;
+        for (; i < len; i++) {
+            char c = s[i];
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            v = v * 10 + (c - '0');
+        }
+        res[index] = negative ? -v : v;
+        return true;
+    }
+
+    public static RDouble scanDouble(Tokenizer tokens, int nmax, ASTNode ast) throws IOException {
+        double[] content = new double[nmax > 0 && nmax < INITIAL_ITEMS ? nmax : INITIAL_ITEMS];
+        int n = 0;
+        ConversionStatus cs = new ConversionStatus();
+        while (n != nmax && tokens.next()) {
+            if (n == content.length) {
+                content = Arrays.copyOf(content, 2 * n);
+            }
+            if (!parseSimpleDouble(tokens.token, tokens.tokenLen, content, n)) {
+                if (tokens.isNA()) {
+                    content[n] = RDouble.NA;
+                } else {
+                    String str = tokens.string();
+                    content[n] = Convert.string2double(str, cs);
+                    if (cs.naIntroduced) {
+                        throw RError.getScanUnexpected(ast, "a real", str);
+                    }
+                }
+            }
+            n++;
+        }
+        return RDouble.RDoubleFactory.getFor(n == content.length ? content : Arrays.copyOf(content, n));
+    }
+
+    public static RInt scanInt(Tokenizer tokens, int nmax, ASTNode ast) throws IOException {
+        int[] content = new int[nmax > 0 && nmax < INITIAL_ITEMS ? nmax : INITIAL_ITEMS];
+        int n = 0;
+        ConversionStatus cs = new ConversionStatus();
+        while (n != nmax && tokens.next()) {
+            if (n == content.length) {
+                content = Arrays.copyOf(content, 2 * n);
+            }
+            if (!parseSimpleInt(tokens.token, tokens.tokenLen, content, n)) {
+                if (tokens.isNA()) {
+                    content[n] = RInt.NA;
+                } else {
+                    String str = tokens.string();
+                    content[n] = Convert.string2int(str, cs);
+                    if (cs.naIntroduced) {
+                        throw RError.getScanUnexpected(ast, "an integer", str);
+                    }
+                }
+            }
+            n++;
+        }
+        return RInt.RIntFactory.getFor(n == content.length ? content : Arrays.copyOf(content, n));
+    }
 
     public static RString scanString(ArrayList<String> src, ASTNode ast) {
         int size = src.size();
         String[] content = new String[size];
-        return RString.RStringFactory.getFor(src.toArray(content));
+        src.toArray(content);
+        if (RContext.internStrings()) {
+            for (int i = 0; i < size; i++) {
+                content[i] = StringPool.intern(content[i]);
+            }
+        }
+        return RString.RStringFactory.getFor(content);
     }
 
     public static RComplex scanComplex(ArrayList<String> src, ASTNode ast) {
         int size = src.size();
-        cs.naIntroduced = false;
+        ConversionStatus cs = new ConversionStatus();
         double[] content = new double[2 * size];
         for (int i = 0; i < size; i++) {
             String str = src.get(i);
@@ -223,7 +440,7 @@ final class Scan extends CallFactory {
 
     public static RDouble scanDouble(ArrayList<String> src, ASTNode ast) {
         int size = src.size();
-        cs.naIntroduced = false;
+        ConversionStatus cs = new ConversionStatus();
         double[] content = new double[size];
         for (int i = 0; i < size; i++) {
             String str = src.get(i);
@@ -240,7 +457,7 @@ final class Scan extends CallFactory {
 
     public static RInt scanInt(ArrayList<String> src, ASTNode ast) {
         int size = src.size();
-        cs.naIntroduced = false;
+        ConversionStatus cs = new ConversionStatus();
         int[] content = new int[size];
         for (int i = 0; i < size; i++) {
             String str = src.get(i);
@@ -258,7 +475,7 @@ final class Scan extends CallFactory {
 
     public static RLogical scanLogical(ArrayList<String> src, ASTNode ast) {
         int size = src.size();
-        cs.naIntroduced = false;
+        ConversionStatus cs = new ConversionStatus();
         int[] content = new int[size];
         for (int i = 0; i < size; i++) {
             String str = src.get(i);
@@ -289,8 +506,7 @@ final class Scan extends CallFactory {
 
     public static RRaw scanRaw(ArrayList<String> src, ASTNode ast) {
         int size = src.size();
-        cs.naIntroduced = false;
-        cs.outOfRange = false;
+        ConversionStatus cs = new ConversionStatus();
         byte[] content = new byte[size];
         for (int i = 0; i < size; i++) {
             String str = src.get(i);
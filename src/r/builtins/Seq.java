@@ -101,19 +101,7 @@ final class Seq extends CallFactory {
                                 return RInt.RIntFactory.forSequence((int) from, (int) (from + ((int) n) * by), (int) by);
                             } else {
                                 int in = (int) (n + 1e-10);
-                                double[] content = new double[in + 1];
-                                if (by > 0) {
-                                    for (int i = 0; i <= in; i++) {
-                                        double x = from + i * by;
-                                        content[i] = x <= to ? x : to;
-                                    }
-                                } else {
-                                    for (int i = 0; i <= in; i++) {
-                                        double x = from + i * by;
-                                        content[i] = x >= to ? x : to;
-                                    }
-                                }
-                                return RDouble.RDoubleFactory.getFor(content);
+                                return RDouble.RDoubleFactory.forSequence(from, to, by, in + 1);
                             }
                         }
                     };
@@ -5,21 +5,16 @@ import java.util.*;
 import com.oracle.truffle.api.frame.*;
 
 import r.*;
-import r.builtins.Order.DoubleComparator;
-import r.builtins.Order.IntComparator;
-import r.builtins.Order.LogicalComparator;
-import r.builtins.Order.StringComparator;
+import r.builtins.internal.*;
 import r.data.*;
 import r.errors.*;
 import r.nodes.*;
 import r.nodes.truffle.*;
 
-import java.lang.Integer;
-
 // NOTE: in GNU-R, the user can select between a stable version of shellsort and unstable version of quicksort, and the selection is mostly
 // honored except for some cases when shellsort is silently used instead of quicksort (so "stable" instead of "unstable")
-// In FastR, we treat "shell" as requirement for a stable sort and "quick" as that stability is not required, but we use the algorithms from the
-// JDK.
+// In FastR, we treat "shell" as requirement for a stable sort and "quick" as that stability is not required, but we always use the stable
+// sorts of r.builtins.internal.Ordering (parallel for large vectors).
 
 // NOTE: sort.int is implemented in R in GNU-R
 
@@ -32,6 +27,8 @@ final class Sort extends CallFactory {
         super(name, params, required);
     }
 
+    private static final int MAX_PARTIAL_POSITIONS = 10; // more positions are handled by a full sort
+
     final static ArgumentMatch methodMatch = new ArgumentMatch(new String[] {"shell", "quick"});
 
     // returns true for quicksort, false for shellsort (shellsort is the default)
@@ -92,23 +89,36 @@ final class Sort extends CallFactory {
                     if (decreasing || methodPosition != -1 || indexReturn) {
                         throw RError.getUnsupportedPartial(ast);
                     }
-                    Utils.nyi("partial sorting not implemented");
-                    return null;
+                    return partialSort(x, partial, naLast, ast);
                 }
                 if (indexReturn && naLast != RInt.NA) {
                     throw RError.getIndexReturnRemoveNA(ast);
                 }
-                if (x.names() == null && !indexReturn && !decreasing) { // faster versions
+                if (x.names() == null && !indexReturn) { // faster versions, sort values
                     if (x instanceof RDouble) {
                         double[] a = RDouble.RDoubleUtils.copyAsDoubleArray((RDouble) x);
                         // FIXME: could be in-place for temporary non-scalars with no attributes
-                        Arrays.sort(a);
+                        Ordering.sort(a);
+                        if (decreasing) {
+                            int nna = 0;
+                            while (nna < a.length && RDouble.RDoubleUtils.isNAorNaN(a[a.length - 1 - nna])) {
+                                nna++;
+                            }
+                            reverse(a, 0, a.length - nna);
+                        }
                         a = fixNAs(a, naLast);
                         return RDouble.RDoubleFactory.getFor(a); // drop attributes
                     }
                     if (x instanceof RInt) {
                         int[] a = RInt.RIntUtils.copyAsIntArray((RInt)x);
-                        Arrays.sort(a);
+                        Ordering.sort(a);
+                        if (decreasing) {
+                            int nna = 0;
+                            while (nna < a.length && a[nna] == RInt.NA) {
+                                nna++;
+                            }
+                            reverse(a, nna, a.length);
+                        }
                         a = fixNAs(a, naLast);
                         return RInt.RIntFactory.getFor(a); // drop attributes
                     }
@@ -120,26 +130,13 @@ final class Sort extends CallFactory {
     }
 
     public static RArray sort(RArray x, int naLast, boolean decreasing, boolean indexReturn) {
-        if (x instanceof RDouble) {
-            return sort((RDouble) x, naLast, decreasing, indexReturn);
-        }
-        if (x instanceof RInt) {
-            return sort((RInt) x, naLast, decreasing, indexReturn);
-        }
-        if (x instanceof RString) {
-            return sort((RString) x, naLast, decreasing, indexReturn);
-        }
-        if (x instanceof RLogical) {
-            return sort((RLogical) x, naLast, decreasing, indexReturn);
+        if (!(x instanceof RDouble || x instanceof RInt || x instanceof RString || x instanceof RLogical)) {
+            Utils.nyi("unsupported type for sorting");
+            return null;
         }
-        Utils.nyi("unsupported type for sorting");
-        return null;
-    }
-
-    public static RArray sort(RDouble x, int naLast, final boolean decreasing, boolean indexReturn) {
         int size = x.size();
-        Integer[] order = new Integer[size]; // TODO: remove Java boxing through primitive sort methods
-        ArrayList<Integer> naorder = new ArrayList<Integer>();  // TODO: replace this by an implementation for primitives
+        int[] order = new int[size];
+        int[] naorder = new int[naLast == RInt.NA ? 0 : size];
         int[] naRemoveIndex = indexReturn ? new int[size] : null; // maps each index to index if NA/NaNs were removed
         int nnas = 0;
         int oi = 0;
@@ -148,139 +145,130 @@ final class Sort extends CallFactory {
             if (naRemoveIndex != null) {
                 naRemoveIndex[i] = i - nnas;
             }
-            double d = x.getDouble(i);
-            if (RDouble.RDoubleUtils.isNAorNaN(d)) {
+            if (x.isNAorNaN(i)) {
                 if (!naRemove) {
-                    naorder.add(i);
-                } else {
-                    nnas++;
+                    naorder[nnas] = i;
                 }
+                nnas++;
             } else {
                 order[oi++] = i;
             }
         }
-        final DoubleComparator cmp = new DoubleComparator(x);
-        Comparator<Integer> mainComparator = new Comparator<Integer>() {
-
-            @Override public int compare(Integer o1, Integer o2) {
-                int res = cmp.cmp(o1, o2);
-                return !decreasing ? res : -res;
-            }
-        };
-        Arrays.sort(order, 0, oi, mainComparator);
-        return buildSortResults(x, order, oi, naorder, naLast, naRemoveIndex);
+        if (oi != size) {
+            order = Arrays.copyOf(order, oi);
+        }
+        Ordering.sortStable(order, x, decreasing, true);
+        return buildSortResults(x, order, oi, naorder, naRemove ? 0 : nnas, naLast, naRemoveIndex);
     }
 
-    public static RArray sort(RInt x, int naLast, final boolean decreasing, boolean indexReturn) {
+    public static RArray partialSort(RArray x, RInt partial, int naLast, ASTNode ast) {
         int size = x.size();
-        Integer[] order = new Integer[size]; // TODO: remove Java boxing through primitive sort methods
-        ArrayList<Integer> naorder = new ArrayList<Integer>();  // TODO: replace this by an implementation for primitives
-        int[] naRemoveIndex = indexReturn ? new int[size] : null; // maps each index to index if NA/NaNs were removed
-        int nnas = 0;
-        int oi = 0;
-        boolean naRemove = naLast == RInt.NA;
+        int[] nonNA = new int[size];
+        int[] nas = new int[size];
+        int n = 0;
+        int nna = 0;
         for (int i = 0; i < size; i++) {
-            if (naRemoveIndex != null) {
-                naRemoveIndex[i] = i - nnas;
-            }
-            int v = x.getInt(i);
-            if (v == RInt.NA) {
-                if (!naRemove) {
-                    naorder.add(i);
-                } else {
-                    nnas++;
-                }
+            if (x.isNAorNaN(i)) {
+                nas[nna++] = i;
             } else {
-                order[oi++] = i;
+                nonNA[n++] = i;
             }
         }
-        final IntComparator cmp = new IntComparator(x);
-        Comparator<Integer> mainComparator = new Comparator<Integer>() {
-
-            @Override public int compare(Integer o1, Integer o2) {
-                int res = cmp.cmp(o1, o2);
-                return !decreasing ? res : -res;
+        int npos = partial.size();
+        int[] positions = new int[npos];
+        for (int i = 0; i < npos; i++) {
+            int p = partial.getInt(i);
+            if (p == RInt.NA) {
+                throw RError.getNonFinitePartial(ast);
             }
-        };
-        Arrays.sort(order, 0, oi, mainComparator);
-        return buildSortResults(x, order, oi, naorder, naLast, naRemoveIndex);
-    }
-
-    public static RArray sort(RString x, int naLast, final boolean decreasing, boolean indexReturn) {
-        int size = x.size();
-        Integer[] order = new Integer[size]; // TODO: remove Java boxing through primitive sort methods
-        ArrayList<Integer> naorder = new ArrayList<Integer>();  // TODO: replace this by an implementation for primitives
-        int[] naRemoveIndex = indexReturn ? new int[size] : null; // maps each index to index if NA/NaNs were removed
-        int nnas = 0;
-        int oi = 0;
-        boolean naRemove = naLast == RInt.NA;
-        for (int i = 0; i < size; i++) {
-            if (naRemoveIndex != null) {
-                naRemoveIndex[i] = i - nnas;
+            if (p < 1 || p > n) {
+                throw RError.getIndexOutsideBounds(ast, p);
             }
-            String v = x.getString(i);
-            if (v == RString.NA) {
-                if (!naRemove) {
-                    naorder.add(i);
-                } else {
-                    nnas++;
-                }
+            positions[i] = p - 1;
+        }
+        Arrays.sort(positions);
+        boolean full = npos > MAX_PARTIAL_POSITIONS; // as GNU-R
+        // the result has the non-NA values, followed or preceded by the NAs unless they are removed (attributes are dropped)
+        int rsize = naLast == RLogical.NA ? n : size;
+        int offset = naLast == RLogical.FALSE ? nna : 0;
+        int naOffset = naLast == RLogical.FALSE ? 0 : n;
+        if (x instanceof RDouble) {
+            RDouble dx = (RDouble) x;
+            double[] a = new double[n];
+            for (int i = 0; i < n; i++) {
+                a[i] = dx.getDouble(nonNA[i]);
+            }
+            if (full) {
+                Ordering.sort(a);
             } else {
-                order[oi++] = i;
+                Ordering.select(a, positions);
+            }
+            double[] res = new double[rsize];
+            System.arraycopy(a, 0, res, offset, n);
+            if (rsize != n) {
+                for (int i = 0; i < nna; i++) {
+                    res[naOffset + i] = dx.getDouble(nas[i]);
+                }
             }
+            return RDouble.RDoubleFactory.getFor(res);
         }
-        final StringComparator cmp = new StringComparator(x);
-        Comparator<Integer> mainComparator = new Comparator<Integer>() {
-
-            @Override public int compare(Integer o1, Integer o2) {
-                int res = cmp.cmp(o1, o2);
-                return !decreasing ? res : -res;
+        if (x instanceof RInt || x instanceof RLogical) {
+            RInt ix = x instanceof RInt ? (RInt) x : null;
+            RLogical lx = ix == null ? (RLogical) x : null;
+            int[] a = new int[n];
+            for (int i = 0; i < n; i++) {
+                a[i] = ix != null ? ix.getInt(nonNA[i]) : lx.getLogical(nonNA[i]);
             }
-        };
-        Arrays.sort(order, 0, oi, mainComparator);
-        return buildSortResults(x, order, oi, naorder, naLast, naRemoveIndex);
-    }
-
-    public static RArray sort(RLogical x, int naLast, final boolean decreasing, boolean indexReturn) {
-        int size = x.size();
-        Integer[] order = new Integer[size]; // TODO: remove Java boxing through primitive sort methods
-        ArrayList<Integer> naorder = new ArrayList<Integer>();  // TODO: replace this by an implementation for primitives
-        int[] naRemoveIndex = indexReturn ? new int[size] : null; // maps each index to index if NA/NaNs were removed
-        int nnas = 0;
-        int oi = 0;
-        boolean naRemove = naLast == RInt.NA;
-        for (int i = 0; i < size; i++) {
-            if (naRemoveIndex != null) {
-                naRemoveIndex[i] = i - nnas;
+            if (full) {
+                Ordering.sort(a);
+            } else {
+                Ordering.select(a, positions);
             }
-            int v = x.getLogical(i);
-            if (v == RLogical.NA) {
-                if (!naRemove) {
-                    naorder.add(i);
-                } else {
-                    nnas++;
-                }
+            int[] res = new int[rsize];
+            System.arraycopy(a, 0, res, offset, n);
+            Arrays.fill(res, naOffset, naOffset + rsize - n, RInt.NA); // RInt.NA == RLogical.NA
+            return ix != null ? RInt.RIntFactory.getFor(res) : RLogical.RLogicalFactory.getFor(res);
+        }
+        if (x instanceof RString) {
+            RString sx = (RString) x;
+            String[] a = new String[n];
+            for (int i = 0; i < n; i++) {
+                a[i] = sx.getString(nonNA[i]);
+            }
+            if (full) {
+                Arrays.sort(a);
             } else {
-                order[oi++] = i;
+                Ordering.select(a, positions);
             }
+            String[] res = new String[rsize];
+            System.arraycopy(a, 0, res, offset, n);
+            Arrays.fill(res, naOffset, naOffset + rsize - n, RString.NA);
+            return RString.RStringFactory.getFor(res);
         }
-        final LogicalComparator cmp = new LogicalComparator(x);
-        Comparator<Integer> mainComparator = new Comparator<Integer>() {
+        Utils.nyi("unsupported type for sorting");
+        return null;
+    }
 
-            @Override public int compare(Integer o1, Integer o2) {
-                int res = cmp.cmp(o1, o2);
-                return !decreasing ? res : -res;
-            }
-        };
-        Arrays.sort(order, 0, oi, mainComparator);
-        return buildSortResults(x, order, oi, naorder, naLast, naRemoveIndex);
+    private static void reverse(double[] a, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            double t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+
+    private static void reverse(int[] a, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
     }
 
     private static final RArray.Names resultNames = RArray.Names.create(new RSymbol[]{RSymbol.getSymbol("x"), RSymbol.getSymbol("ix")});
 
-    // naorder will be empty whenever naLast == RInt.NA
-    public static RArray buildSortResults(RArray x, Integer[] order, int orderLen, ArrayList<Integer> naorder, int naLast, int[] naRemoveIndex) {
-        int nalen = naorder.size();
+    // nalen is 0 whenever naLast == RInt.NA
+    public static RArray buildSortResults(RArray x, int[] order, int orderLen, int[] naorder, int nalen, int naLast, int[] naRemoveIndex) {
         int size = x.size();
 
         RArray.Names names = x.names();
@@ -331,7 +319,7 @@ final class Sort extends CallFactory {
             }
 
             for(int i = 0; i < nalen; i++) {
-                int xi = naorder.get(i);
+                int xi = naorder[i];
                 int resi = i + naStart;
                 res.set(resi, x.get(xi));
                 if (nsymbols != null) {
@@ -2,12 +2,13 @@ package r.builtins;
 
 import r.*;
 import r.data.*;
-import r.data.internal.View;
+import r.data.internal.*;
 import r.errors.*;
 import r.nodes.*;
 import r.nodes.truffle.*;
 
 import com.oracle.truffle.api.frame.*;
+import com.oracle.truffle.api.nodes.*;
 
 /**
  * "sqrt"
@@ -16,7 +17,6 @@ import com.oracle.truffle.api.frame.*;
  * x -- a numeric or complex vector or array.
  * </pre>
  */
-// FIXME: scalar optimizations
 final class Sqrt extends CallFactory {
 
     static final CallFactory _ = new Sqrt("sqrt", new String[]{"x"}, new String[]{"x"});
@@ -38,21 +38,56 @@ final class Sqrt extends CallFactory {
                 } else {
                     throw RError.getNonNumericMath(ast);
                 }
-                return new View.RDoubleProxy<RDouble>(typedArg) {
-                    @Override public double getDouble(int i) {
-                        double d = orig.getDouble(i);
-                        if (RDouble.RDoubleUtils.isNAorNaN(d)) {
-                            return RDouble.NA;
-                        } else {
-                            double res = Math.sqrt(d);
-                            if (RDouble.RDoubleUtils.isNAorNaN(res)) {
-                                RContext.warning(ast, RError.NAN_PRODUCED);
-                            }
-                            return res;
-                        }
-                    }
-                };
+                if (arg instanceof ScalarDoubleImpl || arg instanceof ScalarIntImpl) {
+                    return RDouble.RDoubleFactory.getScalar(sqrt(ast, typedArg.getDouble(0)));
+                }
+                return new SqrtView(ast, typedArg);
+            }
+
+            @Override public double executeScalarDouble(Frame frame) throws UnexpectedResultException {
+                double d;
+                try {
+                    d = executeScalarDoubleArg(frame);
+                } catch (UnexpectedResultException e) {
+                    return RValueConversion.expectScalarDouble(doBuiltIn(frame, (RAny) e.getResult()));
+                }
+                return sqrt(ast, d);
             }
         };
     }
+
+    static double sqrt(ASTNode ast, double d) {
+        if (RDouble.RDoubleUtils.isNAorNaN(d)) {
+            return RDouble.NA;
+        } else {
+            double res = Math.sqrt(d);
+            if (RDouble.RDoubleUtils.isNAorNaN(res)) {
+                RContext.warning(ast, RError.NAN_PRODUCED);
+            }
+            return res;
+        }
+    }
+
+    static final class SqrtView extends View.RDoubleProxy<RDouble> implements Arithmetic.ElementwiseUnary {
+        final ASTNode ast;
+
+        SqrtView(ASTNode ast, RDouble value) {
+            super(value);
+            this.ast = ast;
+        }
+
+        @Override public double getDouble(int i) {
+            return sqrt(ast, orig.getDouble(i));
+        }
+
+        @Override public RDouble operand() {
+            return orig;
+        }
+
+        @Override public void apply(double[] x, int size) {
+            for (int i = 0; i < size; i++) {
+                x[i] = sqrt(ast, x[i]);
+            }
+        }
+    }
 }
@@ -1,10 +1,10 @@
 package r.builtins;
 
-import java.util.*;
 import java.util.regex.*;
 
 import r.*;
 import r.data.*;
+import r.data.internal.*;
 import r.nodes.*;
 import r.nodes.truffle.*;
 
@@ -40,6 +40,7 @@ final class Strsplit extends CallFactory {
         final int posFixed = ia.position("fixed");
         final int posPerl = ia.position("perl");
         final int posSplit = ia.position("split");
+        final PatternCache.Site site = new PatternCache.Site();
         return new Builtin(call, names, exprs) {
             @Override public RAny doBuiltIn(Frame frame, RAny[] args) {
                 RString x = Convert.coerceToStringError(args[posX], ast);
@@ -47,67 +48,71 @@ final class Strsplit extends CallFactory {
                 boolean fixed = posFixed != -1 ? Convert.checkFirstLogical(args[posFixed], RLogical.TRUE) : false;
                 boolean perl = posPerl != -1 ? Convert.checkFirstLogical(args[posPerl], RLogical.TRUE) : false;
 
-                return strsplit(ast, x, split, fixed, perl);
+                return strsplit(ast, site, x, split, fixed, perl);
             }
         };
     }
 
-    // FIXME: could get rid of ArrayList (also fixed matching below)
-    // FIXME: could cache compiled regular expression evaluators, and particularly so when the regular expression is a constant
-    public static RAny strSplitRE(RString x, RString split) {
+    // the parts are built as compact strings, without a String per part
+    public static RAny strSplitRE(PatternCache.Site site, RString x, RString split) {
+        boolean intern = RContext.internStrings();
         int splitIndex = 0;
         int splitSize = split.size();
         Pattern[] patterns = new Pattern[splitSize];
         int xsize = x.size();
         RAny[] content = new RAny[xsize];
-        ArrayList<String> buf = new ArrayList<String>();
         for (int i = 0; i < xsize; i++) {
             Pattern p = patterns[splitIndex];
             if (p == null) {
                 String separator = split.getString(splitIndex);
-                p = Pattern.compile(separator);
+                p = splitSize == 1 ? site.get(separator, 0) : PatternCache.get(separator, 0);
                 patterns[splitIndex] = p;
-                splitIndex++;
-                if (splitIndex == splitSize) {
-                    splitIndex = 0;
-                }
+            }
+            splitIndex++;
+            if (splitIndex == splitSize) {
+                splitIndex = 0;
             }
             String str = x.getString(i);
+            if (str == RString.NA) {
+                content[i] = RString.BOXED_NA;
+                continue;
+            }
             int strLen = str.length();
             Matcher m = p.matcher(str);
-            buf.clear();
+            CompactStrings.Builder buf = new CompactStrings.Builder(EXPECTED_PARTS, strLen, intern);
             int j = 0;
             while (j < strLen) {
                 if (m.find()) {
                     if (m.end() > 0) {
-                        buf.add(str.substring(j, m.start()));
+                        buf.add(str, j, m.start());
                     }
                     j = m.end();
                 } else {
                     if (j < strLen) {
-                        buf.add(str.substring(j));
+                        buf.add(str, j, strLen);
                     }
                     break;
                 }
             }
-            String[] econtent = new String[buf.size()];
-            content[i] = RString.RStringFactory.getFor(buf.toArray(econtent));
+            content[i] = buf.build();
         }
         return RList.RListFactory.getFor(content);
     }
 
+    private static final int EXPECTED_PARTS = 8;
+
     // FIXME: wouldn't it be just faster & simpler to use Java's regexes with Pattern.LITERAL flag?
 
-    // FIXME: this could be optimized by getting rid of ArrayList (R does two passes, one to count number of occurrences, then allocates, then another)
+    // FIXME: R does two passes, one to count number of occurrences, then allocates, then another
     //        we could speculate that elements of x will have always the same number of matches (e.g. lines of input in fixed format)
     // FIXME: this could also be optimized by using a better algorithm to search text, e.g. KMG
     //        who knows if using Java's regex wouldn't be faster than this implementation
     public static RAny strSplitFixed(RString x, RString split) {
+        boolean intern = RContext.internStrings();
         int xsize = x.size();
         RAny[] content = new RAny[xsize];
         int splitIndex = 0;
         int splitSize = split.size();
-        ArrayList<String> buf = new ArrayList<String>();
         for (int i = 0; i < xsize; i++) {
             String separator = split.getString(splitIndex++);
             int separatorLength = separator.length();
@@ -115,51 +120,66 @@ final class Strsplit extends CallFactory {
                 splitIndex = 0;
             }
             String str = x.getString(i);
-            if (separatorLength > 0) {
+            if (str == RString.NA) {
+                content[i] = RString.BOXED_NA;
+            } else if (separatorLength > 0) {
                 int strLen = str.length();
                 int j = 0;
-                buf.clear();
+                CompactStrings.Builder buf = new CompactStrings.Builder(EXPECTED_PARTS, strLen, intern);
                 while (j < strLen) {
                     int separatorStart = str.indexOf(separator, j);
                     if (separatorStart != -1) {
-                        buf.add(str.substring(j, separatorStart));
+                        buf.add(str, j, separatorStart);
                         j = separatorStart + separatorLength;
                     } else {
                         if (j < strLen) {
-                            buf.add(str.substring(j));
+                            buf.add(str, j, strLen);
                         }
                         break;
                     }
                 }
-                String[] econtent = new String[buf.size()];
-                content[i] = RString.RStringFactory.getFor(buf.toArray(econtent));
+                content[i] = buf.build();
             } else {
-                content[i] = RString.RStringFactory.getFor(stringToChars(str));
+                content[i] = stringToChars(str, intern);
             }
 
         }
         return RList.RListFactory.getFor(content);
     }
 
-    public static String[] stringToChars(String str) {
+    public static RString stringToChars(String str, boolean intern) {
+        if (str == RString.NA) {
+            return RString.BOXED_NA;
+        }
         int strLen = str.length();
-        String[] chars = new String[strLen];
+        CompactStrings.Builder chars = new CompactStrings.Builder(strLen, strLen, intern);
         for (int j = 0; j < strLen; j++) {
-            chars[j] = String.valueOf(str.charAt(j)); // ?? would substring be faster?
+            chars.add(str, j, j + 1);
         }
-        return chars;
+        return chars.build();
     }
 
     public static RAny strSplitChars(RString x) {
+        boolean intern = RContext.internStrings();
         int xsize = x.size();
         RAny[] content = new RAny[xsize];
         for (int i = 0; i < xsize; i++) {
-            content[i] = RString.RStringFactory.getFor(stringToChars(x.getString(i)));
+            content[i] = stringToChars(x.getString(i), intern);
         }
         return RList.RListFactory.getFor(content);
     }
 
-    public static RAny strsplit(ASTNode ast, RString x, RString split, boolean fixed, boolean perl) {
+    static boolean allLiteral(RString split) {
+        int size = split.size();
+        for (int i = 0; i < size; i++) {
+            if (!PatternCache.isLiteral(split.getString(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static RAny strsplit(ASTNode ast, PatternCache.Site site, RString x, RString split, boolean fixed, boolean perl) {
         int splitSize = split.size();
         if (splitSize == 0) { return strSplitChars(x); }
         if (splitSize == 1) {
@@ -169,7 +189,10 @@ final class Strsplit extends CallFactory {
             if (!perl) {
                 RContext.warning(ast, "Using a Perl-like regular expression syntax (non-Perl not implemented yet).");
             }
-            return strSplitRE(x, split);
+            if (allLiteral(split)) { // the separators only match themselves
+                return strSplitFixed(x, split);
+            }
+            return strSplitRE(site, x, split);
         } else {
             return strSplitFixed(x, split);
         }
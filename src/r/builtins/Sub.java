@@ -45,6 +45,7 @@ class Sub extends CallFactory {
         final int posPerl = ia.position("perl");
         final int posFixed = ia.position("fixed");
         final int posUseBytes = ia.position("useBytes");
+        final PatternCache.Site site = new PatternCache.Site();
         return new Builtin(call, names, exprs) {
             @Override public final RAny doBuiltIn(Frame frame, RAny[] args) {
                 if (posUseBytes != -1) {
@@ -56,7 +57,7 @@ class Sub extends CallFactory {
                 boolean ignoreCase = posIgnoreCase != -1 ? Convert.checkFirstLogical(args[posIgnoreCase], RLogical.TRUE) : false;
                 boolean perl = posPerl != -1 ? Convert.checkFirstLogical(args[posPerl], RLogical.TRUE) : false;
                 boolean fixed = posFixed != -1 ? Convert.checkFirstLogical(args[posFixed], RLogical.TRUE) : false;
-                return sub(ast, pattern, replacement, x, ignoreCase, perl, fixed, global);
+                return sub(ast, site, pattern, replacement, x, ignoreCase, perl, fixed, global);
             }
         };
     }
@@ -71,24 +72,33 @@ class Sub extends CallFactory {
         throw RError.getInvalidArgument(ast, argName);
     }
 
-    public static RString sub(ASTNode ast, String pattern, String replacement, RString x, boolean ignoreCase, boolean perl, boolean fixed, boolean global) {
+    public static RString sub(ASTNode ast, PatternCache.Site site, String pattern, String replacement, RString x, boolean ignoreCase, boolean perl, boolean fixed, boolean global) {
         if (pattern == RString.NA || replacement == RString.NA) { return RString.RStringFactory.getNAArray(x.size()); }
         if (!perl) {
             RContext.warning(ast, "Using a Perl-like regular expression syntax (non-Perl not implemented yet).");
         }
         if (!fixed) {
-            return subRE(pattern, replacement, x, ignoreCase, global);
+            if (!ignoreCase && replacement.indexOf('\\') == -1 && PatternCache.isLiteral(pattern)) {
+                // the pattern only matches itself and the replacement has no back-references, no need for a regex
+                return subFixed(ast, pattern, replacement, x, false, global);
+            }
+            return subRE(site, pattern, replacement, x, ignoreCase, global);
         } else {
             return subFixed(ast, pattern, replacement, x, ignoreCase, global);
         }
     }
 
+    private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\([1-9])");
+
     public static String convertReplacement(String replacementArg) { // FIXME: handle octal constants correctly when no groups exist
-        return replacementArg.replaceAll("\\\\([1-9])", "\\$$1");
+        if (replacementArg.indexOf('\\') == -1) {
+            return replacementArg;
+        }
+        return BACK_REFERENCE.matcher(replacementArg).replaceAll("\\$$1");
     }
 
-    public static RString subRE(String pattern, String replacementArg, RString x, boolean ignoreCase, boolean global) {
-        Pattern p = Pattern.compile(pattern, ignoreCase ? Pattern.CASE_INSENSITIVE : 0); // FIXME: can add UNICODE_CASE
+    public static RString subRE(PatternCache.Site site, String pattern, String replacementArg, RString x, boolean ignoreCase, boolean global) {
+        Pattern p = site.get(pattern, ignoreCase ? Pattern.CASE_INSENSITIVE : 0); // FIXME: can add UNICODE_CASE
         int size = x.size();
         String[] content = new String[size];
         String replacement = convertReplacement(replacementArg);
@@ -3,6 +3,7 @@ package r.builtins;
 import r.Convert.ConversionStatus;
 import r.*;
 import r.data.*;
+import r.data.internal.*;
 import r.errors.*;
 import r.nodes.*;
 import r.nodes.truffle.*;
@@ -26,8 +27,6 @@ class Substr extends CallFactory {
         super(name, params, required);
     }
 
-    static final ConversionStatus warn = new ConversionStatus(); // WARNING: calls not re-entrant
-
     @Override public RNode create(ASTNode call, RSymbol[] names, RNode[] exprs) {
         ArgumentInfo ia = check(call, names, exprs);
         final int posX = ia.position("x");
@@ -36,7 +35,7 @@ class Substr extends CallFactory {
         return new Builtin(call, names, exprs) {
             @Override public final RAny doBuiltIn(Frame frame, RAny[] args) {
                 RString x = args[posX].asString();
-                warn.naIntroduced = false;
+                ConversionStatus warn = new ConversionStatus();
                 RDouble start = args[posStart].asDouble(warn);
                 RDouble stop = args[posStop].asDouble(warn);
                 RString res = substr(x, start, stop, ast);
@@ -58,7 +57,8 @@ class Substr extends CallFactory {
         if (xsize == 0) { return RString.EMPTY; }
         if (startSize == 0) { throw RError.getInvalidArgument(ast, "start"); }// not exactly R-warning       
         if (stopSize == 0) { throw RError.getInvalidArgument(ast, "stop"); }// not exactly R-warning       
-        String[] content = new String[xsize];
+        CompactStrings.Builder res = new CompactStrings.Builder(xsize);
+        CompactStrings xcs = x instanceof CompactStrings ? (CompactStrings) x : null;
         for (int i = 0; i < xsize; i++) {
             double nstart = start.getDouble(startIndex++);
             if (startIndex == startSize) {
@@ -68,18 +68,26 @@ class Substr extends CallFactory {
             if (stopIndex == stopSize) {
                 stopIndex = 0;
             }
-            String str = x.getString(i);
-            if (!RDouble.RDoubleUtils.isNAorNaN(nstart) && !RDouble.RDoubleUtils.isNAorNaN(nstop) && str != RString.NA) {
-                int stp = (int) nstop;
-                int len = str.length();
-                if (stp > len) {
-                    stp = len;
-                }
-                content[i] = str.substring(((int) nstart) - 1, stp);
+            if (RDouble.RDoubleUtils.isNAorNaN(nstart) || RDouble.RDoubleUtils.isNAorNaN(nstop) || x.isNAorNaN(i)) {
+                res.addNA();
+                continue;
+            }
+            int len = xcs != null ? xcs.length(i) : -1;
+            String str = null;
+            if (xcs == null) {
+                str = x.getString(i);
+                len = str.length();
+            }
+            int from = Math.max((int) nstart, 1) - 1;
+            int to = Math.min((int) nstop, len);
+            if (from >= to) {
+                res.add("");
+            } else if (xcs != null) {
+                res.add(xcs, i, from, to); // copies the bytes
             } else {
-                content[i] = RString.NA;
+                res.add(str, from, to);
             }
         }
-        return RString.RStringFactory.getFor(content);
+        return res.build();
     }
 }
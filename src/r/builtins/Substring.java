@@ -26,8 +26,6 @@ class Substring extends CallFactory {
         super(name, params, required);
     }
 
-    static final ConversionStatus warn = new ConversionStatus(); // WARNING: calls not re-entrant
-
     @Override public RNode create(ASTNode call, RSymbol[] names, RNode[] exprs) {
         final ArgumentInfo ia = check(call, names, exprs);
         final int posText = ia.position("text");
@@ -37,7 +35,7 @@ class Substring extends CallFactory {
         return new Builtin(call, names, exprs) {
             @Override public RAny doBuiltIn(Frame frame, RAny[] args) {
                 RString text = args[posText].asString();
-                warn.naIntroduced = false;
+                ConversionStatus warn = new ConversionStatus();
                 RDouble first = args[posFirst].asDouble(warn);
                 RDouble last;
                 last = posLast != -1 ? args[posLast].asDouble(warn) : defaultLast;
@@ -1,6 +1,7 @@
 package r.builtins;
 
 import r.data.*;
+import r.data.internal.*;
 import r.errors.*;
 import r.nodes.*;
 import r.nodes.truffle.*;
@@ -49,6 +50,13 @@ final class Sum extends CallFactory {
     }
 
     public static double sum(RDouble v, boolean narm) {
+        if (v instanceof DoubleImpl.RDoubleConstant) {
+            double d = ((DoubleImpl.RDoubleConstant) v).value();
+            if (narm && RDouble.RDoubleUtils.isNAorNaN(d)) {
+                return 0;
+            }
+            return d * v.size();
+        }
         int size = v.size();
         double res = 0;
         for (int i = 0; i < size; i++) {
@@ -64,6 +72,17 @@ final class Sum extends CallFactory {
     }
 
     public static double sum(RInt v, boolean narm) {
+        if (v instanceof IntImpl.RIntSequence) {
+            IntImpl.RIntSequence seq = (IntImpl.RIntSequence) v;
+            return (double) seq.size() * ((double) seq.from() + seq.to()) / 2;
+        }
+        if (v instanceof IntImpl.RIntConstant) {
+            int i = ((IntImpl.RIntConstant) v).value();
+            if (i == RInt.NA) {
+                return narm ? 0 : RInt.NA;
+            }
+            return (double) i * v.size();
+        }
         int size = v.size();
         double res = 0;
         for (int i = 0; i < size; i++) {
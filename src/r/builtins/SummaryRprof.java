@@ -0,0 +1,110 @@
+package r.builtins;
+
+import java.io.*;
+import java.util.*;
+
+import r.data.*;
+import r.errors.*;
+import r.nodes.*;
+import r.nodes.truffle.*;
+
+import com.oracle.truffle.api.frame.*;
+
+/**
+ * "summaryRprof"
+ * 
+ * <pre>
+ * filename -- name of a file produced by Rprof().
+ * interval -- real: the time interval between the samples in the file, in seconds.
+ * </pre>
+ */
+// NOTE: reads the folded stacks written by Rprof, which do not record the interval, so it is an argument here; the result is
+//       a list of by.self and by.total, the time in seconds spent in each function (not counting resp. counting the functions
+//       it calls) in decreasing order, sample.interval and sampling.time, but the times are named vectors, not data frames
+final class SummaryRprof extends CallFactory {
+    static final CallFactory _ = new SummaryRprof("summaryRprof", new String[]{"filename", "interval"}, new String[]{});
+
+    private static final RArray.Names names = RArray.Names.create(RSymbol.getSymbols(new String[]{"by.self", "by.total", "sample.interval", "sampling.time"}));
+
+    private SummaryRprof(String name, String[] params, String[] required) {
+        super(name, params, required);
+    }
+
+    @Override public RNode create(ASTNode call, RSymbol[] names, RNode[] exprs) {
+        ArgumentInfo ia = check(call, names, exprs);
+        final int posFilename = ia.position("filename");
+        final int posInterval = ia.position("interval");
+        return new Builtin(call, names, exprs) {
+            @Override public RAny doBuiltIn(Frame frame, RAny[] args) {
+                String fileName = posFilename == -1 ? Rprof.DEFAULT_FILE : File.getScalarString(args[posFilename], ast, "filename");
+                double interval = posInterval == -1 ? Rprof.DEFAULT_INTERVAL : Rprof.parseInterval(args[posInterval], ast);
+                return summary(fileName, interval, ast);
+            }
+        };
+    }
+
+    static RList summary(String fileName, double interval, ASTNode ast) {
+        Map<String, long[]> self = new HashMap<>();
+        Map<String, long[]> total = new HashMap<>();
+        Set<String> inStack = new HashSet<>();
+        long samples = 0;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(fileName), "UTF-8"))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                int space = line.lastIndexOf(' ');
+                if (space <= 0) {
+                    continue;
+                }
+                long count;
+                try {
+                    count = Long.parseLong(line.substring(space + 1));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                String[] frames = line.substring(0, space).split(";");
+                samples += count;
+                add(self, frames[frames.length - 1], count);
+                inStack.clear();
+                for (String f : frames) {
+                    if (inStack.add(f)) { // a recursive function counts once per sample
+                        add(total, f, count);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw RError.getCannotOpenFile(ast, fileName, e.getMessage());
+        }
+        RAny[] content = new RAny[]{times(self, interval), times(total, interval), RDouble.RDoubleFactory.getScalar(interval), RDouble.RDoubleFactory.getScalar(samples * interval)};
+        return RList.RListFactory.getFor(content, null, names);
+    }
+
+    private static void add(Map<String, long[]> counts, String name, long count) {
+        long[] c = counts.get(name);
+        if (c == null) {
+            counts.put(name, new long[]{count});
+        } else {
+            c[0] += count;
+        }
+    }
+
+    // the times as a named vector, the longest first
+    private static RDouble times(Map<String, long[]> counts, double interval) {
+        java.util.List<Map.Entry<String, long[]>> entries = new ArrayList<>(counts.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, long[]>>() {
+            @Override public int compare(Map.Entry<String, long[]> a, Map.Entry<String, long[]> b) {
+                long ca = a.getValue()[0];
+                long cb = b.getValue()[0];
+                return ca != cb ? (ca > cb ? -1 : 1) : a.getKey().compareTo(b.getKey());
+            }
+        });
+        int n = entries.size();
+        double[] values = new double[n];
+        RSymbol[] symbols = new RSymbol[n];
+        for (int i = 0; i < n; i++) {
+            Map.Entry<String, long[]> e = entries.get(i);
+            values[i] = e.getValue()[0] * interval;
+            symbols[i] = RSymbol.getSymbol(e.getKey());
+        }
+        return RDouble.RDoubleFactory.getFor(values, null, RArray.Names.create(symbols));
+    }
+}
@@ -1,6 +1,7 @@
 package r.builtins;
 
 import r.data.*;
+import r.data.internal.*;
 import r.nodes.*;
 
 /**
@@ -21,4 +22,8 @@ final class Toupper extends CharBase {
     @Override public String op(ASTNode ast, String string) {
         return string != RString.NA ? string.toUpperCase() : RString.NA;
     }
+
+    @Override RString op(CompactStrings value) {
+        return value.toUpperCase();
+    }
 }
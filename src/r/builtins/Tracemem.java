@@ -0,0 +1,37 @@
+package r.builtins;
+
+import r.*;
+import r.data.*;
+import r.errors.*;
+import r.nodes.*;
+import r.nodes.truffle.*;
+
+import com.oracle.truffle.api.frame.*;
+
+/**
+ * "tracemem"
+ * 
+ * <pre>
+ * x -- a vector (not NULL), its copies are reported on the output.
+ * </pre>
+ */
+// NOTE: besides the copies made by updates, the materializations of a traced view are reported, see MemoryTrace
+final class Tracemem extends CallFactory {
+    static final CallFactory _ = new Tracemem("tracemem", new String[]{"x"}, new String[]{"x"});
+
+    private Tracemem(String name, String[] params, String[] required) {
+        super(name, params, required);
+    }
+
+    @Override public RNode create(ASTNode call, RSymbol[] names, RNode[] exprs) {
+        check(call, names, exprs);
+        return new Builtin.Builtin1(call, names, exprs) {
+            @Override public RAny doBuiltIn(Frame frame, RAny arg) {
+                if (arg instanceof RNull) { throw RError.getCannotTraceNull(ast); }
+                if (arg instanceof RCallable) { throw RError.getTraceFunction(ast); }
+                if (!(arg instanceof RArray)) { throw RError.getTraceNotUseful(ast); }
+                return RString.RStringFactory.getScalar(MemoryTrace.tracemem(arg));
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package r.builtins;
+
+import r.*;
+import r.data.*;
+import r.nodes.*;
+import r.nodes.truffle.*;
+
+import com.oracle.truffle.api.frame.*;
+
+/**
+ * "untracemem"
+ * 
+ * <pre>
+ * x -- an R object, its copies are no longer reported.
+ * </pre>
+ */
+final class Untracemem extends CallFactory {
+    static final CallFactory _ = new Untracemem("untracemem", new String[]{"x"}, new String[]{"x"});
+
+    private Untracemem(String name, String[] params, String[] required) {
+        super(name, params, required);
+    }
+
+    @Override public RNode create(ASTNode call, RSymbol[] names, RNode[] exprs) {
+        check(call, names, exprs);
+        return new Builtin.Builtin1(call, names, exprs) {
+            @Override public RAny doBuiltIn(Frame frame, RAny arg) {
+                MemoryTrace.untracemem(arg);
+                return RNull.getNull();
+            }
+        };
+    }
+}
@@ -2,6 +2,7 @@ package r.builtins;
 
 import r.*;
 import r.data.*;
+import r.data.internal.*;
 import r.errors.*;
 import r.nodes.*;
 import r.nodes.truffle.*;
@@ -30,6 +31,10 @@ final class Which extends CallFactory {
     // indeed could be also done with two passes but no extra allocation
     // FIXME: could get additional performance by providing multiple nodes and rewriting based on feedback on arguments
     public static RInt which(RLogical l) {
+        if (l instanceof LogicalImpl.RLogicalConstant) {
+            int size = l.size();
+            return ((LogicalImpl.RLogicalConstant) l).value() == RLogical.TRUE ? RInt.RIntFactory.forSequence(1, size, 1) : RInt.EMPTY;
+        }
         RLogical input = l.materialize();
         int size = input.size();
         int[] tmp = new int[size];
@@ -1,6 +1,8 @@
 package r.builtins;
 
 import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
 
 import r.*;
 import r.data.*;
@@ -31,31 +33,105 @@ final class WriteBin extends CallFactory {
         super(name, params, required);
     }
 
-    public static void write(RRaw arg, OutputStream output) throws IOException {
-        int size = arg.size();
+    // writes the object through a direct buffer that is encoded in bulk
+    public static void write(RAny arg, int size, ByteOrder order, WritableByteChannel channel, ASTNode ast) throws IOException {
+        int esize;
+        if (arg instanceof RDouble) {
+            esize = size == RInt.NA ? 8 : size;
+            if (esize != 8 && esize != 4) { throw RError.getSizeUnknown(ast, size); }
+        } else if (arg instanceof RInt || arg instanceof RLogical) {
+            esize = size == RInt.NA ? 4 : ReadBin.checkIntSize(size, ast);
+        } else if (arg instanceof RRaw) {
+            esize = 1;
+        } else {
+            throw Utils.nyi("unsupported argument"); // FIXME support more types
+        }
+        if (arg instanceof RRaw) {
+            write(ByteBuffer.wrap(ReadBin.rawContent((RRaw) arg)), channel);
+            return;
+        }
+        int length = ((RArray) arg).size();
+        double[] dcontent = arg instanceof RDouble ? ((RDouble) arg).materialize().getContent() : null;
+        int[] icontent = dcontent == null ? intContent(arg) : null;
+        ByteBuffer buf = ByteBuffer.allocateDirect((int) Math.min(ReadBin.BUFFER_SIZE, Math.max(length, 1L) * esize)).order(order);
+        int chunk = buf.capacity() / esize;
+        for (int from = 0; from < length; from += chunk) {
+            int k = Math.min(chunk, length - from);
+            buf.clear();
+            if (dcontent != null) {
+                if (esize == 8) {
+                    buf.asDoubleBuffer().put(dcontent, from, k);
+                } else {
+                    FloatBuffer fb = buf.asFloatBuffer();
+                    for (int i = 0; i < k; i++) {
+                        fb.put(i, (float) dcontent[from + i]);
+                    }
+                }
+            } else {
+                switch (esize) {
+                    case 4:
+                        buf.asIntBuffer().put(icontent, from, k);
+                        break;
+                    case 2:
+                        ShortBuffer sb = buf.asShortBuffer();
+                        for (int i = 0; i < k; i++) {
+                            sb.put(i, (short) icontent[from + i]);
+                        }
+                        break;
+                    case 1:
+                        for (int i = 0; i < k; i++) {
+                            buf.put(i, (byte) icontent[from + i]);
+                        }
+                        break;
+                    case 8:
+                        LongBuffer lb = buf.asLongBuffer();
+                        for (int i = 0; i < k; i++) {
+                            int v = icontent[from + i];
+                            lb.put(i, v); // sign-extended, so NA reads back as NA, as in GNU-R
+                        }
+                        break;
+                    default:
+                        throw Utils.nyi("unreachable");
+                }
+            }
+            buf.limit(k * esize);
+            write(buf, channel);
+        }
+    }
+
+    private static int[] intContent(RAny arg) {
+        if (arg instanceof RInt) {
+            return ((RInt) arg).materialize().getContent();
+        }
+        RLogical l = (RLogical) arg;
+        int size = l.size();
+        int[] content = new int[size];
         for (int i = 0; i < size; i++) {
-            output.write(arg.getRaw(i));
+            content[i] = l.getLogical(i);
         }
+        return content;
     }
 
-    public static void write(RAny arg, OutputStream output) throws IOException {
-        if (arg instanceof RRaw) {
-            write((RRaw) arg, output);
-            return;
+    private static void write(ByteBuffer buf, WritableByteChannel channel) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf);
         }
-        throw Utils.nyi("unsupported argument"); // FIXME support more types
     }
 
     @Override public RNode create(ASTNode call, RSymbol[] names, RNode[] exprs) {
         ArgumentInfo ia = check(call, names, exprs);
-        if (ia.provided("size") || ia.provided("endian") || ia.provided("useBytes")) {
+        if (ia.provided("useBytes")) {
             Utils.nyi("argument of writeBin not yet implemented");
         }
         final ConnectionMode defaultMode = ConnectionMode.get("wb");
         final int posCon = ia.position("con");
         final int posObject = ia.position("object");
+        final int posSize = ia.position("size");
+        final int posEndian = ia.position("endian");
         return new Builtin(call, names, exprs) {
             @Override public RAny doBuiltIn(Frame frame, RAny[] args) {
+                int size = posSize == -1 ? RInt.NA : ReadBin.parseSize(args[posSize], ast);
+                ByteOrder order = posEndian == -1 ? ByteOrder.nativeOrder() : ReadBin.parseEndian(args[posEndian], ast);
                 Connection con = null;
                 boolean wasOpen = false;
                 RAny conArg = args[posCon];
@@ -79,14 +155,11 @@ final class WriteBin extends CallFactory {
                     }
                 }
                 try {
-                    BufferedOutputStream output = new BufferedOutputStream(con.output(ast));
-                    try {
-                        write(args[posObject], output);
-                        output.flush(); // FIXME: this flushes also the underlying file, which may not be the R semantics (?)
-                    } catch (IOException e) {
-                        throw RError.getGenericError(ast, e.toString());
-                    }
+                    con.flush(ast); // data written through the output stream go first
+                    write(args[posObject], size, order, con.outputChannel(ast), ast);
                     return RNull.getNull();
+                } catch (IOException e) {
+                    throw RError.getGenericError(ast, e.toString());
                 } finally {
                     if (!wasOpen) {
                         con.close(ast);
@@ -0,0 +1,611 @@
+package r.builtins.internal;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import r.*;
+import r.data.*;
+
+/**
+ * Stable ordering of indexes by the values of one or more keys, without boxing the indexes.
+ *
+ * Several keys are handled by sorting stably by the last key first, then by each previous key (so the earlier keys take
+ * precedence and ties keep the original order). Each pass moves the NAs of its key first or last (not affected by
+ * decreasing) and sorts the remaining indexes by the key values:
+ *
+ * <ul>
+ * <li>integer and logical keys by a counting sort when the range of values is small, otherwise by an LSD radix sort
+ * (two passes of 16 bits)</li>
+ * <li>double keys by a merge sort of the (value, index) pairs held in two primitive arrays</li>
+ * <li>character keys by the same merge sort, over the strings read once from the vector</li>
+ * </ul>
+ *
+ * The merge sorts run in parallel (in a fork-join pool) for large vectors. There are also parallel sorts of values
+ * without indexes, and selection (partial sorting) of values.
+ *
+ * NaN is treated as NA. Strings are compared by String.compareTo (no collation), as in GNU-R with the C locale.
+ */
+public final class Ordering {
+
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+    private static final int RADIX_BITS = 16;
+    private static final int RADIX_BUCKETS = 1 << RADIX_BITS;
+
+    /**
+     * Returns the 0-based order of the elements of the keys (all of the same size). When naLast is NA, elements that are
+     * NA in any key are left out.
+     */
+    public static int[] order(RArray[] keys, boolean decreasing, int naLast) {
+        int size = keys[0].size();
+        int[] perm;
+        int n;
+        if (naLast == RLogical.NA) {
+            boolean[] isNA = new boolean[size];
+            int nas = 0;
+            for (RArray key : keys) {
+                for (int i = 0; i < size; i++) {
+                    if (!isNA[i] && key.isNAorNaN(i)) {
+                        isNA[i] = true;
+                        nas++;
+                    }
+                }
+            }
+            n = size - nas;
+            perm = new int[n];
+            int j = 0;
+            for (int i = 0; i < size; i++) {
+                if (!isNA[i]) {
+                    perm[j++] = i;
+                }
+            }
+        } else {
+            n = size;
+            perm = new int[n];
+            for (int i = 0; i < n; i++) {
+                perm[i] = i;
+            }
+        }
+        for (int k = keys.length - 1; k >= 0; k--) {
+            sortStable(perm, keys[k], decreasing, naLast != RLogical.FALSE);
+        }
+        return perm;
+    }
+
+    /** Stably reorders the indexes in perm by the values of the key. */
+    public static void sortStable(int[] perm, RArray key, boolean decreasing, boolean naLast) {
+        int n = perm.length;
+        int[] nonNA = new int[n];
+        int[] nas = null;
+        int m = 0;
+        int nna = 0;
+        for (int i = 0; i < n; i++) {
+            int p = perm[i];
+            if (key.isNAorNaN(p)) {
+                if (nas == null) {
+                    nas = new int[n - i];
+                }
+                nas[nna++] = p;
+            } else {
+                nonNA[m++] = p;
+            }
+        }
+        if (key instanceof RDouble) {
+            sortDouble(nonNA, m, ((RDouble) key).getContent(), decreasing);
+        } else if (key instanceof RInt) {
+            sortInt(nonNA, m, ((RInt) key).getContent(), decreasing);
+        } else if (key instanceof RLogical) {
+            RLogical l = (RLogical) key;
+            int[] values = new int[l.size()];
+            for (int i = 0; i < m; i++) {
+                int p = nonNA[i];
+                values[p] = l.getLogical(p);
+            }
+            sortInt(nonNA, m, values, decreasing);
+        } else if (key instanceof RString) {
+            sortString(nonNA, m, (RString) key, decreasing);
+        } else {
+            Utils.nyi("unsupported type");
+        }
+        if (nna == 0) {
+            System.arraycopy(nonNA, 0, perm, 0, n);
+        } else if (naLast) {
+            System.arraycopy(nonNA, 0, perm, 0, m);
+            System.arraycopy(nas, 0, perm, m, nna);
+        } else {
+            System.arraycopy(nas, 0, perm, 0, nna);
+            System.arraycopy(nonNA, 0, perm, nna, m);
+        }
+    }
+
+    // sorts idx[0..n) by values[idx[i]], none of the values is NA
+    static void sortInt(int[] idx, int n, int[] values, boolean decreasing) {
+        if (n < 2) {
+            return;
+        }
+        int[] keys = new int[n];
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            int v = values[idx[i]];
+            if (decreasing) {
+                v = ~v; // reverses the order
+            }
+            keys[i] = v;
+            if (v < min) {
+                min = v;
+            }
+            if (v > max) {
+                max = v;
+            }
+        }
+        long range = (long) max - min + 1;
+        int[] keysOut = new int[n];
+        int[] idxOut = new int[n];
+        if (range <= RADIX_BUCKETS || range <= n) {
+            countingPass(keys, idx, keysOut, idxOut, n, min, 0, (int) range);
+            System.arraycopy(idxOut, 0, idx, 0, n);
+            return;
+        }
+        countingPass(keys, idx, keysOut, idxOut, n, min, 0, RADIX_BUCKETS);
+        countingPass(keysOut, idxOut, keys, idx, n, min, RADIX_BITS, RADIX_BUCKETS);
+    }
+
+    // a stable counting sort pass by the digit ((key - min) >>> shift) & (buckets - 1) (buckets is a power of two or,
+    // for the single pass, the whole range)
+    private static void countingPass(int[] keys, int[] idx, int[] keysOut, int[] idxOut, int n, int min, int shift, int buckets) {
+        int[] count = new int[buckets + 1];
+        boolean single = shift == 0 && buckets != RADIX_BUCKETS;
+        int mask = buckets - 1;
+        for (int i = 0; i < n; i++) {
+            int d = single ? keys[i] - min : ((keys[i] - min) >>> shift) & mask;
+            count[d + 1]++;
+        }
+        for (int b = 0; b < buckets; b++) {
+            count[b + 1] += count[b];
+        }
+        for (int i = 0; i < n; i++) {
+            int d = single ? keys[i] - min : ((keys[i] - min) >>> shift) & mask;
+            int j = count[d]++;
+            keysOut[j] = keys[i];
+            idxOut[j] = idx[i];
+        }
+    }
+
+    // sorts idx[0..n) by values[idx[i]], none of the values is NA or NaN
+    static void sortDouble(int[] idx, int n, double[] values, boolean decreasing) {
+        if (n < 2) {
+            return;
+        }
+        double[] keys = new double[n];
+        for (int i = 0; i < n; i++) {
+            double v = values[idx[i]];
+            keys[i] = decreasing ? -v : v;
+        }
+        run(new IndexedDoubles(keys, idx, new double[n], new int[n], 0, n), n);
+    }
+
+    // sorts idx[0..n) by the strings v[idx[i]], none of them is NA
+    static void sortString(int[] idx, int n, RString v, boolean decreasing) {
+        if (n < 2) {
+            return;
+        }
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = v.getString(idx[i]);
+        }
+        run(new IndexedStrings(keys, idx, new String[n], new int[n], decreasing ? -1 : 1, 0, n), n);
+    }
+
+    /** Sorts the values in ascending order, NaNs last (as Arrays.sort), in parallel for large arrays. */
+    public static void sort(double[] a) {
+        run(new DoubleValues(a, new double[a.length], 0, a.length), a.length);
+    }
+
+    /** Sorts the values in ascending order, in parallel for large arrays. */
+    public static void sort(int[] a) {
+        run(new IntValues(a, new int[a.length], 0, a.length), a.length);
+    }
+
+    private static final int PARALLEL_THRESHOLD = 1 << 18;
+    private static final int PARALLEL_CHUNK = 1 << 15;
+
+    private static ForkJoinPool pool;
+
+    private static synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        }
+        return pool;
+    }
+
+    private static void run(MergeSort s, int n) {
+        if (n >= PARALLEL_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1) {
+            pool().invoke(s);
+        } else {
+            s.sortSequential(s.from, s.to);
+        }
+    }
+
+    /**
+     * A stable merge sort of the range from..to of some arrays. Above {@link #PARALLEL_CHUNK} elements, the halves are
+     * sorted by parallel tasks (that share the arrays) before being merged. Merging copies the left half into the
+     * temporary arrays and merges it with the right half back into the arrays.
+     */
+    abstract static class MergeSort extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final int from;
+        final int to;
+
+        MergeSort(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        void sortSequential(int lo, int hi) {
+            if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+                insertionSort(lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            sortSequential(lo, mid);
+            sortSequential(mid, hi);
+            merge(lo, mid, hi);
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_CHUNK) {
+                sortSequential(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(create(from, mid), create(mid, to));
+            merge(from, mid, to);
+        }
+
+        abstract MergeSort create(int lo, int hi);
+
+        abstract void insertionSort(int lo, int hi);
+
+        abstract void merge(int lo, int mid, int hi);
+    }
+
+    static final class IndexedDoubles extends MergeSort {
+        private static final long serialVersionUID = 1L;
+
+        final double[] keys;
+        final int[] idx;
+        final double[] tmpKeys;
+        final int[] tmpIdx;
+
+        IndexedDoubles(double[] keys, int[] idx, double[] tmpKeys, int[] tmpIdx, int from, int to) {
+            super(from, to);
+            this.keys = keys;
+            this.idx = idx;
+            this.tmpKeys = tmpKeys;
+            this.tmpIdx = tmpIdx;
+        }
+
+        @Override
+        MergeSort create(int lo, int hi) {
+            return new IndexedDoubles(keys, idx, tmpKeys, tmpIdx, lo, hi);
+        }
+
+        @Override
+        void insertionSort(int lo, int hi) {
+            for (int i = lo + 1; i < hi; i++) {
+                double k = keys[i];
+                int x = idx[i];
+                int j = i - 1;
+                while (j >= lo && keys[j] > k) {
+                    keys[j + 1] = keys[j];
+                    idx[j + 1] = idx[j];
+                    j--;
+                }
+                keys[j + 1] = k;
+                idx[j + 1] = x;
+            }
+        }
+
+        @Override
+        void merge(int lo, int mid, int hi) {
+            if (!(keys[mid] < keys[mid - 1])) { // already in order
+                return;
+            }
+            System.arraycopy(keys, lo, tmpKeys, lo, mid - lo);
+            System.arraycopy(idx, lo, tmpIdx, lo, mid - lo);
+            int l = lo;
+            int r = mid;
+            int o = lo;
+            while (l < mid && r < hi) {
+                if (keys[r] < tmpKeys[l]) {
+                    keys[o] = keys[r];
+                    idx[o++] = idx[r++];
+                } else {
+                    keys[o] = tmpKeys[l];
+                    idx[o++] = tmpIdx[l++];
+                }
+            }
+            System.arraycopy(tmpKeys, l, keys, o, mid - l);
+            System.arraycopy(tmpIdx, l, idx, o, mid - l);
+        }
+    }
+
+    static final class IndexedStrings extends MergeSort {
+        private static final long serialVersionUID = 1L;
+
+        final String[] keys;
+        final int[] idx;
+        final String[] tmpKeys;
+        final int[] tmpIdx;
+        final int sign; // -1 for decreasing order
+
+        IndexedStrings(String[] keys, int[] idx, String[] tmpKeys, int[] tmpIdx, int sign, int from, int to) {
+            super(from, to);
+            this.keys = keys;
+            this.idx = idx;
+            this.tmpKeys = tmpKeys;
+            this.tmpIdx = tmpIdx;
+            this.sign = sign;
+        }
+
+        @Override
+        MergeSort create(int lo, int hi) {
+            return new IndexedStrings(keys, idx, tmpKeys, tmpIdx, sign, lo, hi);
+        }
+
+        @Override
+        void insertionSort(int lo, int hi) {
+            for (int i = lo + 1; i < hi; i++) {
+                String k = keys[i];
+                int x = idx[i];
+                int j = i - 1;
+                while (j >= lo && sign * keys[j].compareTo(k) > 0) {
+                    keys[j + 1] = keys[j];
+                    idx[j + 1] = idx[j];
+                    j--;
+                }
+                keys[j + 1] = k;
+                idx[j + 1] = x;
+            }
+        }
+
+        @Override
+        void merge(int lo, int mid, int hi) {
+            if (sign * keys[mid].compareTo(keys[mid - 1]) >= 0) { // already in order
+                return;
+            }
+            System.arraycopy(keys, lo, tmpKeys, lo, mid - lo);
+            System.arraycopy(idx, lo, tmpIdx, lo, mid - lo);
+            int l = lo;
+            int r = mid;
+            int o = lo;
+            while (l < mid && r < hi) {
+                if (sign * keys[r].compareTo(tmpKeys[l]) < 0) {
+                    keys[o] = keys[r];
+                    idx[o++] = idx[r++];
+                } else {
+                    keys[o] = tmpKeys[l];
+                    idx[o++] = tmpIdx[l++];
+                }
+            }
+            System.arraycopy(tmpKeys, l, keys, o, mid - l);
+            System.arraycopy(tmpIdx, l, idx, o, mid - l);
+        }
+    }
+
+    // the ranges are sorted by Arrays.sort, which orders -0.0 before 0.0 and NaNs last, as Double.compare
+    static final class DoubleValues extends MergeSort {
+        private static final long serialVersionUID = 1L;
+
+        final double[] a;
+        final double[] tmp;
+
+        DoubleValues(double[] a, double[] tmp, int from, int to) {
+            super(from, to);
+            this.a = a;
+            this.tmp = tmp;
+        }
+
+        @Override
+        MergeSort create(int lo, int hi) {
+            return new DoubleValues(a, tmp, lo, hi);
+        }
+
+        @Override
+        void sortSequential(int lo, int hi) {
+            Arrays.sort(a, lo, hi);
+        }
+
+        @Override
+        void insertionSort(int lo, int hi) {
+            Arrays.sort(a, lo, hi);
+        }
+
+        @Override
+        void merge(int lo, int mid, int hi) {
+            System.arraycopy(a, lo, tmp, lo, mid - lo);
+            int l = lo;
+            int r = mid;
+            int o = lo;
+            while (l < mid && r < hi) {
+                a[o++] = Double.compare(a[r], tmp[l]) < 0 ? a[r++] : tmp[l++];
+            }
+            System.arraycopy(tmp, l, a, o, mid - l);
+        }
+    }
+
+    static final class IntValues extends MergeSort {
+        private static final long serialVersionUID = 1L;
+
+        final int[] a;
+        final int[] tmp;
+
+        IntValues(int[] a, int[] tmp, int from, int to) {
+            super(from, to);
+            this.a = a;
+            this.tmp = tmp;
+        }
+
+        @Override
+        MergeSort create(int lo, int hi) {
+            return new IntValues(a, tmp, lo, hi);
+        }
+
+        @Override
+        void sortSequential(int lo, int hi) {
+            Arrays.sort(a, lo, hi);
+        }
+
+        @Override
+        void insertionSort(int lo, int hi) {
+            Arrays.sort(a, lo, hi);
+        }
+
+        @Override
+        void merge(int lo, int mid, int hi) {
+            System.arraycopy(a, lo, tmp, lo, mid - lo);
+            int l = lo;
+            int r = mid;
+            int o = lo;
+            while (l < mid && r < hi) {
+                a[o++] = a[r] < tmp[l] ? a[r++] : tmp[l++];
+            }
+            System.arraycopy(tmp, l, a, o, mid - l);
+        }
+    }
+
+    /**
+     * Partially sorts the values so that the elements at the (0-based, sorted) positions are those of the full sort,
+     * with no larger element before and no smaller element after them (quickselect between consecutive positions).
+     */
+    public static void select(double[] a, int[] positions) {
+        int lo = 0;
+        for (int k : positions) {
+            select(a, lo, a.length - 1, k);
+            lo = k + 1;
+        }
+    }
+
+    public static void select(int[] a, int[] positions) {
+        int lo = 0;
+        for (int k : positions) {
+            select(a, lo, a.length - 1, k);
+            lo = k + 1;
+        }
+    }
+
+    public static void select(String[] a, int[] positions) {
+        int lo = 0;
+        for (int k : positions) {
+            select(a, lo, a.length - 1, k);
+            lo = k + 1;
+        }
+    }
+
+    private static void select(double[] a, int lo, int hi, int k) {
+        while (hi > lo) {
+            double pivot = medianOfThree(a[lo], a[(lo + hi) >>> 1], a[hi]);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (a[i] < pivot) {
+                    i++;
+                }
+                while (a[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    double t = a[i];
+                    a[i++] = a[j];
+                    a[j--] = t;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return; // a[j+1..i-1] are equal to the pivot
+            }
+        }
+    }
+
+    private static void select(int[] a, int lo, int hi, int k) {
+        while (hi > lo) {
+            int pivot = medianOfThree(a[lo], a[(lo + hi) >>> 1], a[hi]);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (a[i] < pivot) {
+                    i++;
+                }
+                while (a[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int t = a[i];
+                    a[i++] = a[j];
+                    a[j--] = t;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void select(String[] a, int lo, int hi, int k) {
+        while (hi > lo) {
+            String pivot = medianOfThree(a[lo], a[(lo + hi) >>> 1], a[hi]);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (a[i].compareTo(pivot) < 0) {
+                    i++;
+                }
+                while (a[j].compareTo(pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    String t = a[i];
+                    a[i++] = a[j];
+                    a[j--] = t;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static double medianOfThree(double a, double b, double c) {
+        if (a < b) {
+            return b < c ? b : (a < c ? c : a);
+        }
+        return a < c ? a : (b < c ? c : b);
+    }
+
+    private static int medianOfThree(int a, int b, int c) {
+        if (a < b) {
+            return b < c ? b : (a < c ? c : a);
+        }
+        return a < c ? a : (b < c ? c : b);
+    }
+
+    private static String medianOfThree(String a, String b, String c) {
+        if (a.compareTo(b) < 0) {
+            return b.compareTo(c) < 0 ? b : (a.compareTo(c) < 0 ? c : a);
+        }
+        return a.compareTo(c) < 0 ? a : (b.compareTo(c) < 0 ? c : b);
+    }
+}
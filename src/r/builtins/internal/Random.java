@@ -1,5 +1,7 @@
 package r.builtins.internal;
 
+import java.util.concurrent.locks.*;
+
 import r.*;
 import r.data.*;
 import r.data.internal.*;
@@ -10,6 +12,11 @@ import r.nodes.*;
 public final class Random {
     private static RSymbol seedSymbol = RSymbol.getSymbol(".Random.seed");
 
+    // the native generator state is global, so the sequence updateNativeSeed, generate, updateWorkspaceSeed must not
+    // interleave between threads (e.g. workers of a parallel lapply); the lock is held from updateNativeSeed until
+    // updateWorkspaceSeed
+    private static final ReentrantLock lock = new ReentrantLock();
+
     // the seed used by default by libRMath, changing this default will break tests
     public static final RInt defaultSeed = (RInt) RArray.RArrayUtils.markShared(RInt.RIntFactory.getFor(new int[] {401, 1234, 5678}));
 
@@ -20,6 +27,16 @@ public final class Random {
 
     // returns the retrieved direct pointer to the workspace seed, to be later passed to updateWorkspaceSeed
     public static int[] updateNativeSeed(ASTNode ast) {
+        lock.lock();
+        try {
+            return updateNativeSeedLocked(ast);
+        } catch (RuntimeException | Error e) {
+            lock.unlock();
+            throw e;
+        }
+    }
+
+    private static int[] updateNativeSeedLocked(ASTNode ast) {
         Object v = seedSymbol.getValue(); // FIXME: check R semantics when running in eval
         int[] kind;
         if (v == null) {
@@ -46,7 +63,11 @@ public final class Random {
 
     // to be called after returning from native code (/random number generation)
     public static void updateWorkspaceSeed(int[] res) {
-        GNUR.get_seed(res);
+        try {
+            GNUR.get_seed(res);
+        } finally {
+            lock.unlock();
+        }
     }
 
     // for functions like rnorm, etc
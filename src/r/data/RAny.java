@@ -58,7 +58,7 @@ public interface RAny {
     RString asString(ConversionStatus warn); // FIXME: is any error ever produced? is this needed for String?
 
     void ref();
-    boolean isShared(); // FIXME: at some point will probably need do distinguish between 0, 1, and 2
+    boolean isShared(); // more than one reference (see NonScalarArrayImpl for the counting)
     boolean isTemporary();
     boolean dependsOn(RAny value);
 
@@ -202,6 +202,18 @@ public interface RDouble extends RNumber {
             }
             return new DoubleImpl(values, dimensions, names, attributes, false);
         }
+        public static RDouble forSequence(double from, double to, double by, int size) {
+            if (size == 1) {
+                return new ScalarDoubleImpl(from);
+            }
+            return new DoubleImpl.RDoubleSequence(from, to, by, size);
+        }
+        public static RDouble getConstant(double value, int size) {
+            if (size == 1) {
+                return new ScalarDoubleImpl(value);
+            }
+            return new DoubleImpl.RDoubleConstant(value, size);
+        }
         public static RDouble getEmpty(boolean named) {
             return named ? EMPTY_NAMED_NA : EMPTY;
         }
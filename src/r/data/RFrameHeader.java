@@ -25,11 +25,19 @@ public class RFrameHeader extends Arguments {
     final RFunction function;
     RFrameExtension extension;
     REnvironment environment;
+    boolean escaped; // the frame may be reachable after the call returns (closure, environment, promise of an escaped frame)
+    final int depth; // number of active function calls including this one (a tail call does not add one)
+    RFrameHeader tailCall; // arguments of a pending tail call of the same function, see FunctionCall.TailCallException
 
     public RFrameHeader(RFunction function, MaterializedFrame enclosingFrame, Object[] arguments) {
+        this(function, enclosingFrame, arguments, 0);
+    }
+
+    public RFrameHeader(RFunction function, MaterializedFrame enclosingFrame, Object[] arguments, int depth) {
         this.function = function;
         this.enclosingFrame = enclosingFrame;
         this.arguments = arguments;
+        this.depth = depth;
     }
 
 
@@ -62,6 +70,14 @@ public class RFrameHeader extends Arguments {
         return arguments;
     }
 
+    public int depth() {
+        return depth;
+    }
+
+    public RFrameHeader tailCall() {
+        return tailCall;
+    }
+
     public static Frame enclosingFrame(Frame f) {
         return header(f).enclosingFrame;
     }
@@ -80,10 +96,29 @@ public class RFrameHeader extends Arguments {
         if (env == null) {
             env = new EnvironmentImpl(f.materialize());
             h.environment = env;
+            h.escaped = true;
         }
         return env;
     }
 
+    /** Records that the frame may be reachable after its call returns, so the references held by its slots and argument
+     * promises must not be dropped on return.
+     */
+    public static void markEscaped(Frame f) {
+        if (f != null) {
+            header(f).escaped = true;
+        }
+    }
+
+    public static boolean escaped(Frame f) {
+        return header(f).escaped;
+    }
+
+    /** Returns the call depth of the frame, 0 for no frame (top level). */
+    public static int depth(Frame f) {
+        return f == null ? 0 : header(f).depth;
+    }
+
     public static Object returnValue(Frame f) {
         return header(f).returnValue();
     }
@@ -108,6 +143,10 @@ public class RFrameHeader extends Arguments {
         header(f).returnValue = value;
     }
 
+    public static void setTailCall(Frame f, RFrameHeader callee) {
+        header(f).tailCall = callee;
+    }
+
     public static void setRootEnvironment(Frame f, REnvironment env) {
         header(f).returnValue = env;
     }
@@ -823,9 +862,34 @@ public class RFrameHeader extends Arguments {
         if (value != oldContent) {
             Utils.frameSetObject(f, slot, value);
             value.ref();
+            if (oldContent instanceof NonScalarArrayImpl && !header(f).escaped) {
+                ((NonScalarArrayImpl) oldContent).unref(); // the old value has been written with a ref, too
+            }
         }
     }
 
+    /** Installs an unboxed local scalar in the slot, dropping the reference held by the old value like writeAtCondRef. */
+    public static void writeAtLocalScalar(Frame f, FrameSlot slot, LocalScalar value) {
+        Object oldContent = Utils.frameGetRaw(f, slot);
+        Utils.frameSetObject(f, slot, value);
+        if (oldContent instanceof NonScalarArrayImpl && !header(f).escaped) {
+            ((NonScalarArrayImpl) oldContent).unref();
+        }
+    }
+
+    /** Writes an integer (e.g. a loop index) updating the unboxed local scalar in the slot, or installing one. */
+    public static LocalScalar.OfInt writeIntAtNoRef(Frame f, FrameSlot slot, int value) {
+        Object oldContent = Utils.frameGetRaw(f, slot);
+        if (oldContent instanceof LocalScalar.OfInt) {
+            LocalScalar.OfInt h = (LocalScalar.OfInt) oldContent;
+            h.set(value);
+            return h;
+        }
+        LocalScalar.OfInt h = new LocalScalar.OfInt(value);
+        Utils.frameSetObject(f, slot, h);
+        return h;
+    }
+
     public static void writeAtNoRef(Frame f, FrameSlot slot, Object value) {
         Utils.frameSetObject(f, slot, value);
     }
@@ -1068,16 +1132,31 @@ public class RFrameHeader extends Arguments {
 
     private static class RFrameExtension {
 
+        /** Number of bindings after which an unhashed extension builds an index (switches to the hashed layout). */
+        static final int HASH_THRESHOLD = 32;
+
         protected int used = 0;
-        private int capacity = 10;
+        private int capacity;
         // NOTE: we need a third counter for the last value use for storing the lastUsed value in case of removal
 
         private int bloom; // This bloom filter comes from Alex B. (renjin)
         // Does it make any sense ? for this dynamic structures
 
         // TODO Merge these two arrays, and use unsafe casts
-        private RSymbol[] names = new RSymbol[capacity];
-        private Object[] values = new Object[capacity];
+        private RSymbol[] names;
+        private Object[] values;
+
+        private SymbolIndexMap index; // symbol to position in names/values, null while the extension is small
+
+        RFrameExtension() {
+            this(10);
+        }
+
+        RFrameExtension(int initialCapacity) {
+            capacity = initialCapacity;
+            names = new RSymbol[capacity];
+            values = new Object[capacity];
+        }
 
         protected Object getForcingPromises(RSymbol name) {
             int pos = getPosition(name);
@@ -1100,6 +1179,10 @@ public class RFrameHeader extends Arguments {
         }
 
         protected int getPosition(RSymbol name) {
+            SymbolIndexMap idx = index;
+            if (idx != null) {
+                return idx.get(name);
+            }
             if (FunctionImpl.isIn(name.hash(), bloom)) {
                 RSymbol[] n = names;
                 for (int i = 0; i < used; i++) {
@@ -1124,6 +1207,11 @@ public class RFrameHeader extends Arguments {
             used++;
             names[pos] = sym;
             values[pos] = val;
+            if (index != null) {
+                index.put(sym, pos);
+            } else if (used > HASH_THRESHOLD) {
+                buildIndex(used);
+            }
 
             markDirty(enclosingFrame(enclosing), sym);
                 // the put method only gets called when the current write set does not have the value,
@@ -1145,10 +1233,18 @@ public class RFrameHeader extends Arguments {
             values[pos] = value; // NOTE: could be conditional once re-writing the same value is made common (see writeAtRef)
         }
 
+        protected final void buildIndex(int expectedSize) {
+            SymbolIndexMap idx = new SymbolIndexMap(expectedSize);
+            for (int i = 0; i < used; i++) {
+                idx.put(names[i], i);
+            }
+            index = idx;
+        }
+
         protected void expand(int newCap) {
             assert Utils.check(newCap > capacity);
             RSymbol[] newNames = new RSymbol[newCap];
-            RAny[] newValues = new RAny[newCap];
+            Object[] newValues = new Object[newCap];
             System.arraycopy(names, 0, newNames, 0, used);
             System.arraycopy(values, 0, newValues, 0, used);
             names = newNames;
@@ -1180,26 +1276,9 @@ public class RFrameHeader extends Arguments {
 
         private static final class Hashed extends RFrameExtension {
 
-            private HashMap<RSymbol, Integer> map; // FIXME: use a primitive map
-
             private Hashed(int size) {
-                map = new HashMap<RSymbol, Integer>(size);
-            }
-
-            @Override
-            protected int getPosition(RSymbol name) {
-                Integer pos = map.get(name);
-                if (pos != null) {
-                    return pos.intValue();
-                } else {
-                    return -1;
-                }
-            }
-
-            @Override
-            protected void putNoRef(Frame enclosing, RSymbol sym, Object val) {
-                map.put(sym, used);
-                super.putNoRef(enclosing, sym, val);
+                super(Math.max(size, 10));
+                buildIndex(size);
             }
         }
     }
@@ -138,6 +138,12 @@ public interface RInt extends RNumber {
         public static RInt forSequence(int from, int to, int step) {
             return new IntImpl.RIntSequence(from, to, step);
         }
+        public static RInt getConstant(int value, int size) {
+            if (size == 1) {
+                return new ScalarIntImpl(value);
+            }
+            return new IntImpl.RIntConstant(value, size);
+        }
         public static RInt getEmpty(boolean named) {
             return named ? EMPTY_NAMED_NA : EMPTY;
         }
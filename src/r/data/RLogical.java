@@ -66,6 +66,12 @@ public interface RLogical extends RArray { // FIXME: should extend Number instea
                 return getFor(new int[] {value}, dimensions, null);
             }
         }
+        public static RLogical getConstant(int value, int size) {
+            if (size == 1) {
+                return new ScalarLogicalImpl(value);
+            }
+            return new LogicalImpl.RLogicalConstant(value, size);
+        }
         public static RLogical getArray(int... values) {
             if (values.length == 1) {
                 return new ScalarLogicalImpl(values[0]);
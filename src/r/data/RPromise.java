@@ -1,5 +1,6 @@
 package r.data;
 
+import r.data.internal.*;
 import r.errors.*;
 import r.nodes.ASTNode;
 import r.nodes.truffle.*;
@@ -17,6 +18,9 @@ public final class RPromise {
     private static final int MISSING_MASK = 1 << 2 | 1 << 3;
     private static final int MISSING_SHIFT = 2;
 
+    private static final int RELEASED_MASK = 1 << 4; // the reference to the value is no longer held
+    private static final int SHARED_MASK = 1 << 5; // the promise is reachable from more than one call (passed on through ...)
+
     private static final int MISSING_BITS_DEFAULT = 2 << MISSING_SHIFT;
     private static final int MISSING_BITS_MISSING = 1 << MISSING_SHIFT; // NOTE: we use different encoding of missing states from GNU-R
 
@@ -66,6 +70,11 @@ public final class RPromise {
         return value;
     }
 
+    /** Returns the value if the promise has been forced, null otherwise. */
+    public RAny forcedValue() {
+        return value;
+    }
+
     public static Object force(Object o) {
         if (FunctionCall.PROMISES && o instanceof RPromise) {
             return ((RPromise) o).forceOrGet();
@@ -74,6 +83,22 @@ public final class RPromise {
         }
     }
 
+    /** Drops the reference taken when the value was forced, when the call that received the promise returns. Only for
+     * promises that are not reachable after the call (see RFrameHeader.releaseArguments).
+     */
+    public void release() {
+        if ((bits & (RELEASED_MASK | SHARED_MASK)) == 0 && value != null) {
+            bits |= RELEASED_MASK;
+            if (value instanceof NonScalarArrayImpl) {
+                ((NonScalarArrayImpl) value).unref();
+            }
+        }
+    }
+
+    public void markShared() {
+        bits |= SHARED_MASK;
+    }
+
     public boolean markForceDirty() {
         boolean old = (bits & FORCE_DIRTY_MASK) != 0;
         bits |= FORCE_DIRTY_MASK;
@@ -33,8 +33,9 @@ public final class RSymbol extends BaseObject implements RAny {
 
     final String name;
     // The next two fields are for the topLevel
-    Object value;
-    int version;
+    // NOTE: volatile, so that top-level values written by one interpreter thread are seen by others (parallel lapply)
+    volatile Object value;
+    volatile int version;
     // The next is for the builtins registration
     PrimitiveEntry primitive;
 
@@ -93,37 +94,140 @@ public final class RSymbol extends BaseObject implements RAny {
         return hashCode(); // hash = 1 << (currentHash = currentHash + 1 % Integer.size);
     }
 
-    private static class SymbolTable {
-        // TODO A less stupid implementation for symbol table
-        // i.e., close to a set implementation with linear probing
-        final Map<String, RSymbol> table = new HashMap<>();
+    /** An interning set of symbols with open addressing (linear probing) over precomputed string hashes.
+     *
+     * Lookups of existing symbols are lock-free: they read the current (immutable-size) table through a volatile field
+     * and only fall back to the synchronized insertion path when the symbol is not found. Symbols are never removed, so
+     * a reader can only miss a symbol which is being inserted concurrently, in which case the insertion path re-checks
+     * under the lock.
+     */
+    private static final class SymbolTable {
+
+        static final int INITIAL_CAPACITY = 1024; // must be a power of two
+        static final int MAX_LOAD_PERCENT = 50;
+
+        private static final class Table {
+            final RSymbol[] symbols;
+            final int[] hashes;
+            final int mask;
+
+            Table(int capacity) {
+                symbols = new RSymbol[capacity];
+                hashes = new int[capacity];
+                mask = capacity - 1;
+            }
+        }
+
+        volatile Table table = new Table(INITIAL_CAPACITY);
+        int size; // guarded by this
+
+        static int hash(String name) { // NOTE: name is null for the NA symbol
+            if (name == null) {
+                return 0;
+            }
+            int h = name.hashCode();
+            return h ^ (h >>> 16);
+        }
+
+        private static RSymbol find(Table t, String name, int hash) {
+            RSymbol[] symbols = t.symbols;
+            int[] hashes = t.hashes;
+            int mask = t.mask;
+            for (int i = hash & mask;; i = (i + 1) & mask) {
+                RSymbol sym = symbols[i];
+                if (sym == null) {
+                    return null;
+                }
+                if (hashes[i] == hash && (sym.name == name || (name != null && name.equals(sym.name)))) {
+                    return sym;
+                }
+            }
+        }
+
+        private static void insert(Table t, RSymbol sym, int hash) {
+            int mask = t.mask;
+            int i = hash & mask;
+            while (t.symbols[i] != null) {
+                i = (i + 1) & mask;
+            }
+            t.hashes[i] = hash;
+            t.symbols[i] = sym;
+        }
 
         private RSymbol get(String name) {
-            RSymbol sym = table.get(name);
-            if (sym == null) {
-                table.put(name, sym = new RSymbol(name));
+            int hash = hash(name);
+            RSymbol sym = find(table, name, hash);
+            if (sym != null) {
+                return sym;
             }
+            return getSlowPath(name, hash);
+        }
+
+        private synchronized RSymbol getSlowPath(String name, int hash) {
+            Table t = table;
+            RSymbol sym = find(t, name, hash);
+            if (sym != null) {
+                return sym;
+            }
+            sym = new RSymbol(StringPool.intern(name)); // so that lookups of interned strings (RContext.internStrings) compare by reference
+            if ((size + 1) * 100 > t.symbols.length * MAX_LOAD_PERCENT) {
+                Table nt = new Table(t.symbols.length * 2);
+                RSymbol[] symbols = t.symbols;
+                int[] hashes = t.hashes;
+                for (int i = 0; i < symbols.length; i++) {
+                    if (symbols[i] != null) {
+                        insert(nt, symbols[i], hashes[i]);
+                    }
+                }
+                insert(nt, sym, hash);
+                table = nt; // publish
+            } else {
+                insert(t, sym, hash);
+            }
+            size++;
             return sym;
         }
 
         private RSymbol[] list() { // NOTE: this includes "null" values for symbols currently unused
-            RSymbol[] res = new RSymbol[table.size()];
-            return table.values().toArray(res);
+            RSymbol[] symbols = table.symbols;
+            int n = 0;
+            for (RSymbol s : symbols) {
+                if (s != null) {
+                    n++;
+                }
+            }
+            RSymbol[] res = new RSymbol[n];
+            int j = 0;
+            for (int i = 0; i < symbols.length && j < n; i++) {
+                RSymbol s = symbols[i];
+                if (s != null) {
+                    res[j++] = s;
+                }
+            }
+            return j == n ? res : Arrays.copyOf(res, j);
         }
 
-        private RSymbol[] listUsed(boolean includingHidden) { // FIXME: unnecessary copying
-            Collection<RSymbol> values = table.values();
-            ArrayList<RSymbol> used = new ArrayList<RSymbol>(values.size());
+        private static boolean isUsed(RSymbol s, boolean includingHidden) {
+            return s != null && s.getValue() != null && (includingHidden || !s.isHidden());
+        }
 
-            for(RSymbol s : values) {
-                if (s.getValue() != null) {
-                    if (!includingHidden && s.isHidden()) {
-                        continue;
-                    }
-                    used.add(s);
+        private RSymbol[] listUsed(boolean includingHidden) {
+            RSymbol[] symbols = table.symbols;
+            int n = 0;
+            for (RSymbol s : symbols) {
+                if (isUsed(s, includingHidden)) {
+                    n++;
                 }
             }
-            return used.toArray(new RSymbol[used.size()]);
+            RSymbol[] res = new RSymbol[n];
+            int j = 0;
+            for (int i = 0; i < symbols.length && j < n; i++) {
+                RSymbol s = symbols[i];
+                if (isUsed(s, includingHidden)) {
+                    res[j++] = s;
+                }
+            }
+            return j == n ? res : Arrays.copyOf(res, j);
         }
     }
 
@@ -134,9 +238,11 @@ public final class RSymbol extends BaseObject implements RAny {
     }
 
     public static void resetTable() {
-        for (RSymbol s : symbolTable.table.values()) {
-            s.value = null;
-            s.version = 0;
+        for (RSymbol s : symbolTable.table.symbols) {
+            if (s != null) {
+                s.value = null;
+                s.version = 0;
+            }
         }
         RSymbol.getSymbol(".GlobalEnv").setValue(REnvironment.GLOBAL);
         // TODO: .GlobalEnv should be set in some other environment
@@ -144,7 +250,11 @@ public final class RSymbol extends BaseObject implements RAny {
     }
 
     public static Set<String> symbols() {
-        return symbolTable.table.keySet();
+        Set<String> names = new HashSet<>();
+        for (RSymbol s : symbolTable.list()) {
+            names.add(s.name);
+        }
+        return names;
     }
 
     @Override public RRaw asRaw() {
@@ -0,0 +1,341 @@
+package r.data.internal;
+
+import java.nio.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import r.*;
+import r.data.*;
+
+/**
+ * A character vector of Latin-1 strings, stored as the characters (one byte each) of all the strings in one array with a
+ * table of offsets.
+ *
+ * For short strings, this takes a fraction of the memory of a String[] (there is no object per element), and the vector is
+ * built without creating a String per element (see {@link Builder}). A String is only created by getString. Builtins that
+ * produce many short strings (readLines, strsplit, substr, paste) build their results in this form when all characters are
+ * Latin-1, and nchar, comparisons, %in%, toupper and tolower work on the bytes directly.
+ *
+ * Like the other views, the vector is immutable, an update materializes it.
+ */
+public final class CompactStrings extends View.RStringView implements RString {
+
+    private static final int MAX_LATIN1 = 0xff;
+
+    final byte[] bytes;
+    final int[] offsets; // string i is bytes[offsets[i]] ... bytes[offsets[i + 1] - 1]
+    final boolean[] na; // null when there are no NAs
+    final int size;
+
+    private CompactStrings(byte[] bytes, int[] offsets, boolean[] na, int size) {
+        this.bytes = bytes;
+        this.offsets = offsets;
+        this.na = na;
+        this.size = size;
+    }
+
+    /**
+     * Builds a character vector, in the compact form while all strings added are Latin-1 and as a String[] otherwise. When
+     * interning, the strings are always kept as a String[] of strings from {@link StringPool}.
+     */
+    public static final class Builder {
+        byte[] bytes;
+        int[] offsets;
+        boolean[] na;
+        int size;
+        int used;
+        String[] strings; // non-null once a string that is not Latin-1 has been added
+        final boolean intern;
+
+        public Builder(int expectedSize, int expectedBytes, boolean intern) {
+            this.intern = intern;
+            offsets = new int[Math.max(expectedSize, 1) + 1];
+            if (intern) {
+                strings = new String[offsets.length];
+            } else {
+                bytes = new byte[Math.max(expectedBytes, 16)];
+            }
+        }
+
+        public Builder(int expectedSize, int expectedBytes) {
+            this(expectedSize, expectedBytes, false);
+        }
+
+        public Builder(int expectedSize) {
+            this(expectedSize, 8 * expectedSize, false);
+        }
+
+        private void ensureElement() {
+            if (size + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+                if (na != null) {
+                    na = Arrays.copyOf(na, offsets.length);
+                }
+            }
+            if (strings != null && size == strings.length) {
+                strings = Arrays.copyOf(strings, offsets.length);
+            }
+        }
+
+        private void ensureBytes(int n) {
+            int needed = used + n;
+            if (needed > bytes.length) {
+                if (needed < 0) {
+                    throw new OutOfMemoryError(); // more than 2^31-1 characters in total
+                }
+                bytes = Arrays.copyOf(bytes, Math.max(needed, bytes.length + (bytes.length >> 1)));
+            }
+        }
+
+        // from now on all strings are kept as String
+        private void toStrings() {
+            strings = new String[offsets.length];
+            for (int i = 0; i < size; i++) {
+                strings[i] = (na != null && na[i]) ? RString.NA : new String(bytes, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.ISO_8859_1);
+            }
+            bytes = null;
+        }
+
+        public Builder addNA() {
+            ensureElement();
+            if (strings != null) {
+                strings[size++] = RString.NA;
+                return this;
+            }
+            if (na == null) {
+                na = new boolean[offsets.length];
+            }
+            na[size] = true;
+            offsets[++size] = used;
+            return this;
+        }
+
+        public Builder add(String s) {
+            if (s == RString.NA) {
+                return addNA();
+            }
+            return add(s, 0, s.length());
+        }
+
+        /** Adds the characters from start (inclusive) to end (exclusive), e.g. of a String or a StringBuilder. */
+        public Builder add(CharSequence s, int start, int end) {
+            ensureElement();
+            if (strings == null) {
+                int n = end - start;
+                ensureBytes(n);
+                byte[] b = bytes;
+                int u = used;
+                for (int i = start; i < end; i++) {
+                    char c = s.charAt(i);
+                    if (c > MAX_LATIN1) {
+                        toStrings();
+                        break;
+                    }
+                    b[u++] = (byte) c;
+                }
+                if (strings == null) {
+                    used = u;
+                    offsets[++size] = u;
+                    return this;
+                }
+            }
+            strings[size++] = intern ? StringPool.intern(s, start, end) : s.subSequence(start, end).toString();
+            return this;
+        }
+
+        /** Adds the characters from start (inclusive) to end (exclusive) of string i of a compact vector. */
+        public Builder add(CompactStrings s, int i, int start, int end) {
+            if (strings != null) {
+                ensureElement();
+                String str = s.substring(i, start, end);
+                strings[size++] = intern ? StringPool.intern(str) : str;
+                return this;
+            }
+            ensureElement();
+            int n = end - start;
+            ensureBytes(n);
+            System.arraycopy(s.bytes, s.offsets[i] + start, bytes, used, n);
+            used += n;
+            offsets[++size] = used;
+            return this;
+        }
+
+        /** Adds len bytes from the position of buf as Latin-1 characters, and moves the position after them. */
+        public Builder addLatin1(ByteBuffer buf, int len) {
+            if (strings != null) {
+                byte[] b = new byte[len];
+                buf.get(b);
+                return add(new String(b, StandardCharsets.ISO_8859_1));
+            }
+            ensureElement();
+            ensureBytes(len);
+            buf.get(bytes, used, len);
+            used += len;
+            offsets[++size] = used;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public RString build() {
+            if (strings != null) {
+                return RString.RStringFactory.getFor(size == strings.length ? strings : Arrays.copyOf(strings, size));
+            }
+            if (size == 1) {
+                return RString.RStringFactory.getScalar((na != null && na[0]) ? RString.NA : new String(bytes, 0, used, StandardCharsets.ISO_8859_1));
+            }
+            if (size == 0) {
+                return RString.EMPTY;
+            }
+            // do not keep much unused space, but avoid copying a large vector for a little
+            byte[] b = bytes.length - used > (used >> 3) ? Arrays.copyOf(bytes, used) : bytes;
+            int[] o = offsets.length - size - 1 > (size >> 3) ? Arrays.copyOf(offsets, size + 1) : offsets;
+            return new CompactStrings(b, o, na, size);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getString(int i) {
+        assert Utils.check(i < size, "bounds check");
+        if (na != null && na[i]) {
+            return RString.NA;
+        }
+        int start = offsets[i];
+        return new String(bytes, start, offsets[i + 1] - start, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public boolean isNAorNaN(int i) {
+        return na != null && na[i];
+    }
+
+    /** The number of characters of string i, which must not be NA. */
+    public int length(int i) {
+        return offsets[i + 1] - offsets[i];
+    }
+
+    String substring(int i, int start, int end) {
+        return new String(bytes, offsets[i] + start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /** Compares string i with string j of other like String.compareTo, neither must be NA. */
+    public int compare(int i, CompactStrings other, int j) {
+        byte[] a = bytes;
+        byte[] b = other.bytes;
+        int ai = offsets[i];
+        int alen = offsets[i + 1] - ai;
+        int bi = other.offsets[j];
+        int blen = other.offsets[j + 1] - bi;
+        int n = Math.min(alen, blen);
+        for (int k = 0; k < n; k++) {
+            int d = (a[ai + k] & 0xff) - (b[bi + k] & 0xff);
+            if (d != 0) {
+                return d;
+            }
+        }
+        return alen - blen;
+    }
+
+    /** Compares string i with s like String.compareTo, neither must be NA. */
+    public int compare(int i, String s) {
+        byte[] a = bytes;
+        int ai = offsets[i];
+        int alen = offsets[i + 1] - ai;
+        int slen = s.length();
+        int n = Math.min(alen, slen);
+        for (int k = 0; k < n; k++) {
+            int d = (a[ai + k] & 0xff) - s.charAt(k);
+            if (d != 0) {
+                return d;
+            }
+        }
+        return alen - slen;
+    }
+
+    public boolean equals(int i, CompactStrings other, int j) {
+        int ai = offsets[i];
+        int bi = other.offsets[j];
+        int len = offsets[i + 1] - ai;
+        if (other.offsets[j + 1] - bi != len) {
+            return false;
+        }
+        byte[] a = bytes;
+        byte[] b = other.bytes;
+        for (int k = 0; k < len; k++) {
+            if (a[ai + k] != b[bi + k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean equals(int i, String s) {
+        return offsets[i + 1] - offsets[i] == s.length() && compare(i, s) == 0;
+    }
+
+    /** The hash code of string i, which must not be NA. It is the same as the hash code of the String. */
+    public int hash(int i) {
+        byte[] a = bytes;
+        int h = 0;
+        for (int k = offsets[i]; k < offsets[i + 1]; k++) {
+            h = 31 * h + (a[k] & 0xff);
+        }
+        return h;
+    }
+
+    // the upper/lower case of each Latin-1 character as by String.toUpperCase/toLowerCase, or -1 when the result is not one
+    // Latin-1 character (e.g. the upper case of the sharp s is "SS")
+    private static final int[] UPPER = caseTable(true);
+    private static final int[] LOWER = caseTable(false);
+
+    private static int[] caseTable(boolean upper) {
+        int[] table = new int[MAX_LATIN1 + 1];
+        for (int c = 0; c <= MAX_LATIN1; c++) {
+            String s = String.valueOf((char) c);
+            String r = upper ? s.toUpperCase() : s.toLowerCase();
+            table[c] = (r.length() == 1 && r.charAt(0) <= MAX_LATIN1) ? r.charAt(0) : -1;
+        }
+        return table;
+    }
+
+    /** The vector converted to upper case, or null when some character has no Latin-1 upper case. */
+    public CompactStrings toUpperCase() {
+        return mapCase(UPPER);
+    }
+
+    /** The vector converted to lower case, or null when some character has no Latin-1 lower case. */
+    public CompactStrings toLowerCase() {
+        return mapCase(LOWER);
+    }
+
+    private CompactStrings mapCase(int[] table) {
+        int len = offsets[size];
+        byte[] a = bytes;
+        byte[] res = new byte[len];
+        for (int k = offsets[0]; k < len; k++) {
+            int c = table[a[k] & 0xff];
+            if (c < 0) {
+                return null;
+            }
+            res[k] = (byte) c;
+        }
+        return new CompactStrings(res, offsets, na, size);
+    }
+
+    @Override
+    public boolean isSharedReal() {
+        return false;
+    }
+
+    @Override
+    public boolean dependsOn(RAny value) {
+        return false;
+    }
+}
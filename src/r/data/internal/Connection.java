@@ -2,9 +2,12 @@ package r.data.internal;
 
 import java.io.*;
 import java.lang.ProcessBuilder.Redirect;
+import java.nio.channels.*;
+import java.nio.charset.*;
 import java.util.*;
 
 import r.*;
+import r.data.*;
 import r.errors.*;
 import r.nodes.*;
 
@@ -41,6 +44,20 @@ public abstract class Connection {
     public abstract BufferedReader reader(ASTNode ast);
     public abstract OutputStream output(ASTNode ast);
 
+    // channels for binary input and output, they do not buffer, so that they can be mixed with the output stream
+    // NOTE: data buffered by the reader is not visible to the input channel
+    public abstract ReadableByteChannel inputChannel(ASTNode ast);
+    public abstract WritableByteChannel outputChannel(ASTNode ast);
+
+    /**
+     * Reads up to n lines (all remaining lines if n is negative) through a memory mapping, or returns null when the
+     * connection cannot do so (then the reader has to be used). The lines are copied to the heap, strings from the
+     * StringPool when interning.
+     */
+    public RString mappedLines(int n, boolean intern, ASTNode ast) {
+        return null;
+    }
+
     @Override
     public void finalize() throws Throwable {
         if (isOpen()) {
@@ -55,6 +72,12 @@ public abstract class Connection {
         FileInputStream input;
         FileOutputStream output;
         BufferedReader reader;
+        ReadAheadInputStream readAhead;
+        MappedLines.MappedFile mapped;
+
+        private static final boolean MAP_FILES = true;
+        private static final boolean READ_AHEAD = true;
+        private static final int MIN_MAPPED_LINES = 1024;
 
         FileConnection(String name, ConnectionMode mode, ConnectionMode defaultMode) {
             super(name, mode, defaultMode);
@@ -104,17 +127,51 @@ public abstract class Connection {
                 if (input == null) {
                     input = new FileInputStream(file.getFD());
                 }
-                int bufSize = READ_BUFFER_SIZE;
                 if (mode.write() || mode.append()) {
-                    bufSize = 1;
+                    reader = new BufferedReader(new InputStreamReader(input), 1);
+                } else if (READ_AHEAD) {
+                    readAhead = new ReadAheadInputStream(input);
+                    reader = new BufferedReader(new InputStreamReader(readAhead), READ_BUFFER_SIZE);
+                } else {
+                    reader = new BufferedReader(new InputStreamReader(input), READ_BUFFER_SIZE);
                 }
-                reader = new BufferedReader(new InputStreamReader(input), bufSize);
                 return reader;
             } catch (IOException e) {
                 throw RError.getGenericError(ast, e.toString());
             }
         }
 
+        // only regular files opened for reading can be mapped, and only before the reader is created (it reads ahead); a
+        // few lines at a time are read faster by the reader
+        @Override
+        public RString mappedLines(int n, boolean intern, ASTNode ast) {
+            Charset charset = Charset.defaultCharset();
+            if (!MAP_FILES || (n >= 0 && n < MIN_MAPPED_LINES) || reader != null || mode.write() || mode.append() || !MappedLines.isSupported(charset) || !new java.io.File(description).isFile()) {
+                return null;
+            }
+            Utils.check(file != null);
+            try {
+                if (mapped == null) {
+                    mapped = new MappedLines.MappedFile(file.getChannel());
+                }
+                return mapped.readLines(n, charset, intern);
+            } catch (IOException e) {
+                throw RError.getGenericError(ast, e.toString());
+            }
+        }
+
+        @Override
+        public ReadableByteChannel inputChannel(ASTNode ast) {
+            Utils.check(file != null);
+            return file.getChannel();
+        }
+
+        @Override
+        public WritableByteChannel outputChannel(ASTNode ast) {
+            Utils.check(file != null);
+            return file.getChannel();
+        }
+
         @Override
         public OutputStream output(ASTNode ast) {
             if (output != null) {
@@ -143,6 +200,10 @@ public abstract class Connection {
         @Override
         public void close(ASTNode ast) { // FIXME: could be more lazy?
             try {
+                if (readAhead != null) {
+                    readAhead.close();
+                    readAhead = null;
+                }
                 if (file != null) {
                     file.close();
                     file = null;
@@ -150,6 +211,7 @@ public abstract class Connection {
                 output = null;
                 input = null;
                 reader = null;
+                mapped = null;
                 mode = null;
             } catch (IOException e) {
                 throw RError.getGenericError(ast, e.toString());
@@ -169,6 +231,11 @@ public abstract class Connection {
         InputStream input;
         OutputStream output;
         BufferedReader reader;
+        ReadAheadInputStream readAhead;
+        ReadableByteChannel inputChannel;
+        WritableByteChannel outputChannel;
+
+        private static final boolean READ_AHEAD = true;
 
         PipeConnection(String command, ConnectionMode mode, ConnectionMode defaultMode) {
             super(command, mode, defaultMode);
@@ -209,7 +276,7 @@ public abstract class Connection {
             if (openMode.write() || openMode.append()) {
                 processBuilder.redirectInput(Redirect.PIPE);
             } else {
-                processBuilder.redirectOutput(Redirect.INHERIT);
+                processBuilder.redirectInput(Redirect.INHERIT);
             }
             // NOTE: GNU-R uses popen, which can either read, or write, but not both
             process = processBuilder.start();
@@ -234,10 +301,35 @@ public abstract class Connection {
             if (input == null) {
                 input = process.getInputStream();
             }
-            reader = new BufferedReader(new InputStreamReader(input), Connection.READ_BUFFER_SIZE);
+            if (READ_AHEAD) {
+                readAhead = new ReadAheadInputStream(input);
+                reader = new BufferedReader(new InputStreamReader(readAhead), Connection.READ_BUFFER_SIZE);
+            } else {
+                reader = new BufferedReader(new InputStreamReader(input), Connection.READ_BUFFER_SIZE);
+            }
             return reader;
         }
 
+        @Override
+        public ReadableByteChannel inputChannel(ASTNode ast) {
+            Utils.check(process != null);
+            if (inputChannel == null) {
+                if (input == null) {
+                    input = process.getInputStream();
+                }
+                inputChannel = Channels.newChannel(input);
+            }
+            return inputChannel;
+        }
+
+        @Override
+        public WritableByteChannel outputChannel(ASTNode ast) {
+            if (outputChannel == null) {
+                outputChannel = Channels.newChannel(output(ast));
+            }
+            return outputChannel;
+        }
+
         @Override
         public OutputStream output(ASTNode ast) {
             if (output != null) {
@@ -262,6 +354,10 @@ public abstract class Connection {
         @Override
         public void close(ASTNode ast) { // FIXME: could be more lazy?
             try {
+                if (readAhead != null) {
+                    readAhead.close();
+                    readAhead = null;
+                }
                 if (process != null) {
                    if (output != null) {
                        output.close();
@@ -272,6 +368,8 @@ public abstract class Connection {
                 output = null;
                 input = null;
                 reader = null;
+                inputChannel = null;
+                outputChannel = null;
                 mode = null;
             } catch (InterruptedException e) {
                 throw RError.getGenericError(ast, e.toString());
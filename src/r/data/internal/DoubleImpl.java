@@ -202,4 +202,132 @@ public class DoubleImpl extends NonScalarArrayImpl implements RDouble {
     public DoubleImpl doStripKeepNames() {
         return new DoubleImpl(content, null, names, null, false);
     }
+
+    /** A sequence from, from + by, ... of the given size, clamped at to (like the result of seq(from, to, by)). */
+    public static class RDoubleSequence extends View.RDoubleView implements RDouble {
+        final double from;
+        final double to;
+        final double by;
+        final int size;
+
+        public RDoubleSequence(double from, double to, double by, int size) {
+            this.from = from;
+            this.to = to;
+            this.by = by;
+            this.size = size;
+            assert Utils.check(size > 0);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public double getDouble(int i) {
+            assert Utils.check(i < size, "bounds check");
+            assert Utils.check(i >= 0, "bounds check");
+            double x = from + i * by;
+            if (by > 0) {
+                return x <= to ? x : to;
+            } else {
+                return x >= to ? x : to;
+            }
+        }
+
+        public double from() {
+            return from;
+        }
+
+        public double to() {
+            return to;
+        }
+
+        public double by() {
+            return by;
+        }
+
+        @Override
+        public boolean isSharedReal() { // no state, so not shared
+            return false;
+        }
+
+        @Override
+        public boolean dependsOn(RAny value) {
+            return false;
+        }
+    }
+
+    /** A vector with all elements equal to the same value (e.g. rep(0, n)). */
+    public static class RDoubleConstant extends View.RDoubleView implements RDouble {
+        final double value;
+        final int size;
+
+        public RDoubleConstant(double value, int size) {
+            this.value = value;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public double getDouble(int i) {
+            assert Utils.check(i < size, "bounds check");
+            return value;
+        }
+
+        public double value() {
+            return value;
+        }
+
+        @Override
+        public boolean isSharedReal() {
+            return false;
+        }
+
+        @Override
+        public boolean dependsOn(RAny value) {
+            return false;
+        }
+    }
+
+    /** A vector repeated cyclically to the given size (e.g. rep(c(1,2), n)). The values are private to the vector. */
+    public static class RDoubleRepeat extends View.RDoubleView implements RDouble {
+        final double[] values;
+        final int size;
+
+        public RDoubleRepeat(double[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public double getDouble(int i) {
+            assert Utils.check(i < size, "bounds check");
+            return values[i % values.length];
+        }
+
+        /** The repeated values, must not be modified. */
+        public double[] values() {
+            return values;
+        }
+
+        @Override
+        public boolean isSharedReal() {
+            return false;
+        }
+
+        @Override
+        public boolean dependsOn(RAny value) {
+            return false;
+        }
+    }
 }
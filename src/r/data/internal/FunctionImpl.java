@@ -1,5 +1,7 @@
 package r.data.internal;
 
+import java.util.*;
+
 import r.*;
 import r.data.*;
 import r.nodes.Function;
@@ -9,6 +11,8 @@ import com.oracle.truffle.api.*;
 import com.oracle.truffle.api.frame.*;
 import com.oracle.truffle.api.nodes.*;
 import r.builtins.Return.ReturnException;
+import r.errors.*;
+import r.nodes.truffle.FunctionCall.TailCallException;
 
 // FIXME: with the new Truffle API, some of our older structures are no longer needed (e.g. read set, write set), could remove them
 // FIXME: in theory, a read set could be larger, simply a union of all write sets (slots) of enclosing functions
@@ -26,6 +30,7 @@ public class FunctionImpl extends RootNode implements RFunction {
 
     final FrameDescriptor frameDescriptor;
     final FrameSlot[] paramSlots;
+    final FrameSlot[] localSlots; // all slots, including parameters
     final CallTarget callTarget;
 
     final RSymbol[] writeSet;
@@ -34,6 +39,7 @@ public class FunctionImpl extends RootNode implements RFunction {
     final int readSetBloom;
 
     private static final boolean DEBUG_CALLS = false;
+    private static final boolean RELEASE_ON_RETURN = true;
 
     public FunctionImpl(Function source, RSymbol[] paramNames, RNode[] paramValues, RNode body, RFunction enclosingFunction, RSymbol[] writeSet, EnclosingSlot[] readSet) {
         this.source = source;
@@ -66,11 +72,13 @@ public class FunctionImpl extends RootNode implements RFunction {
         int nparams = paramNames.length;
         paramSlots = new FrameSlot[nparams];
         frameDescriptor = new FrameDescriptor();
+        localSlots = new FrameSlot[writeSet.length];
         for (int i = 0; i < nparams; i++) {
             paramSlots[i] = frameDescriptor.addFrameSlot(writeSet[i]);
+            localSlots[i] = paramSlots[i];
         }
         for (int i = nparams; i < writeSet.length; i++) {
-            frameDescriptor.addFrameSlot(writeSet[i]);
+            localSlots[i] = frameDescriptor.addFrameSlot(writeSet[i]);
         }
 
         callTarget = Truffle.getRuntime().createCallTarget(this, frameDescriptor);
@@ -87,6 +95,60 @@ public class FunctionImpl extends RootNode implements RFunction {
 
     @Override public Object execute(VirtualFrame frame) {
         RFrameHeader h = RFrameHeader.header(frame);
+        if (h.depth() > RContext.maxCallDepth()) {
+            throw RError.getNestedTooDeeply(null);
+        }
+        if (Profiler.active) {
+            Profiler.CallStack s = Profiler.enter(this);
+            try {
+                return executeCalls(frame, h);
+            } finally {
+                s.exit();
+            }
+        }
+        return executeCalls(frame, h);
+    }
+
+    // executes the call and the tail calls of this function made by it
+    private Object executeCalls(Frame frame, RFrameHeader header) {
+        RFrameHeader h = header;
+        Frame f = frame;
+        ArrayList<Frame> pending = null; // frames left by tail calls, still referenced by argument promises
+        for (;;) {
+            try {
+                Object res = executeBody(f, h);
+                if (pending != null) {
+                    for (int i = pending.size() - 1; i >= 0; i--) {
+                        Frame p = pending.get(i);
+                        release(p, RFrameHeader.header(p));
+                    }
+                }
+                return res;
+            } catch (TailCallException tc) {
+                // a tail call of this function, made in a fresh frame (the argument promises may refer to the current
+                // one, which is then released after the last call, as it would have been without the tail call)
+                RFrameHeader callee = h.tailCall();
+                assert Utils.check(callee.function() == this);
+                RFrameHeader.setTailCall(f, null);
+                if (RELEASE_ON_RETURN) {
+                    if (refersTo(callee.arguments(), h)) {
+                        if (pending == null) {
+                            pending = new ArrayList<>();
+                        }
+                        pending.add(f);
+                    } else {
+                        release(f, h);
+                    }
+                }
+                h = callee;
+                f = Truffle.getRuntime().createMaterializedFrame(callee, frameDescriptor);
+            } catch (StackOverflowError e) {
+                throw RError.getNestedTooDeeply(null);
+            }
+        }
+    }
+
+    private Object executeBody(Frame frame, RFrameHeader h) {
         Object[] args = h.arguments();
         for (int i = 0; i < paramSlots.length; i++) {
             Object value = args[i]; // FIXME: use RAny array instead?
@@ -123,9 +185,70 @@ public class FunctionImpl extends RootNode implements RFunction {
         } catch (ReturnException re) {
             res = h.returnValue();
         }
+        if (RELEASE_ON_RETURN) {
+            release(frame, h);
+        }
         return res;
     }
 
+    // drops the references held by the frame slots and by the forced argument promises, so that values passed to or
+    // created in the call are uniquely owned again by the caller; not done when the frame may be reachable after the
+    // return, and then the frames of the argument promises may be reachable, too
+    // NOTE: not done on error, which is conservative (the counts stay upper bounds)
+    private void release(Frame frame, RFrameHeader h) {
+        Object[] args = h.arguments();
+        if (RFrameHeader.escaped(frame)) {
+            for (Object a : args) {
+                if (a instanceof RPromise) {
+                    RFrameHeader.markEscaped(((RPromise) a).frame());
+                } else if (a instanceof RDots) {
+                    for (Object v : ((RDots) a).values()) {
+                        if (v instanceof RPromise) {
+                            RFrameHeader.markEscaped(((RPromise) v).frame());
+                        }
+                    }
+                }
+            }
+            return;
+        }
+        for (Object a : args) {
+            if (a instanceof RPromise) {
+                ((RPromise) a).release(); // promises in ... may be passed on, they are not released
+            }
+        }
+        for (FrameSlot slot : localSlots) {
+            Object value = Utils.frameGetObject(frame, slot);
+            if (value instanceof NonScalarArrayImpl) {
+                ((NonScalarArrayImpl) value).unref();
+            } else if (value instanceof RPromise && ((RPromise) value).isDefault()) {
+                ((RPromise) value).release();
+            }
+        }
+    }
+
+    // true if an argument is a promise to be evaluated in the frame with the given header
+    private static boolean refersTo(Object[] args, RFrameHeader h) {
+        for (Object a : args) {
+            if (a instanceof RPromise) {
+                if (isIn((RPromise) a, h)) {
+                    return true;
+                }
+            } else if (a instanceof RDots) {
+                for (Object v : ((RDots) a).values()) {
+                    if (v instanceof RPromise && isIn((RPromise) v, h)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIn(RPromise p, RFrameHeader h) {
+        Frame f = p.frame();
+        return f != null && RFrameHeader.header(f) == h;
+    }
+
     private static String printWriteSet(RSymbol[] writeSet) {
         StringBuilder str = new StringBuilder();
         boolean first = true;
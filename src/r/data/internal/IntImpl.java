@@ -287,4 +287,77 @@ public class IntImpl extends NonScalarArrayImpl implements RInt {
     public IntImpl doStripKeepNames() {
         return new IntImpl(content, null, names, null, false);
     }
+
+    /** A vector with all elements equal to the same value (e.g. rep(0L, n)). */
+    public static class RIntConstant extends View.RIntView implements RInt {
+        final int value;
+        final int size;
+
+        public RIntConstant(int value, int size) {
+            this.value = value;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public int getInt(int i) {
+            assert Utils.check(i < size, "bounds check");
+            return value;
+        }
+
+        public int value() {
+            return value;
+        }
+
+        @Override
+        public RDouble asDouble() {
+            return new DoubleImpl.RDoubleConstant(Convert.int2double(value), size);
+        }
+
+        @Override
+        public boolean isSharedReal() {
+            return false;
+        }
+
+        @Override
+        public boolean dependsOn(RAny value) {
+            return false;
+        }
+    }
+
+    /** A vector repeated cyclically to the given size (e.g. rep(1:3, n)). The values are private to the vector. */
+    public static class RIntRepeat extends View.RIntView implements RInt {
+        final int[] values;
+        final int size;
+
+        public RIntRepeat(int[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public int getInt(int i) {
+            assert Utils.check(i < size, "bounds check");
+            return values[i % values.length];
+        }
+
+        @Override
+        public boolean isSharedReal() {
+            return false;
+        }
+
+        @Override
+        public boolean dependsOn(RAny value) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,104 @@
+package r.data.internal;
+
+import r.data.*;
+
+/**
+ * The unboxed value of a local variable that has only held scalar doubles, integers or logicals (which never have
+ * attributes). Specialized assignment nodes (see WriteVariable) keep such a holder in the frame slot and update it in place,
+ * so that e.g. an accumulator in a loop allocates nothing, and specialized reads return the primitive value.
+ *
+ * A holder never leaves its frame slot. Any other read of the slot, through Utils.frameGetObject (closures, environment(),
+ * promises, argument passing, the generic nodes), gets the value boxed by {@link #box}, which creates the boxed scalar at
+ * most once per value. The boxed scalar is immutable, so it is not affected by later updates of the holder.
+ *
+ * Like the frame itself, a holder is only used by the thread that runs the frame's function.
+ */
+public abstract class LocalScalar {
+
+    /** The value as an immutable scalar. */
+    public abstract RAny box();
+
+    public static final class OfDouble extends LocalScalar {
+        double value;
+        ScalarDoubleImpl boxed;
+
+        public OfDouble(double value) {
+            this.value = value;
+        }
+
+        public double get() {
+            return value;
+        }
+
+        public void set(double v) {
+            value = v;
+            boxed = null;
+        }
+
+        @Override
+        public RAny box() {
+            ScalarDoubleImpl b = boxed;
+            if (b == null) {
+                b = RDouble.RDoubleFactory.getScalar(value);
+                boxed = b;
+            }
+            return b;
+        }
+    }
+
+    public static final class OfInt extends LocalScalar {
+        int value;
+        ScalarIntImpl boxed;
+
+        public OfInt(int value) {
+            this.value = value;
+        }
+
+        public int get() {
+            return value;
+        }
+
+        public void set(int v) {
+            value = v;
+            boxed = null;
+        }
+
+        @Override
+        public RAny box() {
+            ScalarIntImpl b = boxed;
+            if (b == null) {
+                b = RInt.RIntFactory.getScalar(value);
+                boxed = b;
+            }
+            return b;
+        }
+    }
+
+    public static final class OfLogical extends LocalScalar {
+        int value;
+        ScalarLogicalImpl boxed;
+
+        public OfLogical(int value) {
+            this.value = value;
+        }
+
+        public int get() {
+            return value;
+        }
+
+        public void set(int v) {
+            value = v;
+            boxed = null;
+        }
+
+        @Override
+        public RAny box() {
+            ScalarLogicalImpl b = boxed;
+            if (b == null) {
+                b = RLogical.RLogicalFactory.getScalar(value);
+                boxed = b;
+            }
+            return b;
+        }
+    }
+}
@@ -209,4 +209,50 @@ public class LogicalImpl extends NonScalarArrayImpl implements RLogical {
     public LogicalImpl doStripKeepNames() {
         return new LogicalImpl(content, null, names, null, false);
     }
+
+    /** A vector with all elements equal to the same value (e.g. rep(TRUE, n)). */
+    public static class RLogicalConstant extends View.RLogicalView implements RLogical {
+        final int value;
+        final int size;
+
+        public RLogicalConstant(int value, int size) {
+            this.value = value;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public int getLogical(int i) {
+            assert Utils.check(i < size, "bounds check");
+            return value;
+        }
+
+        public int value() {
+            return value;
+        }
+
+        @Override
+        public RInt asInt() {
+            return new IntImpl.RIntConstant(Convert.logical2int(value), size);
+        }
+
+        @Override
+        public RDouble asDouble() {
+            return new DoubleImpl.RDoubleConstant(Convert.logical2double(value), size);
+        }
+
+        @Override
+        public boolean isSharedReal() {
+            return false;
+        }
+
+        @Override
+        public boolean dependsOn(RAny value) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,193 @@
+package r.data.internal;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import r.data.*;
+
+/**
+ * Lines of a memory-mapped file.
+ *
+ * The lines are found by scanning the mapped bytes, then copied to the heap as a character vector (see {@link #copy}),
+ * 7-bit regions byte-for-byte into a {@link CompactStrings}. The result does not refer to the mapping, so it does not change
+ * when the file does, and the mapping can be released right after the read. The file is mapped in regions of at most
+ * {@link #REGION_SIZE} bytes that end at a line boundary, so that a line never crosses two regions. Lines end with "\n",
+ * "\r" or "\r\n", as with BufferedReader.readLine. Only encodings in which these bytes cannot be part of a multi-byte
+ * character are supported (see {@link #isSupported}).
+ */
+public final class MappedLines {
+
+    static final int REGION_SIZE = 1 << 30;
+    private static final int SCAN_CHUNK = 1 << 16;
+    private static final int SMALL_SCAN_CHUNK = 256;
+    private static final int INITIAL_LINES = 1024;
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    final ByteBuffer[] regions;
+    final int[] regionFirstLine; // index of the first line of each region
+    final boolean[] regionAscii; // all bytes of the region are 7-bit, so a byte is a character
+    final int[] starts; // offsets within the region
+    final int[] lengths;
+    final int size;
+    final Charset charset;
+
+    private MappedLines(ByteBuffer[] regions, int[] regionFirstLine, boolean[] regionAscii, int[] starts, int[] lengths, int size, Charset charset) {
+        this.regions = regions;
+        this.regionFirstLine = regionFirstLine;
+        this.regionAscii = regionAscii;
+        this.starts = starts;
+        this.lengths = lengths;
+        this.size = size;
+        this.charset = charset;
+    }
+
+    public static boolean isSupported(Charset charset) {
+        String name = charset.name();
+        return name.equals("UTF-8") || name.equals("US-ASCII") || name.equals("ISO-8859-1");
+    }
+
+    /**
+     * A file mapped into memory in regions. No region is kept between reads: the file may change or be truncated after a
+     * read, and accessing a mapping of a truncated file fails with SIGBUS.
+     */
+    public static final class MappedFile {
+        final FileChannel channel;
+
+        public MappedFile(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        // the bytes from pos up to at most pos + REGION_SIZE, indexed from pos
+        ByteBuffer map(long pos, long fileSize) throws IOException {
+            return channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(fileSize - pos, REGION_SIZE));
+        }
+
+        /**
+         * Reads up to n lines (all lines if n is negative) from the current position of the channel into a character vector
+         * on the heap, and moves the position after the last line read.
+         */
+        public RString readLines(int n, Charset charset, boolean intern) throws IOException {
+            long fileSize = channel.size();
+            ArrayList<ByteBuffer> regions = new ArrayList<>();
+            int[] regionFirstLine = new int[1];
+            boolean[] regionAscii = new boolean[1];
+            int initialLines = n >= 0 && n < INITIAL_LINES ? n : INITIAL_LINES;
+            int[] starts = new int[initialLines];
+            int[] lengths = new int[initialLines];
+            int nlines = 0;
+            long pos = channel.position();
+
+            while (pos < fileSize && nlines != n) {
+                ByteBuffer buf = map(pos, fileSize);
+                int blen = buf.remaining();
+                boolean lastRegion = pos + blen == fileSize;
+                int region = regions.size();
+                if (region == regionFirstLine.length) {
+                    regionFirstLine = Arrays.copyOf(regionFirstLine, 2 * region);
+                    regionAscii = Arrays.copyOf(regionAscii, 2 * region);
+                }
+                regionFirstLine[region] = nlines;
+                boolean ascii = true;
+                int lineStart = 0;
+                int consumed = 0; // bytes of complete lines (with terminators)
+                // the buffer is copied in chunks for scanning, small at first when reading only a few lines
+                byte[] chunk = new byte[Math.min(blen, n >= 0 ? SMALL_SCAN_CHUNK : SCAN_CHUNK)];
+                scan: for (int from = 0; from < blen; from += chunk.length) {
+                    if (chunk.length < SCAN_CHUNK && from > 0) {
+                        chunk = new byte[Math.min(2 * chunk.length, SCAN_CHUNK)];
+                    }
+                    int clen = Math.min(chunk.length, blen - from);
+                    buf.position(from);
+                    buf.get(chunk, 0, clen);
+                    for (int j = lineStart > from ? lineStart - from : 0; j < clen; j++) { // \n of \r\n may start the chunk
+                        byte b = chunk[j];
+                        if (b == LF || b == CR) {
+                            int i = from + j;
+                            int next = i + 1;
+                            if (b == CR) {
+                                if (next == blen && !lastRegion) {
+                                    break scan; // the terminator may be \r\n split across regions
+                                }
+                                if (next < blen && buf.get(next) == LF) {
+                                    next++;
+                                    j++;
+                                }
+                            }
+                            if (nlines == starts.length) {
+                                int newLength = Math.max(2 * nlines, 1);
+                                starts = Arrays.copyOf(starts, newLength);
+                                lengths = Arrays.copyOf(lengths, newLength);
+                            }
+                            starts[nlines] = lineStart;
+                            lengths[nlines] = i - lineStart;
+                            nlines++;
+                            lineStart = next;
+                            consumed = next;
+                            if (nlines == n) {
+                                break scan;
+                            }
+                        } else if (b < 0) {
+                            ascii = false;
+                        }
+                    }
+                }
+                if (lastRegion && nlines != n && lineStart < blen) { // incomplete last line
+                    if (nlines == starts.length) {
+                        starts = Arrays.copyOf(starts, nlines + 1);
+                        lengths = Arrays.copyOf(lengths, nlines + 1);
+                    }
+                    starts[nlines] = lineStart;
+                    lengths[nlines] = blen - lineStart;
+                    nlines++;
+                    consumed = blen;
+                }
+                if (consumed == 0) {
+                    throw new IOException("line longer than " + REGION_SIZE + " bytes");
+                }
+                regions.add(buf);
+                regionAscii[region] = ascii;
+                pos += consumed;
+            }
+            channel.position(pos);
+            // the regions are only referenced by the lines, which are dropped after the copy
+            return new MappedLines(regions.toArray(new ByteBuffer[regions.size()]), regionFirstLine, regionAscii, starts, lengths, nlines, charset).copy(intern);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** The lines as a character vector on the heap, with strings from {@link StringPool} when interning. */
+    RString copy(boolean intern) {
+        long bytes = 0;
+        for (int i = 0; i < size; i++) {
+            bytes += lengths[i];
+        }
+        CompactStrings.Builder res = new CompactStrings.Builder(size, (int) Math.min(bytes, Integer.MAX_VALUE - 8), intern);
+        int nregions = regions.length;
+        for (int r = 0; r < nregions; r++) {
+            ByteBuffer buf = regions[r];
+            int last = r + 1 < nregions ? regionFirstLine[r + 1] : size;
+            byte[] line = null;
+            for (int i = regionFirstLine[r]; i < last; i++) {
+                int len = lengths[i];
+                buf.position(starts[i]);
+                if (regionAscii[r] && !intern) {
+                    res.addLatin1(buf, len); // bytes are characters
+                    continue;
+                }
+                if (line == null || line.length < len) {
+                    line = new byte[Math.max(len, 2 * (line == null ? 16 : line.length))];
+                }
+                buf.get(line, 0, len);
+                res.add(new String(line, 0, len, regionAscii[r] ? StandardCharsets.ISO_8859_1 : charset));
+            }
+        }
+        return res.build();
+    }
+}
@@ -14,12 +14,18 @@ public abstract class NonScalarArrayImpl extends ArrayImpl implements RArray {
 
     protected int[] dimensions; // the content shall never be modified once set
     protected Names names;
-    protected int refcount;
     protected Attributes attributes;
 
+    // the number of references from frame slots, variables, promises, lists, attributes and views; 0 means temporary, more than 1 shared
+    // references taken by ref() are only dropped by unref() where it is known that the holder goes away (see FunctionImpl),
+    // otherwise the count stays an upper bound
+    protected int refcount;
+
+    private static volatile int unrefSuspended;
+
     @Override
     public final boolean isShared() {
-        return refcount > 1;  // ==2
+        return refcount > 1;
     }
 
     @Override
@@ -29,13 +35,29 @@ public abstract class NonScalarArrayImpl extends ArrayImpl implements RArray {
 
     @Override
     public final void ref() {
-        if (refcount == 0) {
-            refcount = 1;
-        } else if (refcount == 1) {
-            refcount = 2;
+        if (refcount != Integer.MAX_VALUE) {
+            refcount++;
+        }
+    }
+
+    /** Drops a reference taken by ref(), so that a value that becomes uniquely owned again can be updated in place. */
+    public final void unref() {
+        if (refcount > 0 && refcount != Integer.MAX_VALUE && unrefSuspended == 0) {
+            refcount--;
         }
     }
 
+    /** Disables unref() while values may be referenced from multiple threads (the counts are not atomic, but while they
+     * only grow, a lost increment cannot make a shared value look unshared if it has been marked shared before).
+     */
+    public static synchronized void suspendUnref() {
+        unrefSuspended++;
+    }
+
+    public static synchronized void resumeUnref() {
+        unrefSuspended--;
+    }
+
     @Override
     public int[] dimensions() {
         return dimensions;
@@ -0,0 +1,177 @@
+package r.data.internal;
+
+import java.io.*;
+import java.util.concurrent.*;
+
+/**
+ * An input stream that reads the next blocks of the underlying stream on a background thread, while the current block
+ * is being consumed (e.g. decoded and processed by R code between two calls to readLines on an open connection).
+ *
+ * At most {@link #DEPTH} blocks are read ahead, so the memory used does not depend on the size of the input. Blocks are
+ * read in the calling thread until a full block has been consumed, so that short inputs (and slow pipes) do not pay for
+ * a thread. Closing the stream stops the thread; the underlying stream is not closed (it is owned by the connection).
+ */
+public final class ReadAheadInputStream extends InputStream {
+
+    static final int BLOCK_SIZE = 1 << 16;
+    static final int DEPTH = 2;
+
+    private static final Block EOF = new Block(null, -1);
+
+    final InputStream in;
+    final BlockingQueue<Block> filled = new ArrayBlockingQueue<>(DEPTH);
+    final BlockingQueue<byte[]> free = new ArrayBlockingQueue<>(DEPTH + 2);
+    Thread thread;
+    volatile boolean closed;
+
+    byte[] block;
+    int pos;
+    int len;
+    boolean eof;
+
+    static final class Block {
+        final byte[] data;
+        final int len;
+        final IOException error;
+
+        Block(byte[] data, int len) {
+            this.data = data;
+            this.len = len;
+            this.error = null;
+        }
+
+        Block(IOException error) {
+            this.data = null;
+            this.len = -1;
+            this.error = error;
+        }
+    }
+
+    public ReadAheadInputStream(InputStream in) {
+        this.in = in;
+    }
+
+    private final class ReadAhead implements Runnable {
+        @Override
+        public void run() {
+            try {
+                while (!closed) {
+                    byte[] buf = free.poll();
+                    if (buf == null) {
+                        buf = new byte[BLOCK_SIZE];
+                    }
+                    Block b;
+                    try {
+                        int n = readBlock(buf);
+                        b = n < 0 ? EOF : new Block(buf, n);
+                    } catch (IOException e) {
+                        b = closed ? EOF : new Block(e);
+                    }
+                    filled.put(b);
+                    if (b.len < 0) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // closed
+            }
+        }
+    }
+
+    // reads a full block unless at the end of input, returns -1 at the end of input
+    int readBlock(byte[] buf) throws IOException {
+        int n = 0;
+        while (n < buf.length) {
+            int r = in.read(buf, n, buf.length - n);
+            if (r < 0) {
+                break;
+            }
+            n += r;
+            if (in.available() == 0 && n > 0) { // do not wait for more data from a pipe when some is there
+                break;
+            }
+        }
+        return n == 0 ? -1 : n;
+    }
+
+    // makes the next block current, returns false at the end of input
+    private boolean nextBlock() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (block == null || (thread == null && len < BLOCK_SIZE)) {
+            if (block == null) {
+                block = new byte[BLOCK_SIZE];
+            }
+            int n = readBlock(block);
+            pos = 0;
+            if (n < 0) {
+                eof = true;
+                len = 0;
+                return false;
+            }
+            len = n;
+            return true;
+        }
+        if (thread == null) {
+            thread = new Thread(new ReadAhead(), "read-ahead");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        Block b;
+        try {
+            b = filled.take();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        }
+        if (b.error != null) {
+            eof = true;
+            throw b.error;
+        }
+        if (b.len < 0) {
+            eof = true;
+            return false;
+        }
+        free.offer(block);
+        block = b.data;
+        len = b.len;
+        pos = 0;
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (pos == len && !nextBlock()) {
+            return -1;
+        }
+        return block[pos++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int n) throws IOException {
+        if (n == 0) {
+            return 0;
+        }
+        if (pos == len && !nextBlock()) {
+            return -1;
+        }
+        int r = Math.min(n, len - pos);
+        System.arraycopy(block, pos, b, off, r);
+        pos += r;
+        return r;
+    }
+
+    @Override
+    public int available() {
+        return len - pos;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+}
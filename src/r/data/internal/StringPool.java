@@ -0,0 +1,141 @@
+package r.data.internal;
+
+import java.lang.ref.*;
+
+/**
+ * A pool of canonical strings, so that equal strings read from data (e.g. the levels of a categorical column repeated
+ * over millions of lines) are stored once, and compare and hash quickly: String.equals returns on reference equality, and
+ * the hash code is computed once per distinct string.
+ *
+ * The pool only holds weak references, so strings no longer used by any vector are collected. It is split into
+ * segments with a lock each, so that threads (e.g. parallel lapply) rarely contend. A string can be looked up from a range
+ * of characters (e.g. of a line buffer), a String is only created when it is not in the pool yet.
+ */
+public final class StringPool {
+
+    private static final int SEGMENT_BITS = 4;
+    private static final int INITIAL_CAPACITY = 256; // per segment, a power of 2
+
+    private static final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    static {
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    static final class Entry extends WeakReference<String> {
+        final int hash;
+        Entry next;
+
+        Entry(String s, int hash, Entry next, ReferenceQueue<String> queue) {
+            super(s, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    static final class Segment {
+        Entry[] table = new Entry[INITIAL_CAPACITY];
+        int count;
+        final ReferenceQueue<String> queue = new ReferenceQueue<>();
+
+        synchronized String intern(CharSequence s, int start, int end, int hash) {
+            expunge();
+            Entry[] t = table;
+            int len = end - start;
+            for (Entry e = t[hash & (t.length - 1)]; e != null; e = e.next) {
+                if (e.hash == hash) {
+                    String v = e.get();
+                    if (v != null && v.length() == len && regionEquals(v, s, start)) {
+                        return v;
+                    }
+                }
+            }
+            String v = (s instanceof String && start == 0 && end == s.length()) ? (String) s : s.subSequence(start, end).toString();
+            if (count >= t.length - (t.length >> 2)) {
+                t = resize();
+            }
+            int i = hash & (t.length - 1);
+            t[i] = new Entry(v, hash, t[i], queue);
+            count++;
+            return v;
+        }
+
+        private Entry[] resize() {
+            Entry[] old = table;
+            Entry[] t = new Entry[2 * old.length];
+            for (Entry head : old) {
+                Entry e = head;
+                while (e != null) {
+                    Entry next = e.next;
+                    int i = e.hash & (t.length - 1);
+                    e.next = t[i];
+                    t[i] = e;
+                    e = next;
+                }
+            }
+            table = t;
+            return t;
+        }
+
+        // removes the entries of collected strings
+        private void expunge() {
+            Reference<? extends String> r;
+            while ((r = queue.poll()) != null) {
+                Entry dead = (Entry) r;
+                Entry[] t = table;
+                int i = dead.hash & (t.length - 1);
+                Entry prev = null;
+                for (Entry e = t[i]; e != null; prev = e, e = e.next) {
+                    if (e == dead) {
+                        if (prev == null) {
+                            t[i] = e.next;
+                        } else {
+                            prev.next = e.next;
+                        }
+                        count--;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean regionEquals(String v, CharSequence s, int start) {
+        int len = v.length();
+        for (int k = 0; k < len; k++) {
+            if (v.charAt(k) != s.charAt(start + k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the hash code String would have
+    private static int hash(CharSequence s, int start, int end) {
+        int h = 0;
+        for (int k = start; k < end; k++) {
+            h = 31 * h + s.charAt(k);
+        }
+        return h;
+    }
+
+    private static String intern(CharSequence s, int start, int end, int hash) {
+        int spread = hash ^ (hash >>> 16);
+        return segments[spread >>> (32 - SEGMENT_BITS)].intern(s, start, end, spread);
+    }
+
+    /** The canonical string equal to s, NA (null) is returned as is. */
+    public static String intern(String s) {
+        if (s == null) {
+            return null;
+        }
+        return intern(s, 0, s.length(), s.hashCode());
+    }
+
+    /** The canonical string of the characters from start (inclusive) to end (exclusive), e.g. of a StringBuilder. */
+    public static String intern(CharSequence s, int start, int end) {
+        return intern(s, start, end, hash(s, start, end));
+    }
+}
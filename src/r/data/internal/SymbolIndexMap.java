@@ -0,0 +1,102 @@
+package r.data.internal;
+
+import r.*;
+import r.data.*;
+
+/** A map from symbols to non-negative int indexes (slots), with open addressing and linear probing.
+ *
+ * Keys are compared by identity (symbols are interned), the probe starts at a spread of {@link RSymbol#hash()}. Values
+ * are stored unboxed, lookups and updates of existing keys do not allocate. Mappings are never removed (frame extensions
+ * only grow).
+ */
+public final class SymbolIndexMap {
+
+    public static final int NOT_FOUND = -1;
+
+    private static final int MIN_CAPACITY = 16; // must be a power of two
+
+    private RSymbol[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int growThreshold;
+
+    public SymbolIndexMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 < expectedSize * 4) { // keep load factor below 3/4
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new RSymbol[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        growThreshold = (capacity >> 2) * 3;
+    }
+
+    private static int slot(RSymbol sym, int mask) {
+        int h = sym.hash() * 0x9E3779B9; // Fibonacci hashing, identity hashes tend to be poorly distributed in low bits
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(RSymbol sym) {
+        RSymbol[] k = keys;
+        int m = mask;
+        for (int i = slot(sym, m);; i = (i + 1) & m) {
+            RSymbol s = k[i];
+            if (s == sym) {
+                return values[i];
+            }
+            if (s == null) {
+                return NOT_FOUND;
+            }
+        }
+    }
+
+    public void put(RSymbol sym, int value) {
+        assert Utils.check(value >= 0);
+        RSymbol[] k = keys;
+        int m = mask;
+        int i = slot(sym, m);
+        for (;; i = (i + 1) & m) {
+            RSymbol s = k[i];
+            if (s == sym) {
+                values[i] = value;
+                return;
+            }
+            if (s == null) {
+                break;
+            }
+        }
+        k[i] = sym;
+        values[i] = value;
+        if (++size > growThreshold) {
+            grow();
+        }
+    }
+
+    private void grow() {
+        RSymbol[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        RSymbol[] k = keys;
+        int m = mask;
+        for (int j = 0; j < oldKeys.length; j++) {
+            RSymbol s = oldKeys[j];
+            if (s != null) {
+                int i = slot(s, m);
+                while (k[i] != null) {
+                    i = (i + 1) & m;
+                }
+                k[i] = s;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+}
@@ -119,7 +119,11 @@ public abstract class View extends ArrayImpl implements RArray {
 
         @Override
         public RRaw materialize() {
-            return RRawFactory.copy(this);
+            RRaw res = RRawFactory.copy(this);
+            if (MemoryTrace.active) {
+                MemoryTrace.materialized(this, res);
+            }
+            return res;
         }
 
         @Override
@@ -270,7 +274,11 @@ public abstract class View extends ArrayImpl implements RArray {
 
         @Override
         public RLogical materialize() {
-            return RLogicalFactory.copy(this);
+            RLogical res = RLogicalFactory.copy(this);
+            if (MemoryTrace.active) {
+                MemoryTrace.materialized(this, res);
+            }
+            return res;
         }
 
         @Override
@@ -422,7 +430,11 @@ public abstract class View extends ArrayImpl implements RArray {
 
         @Override
         public RInt materialize() {
-            return RIntFactory.copy(this);
+            RInt res = RIntFactory.copy(this);
+            if (MemoryTrace.active) {
+                MemoryTrace.materialized(this, res);
+            }
+            return res;
         }
 
         @Override
@@ -644,7 +656,11 @@ public abstract class View extends ArrayImpl implements RArray {
 
         @Override
         public RDouble materialize() {
-            return RDouble.RDoubleFactory.copy(this);
+            RDouble res = RDouble.RDoubleFactory.copy(this);
+            if (MemoryTrace.active) {
+                MemoryTrace.materialized(this, res);
+            }
+            return res;
         }
 
         @Override
@@ -801,7 +817,11 @@ public abstract class View extends ArrayImpl implements RArray {
 
         @Override
         public RComplex materialize() {
-            return RComplex.RComplexFactory.copy(this);
+            RComplex res = RComplex.RComplexFactory.copy(this);
+            if (MemoryTrace.active) {
+                MemoryTrace.materialized(this, res);
+            }
+            return res;
         }
 
         @Override
@@ -888,7 +908,11 @@ public abstract class View extends ArrayImpl implements RArray {
 
         @Override
         public RString materialize() {
-            return RString.RStringFactory.copy(this);
+            RString res = RString.RStringFactory.copy(this);
+            if (MemoryTrace.active) {
+                MemoryTrace.materialized(this, res);
+            }
+            return res;
         }
 
         @Override
@@ -1045,7 +1069,11 @@ public abstract class View extends ArrayImpl implements RArray {
 
         @Override
         public ListImpl materialize() {
-            return RList.RListFactory.copy(this);
+            ListImpl res = RList.RListFactory.copy(this);
+            if (MemoryTrace.active) {
+                MemoryTrace.materialized(this, res);
+            }
+            return res;
         }
 
         @Override
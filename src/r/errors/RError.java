@@ -74,6 +74,11 @@ public abstract class RError extends RuntimeException {
     public static final String INVALID_CONNECTION = "invalid connection";
     public static final String OUT_OF_RANGE = "out-of-range values treated as 0 in coercion to raw";
     public static final String WRITE_ONLY_BINARY = "can only write to a binary connection";
+    public static final String READ_ONLY_BINARY = "can only read from a binary connection";
+    public static final String SIZE_UNKNOWN = "size %d is unknown on this machine";
+    public static final String CANNOT_TRACE_NULL = "cannot trace NULL";
+    public static final String TRACE_FUNCTION = "argument must not be a function";
+    public static final String TRACE_NOT_USEFUL = "'tracemem' is not useful for promise and environment objects";
     public static final String UNIMPLEMENTED_COMPLEX = "unimplemented complex operation";
     public static final String COMPARISON_COMPLEX = "invalid comparison with complex values";
     public static final String NON_NUMERIC_BINARY = "non-numeric argument to binary operator";
@@ -99,6 +104,9 @@ public abstract class RError extends RuntimeException {
     public static final String RECALL_CALLED_OUTSIDE_CLOSURE = "'Recall' called from outside a closure";
     public static final String NOT_NUMERIC_VECTOR = "argument is not a numeric vector";
     public static final String UNSUPPORTED_PARTIAL = "unsupported options for partial sorting";
+    public static final String NON_FINITE_PARTIAL = "non-finite 'partial'";
+    public static final String RESULT_TOO_LONG = "result would exceed 2^31-1 bytes";
+    public static final String INDEX_OUTSIDE_BOUNDS = "index %d outside bounds";
     public static final String INDEX_RETURN_REMOVE_NA = "'index.return' only for 'na.last = NA'";
     public static final String SUPPLY_X_Y_MATRIX = "supply both 'x' and 'y' or a matrix-like 'x'";
     public static final String SD_ZERO = "the standard deviation is zero";
@@ -205,6 +213,8 @@ public abstract class RError extends RuntimeException {
     public static final String SUBASSIGN_TYPE_FIX = "incompatible types (from %s to %s) in subassignment type fix";
     public static final String RECURSIVE_INDEXING_FAILED = "recursive indexing failed at level %d";
     public static final String NOT_FUNCTION = "'%s' is not a function, character or symbol";
+    public static final String NESTED_TOO_DEEPLY = "evaluation nested too deeply: infinite recursion / options(expressions=)?";
+    public static final String INVALID_EXPRESSIONS = "invalid 'expressions' parameter, allowed %d...%d";
 
     public abstract static class RNYIError extends RError {
         private static final long serialVersionUID = -7296314309177604737L;
@@ -815,6 +825,54 @@ public abstract class RError extends RuntimeException {
         };
     }
 
+    public static RError getReadOnlyBinary(ASTNode expr) {
+        return new RErrorInExpr(expr) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override public String getMessage() {
+                return RError.READ_ONLY_BINARY;
+            }
+        };
+    }
+
+    public static RError getSizeUnknown(ASTNode ast, int size) {
+        return getGenericError(ast, String.format(RError.SIZE_UNKNOWN, size));
+    }
+
+    public static RError getCannotTraceNull(ASTNode expr) {
+        return new RErrorInExpr(expr) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override public String getMessage() {
+                return RError.CANNOT_TRACE_NULL;
+            }
+        };
+    }
+
+    public static RError getTraceFunction(ASTNode expr) {
+        return new RErrorInExpr(expr) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override public String getMessage() {
+                return RError.TRACE_FUNCTION;
+            }
+        };
+    }
+
+    public static RError getTraceNotUseful(ASTNode expr) {
+        return new RErrorInExpr(expr) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override public String getMessage() {
+                return RError.TRACE_NOT_USEFUL;
+            }
+        };
+    }
+
     public static RError getComparisonComplex(ASTNode expr) {
         return new RErrorInExpr(expr) {
 
@@ -1089,6 +1147,14 @@ public abstract class RError extends RuntimeException {
         };
     }
 
+    public static RError getNonFinitePartial(ASTNode ast) {
+        return getGenericError(ast, RError.NON_FINITE_PARTIAL);
+    }
+
+    public static RError getIndexOutsideBounds(ASTNode ast, int index) {
+        return getGenericError(ast, String.format(RError.INDEX_OUTSIDE_BOUNDS, index));
+    }
+
     public static RError getIndexReturnRemoveNA(ASTNode source) {
         return new RErrorInExpr(source) {
 
@@ -1455,6 +1521,14 @@ public abstract class RError extends RuntimeException {
         return getGenericError(ast, String.format(RError.UNKNOWN_FUNCTION, symbol.pretty()));
     }
 
+    public static RError getNestedTooDeeply(ASTNode ast) {
+        return getGenericError(ast, RError.NESTED_TOO_DEEPLY);
+    }
+
+    public static RError getInvalidExpressions(ASTNode ast, int min, int max) {
+        return getGenericError(ast, String.format(RError.INVALID_EXPRESSIONS, min, max));
+    }
+
     public static RError getInvalidArgument(ASTNode ast, String str) {
         return getGenericError(ast, String.format(RError.INVALID_ARGUMENT, str));
     }
@@ -19,9 +19,14 @@ public class Function extends ASTNode {
     private static final EnclosingSlot[] emptyReadSet = new EnclosingSlot[0];
 
     RFunction rfunction; // FIXME: is it ok this is not final?
+    boolean reflective;
 
     private static final boolean DEBUG_FUNCTIONS = false;
 
+    // builtins that can tell an argument value from a promise, or that can reach the frame of the caller
+    private static final Set<String> REFLECTIVE_BUILTINS = new HashSet<>(Arrays.asList("substitute", "missing", "eval", "evalq", "assign",
+                    "delayedAssign", "environment", "as.environment", "parent.frame", "sys.call", "sys.function", "match.call", "Recall"));
+
     Function(ArgumentList alist, ASTNode body) {
         this.signature = alist;
         this.body = updateParent(body);
@@ -43,6 +48,15 @@ public class Function extends ASTNode {
         return body;
     }
 
+    /**
+     * Returns true if the function, or a function defined in it, calls a builtin that inspects its arguments or its caller
+     * (by name, so it is conservative with respect to local redefinitions), or if it defines a function at all, as a closure
+     * can capture an argument and force it later. Arguments of such a function are always passed as promises.
+     */
+    public boolean isReflective() {
+        return reflective;
+    }
+
     @Override
     public void accept(Visitor v) {
         v.visit(this);
@@ -108,6 +122,8 @@ public class Function extends ASTNode {
             printAccesses(read, written);
         }
 
+        reflective = new FindReflection().find();
+
         RSymbol[] writeSet = buildWriteSet(paramNames, written);
         EnclosingSlot[] readSet = buildReadSet(enclosing, read);
 
@@ -171,6 +187,39 @@ public class Function extends ASTNode {
         return rsl.toArray(new EnclosingSlot[0]); // FIXME: rewrite this to get rid of allocation/copying
     }
 
+    class FindReflection extends BasicVisitor implements Visitor {
+
+        boolean found;
+
+        public boolean find() {
+            visit(Function.this);
+            return found;
+        }
+
+        @Override
+        public void visit(Function function) {
+            if (function != Function.this) {
+                found = true; // a nested function can read an argument after the caller has changed its variable
+                return;
+            }
+            function.visit_all(this);
+            for (ArgumentList.Entry e : function.getSignature()) {
+                ASTNode val = e.getValue();
+                if (val != null) {
+                    val.accept(this);
+                }
+            }
+        }
+
+        @Override
+        public void visit(FunctionCall functionCall) {
+            if (REFLECTIVE_BUILTINS.contains(functionCall.getName().name())) {
+                found = true;
+            }
+            functionCall.visit_all(this);
+        }
+    }
+
     class FindAccesses extends BasicVisitor implements Visitor {
 
         Set<RSymbol> read;
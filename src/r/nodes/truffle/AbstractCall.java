@@ -18,12 +18,47 @@ public abstract class AbstractCall extends BaseR {
     @Children protected final RNode[] argExprs;
     protected final int[] dotsArgs; // FIXME: move to FunctionCall?
 
+    // arguments that can be passed by value rather than as a promise (see argumentValue)
+    private final RAny[] constantArgs; // value of a constant argument, null when none
+    private final RSymbol[] localArgs; // variable read by an argument, null when some argument is neither a constant nor a variable
+    private RFunction localArgsFunction; // the function of the frame in which localArgSlots were found
+    private FrameSlot[] localArgSlots;
 
     public AbstractCall(ASTNode orig, RSymbol[] argNames, RNode[] argsExprs, int[] dotsArgs) {
         super(orig);
         this.argNames = argNames;
         this.argExprs = adoptChildren(argsExprs);
         this.dotsArgs = dotsArgs;
+
+        RAny[] constants = null;
+        RSymbol[] locals = new RSymbol[argsExprs.length];
+        for (int i = 0; i < argsExprs.length; i++) {
+            RNode expr = argsExprs[i];
+            if (expr == null) {
+                continue;
+            }
+            if (expr instanceof Constant) {
+                RAny value = ((Constant) expr).value();
+                value.ref();
+                value.ref(); // the value of the constant must never be updated in place
+                if (constants == null) {
+                    constants = new RAny[argsExprs.length];
+                }
+                constants[i] = value;
+                continue;
+            }
+            ASTNode ast = expr.getAST();
+            if (locals != null && ast instanceof SimpleAccessVariable) {
+                RSymbol sym = ((SimpleAccessVariable) ast).getSymbol();
+                if (sym != RSymbol.THREE_DOTS_SYMBOL && sym.dotDotValue() == -1) {
+                    locals[i] = sym;
+                    continue;
+                }
+            }
+            locals = null; // evaluating the argument might have side effects on the variables
+        }
+        this.constantArgs = constants;
+        this.localArgs = locals;
     }
 
     public AbstractCall(ASTNode orig, RSymbol[] argNames, RNode[] argsExprs) {
@@ -218,7 +253,11 @@ public abstract class AbstractCall extends BaseR {
             if (i == nextDots) {
                 for (int k = 0; k < dotsArgLen; k++, j++) {
                     actualArgNames[j] = dotsArgNames[k];
-                    actualArgValues[j] = dotsArgValues[k]; // FIXME: GNU-R would create a recursive promise here
+                    Object value = dotsArgValues[k]; // FIXME: GNU-R would create a recursive promise here
+                    if (value instanceof RPromise) {
+                        ((RPromise) value).markShared(); // now reachable from the caller's ... and the callee's arguments
+                    }
+                    actualArgValues[j] = value;
                 }
                 dotsIndex++;
                 if (dotsIndex < ndots) {
@@ -444,6 +483,82 @@ public abstract class AbstractCall extends BaseR {
         }
     }
 
+    // Returns the value of the argument instead of a promise, when the argument is a constant, or when it reads a local
+    // variable that already has a value, no argument at the call site can have side effects, and the frame has not
+    // escaped (so the callee cannot modify the variable before the promise would be forced). The value is ref'd, like a
+    // forced promise. Must only be used when the callee cannot observe the difference, i.e. it does not inspect
+    // its arguments or the caller (substitute, missing, eval, ...; see r.nodes.Function.isReflective).
+    protected final Object argumentValue(Frame callerFrame, int argIndex) {
+        if (constantArgs != null) {
+            RAny value = constantArgs[argIndex];
+            if (value != null) {
+                value.ref();
+                return value;
+            }
+        }
+        if (localArgs != null && callerFrame != null) {
+            RSymbol sym = localArgs[argIndex];
+            if (sym != null && !RFrameHeader.escaped(callerFrame)) {
+                Object value = localValue(callerFrame, argIndex, sym);
+                if (value instanceof RPromise) {
+                    value = ((RPromise) value).forcedValue();
+                }
+                if (value instanceof RAny) {
+                    RAny rvalue = (RAny) value;
+                    rvalue.ref();
+                    return rvalue;
+                }
+            }
+        }
+        return promiseForArgument(callerFrame, argIndex);
+    }
+
+    private Object localValue(Frame frame, int argIndex, RSymbol sym) {
+        RFunction function = RFrameHeader.function(frame);
+        FrameSlot[] slots = localArgSlots;
+        if (function != localArgsFunction || slots == null) {
+            slots = new FrameSlot[localArgs.length];
+            localArgSlots = slots;
+            localArgsFunction = function;
+        }
+        FrameSlot slot = slots[argIndex];
+        if (slot == null) {
+            slot = RFrameHeader.findVariable(frame, sym);
+            if (slot == null) {
+                return null; // not a local variable
+            }
+            slots[argIndex] = slot;
+        }
+        return Utils.frameGetObject(frame, slot);
+    }
+
+    // used when the arguments are passed in the order of the parameters, none to ... (see isPositional)
+    @ExplodeLoop protected final Object[] placePositionalArgs(Frame callerFrame, int nParams, boolean byValue) {
+        Object[] argValues = new Object[nParams];
+        if (byValue) {
+            for (int i = 0; i < argExprs.length; i++) {
+                argValues[i] = argumentValue(callerFrame, i);
+            }
+        } else {
+            for (int i = 0; i < argExprs.length; i++) {
+                argValues[i] = promiseForArgument(callerFrame, i);
+            }
+        }
+        return argValues;
+    }
+
+    protected static boolean isPositional(int[] argPositions, int dotsIndex) {
+        if (dotsIndex != -1) {
+            return false;
+        }
+        for (int i = 0; i < argPositions.length; i++) {
+            if (argPositions[i] != i + 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     // argPositions
     //   1-based, giving parameter index for argument index
     //   == -1 for arguments to be placed into ...
@@ -451,6 +566,12 @@ public abstract class AbstractCall extends BaseR {
     //   dots.names == null when there are no ... in parameters
     //   otherwise, names of symbols that will appear in ...
     @ExplodeLoop protected final Object[] placeArgs(Frame callerFrame, int[] argPositions, DotsInfo dotsInfo, int dotsIndex, int nParams) {
+        return placeArgs(callerFrame, argPositions, dotsInfo, dotsIndex, nParams, false);
+    }
+
+    // byValue - arguments matched to named parameters may be passed by value (see argumentValue); those put into ... are
+    //   always promises, because they can be passed on to a function that inspects them
+    @ExplodeLoop protected final Object[] placeArgs(Frame callerFrame, int[] argPositions, DotsInfo dotsInfo, int dotsIndex, int nParams, boolean byValue) {
 
         Object[] argValues = new Object[nParams];
         int i;
@@ -460,7 +581,7 @@ public abstract class AbstractCall extends BaseR {
             for (i = 0; i < argExprs.length; i++) {
                 int p = argPositions[i] - 1;
                 assert Utils.check(p >= 0);
-                argValues[p] = promiseForArgument(callerFrame, i);
+                argValues[p] = byValue ? argumentValue(callerFrame, i) : promiseForArgument(callerFrame, i);
             }
         } else {
             Object[] dargs = new Object[dnames.length];
@@ -468,7 +589,7 @@ public abstract class AbstractCall extends BaseR {
             for (i = 0; i < argExprs.length; i++) {
                 int p = argPositions[i] - 1;
                 if (p >= 0) {
-                    argValues[p] = promiseForArgument(callerFrame, i);
+                    argValues[p] = byValue ? argumentValue(callerFrame, i) : promiseForArgument(callerFrame, i);
                 } else {
                     dargs[di++] =  promiseForArgument(callerFrame, i);
                 }
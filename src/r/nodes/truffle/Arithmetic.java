@@ -44,6 +44,14 @@ public class Arithmetic extends BaseR {
 
     private static final boolean DEBUG_AR = false;
     private static final boolean EAGER_COMPLEX = true;
+    private static final boolean FUSE = true; // materialize trees of double views in a single blocked pass, see ArithmeticFusion
+
+    // the types of scalar operands for the typed (unboxed) execution, set when specialized for scalar ints and doubles
+    private static final int NO_SCALAR = 0;
+    private static final int SCALAR_DOUBLE = 1;
+    private static final int SCALAR_INT = 2;
+    int leftScalar = NO_SCALAR;
+    int rightScalar = NO_SCALAR;
 
     public Arithmetic(ASTNode ast, RNode left, RNode right, ValueArithmetic arit) {
         super(ast);
@@ -52,6 +60,11 @@ public class Arithmetic extends BaseR {
         this.arit = arit;
     }
 
+    @Override
+    public boolean isUninitialized() {
+        return true;
+    }
+
     public static boolean returnsDouble(ValueArithmetic arit) {
 //        return (arit == POW || arit == DIV);
         return arit.returnsDouble();
@@ -77,11 +90,13 @@ public class Arithmetic extends BaseR {
 
             if (left instanceof Constant || right instanceof Constant) {
                 SpecializedConst sc = SpecializedConst.createSpecialized((RAny) lexpr, (RAny) rexpr, ast, left, right, arit);
+                sc.setScalarTypes(lexpr, rexpr);
                 replace(sc, "install Specialized from Uninitialized");
                 if (DEBUG_AR) Utils.debug("Installed " + sc.dbg + " for expressions " + lexpr + "(" + ((RAny) lexpr).pretty() + ") and " + rexpr + "(" + ((RAny) rexpr).pretty() + ")");
                 return sc.execute(lexpr, rexpr);
             } else {
                 Specialized sn = Specialized.createSpecialized((RAny) lexpr, (RAny) rexpr, ast, left, right, arit);
+                sn.setScalarTypes(lexpr, rexpr);
                 replace(sn, "install Specialized from Uninitialized");
                 if (DEBUG_AR) Utils.debug("Installed " + sn.dbg);
                 return sn.execute(lexpr, rexpr);
@@ -89,6 +104,104 @@ public class Arithmetic extends BaseR {
         }
     }
 
+    private static int scalarType(Object value) {
+        if (value instanceof ScalarDoubleImpl) {
+            return SCALAR_DOUBLE;
+        }
+        if (value instanceof ScalarIntImpl) {
+            return SCALAR_INT;
+        }
+        return NO_SCALAR;
+    }
+
+    // the fixed-type specializations for scalar ints and doubles (including those with a constant operand) compute the same
+    // as the typed execution below, which is only enabled for them
+    void setScalarTypes(Object lexpr, Object rexpr) {
+        int l = scalarType(lexpr);
+        int r = scalarType(rexpr);
+        if (l != NO_SCALAR && r != NO_SCALAR) {
+            leftScalar = l;
+            rightScalar = r;
+        }
+    }
+
+    private boolean intResult() {
+        return leftScalar == SCALAR_INT && rightScalar == SCALAR_INT && !returnsDouble(arit);
+    }
+
+    // The typed execution evaluates scalar operands without boxing them (e.g. local variables kept unboxed, see LocalScalar)
+    // and returns the result unboxed. When an operand has a different type, it is boxed and the node continues with the boxed
+    // execution, which rewrites it, and the boxed result is passed on in the exception. An operand is never evaluated twice.
+
+    @Override
+    public double executeScalarDouble(Frame frame) throws UnexpectedResultException {
+        if (leftScalar == NO_SCALAR || intResult()) {
+            return super.executeScalarDouble(frame);
+        }
+        double ldbl;
+        boolean leftIsNA;
+        try {
+            if (leftScalar == SCALAR_DOUBLE) {
+                ldbl = left.executeScalarDouble(frame);
+                leftIsNA = RDouble.RDoubleUtils.arithIsNA(ldbl);
+            } else {
+                int lint = left.executeScalarInteger(frame);
+                leftIsNA = lint == RInt.NA;
+                ldbl = lint;
+            }
+        } catch (UnexpectedResultException e) {
+            return RValueConversion.expectScalarDouble((RAny) execute(e.getResult(), right.execute(frame)));
+        }
+        double rdbl;
+        boolean rightIsNA;
+        try {
+            if (rightScalar == SCALAR_DOUBLE) {
+                rdbl = right.executeScalarDouble(frame);
+                rightIsNA = RDouble.RDoubleUtils.arithIsNA(rdbl);
+            } else {
+                int rint = right.executeScalarInteger(frame);
+                rightIsNA = rint == RInt.NA;
+                rdbl = rint;
+            }
+        } catch (UnexpectedResultException e) {
+            return RValueConversion.expectScalarDouble((RAny) execute(boxedLeft(ldbl), e.getResult()));
+        }
+        if (leftIsNA || rightIsNA) {
+            return RDouble.NA;
+        }
+        return arit.op(ast, ldbl, rdbl);
+    }
+
+    @Override
+    public int executeScalarInteger(Frame frame) throws UnexpectedResultException {
+        if (!intResult()) {
+            return super.executeScalarInteger(frame);
+        }
+        int lint;
+        try {
+            lint = left.executeScalarInteger(frame);
+        } catch (UnexpectedResultException e) {
+            return RValueConversion.expectScalarInteger((RAny) execute(e.getResult(), right.execute(frame)));
+        }
+        int rint;
+        try {
+            rint = right.executeScalarInteger(frame);
+        } catch (UnexpectedResultException e) {
+            return RValueConversion.expectScalarInteger((RAny) execute(RInt.RIntFactory.getScalar(lint), e.getResult()));
+        }
+        if (lint == RInt.NA || rint == RInt.NA) {
+            return RInt.NA;
+        }
+        return arit.opWarnOverflow(ast, lint, rint);
+    }
+
+    private RAny boxedLeft(double ldbl) {
+        if (leftScalar == SCALAR_DOUBLE) {
+            return RDouble.RDoubleFactory.getScalar(ldbl);
+        }
+        return RInt.RIntFactory.getScalar((int) ldbl);
+    }
+
     public enum FailedSpecialization {
         FIXED_TYPE,
         MULTI_TYPE
@@ -104,6 +217,11 @@ public class Arithmetic extends BaseR {
             this.calc = calc;
         }
 
+        @Override
+        public boolean isUninitialized() {
+            return false;
+        }
+
         public abstract static class Calculator {
             public abstract Object calc(Object lexpr, Object rexpr) throws UnexpectedResultException;
         }
@@ -489,6 +607,11 @@ public class Arithmetic extends BaseR {
             this.calc = calc;
         }
 
+        @Override
+        public boolean isUninitialized() {
+            return false;
+        }
+
         public abstract static class Calculator {
             public abstract Object calc(Object lexpr, Object rexpr) throws UnexpectedResultException;
         }
@@ -1045,6 +1168,16 @@ public class Arithmetic extends BaseR {
         }
     }
 
+    /** A lazy element-wise unary operation on doubles (e.g. a math function) that can be fused with the arithmetic
+     * views of its operand and its users, see {@link ArithmeticFusion}.
+     */
+    public interface ElementwiseUnary extends RDouble {
+        RDouble operand();
+
+        /** Applies the operation in place to the first size elements of x. */
+        void apply(double[] x, int size);
+    }
+
     public abstract static class ValueArithmetic {
         public abstract double opReal(ASTNode ast, double a, double b, double c, double d); // (a + bi)  op  (c + di)
         public abstract double opImag(ASTNode ast, double a, double b, double c, double d);
@@ -2501,9 +2634,12 @@ public class Arithmetic extends BaseR {
             int n = resultSize(ast, na, nb);
             res = new DoubleView.Generic(a, b, dim, names, attributes, n, depth, arit, ast);
         }
-        if (EAGER || (LIMIT_VIEW_DEPTH && (depth > MAX_VIEW_DEPTH)) ||  (na == 1 && nb == 1)) {
+        if (na == 1 && nb == 1) {
             return RDouble.RDoubleFactory.copy(res);
         }
+        if (EAGER || (LIMIT_VIEW_DEPTH && (depth > MAX_VIEW_DEPTH))) {
+            return res.materialize();
+        }
         return res;
     }
 
@@ -2662,6 +2798,18 @@ public class Arithmetic extends BaseR {
             return depth;
         }
 
+        @Override
+        public RDouble materialize() {
+            if (FUSE && ArithmeticFusion.isFusable(this)) {
+                RDouble res = ArithmeticFusion.materialize(this);
+                if (MemoryTrace.active) {
+                    MemoryTrace.materialized(this, res);
+                }
+                return res;
+            }
+            return super.materialize();
+        }
+
         static final class Generic extends DoubleView implements RDouble {
             final int na;
             final int nb;
@@ -2717,9 +2865,18 @@ public class Arithmetic extends BaseR {
 
             @Override
             public RDouble materialize() {
-                double[] res = new double[n];
-                arit.op(ast, a.getContent(), b.getContent(), res, n);
-                return RDouble.RDoubleFactory.getFor(res, dimensions, names, attributes);
+                RDouble res;
+                if (FUSE && ArithmeticFusion.isFusable(this)) {
+                    res = ArithmeticFusion.materialize(this);
+                } else {
+                    double[] content = new double[n];
+                    arit.op(ast, a.getContent(), b.getContent(), content, n);
+                    res = RDouble.RDoubleFactory.getFor(content, dimensions, names, attributes);
+                }
+                if (MemoryTrace.active) {
+                    MemoryTrace.materialized(this, res);
+                }
+                return res;
             }
         }
 
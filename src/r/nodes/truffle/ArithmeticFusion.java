@@ -0,0 +1,251 @@
+package r.nodes.truffle;
+
+import java.util.*;
+
+import r.data.*;
+import r.data.internal.*;
+import r.nodes.*;
+import r.nodes.truffle.Arithmetic.DoubleView;
+import r.nodes.truffle.Arithmetic.ElementwiseUnary;
+import r.nodes.truffle.Arithmetic.ValueArithmetic;
+
+/**
+ * Fused materialization of a tree of element-wise double views.
+ *
+ * An expression like a*b + c/d - e builds a tree of lazy views; reading an element of the root calls recursively into
+ * all the views, so materializing the tree costs a few (megamorphic) virtual calls per element per operator. Instead,
+ * the tree is compiled into a postfix program over blocks of {@link #BLOCK} elements. Each instruction processes a
+ * whole block using the bulk kernels of {@link ValueArithmetic}, so there is one call per block per operator, and only
+ * a small stack of block buffers is allocated in addition to the result. The kernels are the same as those used for
+ * materialized vectors, so the NA semantics are unchanged.
+ *
+ * Operands that have the size of the result are fused, shorter (recycled) operands are materialized once and read
+ * cyclically. Compact constant and repeated vectors are read without being materialized. Other vectors that are
+ * neither views known here nor materialized doubles are read element-wise.
+ */
+final class ArithmeticFusion {
+
+    static final int BLOCK = 256;
+
+    final Instruction[] code;
+    final int maxStack;
+    final int n;
+
+    private ArithmeticFusion(Instruction[] code, int maxStack, int n) {
+        this.code = code;
+        this.maxStack = maxStack;
+        this.n = n;
+    }
+
+    /** Returns true if the view has a nested view that would be fused with it. */
+    static boolean isFusable(DoubleView v) {
+        return isFusedOperand(v.a, v.n) || isFusedOperand(v.b, v.n);
+    }
+
+    private static boolean isFusedOperand(RDouble v, int n) {
+        return v.size() == n && (v instanceof DoubleView || v instanceof ElementwiseUnary || isCompact(v));
+    }
+
+    private static boolean isCompact(RDouble v) {
+        return v instanceof DoubleImpl.RDoubleConstant || v instanceof DoubleImpl.RDoubleRepeat || v instanceof DoubleImpl.RDoubleSequence;
+    }
+
+    static RDouble materialize(DoubleView v) {
+        ArithmeticFusion f = compile(v, v.n);
+        return RDouble.RDoubleFactory.getFor(f.execute(), v.dimensions, v.names, v.attributes);
+    }
+
+    static ArithmeticFusion compile(RDouble root, int n) {
+        Compiler c = new Compiler(n);
+        c.compile(root);
+        return new ArithmeticFusion(c.code.toArray(new Instruction[c.code.size()]), c.maxStack, n);
+    }
+
+    double[] execute() {
+        double[] res = new double[n];
+        double[][] stack = new double[maxStack][BLOCK];
+        Instruction[] c = code;
+        for (int from = 0; from < n; from += BLOCK) {
+            int len = Math.min(BLOCK, n - from);
+            int sp = 0;
+            for (Instruction i : c) {
+                sp = i.execute(stack, sp, from, len);
+            }
+            System.arraycopy(stack[0], 0, res, from, len);
+        }
+        return res;
+    }
+
+    static final class Compiler {
+        final int n;
+        final ArrayList<Instruction> code = new ArrayList<>();
+        int sp;
+        int maxStack;
+
+        Compiler(int n) {
+            this.n = n;
+        }
+
+        void push() {
+            sp++;
+            if (sp > maxStack) {
+                maxStack = sp;
+            }
+        }
+
+        void compile(RDouble v) {
+            if (v.size() != n) { // recycled operand
+                push();
+                code.add(new LoadArray(v.materialize().getContent()));
+                return;
+            }
+            if (v instanceof DoubleView.EqualSize || v instanceof DoubleView.Generic) {
+                DoubleView dv = (DoubleView) v;
+                compile(dv.a);
+                compile(dv.b);
+                code.add(new Binary(dv.arit, dv.ast));
+                sp--;
+                return;
+            }
+            if (v instanceof DoubleView.VectorScalar) {
+                DoubleView.VectorScalar dv = (DoubleView.VectorScalar) v;
+                compile(dv.a);
+                code.add(new BinaryScalar(dv.arit, dv.ast, dv.bdbl));
+                return;
+            }
+            if (v instanceof DoubleView.ScalarVector) {
+                DoubleView.ScalarVector dv = (DoubleView.ScalarVector) v;
+                push();
+                code.add(new LoadConstant(dv.adbl));
+                compile(dv.b);
+                code.add(new Binary(dv.arit, dv.ast));
+                sp--;
+                return;
+            }
+            if (v instanceof ElementwiseUnary) {
+                ElementwiseUnary u = (ElementwiseUnary) v;
+                compile(u.operand());
+                code.add(new Unary(u));
+                return;
+            }
+            push();
+            if (v instanceof DoubleImpl) {
+                code.add(new LoadArray(v.getContent()));
+            } else if (v instanceof DoubleImpl.RDoubleConstant) {
+                code.add(new LoadConstant(((DoubleImpl.RDoubleConstant) v).value()));
+            } else if (v instanceof DoubleImpl.RDoubleRepeat) {
+                code.add(new LoadArray(((DoubleImpl.RDoubleRepeat) v).values()));
+            } else {
+                code.add(new LoadElements(v));
+            }
+        }
+    }
+
+    /** An operation on the topmost buffers of the stack, for elements from .. from + len - 1. Returns the new stack
+     * pointer.
+     */
+    abstract static class Instruction {
+        abstract int execute(double[][] stack, int sp, int from, int len);
+    }
+
+    static final class LoadArray extends Instruction {
+        final double[] content;
+
+        LoadArray(double[] content) {
+            this.content = content;
+        }
+
+        @Override int execute(double[][] stack, int sp, int from, int len) {
+            double[] dst = stack[sp];
+            int clen = content.length;
+            if (from + len <= clen) {
+                System.arraycopy(content, from, dst, 0, len);
+            } else {
+                int j = from % clen;
+                for (int i = 0; i < len;) {
+                    int chunk = Math.min(len - i, clen - j);
+                    System.arraycopy(content, j, dst, i, chunk);
+                    i += chunk;
+                    j = 0;
+                }
+            }
+            return sp + 1;
+        }
+    }
+
+    static final class LoadElements extends Instruction {
+        final RDouble value;
+
+        LoadElements(RDouble value) {
+            this.value = value;
+        }
+
+        @Override int execute(double[][] stack, int sp, int from, int len) {
+            double[] dst = stack[sp];
+            for (int i = 0; i < len; i++) {
+                dst[i] = value.getDouble(from + i);
+            }
+            return sp + 1;
+        }
+    }
+
+    static final class LoadConstant extends Instruction {
+        final double value;
+
+        LoadConstant(double value) {
+            this.value = value;
+        }
+
+        @Override int execute(double[][] stack, int sp, int from, int len) {
+            Arrays.fill(stack[sp], 0, len, value);
+            return sp + 1;
+        }
+    }
+
+    static final class Binary extends Instruction {
+        final ValueArithmetic arit;
+        final ASTNode ast;
+
+        Binary(ValueArithmetic arit, ASTNode ast) {
+            this.arit = arit;
+            this.ast = ast;
+        }
+
+        @Override int execute(double[][] stack, int sp, int from, int len) {
+            double[] x = stack[sp - 2];
+            arit.op(ast, x, stack[sp - 1], x, len);
+            return sp - 1;
+        }
+    }
+
+    static final class BinaryScalar extends Instruction {
+        final ValueArithmetic arit;
+        final ASTNode ast;
+        final double y;
+
+        BinaryScalar(ValueArithmetic arit, ASTNode ast, double y) {
+            this.arit = arit;
+            this.ast = ast;
+            this.y = y;
+        }
+
+        @Override int execute(double[][] stack, int sp, int from, int len) {
+            double[] x = stack[sp - 1];
+            arit.op(ast, x, y, x, len);
+            return sp;
+        }
+    }
+
+    static final class Unary extends Instruction {
+        final ElementwiseUnary op;
+
+        Unary(ElementwiseUnary op) {
+            this.op = op;
+        }
+
+        @Override int execute(double[][] stack, int sp, int from, int len) {
+            op.apply(stack[sp - 1], len);
+            return sp;
+        }
+    }
+}
@@ -6,7 +6,6 @@ import r.data.internal.*;
 import r.nodes.*;
 
 import com.oracle.truffle.api.frame.*;
-import com.oracle.truffle.api.nodes.*;
 
 
 public abstract class ArithmeticUpdateVariable extends BaseR {
@@ -18,6 +17,27 @@ public abstract class ArithmeticUpdateVariable extends BaseR {
         varName = ast.getSymbol();
     }
 
+    // adds delta to the local integer in place (see LocalScalar), returns null when the variable is not a scalar int or
+    // the result would be NA
+    protected static LocalScalar updateScalarInt(Frame frame, FrameSlot slot, int delta) {
+        Object value = Utils.frameGetRaw(frame, slot);
+        int i;
+        if (value instanceof LocalScalar.OfInt) {
+            i = ((LocalScalar.OfInt) value).get();
+        } else {
+            value = RPromise.force(value);
+            if (!(value instanceof ScalarIntImpl)) {
+                return null;
+            }
+            i = ((ScalarIntImpl) value).getInt();
+        }
+        int newi = i + delta;
+        if (i == RInt.NA || newi == RInt.NA) {
+            return null;
+        }
+        return RFrameHeader.writeIntAtNoRef(frame, slot, newi);
+    }
+
     // recovery method for a constant add x <- x + c or x <- c + x
     protected Object constantAddReplaceAndExecute(Frame frame) {
 
@@ -61,21 +81,19 @@ public abstract class ArithmeticUpdateVariable extends BaseR {
 
         @Override
         public Object execute(Frame frame) {
-            try {
-                Object value = RFrameHeader.getObjectForcingPromises(frame, slot);
-                if (value != null && value instanceof ScalarIntImpl) {
-                    int i = ((ScalarIntImpl) value).getInt();
-                    int newi = i + 1;
-                    if (i != RInt.NA && newi != RInt.NA) {
-                        ScalarIntImpl res = new ScalarIntImpl(newi);
-                        Utils.frameSetObject(frame, slot, res);  // NOTE: cannot modify a ScalarIntImpl (once written to a frame)
-                        return res;
-                    }
-                }
-                throw new UnexpectedResultException(null);
-            } catch (UnexpectedResultException e) {
-                return constantAddReplaceAndExecute(frame);
+            LocalScalar res = updateScalarInt(frame, slot, 1);
+            if (res != null) {
+                return res.box();
+            }
+            return constantAddReplaceAndExecute(frame);
+        }
+
+        @Override
+        public Object executeVoid(Frame frame) {
+            if (updateScalarInt(frame, slot, 1) == null) {
+                constantAddReplaceAndExecute(frame);
             }
+            return RNull.getNull();
         }
     }
 
@@ -113,21 +131,19 @@ public abstract class ArithmeticUpdateVariable extends BaseR {
 
         @Override
         public Object execute(Frame frame) {
-            try {
-                Object value = RFrameHeader.getObjectForcingPromises(frame, slot);
-                if (value != null && value instanceof ScalarIntImpl) {
-                    int i = ((ScalarIntImpl) value).getInt();
-                    int newi = i - 1;
-                    if (i != RInt.NA && newi != RInt.NA) {
-                        ScalarIntImpl res = new ScalarIntImpl(newi);
-                        Utils.frameSetObject(frame, slot, res);  // NOTE: cannot modify a ScalarIntImpl (once written to a frame)
-                        return res;
-                    }
-                }
-                throw new UnexpectedResultException(null);
-            } catch (UnexpectedResultException e) {
-                return constantSubReplaceAndExecute(frame);
+            LocalScalar res = updateScalarInt(frame, slot, -1);
+            if (res != null) {
+                return res.box();
+            }
+            return constantSubReplaceAndExecute(frame);
+        }
+
+        @Override
+        public Object executeVoid(Frame frame) {
+            if (updateScalarInt(frame, slot, -1) == null) {
+                constantSubReplaceAndExecute(frame);
             }
+            return RNull.getNull();
         }
     }
 }
@@ -28,6 +28,13 @@ public class Comparison extends BaseR {
 
     private static final boolean DEBUG_CMP = false;
 
+    // the types of scalar operands for the typed (unboxed) execution, set when specialized for scalar ints and doubles
+    private static final int NO_SCALAR = 0;
+    private static final int SCALAR_DOUBLE = 1;
+    private static final int SCALAR_INT = 2;
+    int leftScalar = NO_SCALAR;
+    int rightScalar = NO_SCALAR;
+
     public Comparison(ASTNode ast, RNode left, RNode right, ValueComparison cmp) {
         super(ast);
         this.left = adoptChild(left);
@@ -35,18 +42,99 @@ public class Comparison extends BaseR {
         this.cmp = cmp;
     }
 
+    @Override
+    public boolean isUninitialized() {
+        return true;
+    }
+
     @Override
     public final int executeScalarLogical(Frame frame) throws UnexpectedResultException {
+        if (leftScalar != NO_SCALAR) {
+            return executeScalarTyped(frame);
+        }
         RAny lexpr = (RAny) left.execute(frame);
         RAny rexpr = (RAny) right.execute(frame);
         return executeScalarLogical(lexpr, rexpr);
     }
 
+    @Override
+    public final int executeScalarNonNALogical(Frame frame) throws UnexpectedResultException {
+        int res = executeScalarLogical(frame);
+        if (res == RLogical.NA) {
+            throw new UnexpectedResultException(RLogical.BOXED_NA);
+        }
+        return res;
+    }
+
+    private static int scalarType(Object value) {
+        if (value instanceof ScalarDoubleImpl) {
+            return SCALAR_DOUBLE;
+        }
+        if (value instanceof ScalarIntImpl) {
+            return SCALAR_INT;
+        }
+        return NO_SCALAR;
+    }
+
+    // the scalar comparisons of ints and doubles compute the same as the typed execution below, which is only enabled for them
+    void setScalarTypes(Object lexpr, Object rexpr) {
+        int l = scalarType(lexpr);
+        int r = scalarType(rexpr);
+        if (l != NO_SCALAR && r != NO_SCALAR) {
+            leftScalar = l;
+            rightScalar = r;
+        }
+    }
+
+    // Evaluates the operands unboxed (see Arithmetic.executeScalarDouble). When an operand has a different type, it is boxed
+    // and the boxed execution takes over, which rewrites the node.
+    private int executeScalarTyped(Frame frame) throws UnexpectedResultException {
+        double ldbl;
+        int lint = 0;
+        boolean leftIsNA;
+        try {
+            if (leftScalar == SCALAR_DOUBLE) {
+                ldbl = left.executeScalarDouble(frame);
+                leftIsNA = RDouble.RDoubleUtils.isNAorNaN(ldbl);
+            } else {
+                lint = left.executeScalarInteger(frame);
+                leftIsNA = lint == RInt.NA;
+                ldbl = lint;
+            }
+        } catch (UnexpectedResultException e) {
+            return executeScalarLogical((RAny) e.getResult(), (RAny) right.execute(frame));
+        }
+        double rdbl;
+        int rint = 0;
+        boolean rightIsNA;
+        try {
+            if (rightScalar == SCALAR_DOUBLE) {
+                rdbl = right.executeScalarDouble(frame);
+                rightIsNA = RDouble.RDoubleUtils.isNAorNaN(rdbl);
+            } else {
+                rint = right.executeScalarInteger(frame);
+                rightIsNA = rint == RInt.NA;
+                rdbl = rint;
+            }
+        } catch (UnexpectedResultException e) {
+            RAny lexpr = leftScalar == SCALAR_DOUBLE ? RDouble.RDoubleFactory.getScalar(ldbl) : RInt.RIntFactory.getScalar(lint);
+            return executeScalarLogical(lexpr, (RAny) e.getResult());
+        }
+        if (leftIsNA || rightIsNA) {
+            return RLogical.NA;
+        }
+        if (leftScalar == SCALAR_INT && rightScalar == SCALAR_INT) {
+            return cmp.cmp(lint, rint) ? RLogical.TRUE : RLogical.FALSE;
+        }
+        return cmp.cmp(ldbl, rdbl) ? RLogical.TRUE : RLogical.FALSE;
+    }
+
     public int executeScalarLogical(RAny lexpr, RAny rexpr) throws UnexpectedResultException {
         try {
             throw new UnexpectedResultException(null);
         } catch (UnexpectedResultException e) {
             ScalarComparison sc = ScalarComparison.createSpecialized(lexpr, rexpr, ast, left, right, cmp);
+            sc.setScalarTypes(lexpr, rexpr);
             replace(sc, "install ScalarComparison.Specialized from Comparison");
             return sc.executeScalarLogical(lexpr, rexpr);
         }
@@ -77,6 +165,11 @@ public class Comparison extends BaseR {
             this.comp = comp;
         }
 
+        @Override
+        public boolean isUninitialized() {
+            return false;
+        }
+
         public abstract static class Comparator {
             public abstract int compare(RAny lexpr, RAny rexpr) throws UnexpectedResultException;
         }
@@ -562,6 +655,7 @@ public class Comparison extends BaseR {
         public abstract boolean cmp(double a, double b);
         public abstract boolean cmp(double areal, double aimag, double breal, double bimag);
         public abstract boolean cmp(String a, String b);
+        public abstract boolean cmpCompareTo(int c); // the result for strings from the result of compareTo
         public abstract boolean resultForNaN();
 
         public boolean cmp(int a, double b) {
@@ -576,6 +670,9 @@ public class Comparison extends BaseR {
             if (b == RString.NA) {
                 return RLogicalFactory.getNAArray(n, a.dimensions());
             }
+            if (a instanceof CompactStrings) {
+                return cmp((CompactStrings) a, b, false);
+            }
             int[] content = new int[n];
             for (int i = 0; i < n; i++) {
                 String astr = a.getString(i);
@@ -592,6 +689,9 @@ public class Comparison extends BaseR {
             if (a == RString.NA) {
                 return RLogicalFactory.getNAArray(n, b.dimensions());
             }
+            if (b instanceof CompactStrings) {
+                return cmp((CompactStrings) b, a, true);
+            }
             int[] content = new int[n];
             for (int i = 0; i < n; i++) {
                 String bstr = b.getString(i);
@@ -603,6 +703,20 @@ public class Comparison extends BaseR {
             }
             return RLogical.RLogicalFactory.getFor(content, b.dimensions(), b.names());
         }
+        // compares the bytes of compact strings with b (b with the strings when swapped), b is not NA
+        private RLogical cmp(CompactStrings a, String b, boolean swapped) {
+            int n = a.size();
+            int[] content = new int[n];
+            for (int i = 0; i < n; i++) {
+                if (a.isNAorNaN(i)) {
+                    content[i] = RLogical.NA;
+                } else {
+                    int c = a.compare(i, b);
+                    content[i] = cmpCompareTo(swapped ? -c : c) ? RLogical.TRUE : RLogical.FALSE;
+                }
+            }
+            return RLogical.RLogicalFactory.getFor(content, a.dimensions(), a.names());
+        }
         public RLogical cmp(RDouble a, double b) {
             int n = a.size();
             if (RDouble.RDoubleUtils.isNAorNaN(b)) {
@@ -707,6 +821,27 @@ public class Comparison extends BaseR {
             int ai = 0;
             int bi = 0;
 
+            if (a instanceof CompactStrings && b instanceof CompactStrings) {
+                CompactStrings acs = (CompactStrings) a;
+                CompactStrings bcs = (CompactStrings) b;
+                for (int i = 0; i < n; i++) {
+                    if (acs.isNAorNaN(ai) || bcs.isNAorNaN(bi)) {
+                        content[i] = RLogical.NA;
+                    } else {
+                        content[i] = cmpCompareTo(acs.compare(ai, bcs, bi)) ? RLogical.TRUE : RLogical.FALSE;
+                    }
+                    if (++ai == na) {
+                        ai = 0;
+                    }
+                    if (++bi == nb) {
+                        bi = 0;
+                    }
+                }
+                if (ai != 0 || bi != 0) {
+                    RContext.warning(ast, RError.LENGTH_NOT_MULTI);
+                }
+                return RLogical.RLogicalFactory.getFor(content, dimensions, names);
+            }
             for (int i = 0; i < n; i++) {
                 String astr = a.getString(ai++);
                 if (ai == na) {
@@ -953,7 +1088,11 @@ public class Comparison extends BaseR {
             }
             @Override
             public boolean cmp(String a, String b) {
-                return a.compareTo(b) == 0; // FIXME: intern?
+                return a.equals(b); // returns early for the same (e.g. interned) string and for different lengths
+            }
+            @Override
+            public boolean cmpCompareTo(int c) {
+                return c == 0;
             }
             @Override
             public boolean resultForNaN() {
@@ -981,7 +1120,11 @@ public class Comparison extends BaseR {
             }
             @Override
             public boolean cmp(String a, String b) {
-                return a.compareTo(b) != 0; // FIXME: intern?
+                return !a.equals(b);
+            }
+            @Override
+            public boolean cmpCompareTo(int c) {
+                return c != 0;
             }
             @Override
             public boolean resultForNaN() {
@@ -1017,6 +1160,10 @@ public class Comparison extends BaseR {
                 return a.compareTo(b) <= 0;
             }
             @Override
+            public boolean cmpCompareTo(int c) {
+                return c <= 0;
+            }
+            @Override
             public boolean resultForNaN() {
                 return false;
             }
@@ -1050,6 +1197,10 @@ public class Comparison extends BaseR {
                 return a.compareTo(b) >= 0;
             }
             @Override
+            public boolean cmpCompareTo(int c) {
+                return c >= 0;
+            }
+            @Override
             public boolean resultForNaN() {
                 return false;
             }
@@ -1083,6 +1234,10 @@ public class Comparison extends BaseR {
                 return a.compareTo(b) < 0;
             }
             @Override
+            public boolean cmpCompareTo(int c) {
+                return c < 0;
+            }
+            @Override
             public boolean resultForNaN() {
                 return false;
             }
@@ -1116,6 +1271,10 @@ public class Comparison extends BaseR {
                 return a.compareTo(b) > 0;
             }
             @Override
+            public boolean cmpCompareTo(int c) {
+                return c > 0;
+            }
+            @Override
             public boolean resultForNaN() {
                 return false;
             }
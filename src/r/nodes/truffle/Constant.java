@@ -1,8 +1,10 @@
 package r.nodes.truffle;
 
 import com.oracle.truffle.api.frame.*;
+import com.oracle.truffle.api.nodes.*;
 
 import r.data.*;
+import r.data.internal.*;
 import r.nodes.*;
 
 public class Constant extends BaseR {
@@ -17,6 +19,27 @@ public class Constant extends BaseR {
         return value;
     }
 
+    @Override public final double executeScalarDouble(Frame frame) throws UnexpectedResultException {
+        if (value instanceof ScalarDoubleImpl) {
+            return ((ScalarDoubleImpl) value).getDouble();
+        }
+        throw new UnexpectedResultException(value);
+    }
+
+    @Override public final int executeScalarInteger(Frame frame) throws UnexpectedResultException {
+        if (value instanceof ScalarIntImpl) {
+            return ((ScalarIntImpl) value).getInt();
+        }
+        throw new UnexpectedResultException(value);
+    }
+
+    @Override public final int executeScalarLogical(Frame frame) throws UnexpectedResultException {
+        if (value instanceof ScalarLogicalImpl) {
+            return ((ScalarLogicalImpl) value).getLogical();
+        }
+        throw new UnexpectedResultException(value);
+    }
+
     public static RNode getNull() {
         return new Constant(null, RNull.getNull());
     }
@@ -35,6 +35,11 @@ public abstract class ElementwiseLogicalOperation extends BaseR {
     public static ElementwiseLogicalOperation createUninitialized(ASTNode ast, RNode left, Operation op, RNode right) {
         return new ElementwiseLogicalOperation(ast, left, op, right) {
 
+            @Override
+            public boolean isUninitialized() {
+                return true;
+            }
+
             @Override
             public RAny execute(RAny leftValue, RAny rightValue) {
                 try {
@@ -16,7 +16,11 @@ public class Function extends RNode {
 
     @Override
     public final Object execute(Frame frame) {
-        return function.createClosure(frame == null ? null : frame.materialize());
+        if (frame == null) {
+            return function.createClosure(null);
+        }
+        RFrameHeader.markEscaped(frame); // the closure keeps the frame alive
+        return function.createClosure(frame.materialize());
     }
 
     @Override
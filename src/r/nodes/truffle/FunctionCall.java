@@ -58,6 +58,46 @@ public abstract class FunctionCall extends AbstractCall {
         }
     }
 
+    // true if the value of the call is the value of the enclosing function: the call is the body of the function, the
+    // last expression of a sequence or a branch of an if in such a position, or the argument of return
+    static boolean isTailPosition(ASTNode ast) {
+        ASTNode node = ast;
+        for (;;) {
+            ASTNode parent = node.getParent();
+            if (parent instanceof r.nodes.Function) {
+                return ((r.nodes.Function) parent).getBody() == node;
+            }
+            if (parent instanceof r.nodes.Sequence) {
+                ASTNode[] exprs = ((r.nodes.Sequence) parent).getExprs();
+                if (exprs[exprs.length - 1] != node) {
+                    return false;
+                }
+            } else if (parent instanceof r.nodes.If) {
+                if (((r.nodes.If) parent).getCond() == node) {
+                    return false;
+                }
+            } else if (parent instanceof ArgumentList.Default.DefaultEntry) {
+                ASTNode call = parent.getParent();
+                return call instanceof r.nodes.FunctionCall && ((r.nodes.FunctionCall) call).getName() == RETURN_SYMBOL;
+            } else {
+                return false;
+            }
+            node = parent;
+        }
+    }
+
+    private static final RSymbol RETURN_SYMBOL = RSymbol.getSymbol("return");
+
+    /**
+     * Thrown by a call of the function of the current frame in tail position. The arguments of the call are stored in the
+     * header of the current frame ({@link RFrameHeader#tailCall()}), and the call is made by the function when its body
+     * has been left.
+     */
+    public static final class TailCallException extends ControlFlowException {
+        public static TailCallException instance = new TailCallException();
+        private static final long serialVersionUID = 2791562396314702713L;
+    }
+
     public static CallFactory FACTORY = new CallFactory("<empty>") { // only used with static lookup of builtins
 
         @Override public RNode create(ASTNode call, RSymbol[] names, RNode[] exprs) {
@@ -101,6 +141,10 @@ public abstract class FunctionCall extends AbstractCall {
             super(ast, callableExpr, argNames, argExprs, null);
         }
 
+        @Override public boolean isUninitialized() {
+            return true;
+        }
+
         @Override public Object execute(Frame callerFrame) {
             Object callable = callableExpr.execute(callerFrame);
             try {
@@ -149,6 +193,24 @@ public abstract class FunctionCall extends AbstractCall {
                 return replace(getFunctionCall(ast, callableExpr, rememberedArgNames, rememberedArgExprs)).execute(callerFrame);
             }
         }
+
+        // the typed executions of builtins that support them (e.g. math functions on scalars)
+
+        @Override
+        public double executeScalarDouble(Frame callerFrame) throws UnexpectedResultException {
+            if (builtinName.getValue() != null || builtinName.getVersion() != 0) {
+                throw new UnexpectedResultException(execute(callerFrame));
+            }
+            return builtinNode.executeScalarDouble(callerFrame);
+        }
+
+        @Override
+        public int executeScalarInteger(Frame callerFrame) throws UnexpectedResultException {
+            if (builtinName.getValue() != null || builtinName.getVersion() != 0) {
+                throw new UnexpectedResultException(execute(callerFrame));
+            }
+            return builtinNode.executeScalarInteger(callerFrame);
+        }
     }
 
     public static final class StableBuiltinCall extends BaseR {
@@ -187,146 +249,186 @@ public abstract class FunctionCall extends AbstractCall {
 
     public static final class GenericCall extends FunctionCall {
 
-        Object lastCallable; // RCallable, but using Object to avoid cast
-
         // for functions
         RClosure lastClosure; // null when last callable wasn't a function (closure)
         RFunction closureFunction;
-        int[] functionArgPositions;
+        int[] functionArgPositions; // null when the arguments are placed in order (see ClosureEntry.positional)
+        DotsInfo functionDotsInfo;
+        boolean functionByValue; // see ClosureEntry.byValue
         CallTarget functionCallTarget;
         MaterializedFrame closureEnclosingFrame;
-        final DotsInfo functionDotsInfo = new DotsInfo();
+
+        // a polymorphic inline cache of the argument matching, keyed by the function (not the closure, so that closures of
+        // the same function created in different frames share an entry); the fields above are loaded from it when the
+        // called closure changes, and when it is full, arguments of other functions are matched on each switch
+        final ClosureEntry[] closureCache = new ClosureEntry[CLOSURE_CACHE_DEPTH];
+        int closureCacheSize;
 
         // for builtins
         RBuiltIn lastBuiltIn; // null when last callable wasn't a builtin
         RSymbol builtInName;
         @Child RNode builtInNode;
 
+        // a call of the same function in tail position is executed by the loop in FunctionImpl.execute instead of
+        // recursively, so that tail recursion does not grow the Java stack
+        final boolean tailCall;
+
+        private static final int CLOSURE_CACHE_DEPTH = 4;
+        private static final boolean EAGER_ARGUMENTS = true;
+        private static final boolean TAIL_CALLS = true;
+
+        static final class ClosureEntry {
+            final RFunction function;
+            final int[] argPositions;
+            final DotsInfo dotsInfo;
+            final boolean positional; // no names to match and nothing for ..., the arguments are placed in order
+            final boolean byValue; // the function cannot tell argument values from promises (see AbstractCall.argumentValue)
+
+            ClosureEntry(RFunction function, int[] argPositions, DotsInfo dotsInfo) {
+                this.function = function;
+                this.argPositions = argPositions;
+                this.dotsInfo = dotsInfo;
+                this.positional = isPositional(argPositions, function.dotsIndex());
+                ASTNode source = function.getSource();
+                this.byValue = EAGER_ARGUMENTS && source instanceof r.nodes.Function && !((r.nodes.Function) source).isReflective();
+            }
+        }
+
         GenericCall(ASTNode ast, RNode callableExpr, RSymbol[] argNames, RNode[] argExprs) {
             super(ast, callableExpr, argNames, argExprs, null);
+            tailCall = TAIL_CALLS && isTailPosition(ast);
+        }
+
+        private ClosureEntry closureEntry(RFunction function) {
+            for (int i = 0; i < closureCacheSize; i++) {
+                ClosureEntry e = closureCache[i];
+                if (e.function == function) {
+                    return e;
+                }
+            }
+            DotsInfo dotsInfo = new DotsInfo();
+            ClosureEntry e = new ClosureEntry(function, computePositions(function, dotsInfo), dotsInfo);
+            if (closureCacheSize < CLOSURE_CACHE_DEPTH) {
+                closureCache[closureCacheSize++] = e;
+            }
+            return e;
+        }
+
+        private void switchClosure(RClosure closure) {
+            RFunction function = closure.function();
+            if (function != closureFunction) {
+                ClosureEntry e = closureEntry(function);
+                closureFunction = function;
+                functionArgPositions = e.positional ? null : e.argPositions;
+                functionDotsInfo = e.dotsInfo;
+                functionByValue = e.byValue;
+                functionCallTarget = function.callTarget();
+            }
+            closureEnclosingFrame = closure.enclosingFrame();
+            lastClosure = closure;
+            lastBuiltIn = null;
+        }
+
+        private Object callClosure(Frame callerFrame) {
+            int[] positions = functionArgPositions;
+            Object[] argValues;
+            if (positions == null) {
+                argValues = placePositionalArgs(callerFrame, closureFunction.nparams(), functionByValue);
+            } else {
+                argValues = placeArgs(callerFrame, positions, functionDotsInfo, closureFunction.dotsIndex(), closureFunction.nparams(), functionByValue);
+            }
+            RFrameHeader arguments = new RFrameHeader(closureFunction, closureEnclosingFrame, argValues, RFrameHeader.depth(callerFrame) + 1);
+            return functionCallTarget.call(arguments);
+        }
+
+        private RNode switchBuiltIn(RBuiltIn builtIn) {
+            RSymbol name = builtIn.name();
+            if (name != builtInName) {
+                builtInName = name;
+                if (builtInNode == null) {
+                    builtInNode = adoptChild(builtIn.callFactory().create(ast, argNames, argExprs));
+                } else {
+                    builtInNode.replace(builtIn.callFactory().create(ast, argNames, argExprs));
+                }
+            }
+            lastBuiltIn = builtIn;
+            lastClosure = null;
+            return builtInNode;
         }
 
         @Override public Object execute(Frame callerFrame) {
             Object callable = callableExpr.execute(callerFrame);
-            if (callable == lastClosure) {
-                Object[] argValues = placeArgs(callerFrame, functionArgPositions, functionDotsInfo, closureFunction.dotsIndex(), closureFunction.nparams());
-                RFrameHeader arguments = new RFrameHeader(closureFunction, closureEnclosingFrame, argValues);
-                return functionCallTarget.call(arguments);
-            }
-            if (callable == lastBuiltIn) { return builtInNode.execute(callerFrame); }
-            if (callable instanceof RClosure) {
+            if (callable != lastClosure) {
+                if (callable == lastBuiltIn) { return builtInNode.execute(callerFrame); }
+                if (!(callable instanceof RClosure)) {
+                    // callable instanceof RBuiltin
+                    RBuiltIn builtIn = (RBuiltIn) callable;
+                    RSymbol name = builtIn.name();
+                    if (name != builtInName) {
+                        builtInName = name;
+                        if (builtInNode == null) {
+                            builtInNode = adoptChild(builtIn.callFactory().create(ast, argNames, argExprs));
+                        } else {
+                            builtInNode.replace(builtIn.callFactory().create(ast, argNames, argExprs));
+                        }
+                    }
+                    lastBuiltIn = builtIn;
+                    lastClosure = null;
+                    return builtInNode.execute(callerFrame);
+                }
                 RClosure closure = (RClosure) callable;
                 RFunction function = closure.function();
                 if (function != closureFunction) {
+                    ClosureEntry e = closureEntry(function);
                     closureFunction = function;
-                    functionArgPositions = computePositions(closureFunction, functionDotsInfo);
+                    functionArgPositions = e.positional ? null : e.argPositions;
+                    functionDotsInfo = e.dotsInfo;
+                    functionByValue = e.byValue;
                     functionCallTarget = function.callTarget();
                 }
                 closureEnclosingFrame = closure.enclosingFrame();
                 lastClosure = closure;
                 lastBuiltIn = null;
-                Object[] argValues = placeArgs(callerFrame, functionArgPositions, functionDotsInfo, closureFunction.dotsIndex(), closureFunction.nparams());
-                RFrameHeader arguments = new RFrameHeader(closureFunction, closureEnclosingFrame, argValues);
-                return functionCallTarget.call(arguments);
+            }
+            // NOTE: the switching is inline rather than in switchClosure/switchBuiltIn, so that HotSpot does not inline
+            // this method into the callers, which makes recursive calls considerably slower
+            int[] positions = functionArgPositions;
+            Object[] argValues;
+            if (positions == null) {
+                argValues = placePositionalArgs(callerFrame, closureFunction.nparams(), functionByValue);
             } else {
-                // callable instanceof RBuiltin
-                RBuiltIn builtIn = (RBuiltIn) callable;
-                RSymbol name = builtIn.name();
-                if (name != builtInName) {
-                    builtInName = name;
-                    if (builtInNode == null) {
-                        builtInNode = adoptChild(builtIn.callFactory().create(ast, argNames, argExprs));
-                    } else {
-                        builtInNode.replace(builtIn.callFactory().create(ast, argNames, argExprs));
-                    }
-                }
-                lastBuiltIn = builtIn;
-                lastClosure = null;
-                return builtInNode.execute(callerFrame);
+                argValues = placeArgs(callerFrame, positions, functionDotsInfo, closureFunction.dotsIndex(), closureFunction.nparams(), functionByValue);
+            }
+            if (tailCall && callerFrame != null && closureFunction == RFrameHeader.function(callerFrame)) {
+                RFrameHeader.setTailCall(callerFrame, new RFrameHeader(closureFunction, closureEnclosingFrame, argValues, RFrameHeader.depth(callerFrame)));
+                throw TailCallException.instance;
             }
+            RFrameHeader arguments = new RFrameHeader(closureFunction, closureEnclosingFrame, argValues, RFrameHeader.depth(callerFrame) + 1);
+            return functionCallTarget.call(arguments);
         }
 
-        // FIXME: essentially copy paste of execute
         // TODO: it would be far more important to have these in simple and stable builtin call than here
         @Override public int executeScalarLogical(Frame callerFrame) throws UnexpectedResultException {
-            RCallable callable = (RCallable) callableExpr.execute(callerFrame);
-            if (callable == lastClosure) {
-                Object[] argValues = placeArgs(callerFrame, functionArgPositions, functionDotsInfo, closureFunction.dotsIndex(), closureFunction.nparams());
-                RFrameHeader arguments = new RFrameHeader(closureFunction, closureEnclosingFrame, argValues);
-                return RValueConversion.expectScalarLogical((RAny) functionCallTarget.call(arguments));
-            }
+            Object callable = callableExpr.execute(callerFrame);
+            if (callable == lastClosure) { return RValueConversion.expectScalarLogical((RAny) callClosure(callerFrame)); }
             if (callable == lastBuiltIn) { return builtInNode.executeScalarLogical(callerFrame); }
             if (callable instanceof RClosure) {
-                RClosure closure = (RClosure) callable;
-                RFunction function = closure.function();
-                if (function != closureFunction) {
-                    closureFunction = function;
-                    functionArgPositions = computePositions(closureFunction, functionDotsInfo);
-                    functionCallTarget = function.callTarget();
-                }
-                closureEnclosingFrame = closure.enclosingFrame();
-                lastClosure = closure;
-                lastBuiltIn = null;
-                Object[] argValues = placeArgs(callerFrame, functionArgPositions, functionDotsInfo, closureFunction.dotsIndex(), closureFunction.nparams());
-                RFrameHeader arguments = new RFrameHeader(closureFunction, closureEnclosingFrame, argValues);
-                return RValueConversion.expectScalarLogical((RAny) functionCallTarget.call(arguments));
+                switchClosure((RClosure) callable);
+                return RValueConversion.expectScalarLogical((RAny) callClosure(callerFrame));
             } else {
-                // callable instanceof RBuiltin
-                RBuiltIn builtIn = (RBuiltIn) callable;
-                RSymbol name = builtIn.name();
-                if (name != builtInName) {
-                    builtInName = name;
-                    if (builtInNode == null) {
-                        builtInNode = adoptChild(builtIn.callFactory().create(ast, argNames, argExprs));
-                    } else {
-                        builtInNode.replace(builtIn.callFactory().create(ast, argNames, argExprs));
-                    }
-                }
-                lastBuiltIn = builtIn;
-                lastClosure = null;
-                return builtInNode.executeScalarLogical(callerFrame);
+                return switchBuiltIn((RBuiltIn) callable).executeScalarLogical(callerFrame);
             }
         }
 
-        // FIXME: essentially copy paste of execute
-        // TODO: it would be far more important to have these in simple and stable builtin call than here
         @Override public int executeScalarNonNALogical(Frame callerFrame) throws UnexpectedResultException {
-            RCallable callable = (RCallable) callableExpr.execute(callerFrame);
-            if (callable == lastClosure) {
-                Object[] argValues = placeArgs(callerFrame, functionArgPositions, functionDotsInfo, closureFunction.dotsIndex(), closureFunction.nparams());
-                RFrameHeader arguments = new RFrameHeader(closureFunction, closureEnclosingFrame, argValues);
-                return RValueConversion.expectScalarNonNALogical((RAny) functionCallTarget.call(arguments));
-            }
+            Object callable = callableExpr.execute(callerFrame);
+            if (callable == lastClosure) { return RValueConversion.expectScalarNonNALogical((RAny) callClosure(callerFrame)); }
             if (callable == lastBuiltIn) { return builtInNode.executeScalarNonNALogical(callerFrame); }
             if (callable instanceof RClosure) {
-                RClosure closure = (RClosure) callable;
-                RFunction function = closure.function();
-                if (function != closureFunction) {
-                    closureFunction = function;
-                    functionArgPositions = computePositions(closureFunction, functionDotsInfo);
-                    functionCallTarget = function.callTarget();
-                }
-                closureEnclosingFrame = closure.enclosingFrame();
-                lastClosure = closure;
-                lastBuiltIn = null;
-                Object[] argValues = placeArgs(callerFrame, functionArgPositions, functionDotsInfo, closureFunction.dotsIndex(), closureFunction.nparams());
-                RFrameHeader arguments = new RFrameHeader(closureFunction, closureEnclosingFrame, argValues);
-                return RValueConversion.expectScalarNonNALogical((RAny) functionCallTarget.call(arguments));
+                switchClosure((RClosure) callable);
+                return RValueConversion.expectScalarNonNALogical((RAny) callClosure(callerFrame));
             } else {
-                // callable instanceof RBuiltin
-                RBuiltIn builtIn = (RBuiltIn) callable;
-                RSymbol name = builtIn.name();
-                if (name != builtInName) {
-                    builtInName = name;
-                    if (builtInNode == null) {
-                        builtInNode = adoptChild(builtIn.callFactory().create(ast, argNames, argExprs));
-                    } else {
-                        builtInNode.replace(builtIn.callFactory().create(ast, argNames, argExprs));
-                    }
-                }
-                lastBuiltIn = builtIn;
-                lastClosure = null;
-                return builtInNode.executeScalarNonNALogical(callerFrame);
+                return switchBuiltIn((RBuiltIn) callable).executeScalarNonNALogical(callerFrame);
             }
         }
     }
@@ -346,7 +448,7 @@ public abstract class FunctionCall extends AbstractCall {
                 RClosure closure = (RClosure) callable;
                 RFunction function = closure.function();
                 Object[] argValues = placeDotsArgs(callerFrame, function.paramNames());
-                RFrameHeader arguments = new RFrameHeader(function, closure.enclosingFrame(), argValues);
+                RFrameHeader arguments = new RFrameHeader(function, closure.enclosingFrame(), argValues, RFrameHeader.depth(callerFrame) + 1);
                 return function.callTarget().call(arguments);
 
             } else {
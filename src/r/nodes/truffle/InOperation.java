@@ -6,6 +6,7 @@ import com.oracle.truffle.api.frame.*;
 
 import r.*;
 import r.data.*;
+import r.data.internal.*;
 import r.errors.*;
 import r.nodes.*;
 
@@ -69,6 +70,9 @@ public class InOperation extends BaseR {
             }
             return RLogical.BOXED_FALSE;
         }
+        if (typedTable instanceof CompactStrings && tableSize < (1 << 28)) {
+            return inCompact((RString) typedX, (CompactStrings) typedTable);
+        }
         int[] content = new int[xsize];
         HashSet<Object> set = new HashSet<Object>(tableSize);
         for (int i = 0; i < tableSize; i++) {
@@ -82,4 +86,52 @@ public class InOperation extends BaseR {
         return RLogical.RLogicalFactory.getFor(content);
     }
 
+    // an open-addressing hash table of the indexes into the table, hashed and compared on the bytes of the strings
+    public static RLogical inCompact(RString x, CompactStrings table) {
+        int tableSize = table.size();
+        int capacity = Integer.highestOneBit(Math.max(tableSize, 1)) << 2;
+        int mask = capacity - 1;
+        int[] slots = new int[capacity]; // index + 1, 0 is an empty slot
+        boolean tableNA = false;
+        for (int i = 0; i < tableSize; i++) {
+            if (table.isNAorNaN(i)) {
+                tableNA = true;
+                continue;
+            }
+            int s = mix(table.hash(i)) & mask;
+            while (slots[s] != 0 && !table.equals(slots[s] - 1, table, i)) {
+                s = (s + 1) & mask;
+            }
+            slots[s] = i + 1;
+        }
+        CompactStrings xcs = x instanceof CompactStrings ? (CompactStrings) x : null;
+        int xsize = x.size();
+        int[] content = new int[xsize];
+        for (int i = 0; i < xsize; i++) {
+            boolean found;
+            if (x.isNAorNaN(i)) {
+                found = tableNA;
+            } else if (xcs != null) {
+                int s = mix(xcs.hash(i)) & mask;
+                while (slots[s] != 0 && !table.equals(slots[s] - 1, xcs, i)) {
+                    s = (s + 1) & mask;
+                }
+                found = slots[s] != 0;
+            } else {
+                String str = x.getString(i);
+                int s = mix(str.hashCode()) & mask; // the same hash as of the bytes
+                while (slots[s] != 0 && !table.equals(slots[s] - 1, str)) {
+                    s = (s + 1) & mask;
+                }
+                found = slots[s] != 0;
+            }
+            content[i] = found ? RLogical.TRUE : RLogical.FALSE;
+        }
+        return RLogical.RLogicalFactory.getFor(content);
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
 }
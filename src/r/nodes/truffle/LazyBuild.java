@@ -13,6 +13,11 @@ public class LazyBuild extends BaseR {
         assert Utils.check(orig != null);
     }
 
+    @Override
+    public boolean isUninitialized() {
+        return true;
+    }
+
     @Override
     public final Object execute(Frame frame) {
         try {
@@ -46,4 +51,26 @@ public class LazyBuild extends BaseR {
         }
     }
 
+    @Override
+    public final double executeScalarDouble(Frame frame) throws UnexpectedResultException {
+        try {
+            throw new UnexpectedResultException(null);
+        } catch (UnexpectedResultException e) {
+            RNode node = RContext.createNode(getAST());
+            replace(node, "expandLazyBuildNode");
+            return node.executeScalarDouble(frame);
+        }
+    }
+
+    @Override
+    public final int executeScalarInteger(Frame frame) throws UnexpectedResultException {
+        try {
+            throw new UnexpectedResultException(null);
+        } catch (UnexpectedResultException e) {
+            RNode node = RContext.createNode(getAST());
+            replace(node, "expandLazyBuildNode");
+            return node.executeScalarInteger(frame);
+        }
+    }
+
 }
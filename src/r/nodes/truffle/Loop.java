@@ -67,7 +67,7 @@ public abstract class Loop extends BaseR {
                 if (DEBUG_LO) Utils.debug("loop - entering repeat loop");
                 for (;;) {
                     try {
-                        body.execute(frame);
+                        body.executeVoid(frame);
                     } catch (ContinueException ce) {
                         if (DEBUG_LO) Utils.debug("loop - repeat loop received continue exception");
                     }
@@ -109,7 +109,7 @@ public abstract class Loop extends BaseR {
                         if (condVal == RLogical.NA) {
                             throw RError.getUnexpectedNA(ast);
                         }
-                        body.execute(frame);
+                        body.executeVoid(frame);
                     } catch (ContinueException ce) {
                         if (DEBUG_LO) Utils.debug("loop - while loop received continue exception");
                     }
@@ -205,6 +205,11 @@ public abstract class Loop extends BaseR {
                 super(ast, cvar, range, body);
             }
 
+            @Override
+            public boolean isUninitialized() {
+                return true;
+            }
+
             @Override
             public Object execute(Frame frame) {
 
@@ -236,6 +241,11 @@ public abstract class Loop extends BaseR {
                     super(ast, cvar, range, body);
                 }
 
+                @Override
+                public boolean isUninitialized() {
+                    return false;
+                }
+
                 @Override
                 public final RAny execute(Frame frame) {
                     RAny rval = (RAny) range.execute(frame);
@@ -277,7 +287,7 @@ public abstract class Loop extends BaseR {
                             for (int i = from;; i += step) {
                                 RFrameHeader.writeToTopLevelNoRef(cvar, RInt.RIntFactory.getScalar(i));
                                 try {
-                                    body.execute(frame);
+                                    body.executeVoid(frame);
                                 } catch (ContinueException ce) { }
                                 if (i == to) {
                                     break;
@@ -293,6 +303,11 @@ public abstract class Loop extends BaseR {
             // FIXME: could make this even simpler with a bit of analysis (removal of break, continue catch blocks)
             public static RNode createSimple(ASTNode ast, RSymbol cvar, RNode range, RNode body, final FrameSlot slot) {
                 return new IntSequenceRange(ast, cvar, range, body) {
+                    @Override
+                    public boolean isUninitialized() {
+                        return false;
+                    }
+
                     @Override
                     public final RAny execute(Frame frame) {
                         RAny rval = (RAny) range.execute(frame);
@@ -309,10 +324,10 @@ public abstract class Loop extends BaseR {
                             }
                             try {
                                 for (int i = 1; i <= to; i++) {
-                                    // no ref needed because scalars do not have reference counts
-                                    RFrameHeader.writeAtNoRef(frame, slot, RInt.RIntFactory.getScalar(i));
+                                    // the index is kept unboxed (see LocalScalar), no ref needed because scalars do not have reference counts
+                                    RFrameHeader.writeIntAtNoRef(frame, slot, i);
                                     try {
-                                        body.execute(frame);
+                                        body.executeVoid(frame);
                                     } catch (ContinueException ce) { }
                                 }
                             } catch (BreakException be) { }
@@ -341,10 +356,10 @@ public abstract class Loop extends BaseR {
                         final int step = sval.step();
                         try {
                             for (int i = from;; i += step) {
-                                // no ref needed because scalars do not have reference counts
-                                RFrameHeader.writeAtNoRef(frame, slot, RInt.RIntFactory.getScalar(i));
+                                // the index is kept unboxed (see LocalScalar), no ref needed because scalars do not have reference counts
+                                RFrameHeader.writeIntAtNoRef(frame, slot, i);
                                 try {
-                                    body.execute(frame);
+                                    body.executeVoid(frame);
                                 } catch (ContinueException ce) { }
                                 if (i == to) {
                                     break;
@@ -370,7 +385,7 @@ public abstract class Loop extends BaseR {
                                 // TODO: this is super-inefficient
                                 RFrameHeader.writeToExtension(mframe, cvar, RInt.RIntFactory.getScalar(i));
                                 try {
-                                    body.execute(frame);
+                                    body.executeVoid(frame);
                                 } catch (ContinueException ce) { }
                                 if (i == to) {
                                     break;
@@ -412,7 +427,7 @@ public abstract class Loop extends BaseR {
                                 RAny vvalue = arange instanceof RList ? ((RList) arange).getRAny(i) : arange.boxedGet(i);
                                 RFrameHeader.writeToTopLevelRef(cvar, vvalue); // FIXME: ref is only needed if the value is a list
                                 try {
-                                    body.execute(frame);
+                                    body.executeVoid(frame);
                                 } catch (ContinueException ce) { }
                             }
                         } catch (BreakException be) { }
@@ -435,7 +450,7 @@ public abstract class Loop extends BaseR {
                                 RAny vvalue = arange.boxedGet(i);
                                 RFrameHeader.writeAtRef(frame, slot, vvalue);
                                 try {
-                                    body.execute(frame);
+                                    body.executeVoid(frame);
                                 } catch (ContinueException ce) { }
                             }
                         } catch (BreakException be) { }
@@ -459,7 +474,7 @@ public abstract class Loop extends BaseR {
                                 RAny vvalue = arange.boxedGet(i);
                                 RFrameHeader.writeToExtension(mframe, cvar, vvalue); // TODO: this is inefficient
                                 try {
-                                    body.execute(frame);
+                                    body.executeVoid(frame);
                                 } catch (ContinueException ce) { }
                             }
                         } catch (BreakException be) { }
@@ -46,6 +46,10 @@ public abstract class MatchCallable extends BaseR {
     public static MatchCallable getUninitialized(ASTNode ast, RSymbol sym) {
         return new MatchCallable(ast, sym) {
 
+            @Override public boolean isUninitialized() {
+                return true;
+            }
+
             private Object replaceAndExecute(MatchCallable node, String reason, Frame frame) {
                 replace(node, reason);
                 return node.execute(frame);
@@ -27,6 +27,14 @@ public abstract class MatrixOperation extends BaseR {
     public Object execute(Frame frame) {
         RAny l = (RAny) left.execute(frame);
         RAny r = (RAny) right.execute(frame);
+        if (MemoryTrace.active) {
+            ASTNode previous = MemoryTrace.enterSite(ast);
+            try {
+                return execute(l, r);
+            } finally {
+                MemoryTrace.exitSite(previous);
+            }
+        }
         return execute(l, r);
     }
 
@@ -23,6 +23,10 @@ public abstract class RNode extends Node {
         return RValueConversion.expectScalarInteger((RAny) execute(frame));
     }
 
+    public double executeScalarDouble(Frame frame) throws UnexpectedResultException {
+        return RValueConversion.expectScalarDouble((RAny) execute(frame));
+    }
+
     public int executeScalarNonNALogical(Frame frame) throws UnexpectedResultException {
         return RValueConversion.expectScalarNonNALogical((RAny) execute(frame));
     }
@@ -63,4 +67,28 @@ public abstract class RNode extends Node {
         return replace(newNode).execute(frame);
     }
 
+    /**
+     * Whether this node is replaced when it is first executed, because it is being built (LazyBuild) or does not know yet
+     * the values it will see. RewriteTrace does not count that replace as a rewrite.
+     */
+    public boolean isUninitialized() {
+        return false;
+    }
+
+    @Override protected void onReplace(Node newNode, String reason) {
+        if (RewriteTrace.active && !isUninitialized() && !(this instanceof PushbackNode) && !(newNode instanceof PushbackNode)) {
+            RewriteTrace.replaced(site(), this, newNode, reason);
+        }
+    }
+
+    // the AST of this node or else of the nearest ancestor that has one, for reporting
+    private ASTNode site() {
+        for (Node n = this; n != null; n = n.getParent()) {
+            if (n instanceof BaseR && ((BaseR) n).ast != null) {
+                return ((BaseR) n).ast;
+            }
+        }
+        return null;
+    }
+
 }
@@ -7,6 +7,7 @@ import r.*;
 import r.builtins.*;
 import r.data.*;
 import r.data.RFunction.EnclosingSlot;
+import r.data.internal.*;
 import r.errors.*;
 import r.nodes.*;
 
@@ -43,6 +44,11 @@ public abstract class ReadVariable extends BaseR {
 
         return new ReadVariable(orig, sym) {
 
+            @Override
+            public boolean isUninitialized() {
+                return true;
+            }
+
             @Override
             public final Object execute(Frame frame) {
 
@@ -91,6 +97,48 @@ public abstract class ReadVariable extends BaseR {
                     return replace(getReadLocal(ast, symbol, slot)).execute(frame);
                 }
             }
+
+            // the typed reads avoid boxing a local scalar kept unboxed (see LocalScalar), other values are boxed and
+            // returned with the exception
+
+            @Override
+            public double executeScalarDouble(Frame frame) throws UnexpectedResultException {
+                Object value = Utils.frameGetRaw(frame, slot);
+                if (value instanceof LocalScalar.OfDouble) {
+                    return ((LocalScalar.OfDouble) value).get();
+                }
+                value = RPromise.force(value);
+                if (value instanceof ScalarDoubleImpl) {
+                    return ((ScalarDoubleImpl) value).getDouble();
+                }
+                throw new UnexpectedResultException(execute(frame));
+            }
+
+            @Override
+            public int executeScalarInteger(Frame frame) throws UnexpectedResultException {
+                Object value = Utils.frameGetRaw(frame, slot);
+                if (value instanceof LocalScalar.OfInt) {
+                    return ((LocalScalar.OfInt) value).get();
+                }
+                value = RPromise.force(value);
+                if (value instanceof ScalarIntImpl) {
+                    return ((ScalarIntImpl) value).getInt();
+                }
+                throw new UnexpectedResultException(execute(frame));
+            }
+
+            @Override
+            public int executeScalarLogical(Frame frame) throws UnexpectedResultException {
+                Object value = Utils.frameGetRaw(frame, slot);
+                if (value instanceof LocalScalar.OfLogical) {
+                    return ((LocalScalar.OfLogical) value).get();
+                }
+                value = RPromise.force(value);
+                if (value instanceof ScalarLogicalImpl) {
+                    return ((ScalarLogicalImpl) value).getLogical();
+                }
+                throw new UnexpectedResultException(execute(frame));
+            }
         };
     }
 
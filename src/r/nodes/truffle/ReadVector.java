@@ -227,11 +227,34 @@ public abstract class ReadVector extends BaseR {
             super(ast, lhs, indexes, subset);
         }
 
+        // the element is returned unboxed, other cases take the boxed path (which rewrites)
+        final double select(RAny vector, int i, RAny boxedIndex) throws UnexpectedResultException {
+            if (vector instanceof DoubleImpl) {
+                DoubleImpl dbase = (DoubleImpl) vector;
+                double[] base = dbase.getContent();
+                if (i >= 0 && i < base.length && dbase.names() == null) {
+                    return base[i];
+                }
+            }
+            return RValueConversion.expectScalarDouble(execute(boxedIndex, vector));
+        }
+
         public static class ScalarIntSelection extends DoubleBaseSimpleSelection {
             public ScalarIntSelection(ASTNode ast, RNode lhs, RNode[] indexes, boolean subset) {
                 super(ast, lhs, indexes, subset);
             }
 
+            @Override public double executeScalarDouble(Frame frame) throws UnexpectedResultException {
+                RAny vector = (RAny) lhs.execute(frame);
+                int i;
+                try {
+                    i = indexes[0].executeScalarInteger(frame);
+                } catch (UnexpectedResultException e) {
+                    return RValueConversion.expectScalarDouble(execute((RAny) e.getResult(), vector));
+                }
+                return select(vector, i - 1, RInt.RIntFactory.getScalar(i));
+            }
+
             @Override public RAny execute(RAny index, RAny vector) {
                 try {
                     if (!(index instanceof ScalarIntImpl)) { throw new UnexpectedResultException(null); }
@@ -255,6 +278,17 @@ public abstract class ReadVector extends BaseR {
                 super(ast, lhs, indexes, subset);
             }
 
+            @Override public double executeScalarDouble(Frame frame) throws UnexpectedResultException {
+                RAny vector = (RAny) lhs.execute(frame);
+                double d;
+                try {
+                    d = indexes[0].executeScalarDouble(frame);
+                } catch (UnexpectedResultException e) {
+                    return RValueConversion.expectScalarDouble(execute((RAny) e.getResult(), vector));
+                }
+                return select(vector, Convert.double2int(d) - 1, RDouble.RDoubleFactory.getScalar(d));
+            }
+
             @Override public RAny execute(RAny index, RAny vector) {
                 try {
                     if (!(index instanceof ScalarDoubleImpl)) { throw new UnexpectedResultException(null); }
@@ -577,6 +611,14 @@ public abstract class ReadVector extends BaseR {
                 if (!sindex.isPositive()) { throw new UnexpectedResultException(Failure.NOT_ALL_POSITIVE_INDEX); }
                 int size = abase.size();
                 if (sindex.max() > size) { throw new UnexpectedResultException(Failure.INDEX_OUT_OF_BOUNDS); }
+                // compact vectors stay compact
+                if (abase instanceof IntImpl.RIntSequence) {
+                    RInt ibase = (RInt) abase;
+                    return RInt.RIntFactory.forSequence(ibase.getInt(sindex.from() - 1), ibase.getInt(sindex.to() - 1), ((IntImpl.RIntSequence) abase).step() * sindex.step());
+                }
+                if (abase instanceof DoubleImpl.RDoubleConstant) { return RDouble.RDoubleFactory.getConstant(((DoubleImpl.RDoubleConstant) abase).value(), sindex.size()); }
+                if (abase instanceof IntImpl.RIntConstant) { return RInt.RIntFactory.getConstant(((IntImpl.RIntConstant) abase).value(), sindex.size()); }
+                if (abase instanceof LogicalImpl.RLogicalConstant) { return RLogical.RLogicalFactory.getConstant(((LogicalImpl.RLogicalConstant) abase).value(), sindex.size()); }
                 // FIXME: should specialize for a particular base type, or have a type hierarchy on factories
                 if (abase instanceof RDouble) { return new RDoubleView((RDouble) abase, sindex.from(), sindex.to(), sindex.step()); }
                 if (abase instanceof RInt) { return new RIntView((RInt) abase, sindex.from(), sindex.to(), sindex.step()); }
@@ -1544,6 +1586,10 @@ public abstract class ReadVector extends BaseR {
                 super(parent, lhs, index);
             }
 
+            @Override public boolean isUninitialized() {
+                return true;
+            }
+
             @Override RAny execute(RAny base) {
                 try {
                     throw new UnexpectedResultException(null);
@@ -953,6 +953,11 @@ public abstract class Selector {
             return createSelectorNode(ast, subset, index, node, true, null);
         }
         return new SelectorNode(ast, node) {
+            @Override
+            public boolean isUninitialized() {
+                return true;
+            }
+
             @Override
             public Selector executeSelector(RAny index) {
                 try {
@@ -3,6 +3,7 @@ package r.nodes.truffle;
 import com.oracle.truffle.api.frame.*;
 import com.oracle.truffle.api.nodes.*;
 
+import r.data.*;
 import r.nodes.*;
 
 public class Sequence extends BaseR {
@@ -19,12 +20,22 @@ public class Sequence extends BaseR {
     @ExplodeLoop
     public final Object execute(Frame frame) {
 
-        Object res = null;
+        int last = exprs.length - 1;
+        for (int i = 0; i < last; i++) {
+            exprs[i].executeVoid(frame); // NOTE: the values are not kept, so that the GC can clean-up temporaries
+        }
+        return last >= 0 ? exprs[last].execute(frame) : null;
+    }
+
+    // statements whose value is not used are executed by executeVoid, so that e.g. typed assignments need not box the value
+
+    @Override
+    @ExplodeLoop
+    public final Object executeVoid(Frame frame) {
         for (RNode e : exprs) {
-            res = null; // NOTE: this line is important, it allows the GC to clean-up temporaries
-            res = e.execute(frame);
+            e.executeVoid(frame);
         }
-        return res;
+        return RNull.getNull();
     }
 
     public static class Sequence2 extends BaseR {
@@ -39,9 +50,16 @@ public class Sequence extends BaseR {
 
         @Override
         public final Object execute(Frame frame) {
-            child1.execute(frame);
+            child1.executeVoid(frame);
             return child2.execute(frame);
         }
+
+        @Override
+        public final Object executeVoid(Frame frame) {
+            child1.executeVoid(frame);
+            child2.executeVoid(frame);
+            return RNull.getNull();
+        }
     }
 
     public static class Sequence3 extends BaseR {
@@ -58,10 +76,18 @@ public class Sequence extends BaseR {
 
         @Override
         public final Object execute(Frame frame) {
-            child1.execute(frame);
-            child2.execute(frame);
+            child1.executeVoid(frame);
+            child2.executeVoid(frame);
             return child3.execute(frame);
         }
+
+        @Override
+        public final Object executeVoid(Frame frame) {
+            child1.executeVoid(frame);
+            child2.executeVoid(frame);
+            child3.executeVoid(frame);
+            return RNull.getNull();
+        }
     }
 
     public static class Sequence4 extends BaseR {
@@ -80,11 +106,20 @@ public class Sequence extends BaseR {
 
         @Override
         public final Object execute(Frame frame) {
-            child1.execute(frame);
-            child2.execute(frame);
-            child3.execute(frame);
+            child1.executeVoid(frame);
+            child2.executeVoid(frame);
+            child3.executeVoid(frame);
             return child4.execute(frame);
         }
+
+        @Override
+        public final Object executeVoid(Frame frame) {
+            child1.executeVoid(frame);
+            child2.executeVoid(frame);
+            child3.executeVoid(frame);
+            child4.executeVoid(frame);
+            return RNull.getNull();
+        }
     }
 
     public static class Sequence5 extends BaseR {
@@ -105,11 +140,21 @@ public class Sequence extends BaseR {
 
         @Override
         public final Object execute(Frame frame) {
-            child1.execute(frame);
-            child2.execute(frame);
-            child3.execute(frame);
-            child4.execute(frame);
+            child1.executeVoid(frame);
+            child2.executeVoid(frame);
+            child3.executeVoid(frame);
+            child4.executeVoid(frame);
             return child5.execute(frame);
         }
+
+        @Override
+        public final Object executeVoid(Frame frame) {
+            child1.executeVoid(frame);
+            child2.executeVoid(frame);
+            child3.executeVoid(frame);
+            child4.executeVoid(frame);
+            child5.executeVoid(frame);
+            return RNull.getNull();
+        }
     }
 }
@@ -22,6 +22,10 @@ public abstract class SuperWriteVariable extends BaseR {
     public static SuperWriteVariable getUninitialized(ASTNode orig, RSymbol sym, RNode rhs) {
         return new SuperWriteVariable(orig, sym, rhs) {
 
+            @Override public boolean isUninitialized() {
+                return true;
+            }
+
             private Object replaceAndExecute(RNode node, String reason, Frame frame) {
                 replace(node, reason);
                 return node.execute(frame);
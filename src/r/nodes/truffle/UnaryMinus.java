@@ -3,6 +3,7 @@ package r.nodes.truffle;
 import com.oracle.truffle.api.frame.*;
 import com.oracle.truffle.api.nodes.*;
 
+import r.*;
 import r.data.*;
 import r.data.internal.*;
 import r.errors.*;
@@ -169,6 +170,30 @@ public abstract class UnaryMinus extends BaseR {
                 this.dbg = dbg;
             }
 
+            // a scalar operand is negated unboxed (as by forDouble, forInt), other values take the boxed path
+
+            @Override
+            public double executeScalarDouble(Frame frame) throws UnexpectedResultException {
+                double d;
+                try {
+                    d = lhs.executeScalarDouble(frame);
+                } catch (UnexpectedResultException e) {
+                    return RValueConversion.expectScalarDouble(execute((RAny) e.getResult()));
+                }
+                return RDouble.RDoubleUtils.arithIsNA(d) ? RDouble.NA : -d;
+            }
+
+            @Override
+            public int executeScalarInteger(Frame frame) throws UnexpectedResultException {
+                int i;
+                try {
+                    i = lhs.executeScalarInteger(frame);
+                } catch (UnexpectedResultException e) {
+                    return RValueConversion.expectScalarInteger(execute((RAny) e.getResult()));
+                }
+                return -i; // NOTE: this also works for NA
+            }
+
             @Override
             public RAny execute(RAny value) {
                 try {
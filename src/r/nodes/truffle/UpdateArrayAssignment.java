@@ -94,6 +94,21 @@ public abstract class UpdateArrayAssignment extends BaseR {
         this.assignment = adoptChild(assignment);
     }
 
+    // executes the assignment, while tracing (see MemoryTrace) with this as the site and recording a copy of the lhs
+    protected final RAny assign(Frame frame, RAny lhsValue, RAny rhsValue) {
+        if (MemoryTrace.active) {
+            ASTNode previous = MemoryTrace.enterSite(ast);
+            try {
+                RAny newLhs = assignment.execute(frame, lhsValue, rhsValue);
+                MemoryTrace.copied(ast, lhsValue, newLhs);
+                return newLhs;
+            } finally {
+                MemoryTrace.exitSite(previous);
+            }
+        }
+        return assignment.execute(frame, lhsValue, rhsValue);
+    }
+
     // update with a local slot, rewrites once (if) that local slot contains a value
     protected static class LocalInitial extends UpdateArrayAssignment {
 
@@ -118,7 +133,7 @@ public abstract class UpdateArrayAssignment extends BaseR {
                 lhsValue.ref(); // reading from parent, hence need to copy on update
                 // ref once will make it shared unless it is stateless (like int sequence)
             }
-            RAny newLhs = assignment.execute(frame, lhsValue, rhsValue);
+            RAny newLhs = assign(frame, lhsValue, rhsValue);
             if (lhsValue != newLhs) {
                 RFrameHeader.writeAtRef(frame, varSlot, newLhs);
             }
@@ -156,7 +171,7 @@ public abstract class UpdateArrayAssignment extends BaseR {
                 return replace(rhs, rhsValue, new LocalGeneric(ast, varName, varSlot, rhs, assignment), frame);
             }
 
-            RAny newLhs = assignment.execute(frame, lhsValue, rhsValue);
+            RAny newLhs = assign(frame, lhsValue, rhsValue);
             if (lhsValue != newLhs) {
                 RFrameHeader.writeAtRef(frame, varSlot, newLhs);
             }
@@ -187,7 +202,7 @@ public abstract class UpdateArrayAssignment extends BaseR {
                 lhsValue.ref(); // reading from parent, hence need to copy on update
                 // ref once will make it shared unless it is stateless (like int sequence)
             }
-            RAny newLhs = assignment.execute(frame, lhsValue, rhsValue);
+            RAny newLhs = assign(frame, lhsValue, rhsValue);
             if (lhsValue != newLhs) {
                 RFrameHeader.writeAtRef(frame, varSlot, newLhs);
             }
@@ -208,7 +223,7 @@ public abstract class UpdateArrayAssignment extends BaseR {
             if (lhsValue == null) {
                 throw RError.getUnknownVariable(getAST(), varName);
             }
-            RAny newLhs = assignment.execute(frame, lhsValue, rhsValue);
+            RAny newLhs = assign(frame, lhsValue, rhsValue);
             if (lhsValue != newLhs) {
                 RFrameHeader.writeToTopLevelRef(varName, newLhs);
             }
@@ -231,7 +246,7 @@ public abstract class UpdateArrayAssignment extends BaseR {
             if (lhsValue == null) {
                 throw RError.getUnknownVariable(getAST(), varName);
             }
-            RAny newLhs = assignment.execute(frame, lhsValue, rhsVal);
+            RAny newLhs = assign(frame, lhsValue, rhsVal);
             if (lhsValue != newLhs) {
                 RFrameHeader.writeToTopLevelRef(varName, newLhs);
             }
@@ -256,7 +271,7 @@ public abstract class UpdateArrayAssignment extends BaseR {
                 throw RError.getUnknownVariable(ast, varName);
             }
             lhsValue.ref(); // TODO: this may ref unnecessarily, will copy every time invoked
-            RAny newLhs = assignment.execute(frame, lhsValue, rhsValue);
+            RAny newLhs = assign(frame, lhsValue, rhsValue);
             assert Utils.check(lhsValue != newLhs);
             RFrameHeader.writeToExtension(mframe, varName, newLhs);
             return rhsValue;
@@ -92,7 +92,7 @@ public abstract class UpdateVector extends BaseR {
             throw RError.getUnknownVariable(ast, var);
         }
         // NOTE: we don't ref here
-        newVector = execute(base, index, value);
+        newVector = update(base, index, value);
         assign.execute(frame); // FIXME: may ref unnecessarily
         return value;
     }
@@ -112,7 +112,7 @@ public abstract class UpdateVector extends BaseR {
             if (frameSlot != null) {
                 RAny base = Utils.cast(RFrameHeader.getObjectForcingPromises(frame, frameSlot));
                 if (base != null) {
-                    RAny newBase = execute(base, index, value);
+                    RAny newBase = update(base, index, value);
                     if (newBase != base) {
                         RFrameHeader.writeAtRef(frame, frameSlot, newBase);
                     }
@@ -121,7 +121,7 @@ public abstract class UpdateVector extends BaseR {
                     if (base == null) { throw RError.getUnknownVariable(getAST(), var); }
                     base.ref(); // reading from parent, hence need to copy on update
                     // ref once will make it shared unless it is stateless (like int sequence)
-                    RAny newBase = execute(base, index, value);
+                    RAny newBase = update(base, index, value);
                     // now typically base != newBase, but not always (an update may actually change nothing in the base vector)
                     RFrameHeader.writeAtRef(frame, frameSlot, newBase);
                 }
@@ -134,7 +134,7 @@ public abstract class UpdateVector extends BaseR {
                     throw RError.getUnknownVariable(getAST(), var);
                 }
                 base.ref(); // TODO: this may ref unnecessarily, will copy every time invoked
-                RAny newBase = execute(base, index, value);
+                RAny newBase = update(base, index, value);
                 assert Utils.check(base != newBase);
                 RFrameHeader.writeToExtension(mframe, var, newBase);
             }
@@ -142,7 +142,7 @@ public abstract class UpdateVector extends BaseR {
             // variable is top-level
             RAny base = Utils.cast(var.getValue());
             if (base == null) { throw RError.getUnknownVariable(getAST(), var); }
-            RAny newBase = execute(base, index, value);
+            RAny newBase = update(base, index, value);
             if (newBase != base) {
                 RFrameHeader.writeToTopLevelRef(var, newBase);
             }
@@ -150,6 +150,21 @@ public abstract class UpdateVector extends BaseR {
         return value;
     }
 
+    // executes the update, while tracing (see MemoryTrace) with this as the site and recording a copy of the base
+    private RAny update(RAny base, RAny index, RAny value) {
+        if (MemoryTrace.active) {
+            ASTNode previous = MemoryTrace.enterSite(ast);
+            try {
+                RAny newBase = execute(base, index, value);
+                MemoryTrace.copied(ast, base, newBase);
+                return newBase;
+            } finally {
+                MemoryTrace.exitSite(previous);
+            }
+        }
+        return execute(base, index, value);
+    }
+
     abstract RAny execute(RAny base, RAny index, RAny value);
 
     // FIXME: move these to some other file?
@@ -288,6 +303,10 @@ public abstract class UpdateVector extends BaseR {
             super(ast, isSuper, var, lhs, indexes, rhs, subset);
         }
 
+        @Override public boolean isUninitialized() {
+            return true;
+        }
+
         @Override public RAny execute(RAny base, RAny index, RAny value) {
             if (DEBUG_UP) Utils.debug("update - executing ScalarNumericSelection (uninitialized)");
 
@@ -683,6 +702,10 @@ public abstract class UpdateVector extends BaseR {
                 this.dbg = dbg;
             }
 
+            @Override public boolean isUninitialized() {
+                return false;
+            }
+
             @Override public RAny execute(RAny base, RAny index, RAny value) {
                 if (DEBUG_UP) Utils.debug("update - executing ScalarNumericSelection" + dbg);
                 try {
@@ -4,6 +4,7 @@ import com.oracle.truffle.api.nodes.*;
 
 import r.*;
 import r.data.*;
+import r.data.internal.*;
 import r.nodes.*;
 
 import com.oracle.truffle.api.frame.*;
@@ -17,6 +18,7 @@ public abstract class WriteVariable extends BaseR {
     @Child RNode expr;
 
     private static final boolean DEBUG_W = false;
+    private static final boolean UNBOXED_LOCALS = true; // keep local scalar doubles, integers and logicals unboxed, see LocalScalar
 
     private WriteVariable(ASTNode orig, RSymbol symbol, RNode expr) {
         super(orig);
@@ -31,6 +33,10 @@ public abstract class WriteVariable extends BaseR {
     public static WriteVariable getUninitialized(ASTNode orig, RSymbol sym, RNode rhs) {
         return new WriteVariable(orig, sym, rhs) {
 
+            @Override public boolean isUninitialized() {
+                return true;
+            }
+
             @Override public final Object execute(Frame frame) {
 
                 try {
@@ -63,6 +69,11 @@ public abstract class WriteVariable extends BaseR {
     }
 
     public static WriteVariable getWriteLocal(ASTNode orig, RSymbol sym, final FrameSlot slot, RNode rhs) {
+        return getWriteLocal(orig, sym, slot, rhs, UNBOXED_LOCALS);
+    }
+
+    // with unbox, rewrites to a typed write when a scalar double, integer or logical is written
+    private static WriteVariable getWriteLocal(ASTNode orig, RSymbol sym, final FrameSlot slot, RNode rhs, final boolean unbox) {
         return new WriteVariable(orig, sym, rhs) {
 
             @Override public final Object execute(Frame frame) {
@@ -71,11 +82,133 @@ public abstract class WriteVariable extends BaseR {
                 if (DEBUG_W) {
                     Utils.debug("write - " + symbol.pretty() + " local-ws, wrote " + val + " (" + val.pretty() + ") to slot " + slot);
                 }
+                if (unbox) {
+                    if (val instanceof ScalarDoubleImpl) {
+                        replace(getWriteLocalDouble(ast, symbol, slot, expr), "installWriteLocalDoubleNode");
+                    } else if (val instanceof ScalarIntImpl) {
+                        replace(getWriteLocalInt(ast, symbol, slot, expr), "installWriteLocalIntNode");
+                    } else if (val instanceof ScalarLogicalImpl) {
+                        replace(getWriteLocalLogical(ast, symbol, slot, expr), "installWriteLocalLogicalNode");
+                    }
+                }
                 return val;
             }
         };
     }
 
+    // The typed local writes keep the value unboxed in the slot (see LocalScalar), updating the holder in place. The value
+    // is only boxed when the result of the assignment is used. When the right-hand side yields anything else, the write
+    // becomes generic for good, so that a variable that changes type does not keep rewriting.
+
+    Object writeGeneric(Frame frame, FrameSlot slot, Object value) {
+        replace(getWriteLocal(ast, symbol, slot, expr, false), "installWriteLocalNode from typed write");
+        RAny val = Utils.cast(value);
+        RFrameHeader.writeAtCondRef(frame, slot, val);
+        return val;
+    }
+
+    private static WriteVariable getWriteLocalDouble(ASTNode orig, RSymbol sym, final FrameSlot slot, RNode rhs) {
+        return new WriteVariable(orig, sym, rhs) {
+
+            @Override public final Object execute(Frame frame) {
+                try {
+                    return write(frame, expr.executeScalarDouble(frame)).box();
+                } catch (UnexpectedResultException e) {
+                    return writeGeneric(frame, slot, e.getResult());
+                }
+            }
+
+            @Override public final Object executeVoid(Frame frame) {
+                try {
+                    write(frame, expr.executeScalarDouble(frame));
+                } catch (UnexpectedResultException e) {
+                    writeGeneric(frame, slot, e.getResult());
+                }
+                return RNull.getNull();
+            }
+
+            private LocalScalar write(Frame frame, double value) {
+                Object old = Utils.frameGetRaw(frame, slot);
+                if (old instanceof LocalScalar.OfDouble) {
+                    LocalScalar.OfDouble h = (LocalScalar.OfDouble) old;
+                    h.set(value);
+                    return h;
+                }
+                LocalScalar h = new LocalScalar.OfDouble(value);
+                RFrameHeader.writeAtLocalScalar(frame, slot, h);
+                return h;
+            }
+        };
+    }
+
+    private static WriteVariable getWriteLocalInt(ASTNode orig, RSymbol sym, final FrameSlot slot, RNode rhs) {
+        return new WriteVariable(orig, sym, rhs) {
+
+            @Override public final Object execute(Frame frame) {
+                try {
+                    return write(frame, expr.executeScalarInteger(frame)).box();
+                } catch (UnexpectedResultException e) {
+                    return writeGeneric(frame, slot, e.getResult());
+                }
+            }
+
+            @Override public final Object executeVoid(Frame frame) {
+                try {
+                    write(frame, expr.executeScalarInteger(frame));
+                } catch (UnexpectedResultException e) {
+                    writeGeneric(frame, slot, e.getResult());
+                }
+                return RNull.getNull();
+            }
+
+            private LocalScalar write(Frame frame, int value) {
+                Object old = Utils.frameGetRaw(frame, slot);
+                if (old instanceof LocalScalar.OfInt) {
+                    LocalScalar.OfInt h = (LocalScalar.OfInt) old;
+                    h.set(value);
+                    return h;
+                }
+                LocalScalar h = new LocalScalar.OfInt(value);
+                RFrameHeader.writeAtLocalScalar(frame, slot, h);
+                return h;
+            }
+        };
+    }
+
+    private static WriteVariable getWriteLocalLogical(ASTNode orig, RSymbol sym, final FrameSlot slot, RNode rhs) {
+        return new WriteVariable(orig, sym, rhs) {
+
+            @Override public final Object execute(Frame frame) {
+                try {
+                    return write(frame, expr.executeScalarLogical(frame)).box();
+                } catch (UnexpectedResultException e) {
+                    return writeGeneric(frame, slot, e.getResult());
+                }
+            }
+
+            @Override public final Object executeVoid(Frame frame) {
+                try {
+                    write(frame, expr.executeScalarLogical(frame));
+                } catch (UnexpectedResultException e) {
+                    writeGeneric(frame, slot, e.getResult());
+                }
+                return RNull.getNull();
+            }
+
+            private LocalScalar write(Frame frame, int value) {
+                Object old = Utils.frameGetRaw(frame, slot);
+                if (old instanceof LocalScalar.OfLogical) {
+                    LocalScalar.OfLogical h = (LocalScalar.OfLogical) old;
+                    h.set(value);
+                    return h;
+                }
+                LocalScalar h = new LocalScalar.OfLogical(value);
+                RFrameHeader.writeAtLocalScalar(frame, slot, h);
+                return h;
+            }
+        };
+    }
+
     public static WriteVariable getWriteTopLevel(ASTNode orig, RSymbol sym, RNode rhs) {
         return new WriteVariable(orig, sym, rhs) {
 
@@ -164,6 +164,16 @@ public class TestSimpleArithmetic extends SimpleTestBase {
         assertEval("{ f <- function(b) { b + 1 } ; f(1L) ; f(TRUE) }", "2.0");
         assertEval("{ f <- function(b) { b + FALSE } ; f(1L) ; f(2) }", "2.0");
         assertEval("{ (0+2i)^0 }", "1.0+2.0i");
+
+        // typed (unboxed) scalar expressions
+        assertEval("{ f <- function(x, y, z) { s <- 0 ; for(i in 1:3) { for(j in 1:2) { s <- s + (x[i] - y[j])^2 + z } } ; s } ; f(c(1,2,3), c(0.5,1.5), 1) }", "17.5");
+        assertEval("{ f <- function(x) { s <- 0 ; for(i in 1:3) { s <- s + x[i] } ; s } ; f(c(1,2,3)) ; f(c(a=1,b=2,c=3)) }", "  a\n6.0");
+        assertEval("{ f <- function(x) { s <- 0 ; for(i in 1:3) { s <- s + x[i] } ; s } ; f(c(1,2,3)) ; f(1:3) }", "6.0");
+        assertEval("{ f <- function(x) { s <- 0 ; for(i in 1:3) { s <- s + x[i] } ; s } ; f(c(1,2,3)) ; f(c(1,NA,3)) }", "NA");
+        assertEval("{ f <- function(x) { s <- 0L ; for(i in 1:3) { s <- s + x[[i]] * 2L } ; s } ; f(1:3) ; f(c(1,2,3)) }", "12.0");
+        assertEval("{ f <- function(x) { s <- 0 ; for(i in 1:3) { s <- s - -x[i] } ; s } ; f(c(1,2,3)) ; f(1:3) }", "6.0");
+        assertEval("{ f <- function(x) { n <- 0L ; for(i in 1:4) { if (x[i] > 2) { n <- n + 1L } } ; n } ; f(c(1,3,5,2)) ; f(c(3L,3L,1L,4L)) }", "3L");
+        assertEval("{ f <- function(x) { i <- 0 ; while(i < x) { i <- i + 1 } ; i } ; f(3) ; f(2L) }", "2.0");
     }
 
     @Test
@@ -259,6 +269,9 @@ public class TestSimpleArithmetic extends SimpleTestBase {
         assertEval("{ 3L %/% 2L }", "1L");
         assertEval("{ 3L %/% 0L }", "NA");
 
+        assertEval("{ a <- 1:600 + 0.5 ; x <- (a * 2 - c(1,2,3)) / 2 + sqrt(a*a) - floor(a/7) ; x[1] <- 0 ; c(sum(x), x[600]) }", "335097.5, 1114.5");
+        assertEval("{ a <- c(1,NA,3,4) ; x <- 2 - a * c(2,3) + a / 2 ; x[1] <- 0 ; x }", "0.0, NA, -2.5, -8.0");
+
         assertEvalError("{ m <- matrix(nrow=2, ncol=2, 1:4) ; m + 1:16 }", "dims [product 4] do not match the length of object [16]");
     }
 
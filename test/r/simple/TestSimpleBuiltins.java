@@ -48,6 +48,8 @@ public class TestSimpleBuiltins extends SimpleTestBase {
         assertEval("{ seq(along=c(10,11,12)) }", "1L, 2L, 3L"); // test partial name match
         assertEval("{ seq(1L,4L,2L) }", "1L, 3L");
         assertEval("{ seq(1,-4,-2) }", "1.0, -1.0, -3.0");
+        assertEval("{ x <- seq(0, 1, by=1e-4) ; c(length(x), x[5001], x[10001]) }", "10001.0, 0.5, 1.0");
+        assertEval("{ seq(0, 1, by=0.25)[2:3] + 1 }", "1.25, 1.5");
     }
 
     @Test
@@ -93,6 +95,10 @@ public class TestSimpleBuiltins extends SimpleTestBase {
         assertEval("{ rep(1:3, length.out=4) }", "1L, 2L, 3L, 1L");
         assertEval("{ rep(1:3, length.out=NA) }", "1L, 2L, 3L");
         assertEval("{ rep(as.raw(14), 4) }", "0e, 0e, 0e, 0e");
+        assertEval("{ x <- rep(0, 4) ; x[2] <- 3 ; x }", "0.0, 3.0, 0.0, 0.0");
+        assertEval("{ x <- rep(c(1,2), 3) ; c(x[3:5], sum(x), length(x)) }", "1.0, 2.0, 1.0, 9.0, 6.0");
+        assertEval("{ rep(2, 6)[2:4] * rep(c(1,3), 3)[1:3] }", "2.0, 6.0, 2.0");
+        assertEval("{ rep(TRUE, 3)[2:3] }", "TRUE, TRUE");
 
         assertEval("{ x <- as.raw(11) ; names(x) <- c(\"X\") ; rep(x, 3) }", " X  X  X\n0b 0b 0b");
         assertEval("{ x <- as.raw(c(11,12)) ; names(x) <- c(\"X\",\"Y\") ; rep(x, 2) }", " X  Y  X  Y\n0b 0c 0b 0c");
@@ -233,6 +239,12 @@ public class TestSimpleBuiltins extends SimpleTestBase {
         assertEval("{ sum(0, 1[3], na.rm=TRUE) }", "0.0");
         assertEval("{ `sum`(1:10) }", "55L");
         assertEval("{ sum(1+1i,2,NA, na.rm=TRUE) }", "3.0+1.0i");
+        assertEval("{ sum(rev(1:100)) }", "5050L");
+        assertEval("{ sum(rep(2L, 5)) }", "10L");
+        assertEval("{ sum(rep(0.5, 1000)) }", "500.0");
+        assertEval("{ sum(rep(TRUE, 4)) }", "4L");
+        assertEval("{ sum(rep(NA, 3), na.rm=TRUE) }", "0L");
+        assertEval("{ sum(rep(as.double(NA), 3)) }", "NA");
     }
 
     @Test
@@ -250,6 +262,14 @@ public class TestSimpleBuiltins extends SimpleTestBase {
         assertEval("{ sapply(1:3, function(x) { if (x==1) { list(1) } else if (x==2) { list(NULL) } else { list() } }) }", "[[1]]\n[[1]][[1]]\n1.0\n\n[[2]]\n[[2]][[1]]\nNULL\n\n[[3]]\nlist()");
         assertEval("{ f<-function() { x<-2 ; sapply(1, function(i) { x }) } ; f() }", "2.0");
 
+        // parallel mode
+        assertEval("{ lapply(1:3, function(x,y) { x*y }, 2, mc.cores=2) }", "[[1]]\n2.0\n\n[[2]]\n4.0\n\n[[3]]\n6.0");
+        assertEval("{ f <- function(x) { s <- 0 ; for (i in 1:x) { s <- s + i } ; s } ; identical(sapply(1:200, f, mc.cores=4), sapply(1:200, f)) }", "TRUE");
+        assertEval("{ sapply(c(a=1,b=2,c=3), function(x) { c(x, 2*x) }, mc.cores=3) }", "     [,1] [,2] [,3]\n[1,]  1.0  2.0  3.0\n[2,]  2.0  4.0  6.0");
+        assertEval("{ f<-function() { x<-2 ; sapply(1:5, function(i) { x * i }, mc.cores=8) } ; f() }", "2.0, 4.0, 6.0, 8.0, 10.0");
+        assertEvalError("{ lapply(1:10, function(i) { if (i == 7) stop(\"boom\") else i }, mc.cores=4) }", "boom");
+        assertEvalError("{ lapply(1:3, function(i) i, mc.cores=0) }", "invalid 'mc.cores' argument");
+
         assertEval("{ sapply(1:3, length) }", "1L, 1L, 1L");
         assertEval("{ f<-length; sapply(1:3, f) }", "1L, 1L, 1L");
         assertEval("{ sapply(1:3, `-`, 2) }", "-1.0, 0.0, 1.0");
@@ -427,6 +447,8 @@ public class TestSimpleBuiltins extends SimpleTestBase {
         assertEval("{ which(c(TRUE, FALSE, NA, TRUE)) }", "1L, 4L");
         assertEval("{ which(logical()) }", "integer(0)");
         assertEval("{ which(c(a=TRUE,b=FALSE,c=TRUE)) }", " a  c\n1L 3L");
+        assertEval("{ which(rep(TRUE, 3)) }", "1L, 2L, 3L");
+        assertEval("{ which(rep(FALSE, 3)) }", "integer(0)");
     }
 
     @Test
@@ -467,6 +489,8 @@ public class TestSimpleBuiltins extends SimpleTestBase {
         assertEval("{ nchar(c(\"hello\", \"hi\")) }", "5L, 2L");
         assertEval("{ nchar(c(\"hello\", \"hi\", 10, 130)) }", "5L, 2L, 4L, 5L"); // incompatible with R because of different number printing
         assertEval("{ nchar(c(10,130)) }", "4L, 5L"); // incompatible with R because of different number printing
+        assertEval("{ x <- paste(\"ab\", c(1,22,NA)) ; nchar(x) }", "6L, 7L, 5L"); // incompatible with R because of different number printing
+        assertEval("{ nchar(c(\"a\", NA, \"bcd\")) }", "1L, NA, 3L");
     }
 
     @Test
@@ -477,6 +501,12 @@ public class TestSimpleBuiltins extends SimpleTestBase {
         assertEval("{ strsplit(\"helloh\", \"h\") }", "[[1]]\n\"\", \"ello\"");
         assertEval("{ strsplit( c(\"helloh\", \"hi\"), c(\"h\",\"\")) }", "[[1]]\n\"\", \"ello\"\n\n[[2]]\n\"h\", \"i\"");
         assertEval("{ strsplit(\"ahoj\", split=\"\") [[c(1,2)]] }", "\"h\"");
+        assertEval("{ strsplit(c(\"a,b\", \"a;b\", \"c,d\"), c(\",\", \";\")) }", "[[1]]\n\"a\", \"b\"\n\n[[2]]\n\"a\", \"b\"\n\n[[3]]\n\"c\", \"d\"");
+        assertEval("{ strsplit(c(\"a1b\", \"a;b\", \"c2d\"), c(\"[0-9]\", \";\")) }", "[[1]]\n\"a\", \"b\"\n\n[[2]]\n\"a\", \"b\"\n\n[[3]]\n\"c\", \"d\"");
+        assertEval("{ strsplit(\"a::b::c\", \"::\") }", "[[1]]\n\"a\", \"b\", \"c\"");
+        assertEval("{ options(internStrings=TRUE) ; x <- strsplit(c(\"a,b\", \"b,a\"), \",\") ; y <- strsplit(\"ab\", \"\") ; options(internStrings=FALSE) ; c(x[[1]] == rev(x[[2]]), y[[1]] == x[[1]]) }", "TRUE, TRUE, TRUE, TRUE");
+        assertEval("{ strsplit(c(\"a,b\", NA, \"\u20ac,d\"), \",\", fixed=TRUE) }", "[[1]]\n\"a\", \"b\"\n\n[[2]]\nNA\n\n[[3]]\n\"\u20ac\", \"d\"");
+        assertEval("{ x <- strsplit(\"a b c\", \" \")[[1]] ; x[2] <- \"z\" ; c(x, toupper(x), nchar(x)) }", "\"a\", \"z\", \"c\", \"A\", \"Z\", \"C\", \"1L\", \"1L\", \"1L\"");
     }
 
     @Test
@@ -486,6 +516,15 @@ public class TestSimpleBuiltins extends SimpleTestBase {
         assertEval("{ paste() }", "character(0)");
         assertEval("{ paste(sep=\"\") }", "character(0)");
         assertEval("{ a <- as.raw(200) ; b <- as.raw(255) ; paste(a, b) }", "\"c8 ff\"");
+        assertEval("{ paste(c(\"x\",NA), c(\"a\",\"b\",\"c\",\"d\"), sep=\"_\") }", "\"x_a\", \"NA_b\", \"x_c\", \"NA_d\"");
+        assertEval("{ paste(\"a\", character(0), \"b\") }", "\"a  b\"");
+        assertEval("{ paste(character(0), collapse=\"+\") }", "\"\"");
+        assertEval("{ paste(\"id\", c(\"a\",\"b\",\"c\"), \"x\", c(\"p\",\"q\"), sep=\"-\") }", "\"id-a-x-p\", \"id-b-x-q\", \"id-c-x-p\"");
+        assertEval("{ paste(c(\"a\",\"b\",\"c\"), collapse=\"\") }", "\"abc\"");
+        assertEval("{ paste(\"a\", \"b\", collapse=\",\") }", "\"a b\"");
+        assertEval("{ x <- c(\"a\",\"b\") ; y <- paste(x) ; y[1] <- \"z\" ; x }", "\"a\", \"b\"");
+        assertEval("{ x <- paste(c(\"a\", \"\u20ac\"), c(\"1\", \"2\"), sep=\"\") ; c(x, nchar(x)) }", "\"a1\", \"\u20ac2\", \"2L\", \"2L\"");
+        assertEval("{ x <- paste(\"a\", c(\"1\", \"2\", \"3\"), sep=\"\") ; x[2] <- \"b\" ; x }", "\"a1\", \"b\", \"a3\"");
 
         assertEval("{ file.path(\"a\", \"b\", c(\"d\",\"e\",\"f\")) }", "\"a/b/d\", \"a/b/e\", \"a/b/f\"");
         assertEval("{ file.path() }", "character(0)");
@@ -498,6 +537,9 @@ public class TestSimpleBuiltins extends SimpleTestBase {
         assertEval("{ substr(\"123456\", start=2.8, stop=4) }", "\"234\"");
         assertEval("{ substr(c(\"hello\", \"bye\"), start=c(1,2,3), stop=4) }", "\"hell\", \"ye\"");
         assertEval("{ substr(\"fastr\", start=NA, stop=2) }", "NA");
+        assertEval("{ x <- paste(\"x\", c(\"hello\", \"bye\", NA), sep=\"\") ; substr(x, 2, 4) }", "\"hel\", \"bye\", \"NA\"");
+        assertEval("{ substr(c(\"hello\", NA), 0, 2) }", "\"he\", NA");
+        assertEval("{ substr(c(\"abc\", \"de\"), 3, 2) }", "\"\", \"\"");
 
         assertEval("{ substring(\"123456\", first=2, last=4) }", "\"234\"");
         assertEval("{ substring(\"123456\", first=2.8, last=4) }", "\"234\"");
@@ -522,6 +564,15 @@ public class TestSimpleBuiltins extends SimpleTestBase {
         assertEval("{ order(c(1,2,3,NA), na.last=FALSE, decreasing=TRUE) }", "4L, 3L, 2L, 1L");
         assertEval("{ order(c(0/0, -1/0, 2)) }", "2L, 3L, 1L");
         assertEval("{ order(c(0/0, -1/0, 2), na.last=NA) }", "2L, 3L");
+        assertEval("{ order(c(1,1,2,2), c(NA,1,NA,1)) }", "2L, 1L, 4L, 3L");
+        assertEval("{ order(c(1,1,2,2), c(NA,1,NA,1), na.last=NA) }", "2L, 4L");
+        assertEval("{ order(c(1,1,1), c(2,2,2)) }", "1L, 2L, 3L");
+        assertEval("{ order(c(3L,NA,1L,NA,2L), na.last=FALSE) }", "2L, 4L, 3L, 5L, 1L");
+        assertEval("{ order(c(TRUE,NA,FALSE,TRUE), decreasing=TRUE) }", "1L, 4L, 3L, 2L");
+        assertEval("{ order(c(-1000000000L, 2000000000L, 0L, 2000000000L), decreasing=TRUE) }", "2L, 4L, 3L, 1L");
+        assertEval("{ order(c(\"b\",\"a\",NA,\"c\",\"a\"), decreasing=TRUE) }", "4L, 1L, 2L, 5L, 3L");
+        assertEval("{ x <- ((1:1000) * 7919) %% 101 / 7 ; o <- order(x) ; y <- x[o] ; all(y[-1] > y[-1000] | (y[-1] == y[-1000] & o[-1] > o[-1000])) }", "TRUE");
+        assertEval("{ x <- ((1:1000) * 7919L) %% 100003L ; o <- order(x, decreasing=TRUE) ; y <- x[o] ; all(y[-1] < y[-1000]) }", "TRUE");
 
         // set GNU-R locale to C - Sys.setlocale("LC_COLLATE", "C")
         assertEval("{ order(c(\"a\",\"z\",\"Z\",\"xxxz\",\"zza\",\"b\")) }", "3L, 1L, 6L, 4L, 2L, 5L");
@@ -552,6 +603,13 @@ public class TestSimpleBuiltins extends SimpleTestBase {
         assertEval("{ exp(-abs((0+1i)/(0+0i))) }", "0.0");
         assertEval("{ floor(c(0.2,-3.4)) }", "0.0, -4.0");
         assertEval("{ ceiling(c(0.2,-3.4,NA,0/0,1/0)) }", "1.0, -3.0, NA, NaN, Infinity");
+
+        // scalar math in typed (unboxed) expressions
+        assertEval("{ f <- function(n) { s <- 0 ; for(i in 1:n) { s <- s + sqrt(i * i) - abs(-i) + floor(i / 2) } ; s } ; f(5) }", "6.0");
+        assertEval("{ f <- function(x) { s <- 0 ; for(i in 1:2) { s <- s + sqrt(x) } ; s } ; f(4) ; f(c(a=1)) }", "  a\n2.0");
+        assertEval("{ f <- function(x) { s <- 0 ; for(i in 1:2) { s <- s + exp(x) } ; s } ; f(0) ; f(NA) }", "NA");
+        assertEval("{ f <- function(x) { s <- 0 ; for(i in 1:2) { s <- s + abs(x) } ; s } ; f(-1) ; f(-2L) }", "4.0");
+        assertEval("{ f <- function() { s <- 0 ; for(i in 1:2) { s <- s + sqrt(i) } ; s } ; f() ; sqrt <- function(x) 10 ; f() }", "20.0");
     }
 
     @Test
@@ -565,6 +623,8 @@ public class TestSimpleBuiltins extends SimpleTestBase {
         assertEval("{ m <- matrix(\"hi\") ; toupper(m) }", "     [,1]\n[1,] \"HI\"");
         assertEval("{ toupper(c(a=\"hi\", \"hello\")) }", "   a        \n\"HI\" \"HELLO\"");
         assertEval("{ tolower(c(a=\"HI\", \"HELlo\")) }", "   a        \n\"hi\" \"hello\"");
+        assertEval("{ x <- paste(\"Ab\", c(\"c\", NA)) ; c(toupper(x), tolower(x)) }", "\"AB C\", \"AB NA\", \"ab c\", \"ab na\"");
+        assertEval("{ x <- paste(\"a\", c(\"\u00df\", \"\u00ff\")) ; toupper(x) }", "\"A SS\", \"A \u0178\"");
     }
 
     @Test
@@ -591,12 +651,19 @@ public class TestSimpleBuiltins extends SimpleTestBase {
         assertEval("{ gsub(\"h\",\"\", c(\"hello\", \"hi\", \"bye\") }", "\"ello\", \"i\", \"bye\"");
 
         assertEval("{ gsub(\"([a-e])\",\"\\\\1\\\\1\", \"prague alley\") }", "\"praaguee aalleey\"");
+        assertEval("{ gsub(\"ll\", \"$\", c(\"alley\", \"hello hello\")) }", "\"a$ey\", \"he$o he$o\"");
+        assertEval("{ f <- function(p) sub(p, \"_\", \"a.b.c\") ; c(f(\".\"), f(\"b\"), f(\".\")) }", "\"_.b.c\", \"a._.c\", \"_.b.c\"");
     }
 
     @Test
     public void testRegExpr() throws RecognitionException {
         assertEval("gregexpr(\"(a)[^a]\\\\1\", c(\"andrea apart\", \"amadeus\", NA))", "[[1]]\n6L\n\n[[2]]\n1L\n\n[[3]]\nNA"); // NOTE: this is without attributes
         assertEval("regexpr(\"(a)[^a]\\\\1\", c(\"andrea apart\", \"amadeus\", NA))", "6L, 1L, NA"); // NOTE: this is without attributes
+        assertEval("{ regexpr(\"a.\", c(\"banana\", \"a.b\", NA, \"x\"), fixed=TRUE) }", "-1L, 1L, NA, -1L");
+        assertEval("{ regexpr(\"an\", c(\"banana\", \"xyz\")) }", "2L, -1L");
+        assertEval("{ gregexpr(\"an\", c(\"banana\", \"xyz\")) }", "[[1]]\n2L, 4L\n\n[[2]]\n-1L");
+        assertEval("{ gregexpr(\"aa\", \"aaaaa\", fixed=TRUE) }", "[[1]]\n1L, 3L");
+        assertEval("{ f <- function(p) regexpr(p, \"x1y22\") ; c(f(\"[0-9]+\"), f(\"y\"), f(\"[0-9]+\")) }", "2L, 3L, 2L");
     }
 
     @Test
@@ -628,6 +695,9 @@ public class TestSimpleBuiltins extends SimpleTestBase {
     public void testRev() throws RecognitionException {
         assertEval("{ rev(c(1+1i, 2+2i)) }", "2.0+2.0i, 1.0+1.0i");
         assertEval("{ rev(1:3) }", "3L, 2L, 1L");
+        assertEval("{ rev(10:2)[2:4] }", "3L, 4L, 5L");
+        assertEval("{ x <- 0 ; for (i in rev(1:4)) x <- x * 10 + i ; x }", "4321.0");
+        assertEval("{ rev(seq(0, 1, by=0.25)) }", "1.0, 0.75, 0.5, 0.25, 0.0");
     }
 
     @Test
@@ -775,6 +845,8 @@ public class TestSimpleBuiltins extends SimpleTestBase {
         assertEval("{ h <- new.env() ; assign(\"x\", 1, h) ; assign(\"x\", 1, h) ; get(\"x\", h) }", "1.0");
         assertEval("{ h <- new.env() ; assign(\"x\", 1, h) ; assign(\"x\", 2, h) ; get(\"x\", h) }", "2.0");
         assertEval("{ h <- new.env() ; u <- 1 ; assign(\"x\", u, h) ; assign(\"x\", u, h) ; get(\"x\", h) }", "1.0");
+        assertEval("{ h <- new.env(parent=emptyenv()) ; for (i in 1:100) { assign(sprintf(\"k%d\", i), i, h) } ; c(get(\"k1\", h), get(\"k50\", h), get(\"k100\", h), exists(\"k101\", h), length(ls(h))) }", "1L, 50L, 100L, 0L, 100L");
+        assertEval("{ h <- new.env(hash=TRUE, size=4L) ; for (i in 1:100) { assign(sprintf(\"k%d\", i), i, h) } ; for (i in 1:100) { assign(sprintf(\"k%d\", i), get(sprintf(\"k%d\", i), h) * 2L, h) } ; c(get(\"k1\", h), get(\"k100\", h), exists(\"k0\", h)) }", "2L, 200L, 0L");
 
         // top-level lookups
         assertEval("{ exists(\"sum\") }", "TRUE");
@@ -1044,6 +1116,16 @@ public class TestSimpleBuiltins extends SimpleTestBase {
         assertEval("{ sort(c(\"a\",\"A\",\"z\",\"Z\",\"   01\",\"01\",NA), na.last=TRUE, decreasing=FALSE) }", "\"   01\", \"01\", \"A\", \"Z\", \"a\", \"z\", NA");
         assertEval("{ sort(c(TRUE,NA,TRUE,NA,FALSE,TRUE,NA), na.last=FALSE, decreasing=FALSE) }", "NA, NA, NA, FALSE, TRUE, TRUE, TRUE");
         assertEval("{ sort(c(TRUE,NA,TRUE,NA,FALSE,TRUE,NA), na.last=NA, decreasing=TRUE) }", "TRUE, TRUE, TRUE, FALSE");
+        assertEval("{ sort(c(3,1,NA,2,0/0), decreasing=TRUE) }", "3.0, 2.0, 1.0");
+        assertEval("{ sort(c(3L,1L,NA,2L), decreasing=TRUE, na.last=TRUE) }", "3L, 2L, 1L, NA");
+        assertEval("{ sort(c(5,3,9,1,7,2,8), partial=4)[4] }", "5.0");
+        assertEval("{ x <- sort(c(5,3,9,1,7,2,8), partial=c(2,6)) ; c(x[2], x[6], max(x[1]) <= x[2], min(x[3:5]) >= x[2], max(x[3:5]) <= x[6]) }", "2.0, 8.0, 1.0, 1.0, 1.0");
+        assertEval("{ sort(c(5L,NA,9L,1L), partial=2, na.last=TRUE) }", "1L, 5L, 9L, NA");
+        assertEval("{ sort(c(b=\"d\",\"b\",\"a\",\"c\"), partial=c(1,4)) }", "\"a\", \"b\", \"c\", \"d\"");
+        assertEval("{ x <- ((1:10001) * 7919) %% 10007 / 3 ; sort(x, partial=5001)[5001] == sort(x)[5001] }", "TRUE");
+        assertEvalError("{ sort(1:3, partial=4) }", "index 4 outside bounds");
+        assertEvalError("{ sort(1:3, partial=NA) }", "non-finite 'partial'");
+        assertEvalError("{ sort(1:3, partial=1, decreasing=TRUE) }", "unsupported options for partial sorting");
     }
 
     @Test
@@ -1505,5 +1587,106 @@ public class TestSimpleBuiltins extends SimpleTestBase {
         assertEval("{ scan(file=\"test/r/simple/data/coldata/test_raw.inp\", what=as.raw(10)) }", "Read 11 items.\n", "10, 11, fe, 0e, ff, ff, ab, ab, 00, 00, ee");
         assertEvalError("{ scan(file=\"test/r/simple/data/coldata/test_raw_error.inp\", what=as.raw(10)) }", "scan() expected 'a raw', got 'X'");
         assertEvalError("{ scan(file=\"test/r/simple/data/coldata/test_raw.inp\", what=function(){3}) }", "invalid 'what' argument");
+        assertEval("{ options(internStrings=TRUE) ; x <- scan(file=\"test/r/simple/data/coldata/test_log.inp\", what=\"\") ; options(internStrings=FALSE) ; x[x == \"FALSE\"] }", "Read 6 items.\n", "\"FALSE\", \"FALSE\"");
+        assertEval("{ x <- scan(file=\"test/r/simple/data/coldata/test_dbl2.inp\", what=1, quiet=TRUE) ; all(x == as.double(c(\"0.1\", \"1e-5\", \"123.456e2\", \".5\", \"1.\", \"3.14159265358979\", \"1e22\", \"1e23\", \"00012\", \"-7\", \"+2.5E+3\", \"1e-400\"))) }", "TRUE");
+        assertEval("{ scan(file=\"test/r/simple/data/coldata/test_dbl2.inp\", what=1, nmax=2) }", "Read 2 items.\n", "0.1, 1.0E-5");
+        assertEval("{ sum(scan(file=\"test/r/simple/data/lines/numbers.txt\", what=1L, quiet=TRUE)) }", "3126250L");
+        assertEval("{ con <- pipe(\"seq 1 30000\", \"r\") ; n <- 0 ; x <- scan(con, 1L, nmax=7000, quiet=TRUE) ; while (length(x) > 0) { n <- n + sum(x) ; x <- scan(con, 1L, nmax=7000, quiet=TRUE) } ; close(con) ; n }", "4.50015E8");
+        assertEval("{ con <- file(\"test/r/simple/data/lines/numbers.txt\", \"r\") ; a <- scan(con, 1, nmax=2400, quiet=TRUE) ; b <- readLines(con) ; close(con) ; c(a[2400], length(b), as.double(b[2])) }", "2400.0, 101.0, 2401.0");
+    }
+
+    @Test
+    public void testReadLines() throws RecognitionException {
+        assertEval("{ readLines(\"test/r/simple/data/lines/crlf.txt\") }", "\"abc\", \"def\", \"\", \"last\"");
+        assertEval("{ x <- readLines(\"test/r/simple/data/lines/numbers.txt\") ; c(length(x), x[1], x[2500]) }", "\"2500L\", \"1\", \"2500\"");
+        assertEval("{ x <- readLines(\"test/r/simple/data/lines/numbers.txt\") ; x[2] <- \"a\" ; c(x[1:3], readLines(\"test/r/simple/data/lines/numbers.txt\")[2]) }", "\"1\", \"a\", \"3\", \"2\"");
+        assertEval("{ con <- file(\"test/r/simple/data/lines/numbers.txt\", \"r\") ; a <- readLines(con, 2000) ; b <- readLines(con, 1) ; d <- readLines(con) ; close(con) ; c(length(a), a[2000], b, length(d), d[499]) }", "\"2000L\", \"2000\", \"2001\", \"499L\", \"2500\"");
+        assertEvalError("{ readLines(\"test/r/simple/data/lines/crlf.txt\", n=5, ok=FALSE) }", "too few lines read in readLines");
+        assertEval("{ con <- file(\"test/r/simple/data/lines/numbers.txt\", \"r\") ; n <- 0 ; x <- readLines(con, 300) ; while (length(x) > 0) { n <- n + length(x) ; s <- x[length(x)] ; x <- readLines(con, 300) } ; close(con) ; c(n, as.double(s)) }", "2500.0, 2500.0");
+        assertEval("{ con <- pipe(\"seq 1 30000\", \"r\") ; n <- 0 ; x <- readLines(con, 1000) ; while (length(x) > 0) { n <- n + length(x) ; s <- x[length(x)] ; x <- readLines(con, 1000) } ; close(con) ; c(n, as.double(s)) }", "30000.0, 30000.0");
+        assertEval("{ options(internStrings=TRUE) ; x <- readLines(\"test/r/simple/data/lines/crlf.txt\") ; y <- readLines(\"test/r/simple/data/lines/numbers.txt\") ; options(internStrings=FALSE) ; c(x, y[2500], x == c(\"abc\", \"x\", \"\", \"last\")) }", "\"abc\", \"def\", \"\", \"last\", \"2500\", \"TRUE\", \"FALSE\", \"TRUE\", \"TRUE\"");
+        assertEval("{ options(internStrings=TRUE) ; con <- pipe(\"seq 1 3\", \"r\") ; x <- readLines(con) ; close(con) ; options(internStrings=FALSE) ; x %in% c(\"3\", \"1\") }", "TRUE, FALSE, TRUE");
+        assertEvalError("{ options(internStrings=NA) }", "invalid 'internStrings' argument");
+        java.io.File rewritten = new java.io.File("test/r/simple/data/lines/rewritten.txt");
+        try {
+            assertEval("{ f <- \"test/r/simple/data/lines/rewritten.txt\" ; writeBin(as.raw(c(97,98,99,10,100,101,102,10)), f) ; x <- readLines(f) ; writeBin(as.raw(c(120,121,122,10,117,118,119,10)), f) ; c(x, readLines(f)) }", "\"abc\", \"def\", \"xyz\", \"uvw\"");
+        } finally {
+            rewritten.delete();
+        }
+    }
+
+    @Test
+    public void testReadBin() throws RecognitionException {
+        assertEval("{ readBin(\"test/r/simple/data/bin/doubles.bin\", \"double\", 10, endian=\"little\") }", "1.5, -2.0, 0.25, 1.0E10");
+        assertEval("{ readBin(\"test/r/simple/data/bin/doubles.bin\", 1, endian=\"little\") }", "1.5");
+        assertEval("{ readBin(\"test/r/simple/data/bin/doubles.bin\", \"double\", 2147483647L, endian=\"little\") }", "1.5, -2.0, 0.25, 1.0E10");
+        assertEval("{ readBin(as.raw(c(1,0,0,0,255,255,255,255)), \"integer\", 2147483647L, endian=\"little\") }", "1L, -1L");
+        assertEval("{ con <- file(\"test/r/simple/data/bin/doubles.bin\", \"rb\") ; a <- readBin(con, 1, 3, endian=\"little\") ; b <- readBin(con, \"raw\", 100) ; close(con) ; list(a, b) }", "[[1]]\n1.5, -2.0, 0.25\n\n[[2]]\n00, 00, 00, 20, 5f, a0, 02, 42, 01, 02");
+        assertEval("{ readBin(as.raw(c(1,0,0,0,255,255,255,255)), \"integer\", 2, endian=\"little\") }", "1L, -1L");
+        assertEval("{ readBin(as.raw(c(1,0,255,255)), 1L, 2, size=2, endian=\"big\") }", "256L, -1L");
+        assertEval("{ readBin(as.raw(c(1,0,255,255)), 1L, 2, size=2, signed=FALSE, endian=\"little\") }", "1L, 65535L");
+        assertEval("{ readBin(as.raw(c(255,128)), \"int\", 5, size=1) }", "-1L, -128L");
+        assertEval("{ readBin(as.raw(c(1,0,0,0,0,0,0,0,2)), TRUE, 3, endian=\"little\") }", "TRUE, FALSE");
+        assertEvalError("{ readBin(as.raw(1), \"double\", 1, size=3) }", "size 3 is unknown on this machine");
+        assertEvalError("{ con <- file(\"test/r/simple/data/bin/doubles.bin\", \"r\") ; readBin(con, 1) }", "can only read from a binary connection");
+
+        java.io.File roundtrip = new java.io.File("test/r/simple/data/bin/roundtrip.bin");
+        try {
+            assertEval("{ f <- \"test/r/simple/data/bin/roundtrip.bin\" ; rt <- function(x, size, endian) { writeBin(x, f, size=size, endian=endian) ; readBin(f, x, length(x), size=size, endian=endian) } ; c(rt(c(1.5, NA, -2, 1e300), 8, \"little\"), rt(c(1.5, NA, -2, 1e300), 8, \"big\")) }", "1.5, NA, -2.0, 1.0E300, 1.5, NA, -2.0, 1.0E300");
+            assertEval("{ f <- \"test/r/simple/data/bin/roundtrip.bin\" ; rt <- function(x, size, endian) { writeBin(x, f, size=size, endian=endian) ; readBin(f, x, length(x), size=size, endian=endian) } ; c(rt(c(1.5, -2, 0.25), 4, \"little\"), rt(c(1.5, -2, 0.25), 4, \"big\")) }", "1.5, -2.0, 0.25, 1.5, -2.0, 0.25");
+            assertEval("{ f <- \"test/r/simple/data/bin/roundtrip.bin\" ; rt <- function(x, size, endian) { writeBin(x, f, size=size, endian=endian) ; readBin(f, x, length(x), size=size, endian=endian) } ; c(rt(c(1L, NA, -3L, 2147483647L), 4, \"little\"), rt(c(1L, NA, -3L, 2147483647L), 4, \"big\")) }", "1L, NA, -3L, 2147483647L, 1L, NA, -3L, 2147483647L");
+            assertEval("{ f <- \"test/r/simple/data/bin/roundtrip.bin\" ; rt <- function(x, size, endian) { writeBin(x, f, size=size, endian=endian) ; readBin(f, x, length(x), size=size, endian=endian) } ; c(rt(c(1L, NA, -3L, 2147483647L), 8, \"little\"), rt(c(1L, NA, -3L, 2147483647L), 8, \"big\")) }", "1L, NA, -3L, 2147483647L, 1L, NA, -3L, 2147483647L");
+            assertEval("{ f <- \"test/r/simple/data/bin/roundtrip.bin\" ; rt <- function(x, size, endian) { writeBin(x, f, size=size, endian=endian) ; readBin(f, x, length(x), size=size, endian=endian) } ; c(rt(c(1L, -3L, 32767L, -32768L), 2, \"little\"), rt(c(1L, -3L, 32767L, -32768L), 2, \"big\")) }", "1L, -3L, 32767L, -32768L, 1L, -3L, 32767L, -32768L");
+            assertEval("{ f <- \"test/r/simple/data/bin/roundtrip.bin\" ; rt <- function(x, size, endian) { writeBin(x, f, size=size, endian=endian) ; readBin(f, x, length(x), size=size, endian=endian) } ; c(rt(c(1L, -3L, 127L, -128L), 1, \"little\"), rt(c(1L, -3L, 127L, -128L), 1, \"big\")) }", "1L, -3L, 127L, -128L, 1L, -3L, 127L, -128L");
+            assertEval("{ f <- \"test/r/simple/data/bin/roundtrip.bin\" ; rt <- function(x, size, endian) { writeBin(x, f, size=size, endian=endian) ; readBin(f, x, length(x), size=size, endian=endian) } ; c(rt(c(TRUE, NA, FALSE), 4, \"little\"), rt(c(TRUE, NA, FALSE), 4, \"big\"), rt(c(TRUE, NA, FALSE), 8, \"little\"), rt(c(TRUE, NA, FALSE), 8, \"big\")) }", "TRUE, NA, FALSE, TRUE, NA, FALSE, TRUE, NA, FALSE, TRUE, NA, FALSE");
+            assertEval("{ f <- \"test/r/simple/data/bin/roundtrip.bin\" ; rt <- function(x, size, endian) { writeBin(x, f, size=size, endian=endian) ; readBin(f, x, length(x), size=size, endian=endian) } ; c(rt(c(TRUE, FALSE), 1, \"little\"), rt(c(FALSE, TRUE), 2, \"big\")) }", "TRUE, FALSE, FALSE, TRUE");
+        } finally {
+            roundtrip.delete();
+        }
+    }
+
+    @Test
+    public void testProfiling() throws RecognitionException {
+        assertEval("{ s <- summaryRprof(\"test/r/simple/data/prof/folded.out\", interval=0.5) ; s$by.self }", "main   f   g\n 2.0 1.5 1.5");
+        assertEval("{ s <- summaryRprof(\"test/r/simple/data/prof/folded.out\", interval=0.5) ; s$by.total }", "main   f   g\n 5.0 3.0 1.5");
+        assertEval("{ s <- summaryRprof(\"test/r/simple/data/prof/folded.out\") ; c(s$sample.interval, s$sampling.time) }", "0.02, 0.2");
+        java.io.File profile = new java.io.File("test/r/simple/data/prof/profile.out");
+        try {
+            assertEval("{ f <- function(n) if (n < 2) n else f(n - 1) + f(n - 2) ; Rprof(\"test/r/simple/data/prof/profile.out\", interval=0.001) ; x <- f(20) ; Rprof(NULL) ; s <- summaryRprof(\"test/r/simple/data/prof/profile.out\", interval=0.001) ; c(x, s$sampling.time >= 0, length(s$by.self) <= 1) }", "6765.0, 1.0, 1.0");
+            // many short calls returning while the stacks are sampled
+            assertEval("{ f <- function(n) if (n < 2) n else f(n - 1) + f(n - 2) ; g <- function(x) x ; Rprof(\"test/r/simple/data/prof/profile.out\", interval=0.001) ; for (i in 1:30) { x <- f(18) ; for (j in 1:2000) g(j) } ; Rprof(NULL) ; s <- summaryRprof(\"test/r/simple/data/prof/profile.out\", interval=0.001) ; c(x, s$sampling.time > 0, all(names(s$by.total) %in% c(\"f\", \"g\"))) }", "2584.0, 1.0, 1.0");
+            assertEvalError("{ Rprof(\"test/r/simple/data/prof/profile.out\", interval=\"a\") }", "invalid 'interval' argument");
+        } finally {
+            profile.delete();
+        }
+        assertEval("{ Rprof(NULL) }", "NULL");
+        assertEvalError("{ summaryRprof(\"test/r/simple/data/prof/nonexistent.out\") }", "cannot open file 'test/r/simple/data/prof/nonexistent.out'");
+    }
+    @Test
+    public void testMemoryTrace() throws RecognitionException {
+        assertEval("{ copySites(reset=TRUE) ; options(traceCopies=TRUE) ; x <- c(1,2,3) ; y <- x ; y[1] <- 10 ; y[2] <- 20 ; z <- x + 1 ; z[2] <- 5 ; options(traceCopies=FALSE) ; s <- copySites(reset=TRUE) ; list(s$site, s$kind, s$count, s$bytes) }", "[[1]]\n\"y[1.0] <- 10.0\", \"z[2.0] <- 5.0\"\n\n[[2]]\n\"copy\", \"copy VectorScalar\"\n\n[[3]]\n1.0, 1.0\n\n[[4]]\n24.0, 24.0");
+        assertEval("{ copySites(reset=TRUE) ; options(traceCopies=TRUE) ; x <- c(3,1,2) ; for (i in 1:3) o <- cumsum(x * 2) ; options(traceCopies=FALSE) ; s <- copySites() ; list(s$site, s$kind, s$count, s$bytes) }", "[[1]]\n\"cumsum(x * 2.0)\"\n\n[[2]]\n\"materialize VectorScalar\"\n\n[[3]]\n3.0\n\n[[4]]\n72.0");
+        assertEval("{ copySites(reset=TRUE) ; x <- c(1,2,3) ; y <- x ; y[1] <- 10 ; length(copySites()$site) }", "0L");
+        assertEval("{ x <- c(1,2,3) ; t <- tracemem(x) ; u <- tracemem(x) ; untracemem(x) ; c(t == u, substr(t, 1, 3) == \"<0x\") }", "TRUE, TRUE");
+        assertEval("{ x <- c(1,2,3) ; tracemem(x) ; untracemem(x) ; y <- x ; y[1] <- 10 ; y }", "10.0, 2.0, 3.0");
+        // the marks are addresses, so the expected output is built from the marks returned (tracemem of a marked copy
+        // returns its mark)
+        TestBase.EvalResult traced = testEval("{ x <- c(1,2,3) ; a <- tracemem(x) ; y <- x ; y[1] <- 10 ; z <- y ; z[2] <- 5 ; m <- c(a, tracemem(y), tracemem(z)) ; untracemem(x) ; untracemem(y) ; untracemem(z) ; m }", false);
+        String[] marks = traced.result.replace("\"", "").split(", ");
+        Assert.assertEquals(3, marks.length);
+        Assert.assertEquals("tracemem[" + marks[0] + " -> " + marks[1] + "]: y[1.0] <- 10.0\ntracemem[" + marks[1] + " -> " + marks[2] + "]: z[2.0] <- 5.0\n", traced.stdout);
+        assertEvalError("{ options(traceCopies=NA) }", "invalid 'traceCopies' argument");
+        assertEvalError("{ tracemem(NULL) }", "cannot trace NULL");
+        assertEvalError("{ tracemem(sum) }", "argument must not be a function");
+        assertEvalError("{ tracemem(function(x) x) }", "argument must not be a function");
+        assertEvalError("{ tracemem(globalenv()) }", "'tracemem' is not useful for promise and environment objects");
+    }
+    @Test
+    public void testRewriteTrace() throws RecognitionException {
+        assertEval("{ rewriteSites(reset=TRUE) ; options(traceRewrites=TRUE) ; f <- function(a, b) a + b ; f(1, 2) ; f(1L, 2L) ; f(1+2i, 1) ; options(traceRewrites=FALSE) ; s <- rewriteSites(threshold=100, reset=TRUE) ; list(s$site, s$generic, s$reason) }", "[[1]]\n\"a + b\"\n\n[[2]]\nTRUE\n\n[[3]]\n\"install Specialized<Generic, Generic> from Specialized\"");
+        assertEval("{ rewriteSites(reset=TRUE) ; options(traceRewrites=TRUE) ; f <- function(a, b) a - b ; f(1, 2) ; f(3, 4) ; options(traceRewrites=FALSE) ; length(rewriteSites(threshold=100, reset=TRUE)$site) }", "0L");
+        assertEval("{ rewriteSites(reset=TRUE) ; options(traceRewrites=TRUE) ; f <- function(a, b) if (a > b) a else b * 2 ; f(1, 2) ; f(3, 4) ; options(traceRewrites=FALSE) ; length(rewriteSites(threshold=0, reset=TRUE)$site) }", "0L");
+        assertEval("{ rewriteSites(reset=TRUE) ; f <- function(a, b) a * b ; f(1, 2) ; f(1L, 2L) ; f(1+2i, 1) ; length(rewriteSites(threshold=0)$site) }", "0L");
+        assertEvalError("{ rewriteSites(threshold=-1) }", "invalid 'threshold' argument");
     }
 }
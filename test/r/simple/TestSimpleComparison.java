@@ -51,6 +51,9 @@ public class TestSimpleComparison extends SimpleTestBase {
         assertEval("\"hello\" != \"hello\"", "FALSE");
         assertEval("{ \"a\" <= \"b\" }", "TRUE");
         assertEval("{ \"a\" > \"b\" }", "FALSE");
+        assertEval("{ x <- substr(c(\"a1x\", \"a2x\", NA), 1, 2) ; c(x == \"a2\", x < \"a2\", \"a2\" <= x) }", "FALSE, TRUE, NA, TRUE, FALSE, NA, FALSE, TRUE, NA");
+        assertEval("{ x <- paste(\"a\", c(\"1\", \"2\", \"3\", \"4\"), sep=\"\") ; y <- paste(\"a\", c(\"2\", \"2\"), sep=\"\") ; c(x != y, x >= y) }", "TRUE, FALSE, TRUE, TRUE, FALSE, TRUE, TRUE, TRUE");
+        assertEval("{ x <- paste(\"a\", c(\"b\", \"\u00e9\"), sep=\"\") ; x > \"a\u20ac\" }", "FALSE, FALSE");
         assertEval("{ \"2.0\" == 2 }", "TRUE"); // FIXME: incompatible with R because of fastr's character representation of numbers
 
         assertEval("{ as.raw(15) > as.raw(10) }", "TRUE");
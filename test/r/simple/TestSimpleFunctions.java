@@ -114,6 +114,18 @@ public class TestSimpleFunctions extends SimpleTestBase {
         // Fibonacci numbers
         assertEval("{ f<-function(i) { if (i==1) { 1 } else if (i==2) { 1 } else { f(i-1) + f(i-2) } } ; f(10) }", "55.0");
         assertEval("{ f<-function(i) { if (i==1L) { 1L } else if (i==2L) { 1L } else { f(i-1L) + f(i-2L) } } ; f(10L) }", "55L");
+
+        // tail calls
+        assertEval("{ f <- function(n, acc) { acc <- acc + 1 ; if (n == 0) acc else f(n - 1, acc) } ; f(100000, 0) }", "100001.0");
+        assertEval("{ f <- function(n) { if (n == 0) return(0) ; return(f(n - 1)) } ; f(100000) }", "0.0");
+        assertEval("{ f <- function(n, x) { x[n] <- n ; if (n == 1) x else f(n - 1, x) } ; z <- c(1,2,3) ; c(f(3, z), z) }", "1.0, 2.0, 3.0, 1.0, 2.0, 3.0");
+        assertEval("{ f <- function(n, g) { if (n == 0) g() else f(n - 1, function() n) } ; c(f(3, function() 42), f(0, function() 42)) }", "1.0, 42.0");
+        assertEval("{ f <- function(n, a) { if (n == 0) a else f(n - 1, a * 2) } ; f(20, 1) }", "1048576.0");
+
+        // recursion limit
+        assertEvalError("{ f <- function(n) n + f(n - 1) ; f(1) }", "evaluation nested too deeply: infinite recursion / options(expressions=)?");
+        assertEval("{ f <- function(n) if (n == 0) 0 else 1 + f(n - 1) ; options(expressions=100) ; r <- f(50) ; options(expressions=5000) ; r }", "50.0");
+        assertEvalError("{ options(expressions=10) }", "invalid 'expressions' parameter, allowed 25...500000");
     }
 
     @Test
@@ -126,6 +138,20 @@ public class TestSimpleFunctions extends SimpleTestBase {
             assertEval("{ f <- function(a) { g <- function(b) { a <<- 3; b } ; g(a) } ; x <- 1 ; f(x) }", "3.0");
             assertEval("{ f <- function(x) { function() {x} } ; a <- 1 ; b <- f(a) ; a <- 10 ; b() }", "10.0");
             assertEvalError("{ f <- function(x = y, y = x) { y } ; f() }", "promise already under evaluation: recursive default argument reference?");
+            assertEval("{ f <- function(a) { a[1] <- 10 ; a } ; x <- c(1,2) ; y <- f(x) ; c(x, y) }", "1.0, 2.0, 10.0, 2.0");
+            assertEval("{ f <- function(v) v[1] ; x <- c(1,2,3) ; for (i in 1:3) { f(x) ; x[i] <- i * 10 } ; x }", "10.0, 20.0, 30.0");
+            assertEval("{ f <- function(a) function() a ; x <- c(1,2) ; g <- f(x) ; g() ; x[1] <- 9 ; c(g(), x) }", "1.0, 2.0, 9.0, 2.0");
+            assertEval("{ id <- function(a) a ; f <- function(a) { id(a) ; function() a } ; x <- c(1,2) ; g <- f(x) ; x[2] <- 7 ; c(g(), x) }", "1.0, 2.0, 1.0, 7.0");
+            assertEval("{ g <- function(a) { a[1] <- 5 ; a } ; f <- function(...) { sum(...) ; g(...) } ; x <- c(1,2) ; y <- f(x) ; c(x, y) }", "1.0, 2.0, 5.0, 2.0");
+            assertEval("{ f <- function() { v <- c(1,2) ; w <- v ; v[1] <- 3 ; c(v, w) } ; f() }", "3.0, 2.0, 1.0, 2.0");
+            assertEval("{ f <- function() c(1,2,3) ; x <- f() ; y <- x ; x[1] <- 100 ; c(x, y) }", "100.0, 2.0, 3.0, 1.0, 2.0, 3.0");
+            assertEval("{ h <- function() { x <- 1 ; k <- function(a) { x <<- 2 ; a } ; k(x) } ; h() }", "2.0");
+            assertEval("{ d <- function(v) deparse(substitute(v)) ; f <- function() { zz <- 3 ; d(zz) } ; f() }", "\"zz\"");
+            assertEval("{ d <- function(v) deparse(substitute(v)) ; p <- function(...) d(...) ; f <- function() { yy <- 1 ; p(yy) } ; f() }", "\"yy\"");
+            assertEval("{ m <- function(a) missing(a) ; f <- function(q) m(q) ; f() }", "TRUE");
+            assertEval("{ s <- function(a, b) { b ; a } ; f <- function() { x <- 1 ; s(x, x <- 5) } ; f() }", "5.0");
+            assertEval("{ mk <- function(a) function() a ; f <- function() { x <- 1 ; g <- mk(x) ; x <- 2 ; g() } ; f() }", "2.0");
+            assertEval("{ g <- function(a) { a[2] <- 7 ; a } ; f <- function() { r <- NULL ; for (i in 1:2) { x <- c(1,2) ; r <- c(r, g(x), g(c(3,4)), x) } ; r } ; f() }", "1.0, 7.0, 3.0, 7.0, 1.0, 2.0, 1.0, 7.0, 3.0, 7.0, 1.0, 2.0");
         }
     }
 
@@ -136,6 +162,8 @@ public class TestSimpleFunctions extends SimpleTestBase {
         assertEvalError("{ f <- function(hello, hi) { hello + hi } ; f(h = 1) }", "argument 1 matches multiple formal arguments");
         assertEvalError("{ f <- function(hello, hi) { hello + hi } ; f(hello = 1, bye = 3) }", "unused argument(s) (bye = 3.0)");
         assertEvalError("{ f <- function(a) { a } ; f(1,2) }", "unused argument(s) (2.0)");
+        assertEval("{ fs <- list(function(a, b) a - b, function(b, a) a - b, function(x, b) x, function(a, b = 2) a * b, function(q, b) q, function(b, ...) b) ; r <- NULL ; for (k in 1:2) for (f in fs) r <- c(r, f(b = 1, 3)) ; r }", "2.0, 2.0, 3.0, 3.0, 3.0, 1.0, 2.0, 2.0, 3.0, 3.0, 3.0, 1.0");
+        assertEval("{ f <- function(a, b) a - b ; g <- function(b, a) a - b ; h <- function(fn) fn(b = 5, a = 1) ; c(h(f), h(g), h(f)) }", "-4.0, -4.0, -4.0");
     }
 
     @Test
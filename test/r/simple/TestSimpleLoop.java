@@ -46,6 +46,18 @@ public class TestSimpleLoop extends SimpleTestBase {
         assertEval("{ i <- 0L ; while(i < 3L) { i <- i + 1 ; if (i == 1) { next } ; if (i==3) { break } ; x <- i ; if (i==4) { x <- 10 } } ; x }", "2.0");
 
         assertEval("{ i <- 1 ; r <- NULL ; for(v in list(NA,1)) { r[i] <- typeof(v) ; i <- i + 1 } ; r }", "\"logical\", \"double\"");
+
+        // local scalars kept unboxed
+        assertEval("{ f <- function(n) { s <- 0 ; k <- 0L ; for(i in 1:n) { s <- s + i * 0.5 ; k <- k + i } ; c(s, k) } ; f(10) ; f(4) }", "5.0, 10.0");
+        assertEval("{ f <- function() { x <- 1 ; g <- function() x ; x <- x + 1 ; r <- g() ; x <- x * 10 ; c(r, g()) } ; f() }", "2.0, 20.0");
+        assertEval("{ f <- function() { x <- 1 ; y <- x ; for(i in 1:3) { x <- x + 1 } ; c(x, y) } ; f() }", "4.0, 1.0");
+        assertEval("{ f <- function() { x <- 1L ; for(i in 1:3) { x <- x + i } ; x <- x / 2L ; x } ; f() }", "3.5");
+        assertEval("{ f <- function() { x <- 1 ; for(i in 1:4) { if (i == 4) { x <- \"a\" } else { x <- x + 1 } } ; x } ; f() }", "\"a\"");
+        assertEval("{ f <- function() { x <- 2 ; for(i in 1:2) { x <- x * 3 } ; get(\"x\") } ; f() }", "18.0");
+        assertEval("{ f <- function() { b <- TRUE ; for(i in 1:3) { b <- !b } ; b } ; f() }", "FALSE");
+        assertEval("{ f <- function() { x <- 1 ; for(i in 1:3) { x <- x + NA } ; x } ; f() }", "NA");
+        assertEval("{ f <- function() { l <- list() ; for(i in 1:3) { j <- i * 2L ; l[[i]] <- j } ; l } ; f() }", "[[1]]\n2L\n\n[[2]]\n4L\n\n[[3]]\n6L");
+        assertEval("{ f <- function(a) { for(i in 1:3) { a <- a + i } ; a } ; f(1) ; f(1L) }", "7L");
     }
 
     @Test
@@ -1057,6 +1057,9 @@ public class TestSimpleVectors extends SimpleTestBase {
         assertEval("{ c(\"1L\",\"hello\") %in% 1:10 }", "TRUE, FALSE");
         assertEval("{ (1 + 2i) %in% c(1+10i, 1+4i, 2+2i, 1+2i) }", "TRUE");
         assertEval("{ as.logical(-1:1) %in% TRUE }", "TRUE, FALSE, TRUE");
+        assertEval("{ x <- paste(\"a\", c(\"1\", \"2\", \"3\", \"4\", \"5\"), sep=\"\") ; c(\"a2\", \"b\", \"a5\") %in% x }", "TRUE, FALSE, TRUE");
+        assertEval("{ x <- paste(\"a\", c(\"1\", \"2\", \"3\", \"4\", \"5\"), sep=\"\") ; x %in% paste(\"a\", c(\"2\", \"4\", NA), sep=\"\") }", "FALSE, TRUE, FALSE, TRUE, FALSE");
+        assertEval("{ c(\"x\", NA, \"y\") %in% paste(c(\"x\", NA), \"\", sep=\"\") }", "TRUE, FALSE, FALSE");
         assertEvalError("{ x <- function(){1} ; x %in% TRUE }", "'match' requires vector arguments");
     }
 